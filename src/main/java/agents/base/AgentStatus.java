@@ -1,4 +1,7 @@
 package agents.base;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 import java.util.HashMap;
 import java.time.LocalDateTime;
@@ -96,6 +99,58 @@ public class AgentStatus {
         return new HashMap<>(properties);
     }
     
+    /**
+     * Écrit le statut dans un cliché ; seules les propriétés texte, numériques et booléennes sont conservées
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(currentLocation);
+        out.writeBoolean(isActive);
+        out.writeBoolean(isAvailable);
+        int count = 0;
+        for (Object value : properties.values()) {
+            if (isSimple(value)) count++;
+        }
+        out.writeInt(count);
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            Object value = entry.getValue();
+            if (!isSimple(value)) continue;
+            out.writeUTF(entry.getKey());
+            if (value instanceof Boolean) {
+                out.writeByte('B');
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Integer || value instanceof Long) {
+                out.writeByte(value instanceof Integer ? 'I' : 'J');
+                out.writeLong(((Number) value).longValue());
+            } else if (value instanceof Number) {
+                out.writeByte('D');
+                out.writeDouble(((Number) value).doubleValue());
+            } else {
+                out.writeByte('S');
+                out.writeUTF(value.toString());
+            }
+        }
+    }
+    
+    public static AgentStatus readFrom(DataInput in) throws IOException {
+        AgentStatus status = new AgentStatus(in.readUTF(), in.readBoolean(), in.readBoolean());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            switch (in.readByte()) {
+                case 'B': status.properties.put(key, in.readBoolean()); break;
+                case 'I': status.properties.put(key, (int) in.readLong()); break;
+                case 'J': status.properties.put(key, in.readLong()); break;
+                case 'D': status.properties.put(key, in.readDouble()); break;
+                default: status.properties.put(key, in.readUTF()); break;
+            }
+        }
+        return status;
+    }
+    
+    private static boolean isSimple(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean;
+    }
+    
     @Override
     public String toString() {
         return String.format("AgentStatus[location=%s, active=%s, available=%s, lastUpdate=%s]",
@@ -6,6 +6,10 @@ import jade.domain.DFService;
 import jade.domain.FIPAException;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
+import utils.DirectoryCache;
+import utils.ServiceFinder;
+import utils.SimulationClock;
+import utils.TimerWheel;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -17,6 +21,7 @@ public abstract class BaseAgent extends Agent {
     protected Logger logger;
     protected AgentStatus status;
     protected String agentType;
+    protected MessageRouter router;
     
     @Override
     protected void setup() {
@@ -29,15 +34,22 @@ public abstract class BaseAgent extends Agent {
         
         // Configuration spécifique de l'agent
         configureAgent();
+        SimulationSnapshot.register(this);
         
         // Enregistrement du service
         registerService();
         
+        // Routage des messages : routes spécifiques puis gestion générique
+        router = new MessageRouter();
+        configureRoutes(router);
+        router.otherwise(this::handleMessage);
+        
         // Ajout des comportements de base
         addBaseBehaviours();
         
         // Configuration spécifique
         setupSpecificBehaviours();
+        SimulationClock.setupDone(this);
     }
     
     /**
@@ -51,16 +63,12 @@ public abstract class BaseAgent extends Agent {
     protected abstract void configureAgent();
     
     /**
-     * Enregistrement du service dans les Pages Jaunes
+     * Enregistrement du service dans les Pages Jaunes, sans bloquer le setup
+     * (un échec est journalisé par {@link ServiceFinder#registerAsync})
      */
     protected void registerService() {
-        try {
-            DFAgentDescription dfd = createServiceDescription();
-            DFService.register(this, dfd);
-            logger.info("Service " + agentType + " enregistré pour " + getLocalName());
-        } catch (FIPAException fe) {
-            logger.severe("Erreur enregistrement service: " + fe.getMessage());
-        }
+        ServiceFinder.registerAsync(this, createServiceDescription());
+        logger.info("Inscription du service " + agentType + " demandée pour " + getLocalName());
     }
     
     /**
@@ -82,7 +90,14 @@ public abstract class BaseAgent extends Agent {
     protected abstract void setupSpecificBehaviours();
     
     /**
-     * Gestion générique des messages
+     * Enregistre les routes de messages propres à l'agent
+     */
+    protected void configureRoutes(MessageRouter router) {
+        // Aucune route par défaut : tout passe par handleMessage
+    }
+    
+    /**
+     * Gestion générique des messages sans route dédiée
      */
     protected abstract void handleMessage(jade.lang.acl.ACLMessage message);
     
@@ -101,6 +116,13 @@ public abstract class BaseAgent extends Agent {
         return status;
     }
     
+    /**
+     * Récupération du routeur de messages
+     */
+    public MessageRouter getRouter() {
+        return router;
+    }
+    
     /**
      * Récupération du type d'agent
      */
@@ -113,6 +135,9 @@ public abstract class BaseAgent extends Agent {
      */
     @Override
     protected void takeDown() {
+        SimulationSnapshot.unregister(this);
+        TimerWheel.release(this);
+        DirectoryCache.release(this);
         try {
             DFService.deregister(this);
             logger.info("Agent " + getLocalName() + " désenregistré et terminé");
@@ -135,7 +160,7 @@ public abstract class BaseAgent extends Agent {
         jade.lang.acl.ACLMessage message = new jade.lang.acl.ACLMessage(performative);
         message.addReceiver(receiver);
         message.setContent(content);
-        send(message);
+        send(VisitorAddress.route(message));
         logger.fine("Message envoyé à " + receiver.getLocalName() + ": " + content);
     }
     
@@ -0,0 +1,172 @@
+package agents.base;
+
+import agents.protocol.MessageCodec;
+import agents.protocol.ProtocolMessage;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.ServiceException;
+import jade.core.messaging.TopicManagementHelper;
+import jade.lang.acl.ACLMessage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canal de diffusion vers un groupe d'agents.
+ * Une diffusion est encodée une fois et ne coûte qu'un appel à send().
+ * Si le conteneur charge le TopicManagementService, le groupe est un topic
+ * JADE auquel le propriétaire abonne les membres : le service duplique le
+ * message pour chaque abonné. Sinon le message porte tous les destinataires
+ * (JADE recopie alors la liste des destinataires pour chacun d'eux, ce qui
+ * reste acceptable pour de petits groupes).
+ * Les visiteurs d'une cohorte sont abonnés au topic par leur cohorte, une
+ * seule fois quel que soit leur nombre (voir {@link VisitorAddress}).
+ */
+public class GroupChannel {
+    /** Services optionnels à déclarer dans le profil des conteneurs pour activer les topics */
+    public static final String CONTAINER_SERVICES =
+        "jade.core.mobility.AgentMobilityService;" +
+        "jade.core.event.NotificationService;" +
+        "jade.core.messaging.TopicManagementService";
+
+    private final Agent owner;
+    private final List<AID> members;
+    private final TopicManagementHelper topicHelper;
+    private final AID topic;
+    // Abonnés réels au topic -> nombre de membres qu'ils représentent
+    private final Map<AID, Integer> subscribers = new HashMap<>();
+
+    // Statistiques de diffusion
+    private long broadcasts;
+    private long deliveries;
+
+    public GroupChannel(Agent owner) {
+        this(owner, null, Collections.emptyList());
+    }
+
+    /**
+     * @param topicName nom du topic du groupe, null pour toujours utiliser l'envoi multi-destinataires
+     */
+    public GroupChannel(Agent owner, String topicName, Collection<AID> members) {
+        this.owner = owner;
+        this.members = new ArrayList<>();
+        this.topicHelper = topicName != null ? findTopicHelper(owner) : null;
+        this.topic = topicHelper != null ? topicHelper.createTopic(topicName) : null;
+
+        for (AID member : members) {
+            add(member);
+        }
+    }
+
+    private static TopicManagementHelper findTopicHelper(Agent owner) {
+        try {
+            return (TopicManagementHelper) owner.getHelper(TopicManagementHelper.SERVICE_NAME);
+        } catch (ServiceException e) {
+            // Service non chargé dans ce conteneur
+            return null;
+        }
+    }
+
+    /**
+     * Diffuse un contenu texte à tout le groupe
+     */
+    public void broadcast(int performative, String content) {
+        if (members.isEmpty()) return;
+        ACLMessage msg = newMessage(performative);
+        msg.setContent(content);
+        send(msg);
+    }
+
+    /**
+     * Diffuse un message typé à tout le groupe (un seul encodage)
+     */
+    public void broadcast(int performative, ProtocolMessage content) {
+        if (members.isEmpty()) return;
+        ACLMessage msg = newMessage(performative);
+        MessageCodec.write(msg, content);
+        send(msg);
+    }
+
+    private ACLMessage newMessage(int performative) {
+        ACLMessage msg = new ACLMessage(performative);
+        if (topic != null) {
+            msg.addReceiver(topic);
+        } else {
+            for (AID member : members) {
+                msg.addReceiver(member);
+            }
+        }
+        return msg;
+    }
+
+    private void send(ACLMessage msg) {
+        owner.send(VisitorAddress.route(msg));
+        broadcasts++;
+        deliveries += members.size();
+    }
+
+    // Gestion des membres
+
+    public void add(AID member) {
+        if (members.contains(member)) return;
+        if (topic != null) {
+            AID subscriber = VisitorAddress.endpointOf(member);
+            if (!subscribers.containsKey(subscriber)) {
+                try {
+                    topicHelper.register(subscriber, topic);
+                } catch (ServiceException e) {
+                    System.err.println("Abonnement au topic " + topic.getLocalName() +
+                                     " impossible pour " + member.getLocalName() + ": " + e.getMessage());
+                    return;
+                }
+            }
+            subscribers.merge(subscriber, 1, Integer::sum);
+        }
+        members.add(member);
+    }
+
+    public void remove(AID member) {
+        if (!members.remove(member) || topic == null) return;
+        AID subscriber = VisitorAddress.endpointOf(member);
+        // La cohorte reste abonnée tant qu'un de ses visiteurs est membre
+        if (subscribers.merge(subscriber, -1, Integer::sum) > 0) return;
+        subscribers.remove(subscriber);
+        try {
+            topicHelper.deregister(subscriber, topic);
+        } catch (ServiceException e) {
+            // Membre déjà parti : rien à désabonner
+        }
+    }
+
+    public void clear() {
+        for (AID member : new ArrayList<>(members)) {
+            remove(member);
+        }
+    }
+
+    public boolean contains(AID member) {
+        return members.contains(member);
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    public List<AID> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * Vrai si les diffusions passent par un topic JADE
+     */
+    public boolean isTopicBased() {
+        return topic != null;
+    }
+
+    // Statistiques
+    public long getBroadcastCount() { return broadcasts; }
+    public long getDeliveryCount() { return deliveries; }
+}
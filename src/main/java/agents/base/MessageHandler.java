@@ -1,45 +1,142 @@
 package agents.base;
+import jade.core.Agent;
 import jade.core.behaviours.CyclicBehaviour;
 import jade.lang.acl.ACLMessage;
 import jade.lang.acl.MessageTemplate;
+import java.util.concurrent.atomic.LongAdder;
+import utils.EventJournal;
+import utils.SimulationClock;
 
 /**
- * Comportement cyclique pour la gestion des messages de base
+ * Répartiteur unique de la boîte aux lettres d'un agent.
+ * Vide la file par lots et aiguille chaque message via le {@link MessageRouter}
+ * au lieu de laisser plusieurs comportements filtrer la file chacun de leur côté.
  */
 public class MessageHandler extends CyclicBehaviour {
+    public static final int DEFAULT_BATCH_SIZE = 32;
+
+    // Total de la JVM, tous agents confondus (mesures de débit globales)
+    private static final LongAdder TOTAL_DRAINED = new LongAdder();
+
     private final BaseAgent agent;
-    
+    private final MessageRouter router;
+    private final MessageTemplate template;
+    private final int batchSize;
+
+    // Métriques de vidage de la file
+    private long messagesDrained;
+    private long batches;
+    private int largestBatch;
+    private long busyNanos;
+
     public MessageHandler(BaseAgent agent) {
-        this.agent = agent;
+        this(agent, agent.getRouter());
+    }
+
+    public MessageHandler(Agent agent, MessageRouter router) {
+        this(agent, router, excludeDirectoryReplies(agent), DEFAULT_BATCH_SIZE);
+    }
+
+    public MessageHandler(Agent agent, MessageRouter router, MessageTemplate template, int batchSize) {
+        super(agent);
+        this.agent = agent instanceof BaseAgent ? (BaseAgent) agent : null;
+        this.router = router;
+        this.template = template;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Laisse les réponses du DF et de l'AMS aux comportements de protocole qui les attendent
+     */
+    public static MessageTemplate excludeDirectoryReplies(Agent agent) {
+        return MessageTemplate.not(MessageTemplate.or(
+            MessageTemplate.MatchSender(agent.getDefaultDF()),
+            MessageTemplate.MatchSender(agent.getAMS())
+        ));
     }
-    
+
+    @Override
+    public void onStart() {
+        SimulationClock.track(myAgent);
+    }
+
     @Override
     public void action() {
-        ACLMessage message = myAgent.receive();
-        
-        if (message != null) {
-            // Log du message reçu
-            agent.logger.fine("Message reçu de " + message.getSender().getLocalName() + 
-                            ": " + message.getContent());
-            
-            // Déléguer le traitement à l'agent spécifique
-            agent.handleMessage(message);
+        SimulationClock.enter();
+        try {
+            drain();
+        } finally {
+            SimulationClock.exit();
+        }
+    }
+
+    private void drain() {
+        long start = System.nanoTime();
+        int drained = 0;
+
+        ACLMessage message;
+        while (drained < batchSize && (message = myAgent.receive(template)) != null) {
+            if (agent != null) {
+                // Log du message reçu
+                agent.logger.fine("Message reçu de " + message.getSender().getLocalName() +
+                                ": " + message.getContent());
+            }
+
+            EventJournal.message(myAgent, message);
+            router.dispatch(message);
+            drained++;
+        }
+
+        if (drained > 0) {
+            messagesDrained += drained;
+            TOTAL_DRAINED.add(drained);
+            batches++;
+            largestBatch = Math.max(largestBatch, drained);
+            busyNanos += System.nanoTime() - start;
+            // Lot plein : d'autres messages attendent, on repasse sans bloquer
         } else {
             block();
         }
     }
-    
+
     /**
      * Filtre les messages selon un template
      */
     protected ACLMessage receiveFiltered(MessageTemplate template) {
         return myAgent.receive(template);
     }
-    
+
     /**
      * Vérifie si un message correspond à un pattern
      */
     protected boolean matchesPattern(ACLMessage message, String pattern) {
         return message.getContent() != null && message.getContent().startsWith(pattern);
     }
-}
\ No newline at end of file
+
+    // Métriques
+    public static long getTotalMessagesDrained() { return TOTAL_DRAINED.sum(); }
+    public long getMessagesDrained() { return messagesDrained; }
+    public long getBatches() { return batches; }
+    public int getLargestBatch() { return largestBatch; }
+
+    /**
+     * Taille moyenne des lots vidés
+     */
+    public double getAverageBatchSize() {
+        return batches == 0 ? 0 : (double) messagesDrained / batches;
+    }
+
+    /**
+     * Débit de vidage (messages par seconde de traitement)
+     */
+    public double getDrainRate() {
+        return busyNanos == 0 ? 0 : messagesDrained * 1e9 / busyNanos;
+    }
+
+    public void resetMetrics() {
+        messagesDrained = 0;
+        batches = 0;
+        largestBatch = 0;
+        busyNanos = 0;
+    }
+}
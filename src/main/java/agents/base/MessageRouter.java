@@ -0,0 +1,107 @@
+package agents.base;
+
+import agents.protocol.MessageCodec;
+import agents.protocol.MessageKind;
+import jade.lang.acl.ACLMessage;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Routeur de messages partagé par les agents du musée.
+ * Les gestionnaires s'enregistrent par {@link MessageKind} ; l'aiguillage se
+ * fait par l'opcode (binaire) ou le hash du jeton (texte), soit un accès
+ * direct à un tableau quel que soit le nombre de routes enregistrées.
+ */
+public class MessageRouter {
+    private static final int TABLE_SIZE = 128;
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private final Consumer<ACLMessage>[] routes = new Consumer[TABLE_SIZE];
+    private final long[] counters = new long[TABLE_SIZE];
+    private Consumer<ACLMessage> fallback;
+    private long unroutedCount;
+
+    /**
+     * Enregistre le gestionnaire d'un type de message
+     */
+    public MessageRouter on(MessageKind kind, Consumer<ACLMessage> handler) {
+        routes[kind.getCode()] = handler;
+        return this;
+    }
+
+    /**
+     * Gestionnaire des messages sans route (type inconnu ou non enregistré)
+     */
+    public MessageRouter otherwise(Consumer<ACLMessage> handler) {
+        this.fallback = handler;
+        return this;
+    }
+
+    /**
+     * Aiguille un message vers son gestionnaire
+     * @return true si une route (ou le gestionnaire par défaut) l'a traité
+     */
+    public boolean dispatch(ACLMessage msg) {
+        MessageKind kind = MessageCodec.kindOf(msg);
+        if (kind != null) {
+            Consumer<ACLMessage> handler = routes[kind.getCode()];
+            if (handler != null) {
+                counters[kind.getCode()]++;
+                handler.accept(msg);
+                return true;
+            }
+        }
+
+        unroutedCount++;
+        if (fallback != null) {
+            fallback.accept(msg);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie si une route existe pour un type
+     */
+    public boolean hasRoute(MessageKind kind) {
+        return routes[kind.getCode()] != null;
+    }
+
+    /**
+     * Nombre de messages traités par la route d'un type
+     */
+    public long getCount(MessageKind kind) {
+        return counters[kind.getCode()];
+    }
+
+    /**
+     * Nombre de messages sans route
+     */
+    public long getUnroutedCount() {
+        return unroutedCount;
+    }
+
+    /**
+     * Compteurs par route (types ayant reçu au moins un message)
+     */
+    public Map<MessageKind, Long> getCounters() {
+        Map<MessageKind, Long> result = new EnumMap<>(MessageKind.class);
+        for (MessageKind kind : MessageKind.values()) {
+            long count = counters[kind.getCode()];
+            if (count > 0) {
+                result.put(kind, count);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remet les compteurs à zéro
+     */
+    public void resetCounters() {
+        Arrays.fill(counters, 0L);
+        unroutedCount = 0;
+    }
+}
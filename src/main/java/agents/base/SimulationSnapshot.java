@@ -0,0 +1,323 @@
+package agents.base;
+
+import jade.core.Agent;
+import jade.wrapper.AgentContainer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import utils.RandomStreams;
+import utils.SimulationClock;
+import utils.TimerWheel;
+
+/**
+ * Cliché de toute la simulation dans un fichier projeté en mémoire.
+ * Chaque agent {@link Snapshottable} enregistré écrit son état dans son
+ * propre fil, sans verrou ni copie incohérente : la demande est déposée
+ * directement dans le répartiteur de la roue de son conteneur, sans
+ * attendre de tick, et circule d'agent en agent au sein du conteneur
+ * ({@link CaptureChain}). Un agent arrêté entre-temps est simplement omis.
+ * Les états sont ensuite rangés à plat dans le fichier.
+ * La restauration recrée chaque agent avec son état en argument, dans le
+ * conteneur où il tournait : profils, personnalités, statistiques et
+ * visites en cours (groupe, étape, métriques du guide) reprennent là où
+ * ils en étaient. Les messages en transit ne sont pas conservés : un guide
+ * repris rejoue le tableau en cours, et les touristes qui attendaient un
+ * guide se réinscrivent auprès du coordinateur.
+ *
+ * Format : en-tête (magique, version, date de simulation, temps virtuel,
+ * graine, nombre d'agents) puis, par agent : rang, nom, classe, conteneur
+ * (short + UTF-8), longueur (int) et état. Les fichiers de version 1 (sans
+ * conteneur) restent lisibles.
+ */
+public final class SimulationSnapshot {
+    private static final int MAGIC = 0x4D534E50; // "MSNP"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 1 + 8 + 4;
+    private static final long CAPTURE_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final int CAPTURE_STRANDS = 256;
+
+    private static final Set<Agent> agents = ConcurrentHashMap.newKeySet();
+
+    private SimulationSnapshot() {
+    }
+
+    /**
+     * Inscrit l'agent dans les clichés ; à appeler dans son setup
+     */
+    public static void register(Agent agent) {
+        if (agent instanceof Snapshottable) {
+            agents.add(agent);
+        }
+    }
+
+    public static void unregister(Agent agent) {
+        agents.remove(agent);
+    }
+
+    /**
+     * État restauré passé en argument de l'agent, null pour un démarrage normal
+     */
+    public static DataInputStream restoredState(Object[] args) {
+        if (args == null || args.length == 0 || !(args[0] instanceof RestoredState)) return null;
+        return new DataInputStream(new ByteArrayInputStream(((RestoredState) args[0]).data));
+    }
+
+    /**
+     * Enregistre l'état de tous les agents inscrits dans le fichier
+     */
+    public static Result take(Path file) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<Agent> targets = new ArrayList<>(agents);
+        Entry[] entries = new Entry[targets.size()];
+        CountDownLatch captured = new CountDownLatch(targets.size());
+
+        // Une chaîne de capture par conteneur, en brins entrelacés
+        Map<TimerWheel, List<Integer>> byContainer = new HashMap<>();
+        for (int i = 0; i < targets.size(); i++) {
+            byContainer.computeIfAbsent(TimerWheel.forAgent(targets.get(i)), wheel -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<TimerWheel, List<Integer>> group : byContainer.entrySet()) {
+            CaptureChain chain = new CaptureChain(group.getKey(), group.getValue(), targets, entries, captured);
+            for (int strand = 0; strand < Math.min(CAPTURE_STRANDS, group.getValue().size()); strand++) {
+                chain.step(strand);
+            }
+        }
+        if (!captured.await(CAPTURE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            System.err.println("Cliché incomplet : " + captured.getCount() + " agent(s) sans réponse");
+        }
+
+        long size = HEADER_BYTES;
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry == null) continue;
+            size += entry.size();
+            count++;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(SimulationClock.now());
+            buffer.put((byte) (SimulationClock.isVirtual() ? 1 : 0));
+            buffer.putLong(RandomStreams.getSeed());
+            buffer.putInt(count);
+            for (Entry entry : entries) {
+                if (entry == null) continue;
+                buffer.put((byte) entry.order);
+                putString(buffer, entry.name);
+                putString(buffer, entry.className);
+                putString(buffer, entry.container);
+                buffer.putInt(entry.data.length);
+                buffer.put(entry.data);
+            }
+            buffer.force();
+        }
+        return new Result(count, size, System.nanoTime() - start);
+    }
+
+    /**
+     * Capture des agents d'un conteneur de proche en proche : chaque agent,
+     * une fois son état écrit (ou s'il est arrêté), transmet la demande au
+     * suivant de son brin. L'appelant ne réveille ainsi que la tête de chaque
+     * brin, les autres réveils étant faits par des fils d'agents déjà actifs.
+     */
+    private static final class CaptureChain {
+        private final TimerWheel wheel;
+        private final List<Integer> indices;
+        private final List<Agent> targets;
+        private final Entry[] entries;
+        private final CountDownLatch captured;
+
+        CaptureChain(TimerWheel wheel, List<Integer> indices, List<Agent> targets,
+                     Entry[] entries, CountDownLatch captured) {
+            this.wheel = wheel;
+            this.indices = indices;
+            this.targets = targets;
+            this.entries = entries;
+            this.captured = captured;
+        }
+
+        void step(int position) {
+            if (position >= indices.size()) return;
+            int index = indices.get(position);
+            Agent agent = targets.get(index);
+            int next = position + CAPTURE_STRANDS;
+            wheel.execute(agent, () -> {
+                try {
+                    entries[index] = capture(agent);
+                } catch (IOException e) {
+                    System.err.println("Cliché impossible pour " + agent.getLocalName() + ": " + e.getMessage());
+                } finally {
+                    captured.countDown();
+                    step(next);
+                }
+            }, () -> {
+                captured.countDown();
+                step(next);
+            });
+        }
+    }
+
+    private static Entry capture(Agent agent) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        Snapshottable snapshottable = (Snapshottable) agent;
+        snapshottable.writeSnapshot(out);
+        out.flush();
+        return new Entry(snapshottable.getRestoreOrder(), agent.getLocalName(),
+                         agent.getClass().getName(), agent.here().getName(), bytes.toByteArray());
+    }
+
+    /**
+     * Recrée dans le conteneur tous les agents du cliché, dans l'ordre de leur rang.
+     * En temps virtuel, l'horloge reprend à la date du cliché.
+     */
+    public static Result restore(Path file, AgentContainer container) throws IOException {
+        return restore(file, Collections.emptyMap(), container);
+    }
+
+    /**
+     * Recrée chaque agent dans le conteneur de même nom que celui où il a été
+     * capturé, ou dans le conteneur par défaut si ce conteneur n'existe pas
+     */
+    public static Result restore(Path file, Map<String, AgentContainer> containers,
+                                 AgentContainer fallback) throws IOException {
+        long start = System.nanoTime();
+        List<Entry> entries = new ArrayList<>();
+        long time;
+        long seed;
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int version = buffer.getInt() == MAGIC ? buffer.getInt() : -1;
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Cliché invalide : " + file);
+            }
+            time = buffer.getLong();
+            boolean virtual = buffer.get() != 0;
+            seed = buffer.getLong();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int order = buffer.get();
+                String name = getString(buffer);
+                String className = getString(buffer);
+                String container = version >= 2 ? getString(buffer) : "";
+                byte[] data = new byte[buffer.getInt()];
+                buffer.get(data);
+                entries.add(new Entry(order, name, className, container, data));
+            }
+            if (virtual && SimulationClock.isVirtual()) {
+                SimulationClock.resumeAt(time);
+            }
+        }
+
+        // Graine dérivée : la suite ne rejoue pas les tirages du début de l'exécution d'origine
+        RandomStreams.setSeed(seed + time);
+        entries.sort(Comparator.comparingInt(entry -> entry.order));
+        int restored = 0;
+        for (Entry entry : entries) {
+            AgentContainer container = containers.getOrDefault(entry.container, fallback);
+            try {
+                container.createNewAgent(entry.name, entry.className,
+                        new Object[] {new RestoredState(entry.data)}).start();
+                restored++;
+            } catch (Exception e) {
+                System.err.println("Restauration impossible de " + entry.name + ": " + e.getMessage());
+            }
+        }
+        return new Result(restored, size, System.nanoTime() - start);
+    }
+
+    public static int getRegisteredCount() {
+        return agents.size();
+    }
+
+    private static void putString(MappedByteBuffer buffer, String value) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) data.length);
+        buffer.put(data);
+    }
+
+    private static String getString(MappedByteBuffer buffer) {
+        byte[] data = new byte[buffer.getShort()];
+        buffer.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * État d'un agent transmis en argument lors de la restauration
+     */
+    static final class RestoredState {
+        final byte[] data;
+
+        RestoredState(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    private static final class Entry {
+        final int order;
+        final String name;
+        final String className;
+        final String container;
+        final byte[] data;
+
+        Entry(int order, String name, String className, String container, byte[] data) {
+            this.order = order;
+            this.name = name;
+            this.className = className;
+            this.container = container;
+            this.data = data;
+        }
+
+        long size() {
+            return 1 + 2 + name.getBytes(StandardCharsets.UTF_8).length
+                     + 2 + className.getBytes(StandardCharsets.UTF_8).length
+                     + 2 + container.getBytes(StandardCharsets.UTF_8).length + 4 + data.length;
+        }
+    }
+
+    /**
+     * Bilan d'un cliché ou d'une restauration
+     */
+    public static final class Result {
+        private final int agents;
+        private final long bytes;
+        private final long nanos;
+
+        Result(int agents, long bytes, long nanos) {
+            this.agents = agents;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public int getAgents() { return agents; }
+        public long getBytes() { return bytes; }
+        public double getMillis() { return nanos / 1e6; }
+
+        @Override
+        public String toString() {
+            return String.format("Cliché[agents=%d, octets=%d, durée=%.1f ms]", agents, bytes, getMillis());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package agents.base;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Agent dont l'état durable peut être enregistré par {@link SimulationSnapshot}
+ * puis relu au démarrage d'un agent recréé
+ */
+public interface Snapshottable {
+
+    /**
+     * Écrit l'état de l'agent ; appelé dans le fil de l'agent
+     */
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    /**
+     * Rang de recréation : coordinateur, puis guides, puis touristes
+     */
+    default int getRestoreOrder() {
+        return 0;
+    }
+}
@@ -0,0 +1,91 @@
+package agents.base;
+
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adresses des visiteurs virtuels hébergés par un agent cohorte.
+ * Un visiteur porte le nom local "cohorte~id" : il n'existe pas dans la
+ * plateforme, les messages qui lui sont destinés partent vers l'agent
+ * cohorte (le point d'accès) avec la liste des visiteurs concernés dans le
+ * paramètre {@link #VISITORS_PARAM}. Un seul message suffit ainsi pour tous
+ * les visiteurs d'une même cohorte.
+ */
+public final class VisitorAddress {
+    public static final char SEPARATOR = '~';
+    public static final String VISITORS_PARAM = "X-Visiteurs";
+
+    private VisitorAddress() {
+    }
+
+    /**
+     * Nom local du visiteur id hébergé par la cohorte
+     */
+    public static String name(String endpoint, int id) {
+        return endpoint + SEPARATOR + id;
+    }
+
+    public static boolean isVisitor(AID aid) {
+        return aid != null && aid.getLocalName().indexOf(SEPARATOR) > 0;
+    }
+
+    /**
+     * Agent cohorte qui héberge le visiteur (l'AID lui-même pour un agent réel)
+     */
+    public static AID endpointOf(AID aid) {
+        if (!isVisitor(aid)) return aid;
+        String name = aid.getName();
+        int at = name.indexOf('@');
+        String platform = at < 0 ? "" : name.substring(at);
+        return new AID(name.substring(0, name.indexOf(SEPARATOR)) + platform, AID.ISGUID);
+    }
+
+    /**
+     * Remplace les visiteurs destinataires par leur cohorte ; sans visiteur
+     * le message est laissé intact
+     */
+    public static ACLMessage route(ACLMessage msg) {
+        Set<AID> receivers = new LinkedHashSet<>();
+        StringBuilder visitors = null;
+        Iterator<?> it = msg.getAllReceiver();
+        while (it.hasNext()) {
+            AID receiver = (AID) it.next();
+            if (isVisitor(receiver)) {
+                visitors = visitors == null ? new StringBuilder() : visitors.append(',');
+                visitors.append(receiver.getLocalName());
+                receivers.add(endpointOf(receiver));
+            } else {
+                receivers.add(receiver);
+            }
+        }
+        if (visitors == null) return msg;
+
+        msg.clearAllReceiver();
+        for (AID receiver : receivers) {
+            msg.addReceiver(receiver);
+        }
+        msg.addUserDefinedParameter(VISITORS_PARAM, visitors.toString());
+        return msg;
+    }
+
+    /**
+     * Noms locaux des visiteurs destinataires, vide si le message n'en désigne aucun
+     */
+    public static List<String> visitorsOf(ACLMessage msg) {
+        List<String> visitors = new ArrayList<>();
+        String param = msg.getUserDefinedParameter(VISITORS_PARAM);
+        if (param != null) {
+            int start = 0;
+            for (int comma; (comma = param.indexOf(',', start)) >= 0; start = comma + 1) {
+                visitors.add(param.substring(start, comma));
+            }
+            visitors.add(param.substring(start));
+        }
+        return visitors;
+    }
+}
@@ -0,0 +1,546 @@
+package agents.coordinator;
+
+import agents.base.AgentStatus;
+import agents.base.BaseAgent;
+import agents.base.GroupChannel;
+import agents.base.MessageRouter;
+import agents.base.SimulationSnapshot;
+import agents.base.Snapshottable;
+import agents.base.VisitorAddress;
+import agents.protocol.MessageCodec;
+import agents.protocol.MessageKind;
+import agents.protocol.PerformanceReport;
+import agents.protocol.TouristAssignment;
+import jade.core.AID;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.lang.acl.ACLMessage;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import utils.EventJournal;
+import utils.GuideIndex;
+import utils.SimulationClock;
+import utils.TimerWheel;
+
+/**
+ * Agent Coordinateur - enregistre guides et touristes et forme les groupes.
+ * Les inscriptions sont seulement mises en file ; l'appariement se fait par
+ * tours périodiques qui vident la file d'attente vers les guides disponibles,
+ * un message ASSIGN_TOURISTS par groupe et un ASSIGNED_TO_GUIDE par groupe.
+ * Guides et touristes annoncent leur conteneur à l'inscription : un guide
+ * reçoit en priorité des touristes de son conteneur, pour que le trafic du
+ * groupe reste local ; les touristes sans guide local ou qui attendent trop
+ * longtemps sont confiés à un guide d'un autre conteneur. Une affectation
+ * restée sans réponse est remise en file et annulée auprès du guide
+ * (CANCEL_ASSIGNMENT), qui abandonne alors le groupe s'il l'avait accepté.
+ *
+ * Arguments optionnels : taille maximale de groupe, période des tours (ms).
+ */
+public class CoordinatorAgent extends BaseAgent implements Snapshottable {
+    public static final String SERVICE_TYPE = "coordinator-service";
+
+    private static final int DEFAULT_MAX_GROUP_SIZE = 8;
+    private static final long DEFAULT_ROUND_PERIOD = 2000;
+    private static final int MIN_GROUP_SIZE = 3;
+    private static final long GROUP_FORMATION_TIMEOUT = 10000; // Groupe incomplet accepté après 10 s
+    private static final long ASSIGNMENT_TIMEOUT = 15000; // Guide muet : groupe remis en file
+
+    private int maxGroupSize = DEFAULT_MAX_GROUP_SIZE;
+    private long roundPeriod = DEFAULT_ROUND_PERIOD;
+
+    // Files d'attente par conteneur ; une entrée n'est valide que si elle est l'entrée courante du touriste
+    private final Map<String, WaitingLine> waitingLines = new HashMap<>();
+    private final Map<AID, WaitingTourist> waiting = new HashMap<>();
+
+    // Guides connus (avec leur conteneur) et disponibles (ordre d'arrivée)
+    private final Map<AID, String> guideContainers = new HashMap<>();
+    private final LinkedHashSet<AID> availableGuides = new LinkedHashSet<>();
+
+    // Affectations envoyées en attente de réponse du guide
+    private final Map<AID, PendingAssignment> pendingAssignments = new HashMap<>();
+    // Touriste -> affectation en attente dont il fait partie
+    private final Map<AID, PendingAssignment> pendingTourists = new HashMap<>();
+    private long assignmentSequence;
+
+    private final CoordinatorStats stats = new CoordinatorStats();
+
+    @Override
+    protected AgentStatus createInitialStatus() {
+        return new AgentStatus("Accueil", true, true);
+    }
+
+    @Override
+    protected void configureAgent() {
+        agentType = SERVICE_TYPE;
+
+        Object[] args = getArguments();
+        DataInputStream restored = SimulationSnapshot.restoredState(args);
+        if (restored != null) {
+            restoreState(restored);
+        } else {
+            if (args != null && args.length > 0) {
+                maxGroupSize = Integer.parseInt(args[0].toString());
+            }
+            if (args != null && args.length > 1) {
+                roundPeriod = Long.parseLong(args[1].toString());
+            }
+        }
+        System.out.println("Agent Coordinateur " + getLocalName() + " démarré (groupes de " +
+                         maxGroupSize + " max, appariement toutes les " + roundPeriod + " ms)");
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        status.writeTo(out);
+        out.writeInt(maxGroupSize);
+        out.writeLong(roundPeriod);
+        out.writeLong(stats.registrations);
+        out.writeLong(stats.departures);
+        out.writeLong(stats.rounds);
+        out.writeLong(stats.groupsFormed);
+        out.writeLong(stats.localGroups);
+        out.writeLong(stats.touristsAssigned);
+        out.writeLong(stats.toursCompleted);
+        out.writeLong(stats.reportsReceived);
+        out.writeLong(stats.totalWaitTime);
+        out.writeDouble(stats.totalTourSatisfaction);
+        out.writeDouble(stats.totalCohesion);
+    }
+
+    /**
+     * Reprise d'un cliché : configuration et statistiques ; les files se reforment aux réinscriptions
+     */
+    private void restoreState(DataInputStream in) {
+        try {
+            status = AgentStatus.readFrom(in);
+            maxGroupSize = in.readInt();
+            roundPeriod = in.readLong();
+            stats.registrations = in.readLong();
+            stats.departures = in.readLong();
+            stats.rounds = in.readLong();
+            stats.groupsFormed = in.readLong();
+            stats.localGroups = in.readLong();
+            stats.touristsAssigned = in.readLong();
+            stats.toursCompleted = in.readLong();
+            stats.reportsReceived = in.readLong();
+            stats.totalWaitTime = in.readLong();
+            stats.totalTourSatisfaction = in.readDouble();
+            stats.totalCohesion = in.readDouble();
+        } catch (IOException e) {
+            logger.warning("Cliché illisible : " + e.getMessage());
+        }
+    }
+
+    @Override
+    protected DFAgentDescription createServiceDescription() {
+        DFAgentDescription dfd = new DFAgentDescription();
+        dfd.setName(getAID());
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(SERVICE_TYPE);
+        sd.setName("coordination-musee");
+        dfd.addServices(sd);
+        return dfd;
+    }
+
+    @Override
+    protected void configureRoutes(MessageRouter router) {
+        router.on(MessageKind.REGISTER_GUIDE, this::handleGuideRegistration)
+              .on(MessageKind.REGISTER_TOURIST, this::handleTouristRegistration)
+              .on(MessageKind.TOURISTS_ACCEPTED, this::handleAssignmentAccepted)
+              .on(MessageKind.GUIDE_BUSY, msg -> handleAssignmentRefused(msg.getSender()))
+              .on(MessageKind.GUIDE_AVAILABLE, msg -> markGuideAvailable(msg.getSender()))
+              .on(MessageKind.TOUR_COMPLETED, this::handleTourCompleted)
+              .on(MessageKind.TOURIST_LEAVING, this::handleTouristLeaving)
+              .on(MessageKind.ENHANCED_REPORT, this::handlePerformanceReport);
+    }
+
+    @Override
+    protected void setupSpecificBehaviours() {
+        TimerWheel.forAgent(this).scheduleAtFixedRate(this, roundPeriod, roundPeriod, this::runMatchingRound);
+    }
+
+    @Override
+    protected void handleMessage(ACLMessage message) {
+        logger.fine("Message sans traitement de " + message.getSender().getLocalName() +
+                    ": " + message.getContent());
+    }
+
+    // Inscriptions
+
+    private void handleGuideRegistration(ACLMessage msg) {
+        AID guide = msg.getSender();
+        guideContainers.put(guide, containerOf(msg));
+        availableGuides.add(guide);
+
+        ACLMessage reply = msg.createReply();
+        reply.setPerformative(ACLMessage.CONFIRM);
+        reply.setContent("REGISTRATION_CONFIRMED");
+        send(reply);
+
+        System.out.println("Coordinateur : guide " + guide.getLocalName() + " enregistré (" +
+                         guideContainers.size() + " guides)");
+    }
+
+    private void handleTouristRegistration(ACLMessage msg) {
+        AID tourist = msg.getSender();
+
+        // Une inscription répétée (redirection, relance après attente) ne double pas la place
+        // en file, ni ne repasse en file un touriste déjà proposé à un guide
+        if (!waiting.containsKey(tourist) && !pendingTourists.containsKey(tourist)) {
+            stats.registrations++;
+            enqueue(new WaitingTourist(tourist, containerOf(msg), SimulationClock.now()), false);
+        }
+
+        ACLMessage reply = msg.createReply();
+        reply.setPerformative(ACLMessage.CONFIRM);
+        reply.setContent("WELCOME_MUSEUM");
+        send(VisitorAddress.route(reply));
+    }
+
+    private void handleTouristLeaving(ACLMessage msg) {
+        WaitingTourist entry = waiting.remove(msg.getSender());
+        pendingTourists.remove(msg.getSender()); // Pas de remise en file si l'affectation échoue
+        if (entry != null) {
+            waitingLines.get(entry.container).waiting--; // Entrée retirée de la file au prochain tour
+        }
+        stats.departures++;
+        EventJournal.departed(msg.getSender().getName());
+    }
+
+    /**
+     * Conteneur annoncé à l'inscription ("REGISTER_...:conteneur"), vide si inconnu
+     */
+    private static String containerOf(ACLMessage msg) {
+        String content = msg.getContent();
+        int separator = content.indexOf(':');
+        return separator < 0 ? "" : content.substring(separator + 1);
+    }
+
+    private void enqueue(WaitingTourist entry, boolean front) {
+        WaitingLine line = waitingLines.computeIfAbsent(entry.container, WaitingLine::new);
+        if (front) {
+            line.queue.addFirst(entry);
+        } else {
+            line.queue.addLast(entry);
+        }
+        line.waiting++;
+        waiting.put(entry.aid, entry);
+    }
+
+    // Suivi des guides
+
+    private void markGuideAvailable(AID guide) {
+        guideContainers.putIfAbsent(guide, "");
+        if (!pendingAssignments.containsKey(guide)) {
+            availableGuides.add(guide);
+        }
+    }
+
+    private void handleAssignmentAccepted(ACLMessage msg) {
+        AID guide = msg.getSender();
+        PendingAssignment pending = pendingAssignments.get(guide);
+        // Réponse tardive à une affectation expirée : le guide a reçu son annulation
+        if (pending == null || !pending.conversationId.equals(msg.getConversationId())) return;
+        pendingAssignments.remove(guide);
+
+        long now = SimulationClock.now();
+        List<AID> tourists = new ArrayList<>(pending.members.size());
+        for (WaitingTourist member : pending.members) {
+            pendingTourists.remove(member.aid);
+            tourists.add(member.aid);
+            stats.totalWaitTime += now - member.since;
+            EventJournal.assigned(member.aid.getName(), guide.getName());
+        }
+        // Un seul message pour tout le groupe
+        new GroupChannel(this, null, tourists)
+            .broadcast(ACLMessage.INFORM, "ASSIGNED_TO_GUIDE:" + guide.getLocalName());
+
+        stats.groupsFormed++;
+        if (pending.local) {
+            stats.localGroups++;
+        }
+        stats.touristsAssigned += tourists.size();
+        System.out.println("Coordinateur : groupe de " + tourists.size() +
+                         " touristes confié à " + guide.getLocalName());
+    }
+
+    private void handleAssignmentRefused(AID guide) {
+        availableGuides.remove(guide);
+        PendingAssignment pending = pendingAssignments.remove(guide);
+        if (pending != null) {
+            requeue(pending);
+        }
+    }
+
+    private void handleTourCompleted(ACLMessage msg) {
+        stats.toursCompleted++;
+        String[] parts = msg.getContent().split(":");
+        if (parts.length >= 3) {
+            try {
+                stats.totalTourSatisfaction += Double.parseDouble(parts[2].replace(',', '.'));
+            } catch (NumberFormatException e) {
+                logger.fine("Satisfaction illisible dans " + msg.getContent());
+            }
+        }
+        // La disponibilité est signalée séparément par GUIDE_AVAILABLE après le repos du guide
+    }
+
+    private void handlePerformanceReport(ACLMessage msg) {
+        stats.reportsReceived++;
+        PerformanceReport report = PerformanceReport.from(msg);
+        if (report != null) {
+            stats.totalCohesion += report.getAverageCohesion();
+        }
+    }
+
+    /**
+     * Remet les touristes d'une affectation échouée en tête de file, dans l'ordre
+     */
+    private void requeue(PendingAssignment pending) {
+        for (int i = pending.members.size() - 1; i >= 0; i--) {
+            WaitingTourist member = pending.members.get(i);
+            if (pendingTourists.remove(member.aid, pending) && !waiting.containsKey(member.aid)) {
+                enqueue(member, true);
+            }
+        }
+    }
+
+    // Appariement
+
+    /**
+     * Tour d'appariement : vide la file vers les guides disponibles
+     */
+    private void runMatchingRound() {
+        long now = SimulationClock.now();
+        expirePendingAssignments(now);
+        int groups = runMatchingRound(now);
+        stats.rounds++;
+
+        if (groups > 0) {
+            logger.info("Tour d'appariement : " + groups + " groupe(s) proposé(s), " +
+                       waiting.size() + " touriste(s) en attente");
+        }
+    }
+
+    private void expirePendingAssignments(long now) {
+        Iterator<Map.Entry<AID, PendingAssignment>> it = pendingAssignments.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<AID, PendingAssignment> entry = it.next();
+            PendingAssignment pending = entry.getValue();
+            if (now - pending.sentAt > ASSIGNMENT_TIMEOUT) {
+                it.remove();
+                requeue(pending);
+                cancelAssignment(entry.getKey(), pending);
+            }
+        }
+    }
+
+    /**
+     * Annule auprès du guide une affectation expirée, pour qu'il ne mène pas
+     * une visite avec des touristes remis en file
+     */
+    private void cancelAssignment(AID guide, PendingAssignment pending) {
+        ACLMessage cancel = new ACLMessage(ACLMessage.CANCEL);
+        cancel.addReceiver(guide);
+        cancel.setConversationId(pending.conversationId);
+        cancel.setContent("CANCEL_ASSIGNMENT");
+        send(cancel);
+    }
+
+    /**
+     * Guides d'abord servis par leur propre conteneur, puis les files sans
+     * guide local ou trop anciennes sont confiées aux guides restants
+     *
+     * @return nombre de groupes proposés pendant ce tour
+     */
+    private int runMatchingRound(long now) {
+        int groups = 0;
+
+        for (WaitingLine line : waitingLines.values()) {
+            while (isReady(line, now)) {
+                AID guide = chooseGuide(g -> line.container.equals(guideContainers.get(g)));
+                if (guide == null) break;
+                assign(guide, line, now, true);
+                groups++;
+            }
+        }
+
+        for (WaitingLine line : waitingLines.values()) {
+            while (!availableGuides.isEmpty() && isReady(line, now) && isStranded(line, now)) {
+                AID guide = chooseGuide(g -> true);
+                assign(guide, line, now, line.container.equals(guideContainers.get(guide)));
+                groups++;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Guide disponible le moins sollicité d'après l'index des guides, parmi
+     * ceux que le filtre accepte ; à défaut (guide absent de l'index, par
+     * exemple lancé dans une autre JVM), le plus ancien guide disponible.
+     * Le guide choisi est retiré des disponibles.
+     *
+     * @return null si aucun guide disponible ne convient
+     */
+    private AID chooseGuide(Predicate<AID> eligible) {
+        AID guide = GuideIndex.getInstance().findAvailable(null,
+                g -> availableGuides.contains(g) && eligible.test(g));
+        if (guide == null) {
+            for (AID candidate : availableGuides) {
+                if (eligible.test(candidate)) {
+                    guide = candidate;
+                    break;
+                }
+            }
+        }
+        if (guide != null) {
+            availableGuides.remove(guide);
+        }
+        return guide;
+    }
+
+    private void assign(AID guide, WaitingLine line, long now, boolean local) {
+        PendingAssignment pending = new PendingAssignment("affectation-" + (++assignmentSequence), now, local);
+        List<String> names = new ArrayList<>(maxGroupSize);
+        while (pending.members.size() < maxGroupSize && !line.queue.isEmpty()) {
+            WaitingTourist next = line.queue.pollFirst();
+            if (waiting.get(next.aid) == next) {
+                waiting.remove(next.aid);
+                line.waiting--;
+                pending.members.add(next);
+                pendingTourists.put(next.aid, pending);
+                names.add(next.aid.getLocalName());
+            }
+        }
+        ACLMessage request = MessageCodec.create(ACLMessage.REQUEST, guide, new TouristAssignment(names));
+        request.setConversationId(pending.conversationId);
+        send(request);
+        pendingAssignments.put(guide, pending);
+    }
+
+    /**
+     * Un groupe est formé s'il est assez grand ou si le plus ancien attend depuis trop longtemps
+     */
+    private boolean isReady(WaitingLine line, long now) {
+        // Purger les entrées périmées en tête de file
+        while (!line.queue.isEmpty() && waiting.get(line.queue.peekFirst().aid) != line.queue.peekFirst()) {
+            line.queue.pollFirst();
+        }
+        if (line.queue.isEmpty()) return false;
+        return line.waiting >= MIN_GROUP_SIZE
+            || now - line.queue.peekFirst().since > GROUP_FORMATION_TIMEOUT;
+    }
+
+    /**
+     * File sans guide dans son conteneur, ou dont le plus ancien attend depuis trop longtemps
+     */
+    private boolean isStranded(WaitingLine line, long now) {
+        return now - line.queue.peekFirst().since > GROUP_FORMATION_TIMEOUT
+            || !guideContainers.containsValue(line.container);
+    }
+
+    @Override
+    protected void performCleanup() {
+        System.out.println("Agent Coordinateur " + getLocalName() + " terminé - " + stats);
+    }
+
+    // Getters
+    public int getWaitingCount() { return waiting.size(); }
+    public int getAvailableGuideCount() { return availableGuides.size(); }
+    public int getRegisteredGuideCount() { return guideContainers.size(); }
+    public CoordinatorStats getStats() { return stats; }
+
+    private static class WaitingTourist {
+        final AID aid;
+        final String container;
+        final long since;
+
+        WaitingTourist(AID aid, String container, long since) {
+            this.aid = aid;
+            this.container = container;
+            this.since = since;
+        }
+    }
+
+    private static class WaitingLine {
+        final String container;
+        final ArrayDeque<WaitingTourist> queue = new ArrayDeque<>();
+        int waiting; // Entrées valides dans la file
+
+        WaitingLine(String container) {
+            this.container = container;
+        }
+    }
+
+    private static class PendingAssignment {
+        final String conversationId;
+        final long sentAt;
+        final boolean local;
+        final List<WaitingTourist> members = new ArrayList<>();
+
+        PendingAssignment(String conversationId, long sentAt, boolean local) {
+            this.conversationId = conversationId;
+            this.sentAt = sentAt;
+            this.local = local;
+        }
+    }
+
+    /**
+     * Statistiques de coordination
+     */
+    public static class CoordinatorStats {
+        private long registrations;
+        private long departures;
+        private long rounds;
+        private long groupsFormed;
+        private long localGroups;
+        private long touristsAssigned;
+        private long toursCompleted;
+        private long reportsReceived;
+        private long totalWaitTime;
+        private double totalTourSatisfaction;
+        private double totalCohesion;
+
+        public long getRegistrations() { return registrations; }
+        public long getDepartures() { return departures; }
+        public long getRounds() { return rounds; }
+        public long getGroupsFormed() { return groupsFormed; }
+        public long getLocalGroups() { return localGroups; }
+        public long getTouristsAssigned() { return touristsAssigned; }
+        public long getToursCompleted() { return toursCompleted; }
+        public long getReportsReceived() { return reportsReceived; }
+
+        public double getAverageWaitTime() {
+            return touristsAssigned > 0 ? (double) totalWaitTime / touristsAssigned : 0;
+        }
+
+        public double getAverageTourSatisfaction() {
+            return toursCompleted > 0 ? totalTourSatisfaction / toursCompleted : 0;
+        }
+
+        /**
+         * Cohésion moyenne des groupes d'après les rapports des guides
+         */
+        public double getAverageCohesion() {
+            return reportsReceived > 0 ? totalCohesion / reportsReceived : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CoordinatorStats[inscriptions=%d, groupes=%d (locaux=%d), touristes affectés=%d, " +
+                    "visites terminées=%d, attente moyenne=%.0f ms, satisfaction moyenne=%.2f]",
+                    registrations, groupsFormed, localGroups, touristsAssigned, toursCompleted,
+                    getAverageWaitTime(), getAverageTourSatisfaction());
+        }
+    }
+}
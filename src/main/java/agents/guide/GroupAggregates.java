@@ -0,0 +1,173 @@
+package agents.guide;
+import agents.protocol.TouristStatus.Metric;
+import jade.core.AID;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Agrégats courants des métriques d'un groupe de touristes.
+ * Chaque touriste reçoit un index dense ; les valeurs sont rangées dans des
+ * tableaux primitifs et la somme, la somme des carrés et le nombre de
+ * valeurs sont tenus à jour à chaque écriture, ce qui rend moyenne et
+ * variance en O(1) quelle que soit la taille du groupe.
+ */
+public class GroupAggregates {
+    private static final int METRIC_COUNT = Metric.values().length;
+    private static final int INITIAL_CAPACITY = 16;
+    // Recalcul complet périodique pour borner la dérive des sommes flottantes
+    private static final int RESUM_INTERVAL = 4096;
+
+    private final Map<AID, Integer> indexOf = new HashMap<>();
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int highWater;
+
+    private final double[][] values = new double[METRIC_COUNT][INITIAL_CAPACITY];
+    private final boolean[][] present = new boolean[METRIC_COUNT][INITIAL_CAPACITY];
+    private final double[] sum = new double[METRIC_COUNT];
+    private final double[] sumSq = new double[METRIC_COUNT];
+    private final int[] count = new int[METRIC_COUNT];
+    private final int[] updatesSinceResum = new int[METRIC_COUNT];
+
+    /**
+     * Index dense d'un touriste, attribué à la première rencontre
+     */
+    public int indexOf(AID tourist) {
+        Integer index = indexOf.get(tourist);
+        if (index != null) return index;
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : highWater++;
+        ensureCapacity(slot + 1);
+        indexOf.put(tourist, slot);
+        return slot;
+    }
+
+    /**
+     * Met à jour une métrique d'un touriste
+     */
+    public void put(AID tourist, Metric metric, double value) {
+        put(indexOf(tourist), metric, value);
+    }
+
+    /**
+     * Met à jour une métrique par index dense
+     */
+    public void put(int index, Metric metric, double value) {
+        int m = metric.ordinal();
+        if (present[m][index]) {
+            double old = values[m][index];
+            sum[m] += value - old;
+            sumSq[m] += value * value - old * old;
+        } else {
+            present[m][index] = true;
+            sum[m] += value;
+            sumSq[m] += value * value;
+            count[m]++;
+        }
+        values[m][index] = value;
+
+        if (++updatesSinceResum[m] >= RESUM_INTERVAL) {
+            resum(m);
+        }
+    }
+
+    /**
+     * Valeur d'une métrique pour un touriste, ou la valeur par défaut
+     */
+    public double get(AID tourist, Metric metric, double defaultValue) {
+        Integer index = indexOf.get(tourist);
+        if (index == null || !present[metric.ordinal()][index]) return defaultValue;
+        return values[metric.ordinal()][index];
+    }
+
+    /**
+     * Retire un touriste et ses valeurs des agrégats
+     */
+    public void remove(AID tourist) {
+        Integer index = indexOf.remove(tourist);
+        if (index == null) return;
+
+        for (int m = 0; m < METRIC_COUNT; m++) {
+            if (present[m][index]) {
+                double old = values[m][index];
+                sum[m] -= old;
+                sumSq[m] -= old * old;
+                count[m]--;
+                present[m][index] = false;
+            }
+        }
+        freeSlots[freeCount++] = index;
+    }
+
+    /**
+     * Vide le groupe
+     */
+    public void clear() {
+        indexOf.clear();
+        for (int m = 0; m < METRIC_COUNT; m++) {
+            Arrays.fill(present[m], 0, highWater, false);
+            sum[m] = 0;
+            sumSq[m] = 0;
+            count[m] = 0;
+            updatesSinceResum[m] = 0;
+        }
+        freeCount = 0;
+        highWater = 0;
+    }
+
+    /**
+     * Moyenne d'une métrique, ou la valeur par défaut si aucune valeur
+     */
+    public double mean(Metric metric, double defaultValue) {
+        int m = metric.ordinal();
+        return count[m] == 0 ? defaultValue : sum[m] / count[m];
+    }
+
+    /**
+     * Variance (population) d'une métrique
+     */
+    public double variance(Metric metric) {
+        int m = metric.ordinal();
+        if (count[m] == 0) return 0.0;
+        double mean = sum[m] / count[m];
+        return Math.max(0.0, sumSq[m] / count[m] - mean * mean);
+    }
+
+    public int count(Metric metric) {
+        return count[metric.ordinal()];
+    }
+
+    public int size() {
+        return indexOf.size();
+    }
+
+    public boolean contains(AID tourist) {
+        return indexOf.containsKey(tourist);
+    }
+
+    private void resum(int m) {
+        double s = 0;
+        double sq = 0;
+        for (int i = 0; i < highWater; i++) {
+            if (present[m][i]) {
+                double v = values[m][i];
+                s += v;
+                sq += v * v;
+            }
+        }
+        sum[m] = s;
+        sumSq[m] = sq;
+        updatesSinceResum[m] = 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= freeSlots.length) return;
+        int capacity = Math.max(required, freeSlots.length * 2);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        for (int m = 0; m < METRIC_COUNT; m++) {
+            values[m] = Arrays.copyOf(values[m], capacity);
+            present[m] = Arrays.copyOf(present[m], capacity);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package agents.guide;
 import jade.core.AID;
 import jade.lang.acl.ACLMessage;
+import utils.SimulationClock;
+import agents.protocol.TouristStatus;
+import utils.OnlineStats;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.logging.Logger;
@@ -16,13 +19,18 @@ public class GroupHandler {
     private int readyTourists;
     private long lastStatusUpdate;
     
+    // Statistiques en ligne du groupe, mises à jour à chaque status
+    private final OnlineStats satisfactionStats = new OnlineStats();
+    private final OnlineStats fatigueStats = new OnlineStats();
+    private final OnlineStats interestStats = new OnlineStats();
+    
     public GroupHandler(GuideAgent guide) {
         this.guide = guide;
         this.touristStats = new HashMap<>();
         this.groupDynamics = new GroupDynamics();
         this.logger = Logger.getLogger(GroupHandler.class.getName());
         this.readyTourists = 0;
-        this.lastStatusUpdate = System.currentTimeMillis();
+        this.lastStatusUpdate = SimulationClock.now();
     }
     
     /**
@@ -30,33 +38,50 @@ public class GroupHandler {
      */
     public void processTouristStatus(ACLMessage statusMsg) {
         AID touristAID = statusMsg.getSender();
-        String[] parts = statusMsg.getContent().split(":");
+        TouristStatus status = TouristStatus.from(statusMsg);
         
-        if (parts.length >= 3) {
-            String statusType = parts[1];
-            double value = Double.parseDouble(parts[2]);
+        if (status != null) {
+            TouristStatus.Metric statusType = status.getMetric();
+            double value = status.getValue();
             
             // Récupérer ou créer les stats du touriste
-            TouristStats stats = touristStats.computeIfAbsent(touristAID, k -> new TouristStats());
+            TouristStats stats = touristStats.get(touristAID);
+            if (stats == null) {
+                stats = new TouristStats();
+                touristStats.put(touristAID, stats);
+                satisfactionStats.add(stats.getSatisfaction());
+                fatigueStats.add(stats.getFatigue());
+                interestStats.add(stats.getInterest());
+            }
             
-            // Mettre à jour selon le type de status
+            // Mettre à jour selon le type de status (remplacement O(1) dans les agrégats)
+            double old;
             switch (statusType) {
-                case "SATISFACTION":
+                case SATISFACTION:
+                    old = stats.getSatisfaction();
                     stats.setSatisfaction(value);
+                    satisfactionStats.replace(old, stats.getSatisfaction());
                     break;
-                case "FATIGUE":
+                case FATIGUE:
+                    old = stats.getFatigue();
                     stats.setFatigue(value);
+                    fatigueStats.replace(old, stats.getFatigue());
                     break;
-                case "INTEREST":
+                case INTEREST:
+                    old = stats.getInterest();
                     stats.setInterest(value);
+                    interestStats.replace(old, stats.getInterest());
+                    break;
+                default:
                     break;
             }
             
             stats.updateTimestamp();
-            lastStatusUpdate = System.currentTimeMillis();
+            lastStatusUpdate = SimulationClock.now();
             
             // Mettre à jour la dynamique de groupe
             updateGroupDynamics();
+            checkProblematicTourist(touristAID, stats);
             
             logger.fine("Status mis à jour pour " + touristAID.getLocalName() + 
                        ": " + statusType + "=" + value);
@@ -85,8 +110,11 @@ public class GroupHandler {
         // Mise à jour de la dynamique
         groupDynamics.update(avgSatisfaction, avgFatigue, avgInterest);
         
+        // La moyenne a pu dériver depuis les dernières mises à jour : revue complète
+        identifyProblematicTourists();
+        
         // Log périodique
-        if (System.currentTimeMillis() - lastStatusUpdate > 30000) { // 30 secondes
+        if (SimulationClock.now() - lastStatusUpdate > 30000) { // 30 secondes
             logger.info(String.format("Groupe: satisfaction=%.2f, fatigue=%.2f, intérêt=%.2f",
                     avgSatisfaction, avgFatigue, avgInterest));
         }
@@ -171,70 +199,41 @@ public class GroupHandler {
         if (touristStats.size() < 2) return;
         
         // Calcul de l'homogénéité du groupe
-        double satisfactionVariance = calculateVariance("satisfaction");
-        double fatigueVariance = calculateVariance("fatigue");
+        double satisfactionVariance = boundedVariance(satisfactionStats);
+        double fatigueVariance = boundedVariance(fatigueStats);
         
         groupDynamics.setHomogeneity(1.0 - Math.max(satisfactionVariance, fatigueVariance));
         
         // Calcul de l'engagement
         double avgInterest = getAverageInterest();
         groupDynamics.setEngagement(avgInterest);
-        
-        // Détection de touristes problématiques
-        identifyProblematicTourists();
     }
     
     /**
-     * Calcule la variance pour une métrique donnée
+     * Variance d'une métrique du groupe, bornée à [0, 1]
      */
-    private double calculateVariance(String metric) {
-        if (touristStats.isEmpty()) return 0.0;
-        
-        double sum = 0.0;
-        double sumSquares = 0.0;
-        int count = 0;
-        
-        for (TouristStats stats : touristStats.values()) {
-            double value = 0.0;
-            switch (metric) {
-                case "satisfaction":
-                    value = stats.getSatisfaction();
-                    break;
-                case "fatigue":
-                    value = stats.getFatigue();
-                    break;
-                case "interest":
-                    value = stats.getInterest();
-                    break;
-            }
-            
-            sum += value;
-            sumSquares += value * value;
-            count++;
-        }
-        
-        if (count <= 1) return 0.0;
-        
-        double mean = sum / count;
-        double variance = (sumSquares / count) - (mean * mean);
-        
-        return Math.max(0.0, Math.min(1.0, variance));
+    private static double boundedVariance(OnlineStats stats) {
+        if (stats.getCount() <= 1) return 0.0;
+        return Math.min(1.0, stats.getVariance());
     }
     
     /**
      * Identifie les touristes qui posent des problèmes dans le groupe
      */
     private void identifyProblematicTourists() {
-        double avgSatisfaction = getAverageSatisfaction();
-        
         for (Map.Entry<AID, TouristStats> entry : touristStats.entrySet()) {
-            TouristStats stats = entry.getValue();
-            
-            // Touriste très en dessous de la moyenne
-            if (stats.getSatisfaction() < avgSatisfaction - 0.3) {
-                groupDynamics.addProblematicTourist(entry.getKey());
-                logger.info("Touriste problématique identifié: " + 
-                           entry.getKey().getLocalName());
+            checkProblematicTourist(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Vérifie un touriste par rapport à la moyenne courante du groupe
+     */
+    private void checkProblematicTourist(AID touristAID, TouristStats stats) {
+        // Touriste très en dessous de la moyenne
+        if (touristStats.size() >= 2 && stats.getSatisfaction() < getAverageSatisfaction() - 0.3) {
+            if (groupDynamics.addProblematicTourist(touristAID)) {
+                logger.info("Touriste problématique identifié: " + touristAID.getLocalName());
             }
         }
     }
@@ -243,30 +242,33 @@ public class GroupHandler {
      * Calcule la satisfaction moyenne du groupe
      */
     public double getAverageSatisfaction() {
-        return touristStats.values().stream()
-                .mapToDouble(TouristStats::getSatisfaction)
-                .average()
-                .orElse(0.5);
+        return satisfactionStats.getMean(0.5);
     }
     
     /**
      * Calcule la fatigue moyenne du groupe
      */
     public double getAverageFatigue() {
-        return touristStats.values().stream()
-                .mapToDouble(TouristStats::getFatigue)
-                .average()
-                .orElse(0.0);
+        return fatigueStats.getMean(0.0);
     }
     
     /**
      * Calcule l'intérêt moyen du groupe
      */
     public double getAverageInterest() {
-        return touristStats.values().stream()
-                .mapToDouble(TouristStats::getInterest)
-                .average()
-                .orElse(0.7);
+        return interestStats.getMean(0.7);
+    }
+    
+    /**
+     * Statistiques en ligne d'une métrique du groupe
+     */
+    public OnlineStats getStats(TouristStatus.Metric metric) {
+        switch (metric) {
+            case SATISFACTION: return satisfactionStats;
+            case FATIGUE: return fatigueStats;
+            case INTEREST: return interestStats;
+            default: return null;
+        }
     }
     
     /**
@@ -281,9 +283,12 @@ public class GroupHandler {
      */
     public void reset() {
         touristStats.clear();
+        satisfactionStats.reset();
+        fatigueStats.reset();
+        interestStats.reset();
         groupDynamics.reset();
         readyTourists = 0;
-        lastStatusUpdate = System.currentTimeMillis();
+        lastStatusUpdate = SimulationClock.now();
         
         logger.info("GroupHandler réinitialisé pour nouveau groupe");
     }
@@ -317,7 +322,7 @@ public class GroupHandler {
         private double satisfaction = 0.5;
         private double fatigue = 0.0;
         private double interest = 0.7;
-        private long lastUpdate = System.currentTimeMillis();
+        private long lastUpdate = SimulationClock.now();
         
         public void setSatisfaction(double satisfaction) {
             this.satisfaction = Math.max(0.0, Math.min(1.0, satisfaction));
@@ -332,7 +337,7 @@ public class GroupHandler {
         }
         
         public void updateTimestamp() {
-            this.lastUpdate = System.currentTimeMillis();
+            this.lastUpdate = SimulationClock.now();
         }
         
         // Getters
@@ -356,20 +361,40 @@ public class GroupHandler {
         private double engagement = 0.7;
         private java.util.Set<AID> problematicTourists = new java.util.HashSet<>();
         
+        // Tendances lissées des moyennes du groupe entre deux vérifications
+        private final OnlineStats satisfactionTrend = new OnlineStats();
+        private final OnlineStats fatigueTrend = new OnlineStats();
+        private final OnlineStats interestTrend = new OnlineStats();
+        
         public void update(double avgSatisfaction, double avgFatigue, double avgInterest) {
-            // La logique de mise à jour de la dynamique peut être étendue
+            satisfactionTrend.add(avgSatisfaction);
+            fatigueTrend.add(avgFatigue);
+            interestTrend.add(avgInterest);
         }
         
         public void reset() {
             homogeneity = 0.5;
             engagement = 0.7;
             problematicTourists.clear();
+            satisfactionTrend.reset();
+            fatigueTrend.reset();
+            interestTrend.reset();
         }
         
-        public void addProblematicTourist(AID tourist) {
-            problematicTourists.add(tourist);
+        /**
+         * @return true si le touriste n'était pas encore signalé
+         */
+        public boolean addProblematicTourist(AID tourist) {
+            return problematicTourists.add(tourist);
         }
         
+        // Tendances (EWMA) et extrêmes observés pendant la visite
+        public double getSmoothedSatisfaction() { return satisfactionTrend.getEwma(0.5); }
+        public double getSmoothedFatigue() { return fatigueTrend.getEwma(0.0); }
+        public double getSmoothedInterest() { return interestTrend.getEwma(0.7); }
+        public double getLowestSatisfaction() { return satisfactionTrend.getMin(); }
+        public double getHighestFatigue() { return fatigueTrend.getMax(); }
+        
         // Getters et Setters
         public double getHomogeneity() { return homogeneity; }
         public void setHomogeneity(double homogeneity) { 
@@ -2,26 +2,47 @@ package agents.guide;
 
 import jade.core.Agent;
 import jade.core.AID;
-import jade.core.behaviours.*;
 import jade.lang.acl.ACLMessage;
-import jade.lang.acl.MessageTemplate;
 import jade.domain.DFService;
 import jade.domain.FIPAException;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
+import utils.GuideIndex;
+import utils.DirectoryCache;
+import utils.EventJournal;
+import utils.RandomStreams;
 import utils.ServiceFinder;
+import utils.SimulationClock;
+import utils.TimerWheel;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Random;
 
 import agents.base.AgentStatus;
+import agents.base.GroupChannel;
+import agents.base.MessageHandler;
+import agents.base.MessageRouter;
+import agents.base.SimulationSnapshot;
+import agents.base.Snapshottable;
+import agents.base.VisitorAddress;
+import agents.protocol.Explanation;
+import agents.protocol.GroupCohesion;
+import agents.protocol.MessageCodec;
+import agents.protocol.MessageKind;
+import agents.protocol.PerformanceReport;
+import agents.protocol.ProtocolMessage;
+import agents.protocol.TouristAssignment;
+import agents.protocol.TouristStatus;
+import agents.protocol.TouristStatusReport;
 
 /**
  * Agent Guide avec gestion de groupe améliorée - comportement de berger
  */
-public class GuideAgent extends Agent {
+public class GuideAgent extends Agent implements Snapshottable {
     // Propriétés de base
     private GuideProfile profile;
     private AID coordinatorAgent;
@@ -31,19 +52,32 @@ public class GuideAgent extends Agent {
     private String currentLocation;
     private int currentTableau;
     
+    // Routage des messages entrants
+    private MessageRouter router;
+    private MessageHandler messageHandler;
+    
+    // Échéances sur la roue partagée du conteneur
+    private TimerWheel timers;
+    
     // Gestion de groupe améliorée
     private GroupManager groupManager;
-    private Map<AID, Double> touristSatisfaction;
-    private Map<AID, Double> touristFatigue;
-    private Map<AID, Double> touristCohesion; // Nouveau: niveau de cohésion individuel
+    private GroupChannel groupChannel; // Diffusion au groupe courant
+    private GroupAggregates groupAggregates; // Satisfaction, fatigue et cohésion par touriste
     
     // Stratégie de guidage
     private GroupFormation currentFormation = GroupFormation.CLUSTER;
     private double groupCohesionThreshold = 0.6;
     private boolean waitingForGroup = false;
     private int groupCheckCounter = 0;
+    private String assignmentId; // Conversation de l'affectation en cours
+    private int tourEpoch; // Incrémenté à chaque abandon : invalide les étapes planifiées
     
     private static final int REST_TIME_BETWEEN_TOURS = 5000;
+    
+    // Valeurs initiales et par défaut des métriques de groupe
+    private static final double DEFAULT_SATISFACTION = 0.5;
+    private static final double DEFAULT_FATIGUE = 0.0;
+    private static final double DEFAULT_COHESION = 0.7;
     private static final String[] TABLEAU_SEQUENCE = {
         "Tableau1", "Tableau2", "Tableau3", "Tableau4", "Tableau5"
     };
@@ -59,299 +93,306 @@ public class GuideAgent extends Agent {
         System.out.println("Agent Guide " + getLocalName() + " démarré avec gestion de groupe avancée");
         
         // Initialisation
-        profile = new GuideProfile(getLocalName());
+        // Arguments optionnels : spécialisation, niveau d'expérience, seuil de cohésion ; ou état d'un cliché
+        Object[] args = getArguments();
+        groupManager = new GroupManager();
         assignedTourists = new ArrayList<>();
-        touristSatisfaction = new HashMap<>();
-        touristFatigue = new HashMap<>();
-        touristCohesion = new HashMap<>();
+        groupAggregates = new GroupAggregates();
         isGuiding = false;
         isAvailable = true;
         currentLocation = "PointA";
         currentTableau = 0;
         
         // Gestionnaire de groupe amélioré
-        groupManager = new GroupManager();
+        groupChannel = new GroupChannel(this);
+        
+        DataInputStream restored = SimulationSnapshot.restoredState(args);
+        if (restored != null) {
+            if (!restoreState(restored)) {
+                profile = new GuideProfile(getLocalName());
+            }
+        } else {
+            if (args != null && args.length > 1) {
+                profile = new GuideProfile(args[0].toString(), Integer.parseInt(args[1].toString()),
+                                           RandomStreams.forAgent(this));
+            } else {
+                profile = new GuideProfile(getLocalName());
+            }
+            if (args != null && args.length > 2) {
+                groupCohesionThreshold = Double.parseDouble(args[2].toString());
+            }
+        }
+        SimulationSnapshot.register(this);
         
         // Enregistrement du service
         registerService();
         
+        // Routes des messages et répartiteur unique de la boîte aux lettres
+        router = createRouter();
+        messageHandler = new MessageHandler(this, router);
+        
         // Ajout des comportements améliorés
-        addBehaviour(new CoordinatorCommunicationBehavior());
-        addBehaviour(new EnhancedGroupManagementBehavior());
-        addBehaviour(new GroupCohesionMonitorBehavior());
-        addBehaviour(new PerformanceMonitorBehavior());
+        addBehaviour(messageHandler);
+        timers = TimerWheel.forAgent(this);
+        timers.scheduleAtFixedRate(this, 8000, 8000, this::onCohesionCheck); // Vérification toutes les 8 secondes
+        timers.scheduleAtFixedRate(this, 12000, 12000, this::onPerformanceCheck);
+        if (!isAvailable) {
+            resumeTour();
+        }
         
         // Recherche du coordinateur
         findAndRegisterWithCoordinator();
+        SimulationClock.setupDone(this);
     }
     
     private void registerService() {
-        try {
-            DFAgentDescription dfd = new DFAgentDescription();
-            dfd.setName(getAID());
-            ServiceDescription sd = new ServiceDescription();
-            sd.setType("guide-service");
-            sd.setName("guide-touristique");
-            dfd.addServices(sd);
-            DFService.register(this, dfd);
-            System.out.println("Guide " + getLocalName() + " enregistré avec spécialisation: " + 
-                             profile.getSpecialization());
-        } catch (FIPAException fe) {
-            fe.printStackTrace();
-        }
+        DFAgentDescription dfd = new DFAgentDescription();
+        dfd.setName(getAID());
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType("guide-service");
+        sd.setName("guide-touristique");
+        dfd.addServices(sd);
+        ServiceFinder.registerAsync(this, dfd);
+        GuideIndex.getInstance().register(getAID(), profile.getSpecialization());
+        System.out.println("Guide " + getLocalName() + " enregistré avec spécialisation: " + 
+                         profile.getSpecialization());
     }
     
     private void findAndRegisterWithCoordinator() {
-        addBehaviour(new OneShotBehaviour() {
-            @Override
-            public void action() {
-                coordinatorAgent = ServiceFinder.findCoordinator(GuideAgent.this);
-                if (coordinatorAgent != null) {
-                    sendMessage(coordinatorAgent, ACLMessage.SUBSCRIBE, "REGISTER_GUIDE");
-                    System.out.println("Guide " + getLocalName() + " s'enregistre auprès du coordinateur");
-                } else {
-                    System.out.println("Coordinateur non trouvé");
+        ServiceFinder.findCoordinatorAsync(this, coordinator -> {
+            coordinatorAgent = coordinator;
+            if (coordinatorAgent != null) {
+                sendMessage(coordinatorAgent, ACLMessage.SUBSCRIBE, "REGISTER_GUIDE:" + here().getName());
+                if (!isAvailable) {
+                    // Visite reprise d'un cliché : le guide est retiré des guides libres
+                    sendMessage(coordinatorAgent, ACLMessage.REFUSE, "GUIDE_BUSY");
                 }
+                System.out.println("Guide " + getLocalName() + " s'enregistre auprès du coordinateur");
+            } else {
+                System.out.println("Coordinateur non trouvé");
             }
         });
     }
     
     /**
-     * Communication avec le coordinateur
+     * Associe chaque type de message entrant à son traitement
      */
-    private class CoordinatorCommunicationBehavior extends CyclicBehaviour {
-        @Override
-        public void action() {
-            MessageTemplate mt = MessageTemplate.or(
-                MessageTemplate.MatchPerformative(ACLMessage.REQUEST),
-                MessageTemplate.MatchPerformative(ACLMessage.CONFIRM)
-            );
-            ACLMessage msg = receive(mt);
-            
-            if (msg != null) {
-                handleCoordinatorMessage(msg);
-            } else {
-                block();
-            }
+    private MessageRouter createRouter() {
+        return new MessageRouter()
+            // Coordinateur
+            .on(MessageKind.REGISTRATION_CONFIRMED, msg -> handleRegistrationConfirmed())
+            .on(MessageKind.ASSIGN_TOURISTS, this::handleTouristAssignment)
+            .on(MessageKind.CANCEL_ASSIGNMENT, this::handleAssignmentCancelled)
+            .on(MessageKind.TOUR_COMPLETION_ACKNOWLEDGED, msg -> handleTourCompletionAcknowledged())
+            // Touristes
+            .on(MessageKind.STATUS_REPORT, this::applyStatusReport)
+            .on(MessageKind.STATUS, this::processTouristStatusWithCohesion)
+            .on(MessageKind.GROUP_COHESION, this::updateTouristCohesion)
+            .on(MessageKind.QUESTION, this::answerQuestionToGroup)
+            .on(MessageKind.READY_NEXT, msg -> handleTouristReady(msg.getSender()))
+            .on(MessageKind.TOURIST_READY, this::handleNewTouristInGroup)
+            .on(MessageKind.JOIN_GROUP, msg -> redirectToCoordinator(msg.getSender()));
+    }
+    
+    private void handleRegistrationConfirmed() {
+        System.out.println("Guide " + getLocalName() + " : Enregistrement confirmé");
+        isAvailable = assignmentId == null; // Une visite reprise d'un cliché se poursuit
+    }
+    
+    private void handleTourCompletionAcknowledged() {
+        System.out.println("Guide " + getLocalName() + " : Fin de visite acknowledgée");
+        timers.schedule(this, REST_TIME_BETWEEN_TOURS, this::prepareForNextTour);
+    }
+    
+    private void handleTouristAssignment(ACLMessage msg) {
+        if (!isAvailable) {
+            ACLMessage reply = msg.createReply();
+            reply.setPerformative(ACLMessage.REFUSE);
+            reply.setContent("GUIDE_BUSY");
+            send(reply);
+            return;
         }
         
-        private void handleCoordinatorMessage(ACLMessage msg) {
-            String content = msg.getContent();
-            
-            if ("REGISTRATION_CONFIRMED".equals(content)) {
-                System.out.println("Guide " + getLocalName() + " : Enregistrement confirmé");
-                isAvailable = true;
-            } else if (content.startsWith("ASSIGN_TOURISTS:")) {
-                handleTouristAssignment(msg);
-            } else if ("TOUR_COMPLETION_ACKNOWLEDGED".equals(content)) {
-                System.out.println("Guide " + getLocalName() + " : Fin de visite acknowledgée");
-                addBehaviour(new WakerBehaviour(GuideAgent.this, REST_TIME_BETWEEN_TOURS) {
-                    @Override
-                    protected void onWake() {
-                        prepareForNextTour();
-                    }
-                });
-            }
-        }
+        TouristAssignment assignment = TouristAssignment.from(msg);
         
-        private void handleTouristAssignment(ACLMessage msg) {
-            if (!isAvailable) {
-                ACLMessage reply = msg.createReply();
-                reply.setPerformative(ACLMessage.REFUSE);
-                reply.setContent("GUIDE_BUSY");
-                send(reply);
-                return;
+        if (assignment != null) {
+            // Initialiser le groupe
+            assignedTourists.clear();
+            groupAggregates.clear();
+            
+            for (String name : assignment.getTouristNames()) {
+                AID touristAID = new AID(name, AID.ISLOCALNAME);
+                assignedTourists.add(touristAID);
+                int index = groupAggregates.indexOf(touristAID);
+                groupAggregates.put(index, TouristStatus.Metric.SATISFACTION, DEFAULT_SATISFACTION);
+                groupAggregates.put(index, TouristStatus.Metric.FATIGUE, DEFAULT_FATIGUE);
+                groupAggregates.put(index, TouristStatus.Metric.GROUP_COHESION, DEFAULT_COHESION); // Cohésion initiale
             }
             
-            String content = msg.getContent();
-            String[] parts = content.split(":");
+            isAvailable = false;
+            assignmentId = msg.getConversationId();
+            GuideIndex.getInstance().markBusy(getAID(), assignedTourists.size());
+            groupManager.initialize(assignedTourists.size());
+            groupChannel.clear();
+            groupChannel = new GroupChannel(this, "groupe-" + getLocalName(), assignedTourists);
             
-            if (parts.length >= 2) {
-                String[] touristNames = parts[1].split(",");
-                
-                // Initialiser le groupe
-                assignedTourists.clear();
-                touristSatisfaction.clear();
-                touristFatigue.clear();
-                touristCohesion.clear();
-                
-                for (String name : touristNames) {
-                    if (!name.trim().isEmpty()) {
-                        AID touristAID = new AID(name.trim(), AID.ISLOCALNAME);
-                        assignedTourists.add(touristAID);
-                        touristSatisfaction.put(touristAID, 0.5);
-                        touristFatigue.put(touristAID, 0.0);
-                        touristCohesion.put(touristAID, 0.7); // Cohésion initiale
-                    }
-                }
-                
-                isAvailable = false;
-                groupManager.initialize(assignedTourists.size());
-                
-                // Confirmer l'acceptation
-                ACLMessage reply = msg.createReply();
-                reply.setPerformative(ACLMessage.AGREE);
-                reply.setContent("TOURISTS_ACCEPTED:" + assignedTourists.size());
-                send(reply);
-                
-                System.out.println("Guide " + getLocalName() + " accepte un groupe de " + 
-                                 assignedTourists.size() + " touristes");
-                
-                // Démarrer la visite avec formation de groupe
-                addBehaviour(new WakerBehaviour(GuideAgent.this, 3000) {
-                    @Override
-                    protected void onWake() {
-                        startGuidedTour();
-                    }
-                });
-            }
+            // Confirmer l'acceptation
+            ACLMessage reply = msg.createReply();
+            reply.setPerformative(ACLMessage.AGREE);
+            reply.setContent("TOURISTS_ACCEPTED:" + assignedTourists.size());
+            send(reply);
+            
+            System.out.println("Guide " + getLocalName() + " accepte un groupe de " + 
+                             assignedTourists.size() + " touristes");
+            
+            // Démarrer la visite avec formation de groupe
+            scheduleTourStep(3000, this::startGuidedTour);
         }
     }
     
     /**
-     * Gestion de groupe améliorée avec comportement de berger
+     * Affectation expirée côté coordinateur : les touristes ont été remis en
+     * file, le groupe est abandonné même si la visite a commencé
      */
-    private class EnhancedGroupManagementBehavior extends CyclicBehaviour {
-        @Override
-        public void action() {
-            MessageTemplate mt = MessageTemplate.or(
-                MessageTemplate.MatchPerformative(ACLMessage.INFORM),
-                MessageTemplate.MatchPerformative(ACLMessage.QUERY_REF)
-            );
-            ACLMessage msg = receive(mt);
-            
-            if (msg != null) {
-                String content = msg.getContent();
-                
-                if (content.startsWith("STATUS:")) {
-                    processTouristStatusWithCohesion(msg);
-                } else if (content.startsWith("QUESTION:")) {
-                    answerQuestionToGroup(msg);
-                } else if ("READY_NEXT".equals(content)) {
-                    handleTouristReady(msg.getSender());
-                } else if (content.startsWith("TOURIST_READY:")) {
-                    handleNewTouristInGroup(msg);
-                } else if (content.startsWith("GROUP_COHESION:")) {
-                    updateTouristCohesion(msg);
-                } else if (content.startsWith("JOIN_GROUP")) {
-                    redirectToCoordinator(msg.getSender());
-                }
+    private void handleAssignmentCancelled(ACLMessage msg) {
+        if (isAvailable || assignmentId == null || !assignmentId.equals(msg.getConversationId())) return;
+        
+        System.out.println("Guide " + getLocalName() + " : affectation annulée par le coordinateur, " +
+                         "groupe de " + assignedTourists.size() + " touristes abandonné");
+        tourEpoch++;
+        prepareForNextTour();
+    }
+    
+    /**
+     * Reprend la visite d'un cliché. Les messages en transit sont perdus :
+     * une visite non commencée redémarre, une visite commencée rejoue le
+     * déplacement et l'explication du tableau en cours. Le topic du groupe est
+     * recréé à la reprise, une fois les touristes restaurés après le guide.
+     */
+    private void resumeTour() {
+        GuideIndex.getInstance().markBusy(getAID(), assignedTourists.size());
+        groupManager.initialize(assignedTourists.size());
+        System.out.println("Guide " + getLocalName() + " reprend la visite de " + assignedTourists.size() +
+                         " touristes au tableau " + currentTableau);
+        
+        scheduleTourStep(3000, () -> {
+            groupChannel = new GroupChannel(this, "groupe-" + getLocalName(), assignedTourists);
+            if (isGuiding) {
+                currentTableau = Math.max(0, currentTableau - 1);
+                moveToNextTableau();
             } else {
-                block();
+                startGuidedTour();
             }
-        }
+        });
+    }
+    
+    /**
+     * Planifie une étape de la visite en cours, ignorée si la visite est abandonnée entre-temps
+     */
+    private void scheduleTourStep(long delay, Runnable step) {
+        int epoch = tourEpoch;
+        timers.schedule(this, delay, () -> {
+            if (epoch == tourEpoch) {
+                step.run();
+            }
+        });
+    }
+    
+    private void handleNewTouristInGroup(ACLMessage msg) {
+        AID touristAID = msg.getSender();
         
-        private void handleNewTouristInGroup(ACLMessage msg) {
-            AID touristAID = msg.getSender();
-            
-            // Accueillir le nouveau membre et expliquer la formation de groupe
-            String welcomeMsg = String.format("WELCOME_GROUP:%s:%s", 
-                    profile.getSpecialization(), currentLocation);
-            sendMessage(touristAID, ACLMessage.INFORM, welcomeMsg);
-            
-            // Donner des instructions de formation de groupe
-            String formationMsg = "GROUP_FORMATION:" + currentFormation.toString();
-            sendMessage(touristAID, ACLMessage.INFORM, formationMsg);
+        // Accueillir le nouveau membre et expliquer la formation de groupe
+        String welcomeMsg = String.format("WELCOME_GROUP:%s:%s", 
+                profile.getSpecialization(), currentLocation);
+        sendMessage(touristAID, ACLMessage.INFORM, welcomeMsg);
+        
+        // Donner des instructions de formation de groupe
+        String formationMsg = "GROUP_FORMATION:" + currentFormation.toString();
+        sendMessage(touristAID, ACLMessage.INFORM, formationMsg);
+        
+        System.out.println("Guide " + getLocalName() + " accueille " + 
+                         touristAID.getLocalName() + " dans le groupe en formation " + 
+                         currentFormation);
+    }
+    
+    private void updateTouristCohesion(ACLMessage msg) {
+        GroupCohesion signal = GroupCohesion.from(msg);
+        if (signal != null) {
+            groupAggregates.put(msg.getSender(), TouristStatus.Metric.GROUP_COHESION, signal.getCohesion());
             
-            System.out.println("Guide " + getLocalName() + " accueille " + 
-                             touristAID.getLocalName() + " dans le groupe en formation " + 
-                             currentFormation);
-        }
-        
-        private void updateTouristCohesion(ACLMessage msg) {
-            String[] parts = msg.getContent().split(":");
-            if (parts.length >= 2) {
-                double cohesion = Double.parseDouble(parts[1]);
-                touristCohesion.put(msg.getSender(), cohesion);
-                
-                // Vérifier si le groupe a besoin de regroupement
-                checkGroupCohesionAndAdjust();
-            }
+            // Vérifier si le groupe a besoin de regroupement
+            checkGroupCohesionAndAdjust();
         }
     }
     
     /**
      * Surveillance de la cohésion de groupe
      */
-    private class GroupCohesionMonitorBehavior extends TickerBehaviour {
-        public GroupCohesionMonitorBehavior() {
-            super(GuideAgent.this, 8000); // Vérification toutes les 8 secondes
+    private void onCohesionCheck() {
+        if (isGuiding && !assignedTourists.isEmpty()) {
+            monitorGroupCohesion();
+            adjustGuidanceStrategy();
         }
+    }
+    
+    private void monitorGroupCohesion() {
+        double averageCohesion = getAverageGroupCohesion();
         
-        @Override
-        protected void onTick() {
-            if (isGuiding && !assignedTourists.isEmpty()) {
-                monitorGroupCohesion();
-                adjustGuidanceStrategy();
-            }
-        }
+        System.out.println("Guide " + getLocalName() + " surveille le groupe - Cohésion: " + 
+                         String.format("%.2f", averageCohesion));
         
-        private void monitorGroupCohesion() {
-            double averageCohesion = getAverageGroupCohesion();
-            
-            System.out.println("Guide " + getLocalName() + " surveille le groupe - Cohésion: " + 
-                             String.format("%.2f", averageCohesion));
-            
-            if (averageCohesion < groupCohesionThreshold) {
-                regroupTourists();
-            } else if (averageCohesion > 0.8) {
-                // Groupe très cohésif, on peut accélérer un peu
-                groupManager.setOptimalPace(true);
-            }
+        if (averageCohesion < groupCohesionThreshold) {
+            regroupTourists();
+        } else if (averageCohesion > 0.8) {
+            // Groupe très cohésif, on peut accélérer un peu
+            groupManager.setOptimalPace(true);
         }
+    }
+    
+    private void adjustGuidanceStrategy() {
+        double avgSatisfaction = getAverageSatisfaction();
+        double avgFatigue = getAverageFatigue();
+        double avgCohesion = getAverageGroupCohesion();
         
-        private void adjustGuidanceStrategy() {
-            double avgSatisfaction = getAverageSatisfaction();
-            double avgFatigue = getAverageFatigue();
-            double avgCohesion = getAverageGroupCohesion();
-            
-            // Ajuster la stratégie selon l'état du groupe
-            if (avgFatigue > 0.7) {
-                proposePause();
-                currentFormation = GroupFormation.CLUSTER; // Formation plus relaxée
-            } else if (avgCohesion < 0.5) {
-                // Groupe dispersé, formation plus stricte
-                changeGroupFormation(GroupFormation.LINE);
-                slowDownForCohesion();
-            } else if (avgSatisfaction > 0.8 && avgCohesion > 0.7) {
-                // Groupe engagé et cohésif
-                currentFormation = GroupFormation.CIRCLE;
-                encourageParticipation();
-            }
+        // Ajuster la stratégie selon l'état du groupe
+        if (avgFatigue > 0.7) {
+            proposePause();
+            currentFormation = GroupFormation.CLUSTER; // Formation plus relaxée
+        } else if (avgCohesion < 0.5) {
+            // Groupe dispersé, formation plus stricte
+            changeGroupFormation(GroupFormation.LINE);
+            slowDownForCohesion();
+        } else if (avgSatisfaction > 0.8 && avgCohesion > 0.7) {
+            // Groupe engagé et cohésif
+            currentFormation = GroupFormation.CIRCLE;
+            encourageParticipation();
         }
     }
     
     /**
      * Surveillance des performances avec métriques de groupe
      */
-    private class PerformanceMonitorBehavior extends TickerBehaviour {
-        public PerformanceMonitorBehavior() {
-            super(GuideAgent.this, 12000);
+    private void onPerformanceCheck() {
+        if (coordinatorAgent != null && isGuiding) {
+            sendEnhancedPerformanceReport();
         }
+    }
+    
+    private void sendEnhancedPerformanceReport() {
+        double avgSatisfaction = getAverageSatisfaction();
+        double avgFatigue = getAverageFatigue();
+        double avgCohesion = getAverageGroupCohesion();
         
-        @Override
-        protected void onTick() {
-            if (coordinatorAgent != null && isGuiding) {
-                sendEnhancedPerformanceReport();
-            }
-        }
+        PerformanceReport report = new PerformanceReport(
+                currentLocation,
+                assignedTourists.size(),
+                currentTableau,
+                avgSatisfaction,
+                avgFatigue,
+                avgCohesion,
+                currentFormation.toString());
         
-        private void sendEnhancedPerformanceReport() {
-            double avgSatisfaction = getAverageSatisfaction();
-            double avgFatigue = getAverageFatigue();
-            double avgCohesion = getAverageGroupCohesion();
-            
-            String report = String.format("ENHANCED_REPORT:%s:%d:%d:%.2f:%.2f:%.2f:%s",
-                    currentLocation,
-                    assignedTourists.size(),
-                    currentTableau,
-                    avgSatisfaction,
-                    avgFatigue,
-                    avgCohesion,
-                    currentFormation.toString());
-            
-            sendMessage(coordinatorAgent, ACLMessage.INFORM, report);
-        }
+        sendMessage(coordinatorAgent, ACLMessage.INFORM, report);
     }
     
     // Méthodes principales améliorées
@@ -360,6 +401,7 @@ public class GuideAgent extends Agent {
         isGuiding = true;
         currentTableau = 0;
         waitingForGroup = false;
+        EventJournal.tourStarted(getName(), assignedTourists.size());
         
         System.out.println("Guide " + getLocalName() + " commence la visite guidée avec " + 
                          assignedTourists.size() + " touristes");
@@ -368,27 +410,20 @@ public class GuideAgent extends Agent {
         formInitialGroup();
         
         // Démarrer la visite
-        addBehaviour(new WakerBehaviour(this, 3000) {
-            @Override
-            protected void onWake() {
-                moveToTableau(TABLEAU_SEQUENCE[0]);
-            }
-        });
+        scheduleTourStep(3000, () -> moveToTableau(TABLEAU_SEQUENCE[0]));
     }
     
     private void formInitialGroup() {
         // Demander à tous les touristes de se former en groupe
         currentFormation = GroupFormation.CLUSTER;
         
-        for (AID tourist : assignedTourists) {
-            String welcomeMsg = String.format("WELCOME_GROUP:%s:%s",
-                    profile.getSpecialization(), currentLocation);
-            sendMessage(tourist, ACLMessage.INFORM, welcomeMsg);
-            
-            // Instructions de formation
-            String formationMsg = "GROUP_FORMATION:" + currentFormation.toString();
-            sendMessage(tourist, ACLMessage.INFORM, formationMsg);
-        }
+        String welcomeMsg = String.format("WELCOME_GROUP:%s:%s",
+                profile.getSpecialization(), currentLocation);
+        groupChannel.broadcast(ACLMessage.INFORM, welcomeMsg);
+        
+        // Instructions de formation
+        String formationMsg = "GROUP_FORMATION:" + currentFormation.toString();
+        groupChannel.broadcast(ACLMessage.INFORM, formationMsg);
         
         System.out.println("Guide " + getLocalName() + " forme le groupe initial en " + currentFormation);
     }
@@ -401,22 +436,17 @@ public class GuideAgent extends Agent {
         ensureGroupCohesion();
         
         // Informer tous les touristes du déplacement avec instruction de groupe
-        for (AID tourist : assignedTourists) {
-            sendMessage(tourist, ACLMessage.INFORM, "MOVE_TO:" + tableau);
-        }
+        groupChannel.broadcast(ACLMessage.INFORM, "MOVE_TO:" + tableau);
         
         // Attendre que le groupe soit prêt avant de commencer l'explication
         waitingForGroup = true;
         groupCheckCounter = 0;
         
-        addBehaviour(new WakerBehaviour(this, 4000) {
-            @Override
-            protected void onWake() {
-                if (isGroupReady()) {
-                    startExplanation(tableau);
-                } else {
-                    waitForGroup(tableau);
-                }
+        scheduleTourStep(4000, () -> {
+            if (isGroupReady()) {
+                startExplanation(tableau);
+            } else {
+                waitForGroup(tableau);
             }
         });
         
@@ -428,22 +458,14 @@ public class GuideAgent extends Agent {
         
         if (groupCheckCounter >= 3) { // Après 3 tentatives
             regroupTourists();
-            addBehaviour(new WakerBehaviour(this, 3000) {
-                @Override
-                protected void onWake() {
-                    startExplanation(tableau);
-                }
-            });
+            scheduleTourStep(3000, () -> startExplanation(tableau));
         } else {
             // Réessayer
-            addBehaviour(new WakerBehaviour(this, 2000) {
-                @Override
-                protected void onWake() {
-                    if (isGroupReady()) {
-                        startExplanation(tableau);
-                    } else {
-                        waitForGroup(tableau);
-                    }
+            scheduleTourStep(2000, () -> {
+                if (isGroupReady()) {
+                    startExplanation(tableau);
+                } else {
+                    waitForGroup(tableau);
                 }
             });
         }
@@ -465,8 +487,10 @@ public class GuideAgent extends Agent {
         
         // Adapter le style selon la cohésion du groupe
         double avgCohesion = getAverageGroupCohesion();
+        int style = Explanation.STYLE_STANDARD;
         if (avgCohesion > 0.8) {
             explanation += " [Version interactive pour groupe cohésif]";
+            style = Explanation.STYLE_INTERACTIVE;
         } else if (avgCohesion < 0.5) {
             explanation += " [Version structurée pour regrouper l'attention]";
         }
@@ -474,44 +498,51 @@ public class GuideAgent extends Agent {
         // Formation optimale pour l'écoute
         changeGroupFormation(GroupFormation.CIRCLE);
         
-        // Diffuser l'explication
-        for (AID tourist : assignedTourists) {
-            sendMessage(tourist, ACLMessage.INFORM, "EXPLANATION:" + explanation);
-        }
+        // Diffuser l'explication, étiquetée une fois pour tout le groupe
+        groupChannel.broadcast(ACLMessage.INFORM, Explanation.of(explanation, style));
         
         System.out.println("Guide " + getLocalName() + " explique " + tableau + 
                          " au groupe en formation " + currentFormation);
     }
     
     private void processTouristStatusWithCohesion(ACLMessage msg) {
-        String[] parts = msg.getContent().split(":");
-        if (parts.length >= 3) {
-            String status = parts[1];
-            double value = Double.parseDouble(parts[2]);
-            AID touristAID = msg.getSender();
-            
-            switch (status) {
-                case "SATISFACTION":
-                    touristSatisfaction.put(touristAID, value);
-                    break;
-                case "FATIGUE":
-                    touristFatigue.put(touristAID, value);
-                    break;
-                case "GROUP_COHESION":
-                    touristCohesion.put(touristAID, value);
-                    break;
-            }
-            
-            // Réaction adaptée selon l'état du groupe
-            double avgCohesion = getAverageGroupCohesion();
-            if (avgCohesion < groupCohesionThreshold) {
-                regroupTourists();
-            }
-            
-            if (getAverageFatigue() > 0.8) {
-                proposePause();
+        TouristStatus status = TouristStatus.from(msg);
+        if (status != null) {
+            groupAggregates.put(msg.getSender(), status.getMetric(), status.getValue());
+            reactToGroupState();
+        }
+    }
+    
+    /**
+     * Applique un rapport groupé en une seule fois : mise à jour des métriques
+     * présentes puis une seule réévaluation de l'état du groupe
+     */
+    private void applyStatusReport(ACLMessage msg) {
+        TouristStatusReport report = TouristStatusReport.from(msg);
+        if (report == null || report.isEmpty()) return;
+        
+        int index = groupAggregates.indexOf(msg.getSender());
+        for (TouristStatus.Metric metric : TouristStatus.Metric.values()) {
+            if (report.has(metric)) {
+                groupAggregates.put(index, metric, report.get(metric));
             }
         }
+        
+        reactToGroupState();
+    }
+    
+    /**
+     * Réaction adaptée selon l'état du groupe
+     */
+    private void reactToGroupState() {
+        double avgCohesion = getAverageGroupCohesion();
+        if (avgCohesion < groupCohesionThreshold) {
+            regroupTourists();
+        }
+        
+        if (getAverageFatigue() > 0.8) {
+            proposePause();
+        }
     }
     
     private void answerQuestionToGroup(ACLMessage questionMsg) {
@@ -520,12 +551,7 @@ public class GuideAgent extends Agent {
         // Répondre à tout le groupe, pas seulement à celui qui a posé la question
         String answer = generateAnswer(question);
         
-        for (AID tourist : assignedTourists) {
-            ACLMessage reply = new ACLMessage(ACLMessage.INFORM);
-            reply.addReceiver(tourist);
-            reply.setContent("ANSWER:" + answer);
-            send(reply);
-        }
+        groupChannel.broadcast(ACLMessage.INFORM, "ANSWER:" + answer);
         
         System.out.println("Guide " + getLocalName() + " répond à une question pour tout le groupe");
     }
@@ -546,17 +572,12 @@ public class GuideAgent extends Agent {
         changeGroupFormation(GroupFormation.LINE);
         
         // Envoyer un message de regroupement
-        for (AID tourist : assignedTourists) {
-            sendMessage(tourist, ACLMessage.INFORM, "REGROUP_PLEASE:Veuillez vous rapprocher du groupe");
-        }
+        groupChannel.broadcast(ACLMessage.INFORM, "REGROUP_PLEASE:Veuillez vous rapprocher du groupe");
         
         // Attendre un peu pour le regroupement
-        addBehaviour(new WakerBehaviour(this, 3000) {
-            @Override
-            protected void onWake() {
-                // Revenir à la formation normale
-                changeGroupFormation(GroupFormation.CLUSTER);
-            }
+        scheduleTourStep(3000, () -> {
+            // Revenir à la formation normale
+            changeGroupFormation(GroupFormation.CLUSTER);
         });
     }
     
@@ -565,10 +586,7 @@ public class GuideAgent extends Agent {
             currentFormation = newFormation;
             
             // Informer tous les touristes du changement
-            for (AID tourist : assignedTourists) {
-                sendMessage(tourist, ACLMessage.INFORM, 
-                          "GROUP_FORMATION:" + newFormation.toString());
-            }
+            groupChannel.broadcast(ACLMessage.INFORM, "GROUP_FORMATION:" + newFormation.toString());
             
             System.out.println("Guide " + getLocalName() + " change la formation du groupe vers " + 
                              newFormation);
@@ -579,19 +597,15 @@ public class GuideAgent extends Agent {
         groupManager.setSlowMode(true);
         
         // Informer les touristes de ralentir
-        for (AID tourist : assignedTourists) {
-            sendMessage(tourist, ACLMessage.INFORM, "SLOW_DOWN:Ralentissons le rythme");
-        }
+        groupChannel.broadcast(ACLMessage.INFORM, "SLOW_DOWN:Ralentissons le rythme");
         
         System.out.println("Guide " + getLocalName() + " ralentit pour maintenir la cohésion");
     }
     
     private void encourageParticipation() {
         // Encourager les questions et interactions
-        for (AID tourist : assignedTourists) {
-            sendMessage(tourist, ACLMessage.INFORM, 
-                      "ENCOURAGE_PARTICIPATION:N'hésitez pas à poser vos questions");
-        }
+        groupChannel.broadcast(ACLMessage.INFORM, 
+                "ENCOURAGE_PARTICIPATION:N'hésitez pas à poser vos questions");
         
         System.out.println("Guide " + getLocalName() + " encourage la participation du groupe");
     }
@@ -621,22 +635,12 @@ public class GuideAgent extends Agent {
         
         // Vérifier si tout le groupe est prêt
         // Pour simplifier, on continue après quelques secondes
-        addBehaviour(new WakerBehaviour(this, 2000) {
-            @Override
-            protected void onWake() {
-                checkIfGroupReadyToContinue();
-            }
-        });
+        scheduleTourStep(2000, this::checkIfGroupReadyToContinue);
     }
     
     private void checkIfGroupReadyToContinue() {
         if (currentTableau < TABLEAU_SEQUENCE.length) {
-            addBehaviour(new WakerBehaviour(this, 5000) {
-                @Override
-                protected void onWake() {
-                    moveToNextTableau();
-                }
-            });
+            scheduleTourStep(5000, this::moveToNextTableau);
         } else {
             endTour();
         }
@@ -659,17 +663,16 @@ public class GuideAgent extends Agent {
         // Mettre à jour le profil avec les métriques de groupe
         profile.updatePerformance(groupSatisfaction, getAverageFatigue());
         groupManager.recordTourCompletion(groupSatisfaction, groupCohesion);
+        EventJournal.tourEnded(getName(), groupSatisfaction);
         
         // Formation finale pour les remerciements
         changeGroupFormation(GroupFormation.CIRCLE);
         
         // Informer les touristes de la fin
-        for (AID tourist : assignedTourists) {
-            String endMessage = String.format("TOUR_END:Merci pour cette visite guidée ! " +
-                    "Satisfaction du groupe: %.2f - Cohésion: %.2f", 
-                    groupSatisfaction, groupCohesion);
-            sendMessage(tourist, ACLMessage.INFORM, endMessage);
-        }
+        String endMessage = String.format("TOUR_END:Merci pour cette visite guidée ! " +
+                "Satisfaction du groupe: %.2f - Cohésion: %.2f", 
+                groupSatisfaction, groupCohesion);
+        groupChannel.broadcast(ACLMessage.INFORM, endMessage);
         
         System.out.println("Guide " + getLocalName() + " termine la visite de groupe - " +
                          "Satisfaction: " + String.format("%.2f", groupSatisfaction) +
@@ -685,40 +688,32 @@ public class GuideAgent extends Agent {
         
         // Se diriger vers la sortie avec le groupe
         currentLocation = "Sortie";
-        for (AID tourist : assignedTourists) {
-            sendMessage(tourist, ACLMessage.INFORM, "MOVE_TO:Sortie");
-        }
+        groupChannel.broadcast(ACLMessage.INFORM, "MOVE_TO:Sortie");
         
         // Préparer le recyclage
-        addBehaviour(new WakerBehaviour(this, 3000) {
-            @Override
-            protected void onWake() {
-                prepareForNextTour();
-            }
-        });
+        scheduleTourStep(3000, this::prepareForNextTour);
     }
     
     private void proposePause() {
         currentLocation = "SalleRepos";
         changeGroupFormation(GroupFormation.CLUSTER); // Formation relaxée pour la pause
         
-        for (AID tourist : assignedTourists) {
-            sendMessage(tourist, ACLMessage.INFORM, "MOVE_TO:SalleRepos");
-            sendMessage(tourist, ACLMessage.PROPOSE, "BREAK_PROPOSAL:5");
-        }
+        groupChannel.broadcast(ACLMessage.INFORM, "MOVE_TO:SalleRepos");
+        groupChannel.broadcast(ACLMessage.PROPOSE, "BREAK_PROPOSAL:5");
         System.out.println("Guide " + getLocalName() + " propose une pause au groupe fatigué");
     }
     
     private void prepareForNextTour() {
         // Réinitialiser pour un nouveau groupe
         assignedTourists.clear();
-        touristSatisfaction.clear();
-        touristFatigue.clear();
-        touristCohesion.clear();
+        groupChannel.clear();
+        groupAggregates.clear();
         currentTableau = 0;
         currentLocation = "PointA";
         isGuiding = false;
         isAvailable = true;
+        assignmentId = null;
+        GuideIndex.getInstance().markAvailable(getAID());
         waitingForGroup = false;
         groupCheckCounter = 0;
         
@@ -748,22 +743,23 @@ public class GuideAgent extends Agent {
         ACLMessage message = new ACLMessage(performative);
         message.addReceiver(receiver);
         message.setContent(content);
-        send(message);
+        send(VisitorAddress.route(message));
+    }
+    
+    protected void sendMessage(AID receiver, int performative, ProtocolMessage content) {
+        send(VisitorAddress.route(MessageCodec.create(performative, receiver, content)));
     }
     
     private double getAverageSatisfaction() {
-        if (touristSatisfaction.isEmpty()) return 0.5;
-        return touristSatisfaction.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.5);
+        return groupAggregates.mean(TouristStatus.Metric.SATISFACTION, DEFAULT_SATISFACTION);
     }
     
     private double getAverageFatigue() {
-        if (touristFatigue.isEmpty()) return 0.0;
-        return touristFatigue.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        return groupAggregates.mean(TouristStatus.Metric.FATIGUE, DEFAULT_FATIGUE);
     }
     
     private double getAverageGroupCohesion() {
-        if (touristCohesion.isEmpty()) return 0.7; // Valeur par défaut
-        return touristCohesion.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.7);
+        return groupAggregates.mean(TouristStatus.Metric.GROUP_COHESION, DEFAULT_COHESION);
     }
     
     private String generateAnswer(String question) {
@@ -825,6 +821,10 @@ public class GuideAgent extends Agent {
     public GroupFormation getCurrentFormation() { return currentFormation; }
     public double getGroupCohesionThreshold() { return groupCohesionThreshold; }
     public GroupManager getGroupManager() { return groupManager; }
+    public GroupAggregates getGroupAggregates() { return groupAggregates; }
+    public MessageRouter getRouter() { return router; }
+    public MessageHandler getMessageHandler() { return messageHandler; }
+    public GroupChannel getGroupChannel() { return groupChannel; }
     
     // Méthodes pour compatibilité avec l'ancien système
     public TourManager getTourManager() {
@@ -866,8 +866,81 @@ public class GuideAgent extends Agent {
         };
     }
     
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        profile.writeTo(out);
+        out.writeDouble(groupCohesionThreshold);
+        out.writeInt(groupManager.totalGroups);
+        out.writeDouble(groupManager.totalGroupSatisfaction);
+        out.writeDouble(groupManager.totalGroupCohesion);
+        // Visite acceptée et pas encore terminée : groupe, étape et métriques par touriste
+        boolean inTour = assignmentId != null && (isGuiding || currentTableau == 0);
+        out.writeBoolean(inTour);
+        if (inTour) {
+            out.writeUTF(assignmentId);
+            out.writeBoolean(isGuiding);
+            out.writeInt(currentTableau);
+            out.writeUTF(currentLocation);
+            out.writeByte(currentFormation.ordinal());
+            out.writeInt(assignedTourists.size());
+            for (AID tourist : assignedTourists) {
+                out.writeUTF(tourist.getLocalName());
+                for (TouristStatus.Metric metric : TouristStatus.Metric.values()) {
+                    out.writeDouble(groupAggregates.get(tourist, metric, Double.NaN)); // NaN : pas encore reçue
+                }
+            }
+        }
+    }
+    
+    @Override
+    public int getRestoreOrder() {
+        return 1;
+    }
+    
+    /**
+     * Reprise d'un cliché : profil, seuil et bilan des groupes conservés, ainsi
+     * que la visite en cours ; sans visite, le guide redevient disponible
+     */
+    private boolean restoreState(DataInputStream in) {
+        try {
+            profile = GuideProfile.readFrom(in, RandomStreams.forAgent(this));
+            groupCohesionThreshold = in.readDouble();
+            groupManager.totalGroups = in.readInt();
+            groupManager.totalGroupSatisfaction = in.readDouble();
+            groupManager.totalGroupCohesion = in.readDouble();
+            if (in.readBoolean()) {
+                assignmentId = in.readUTF();
+                isGuiding = in.readBoolean();
+                currentTableau = in.readInt();
+                currentLocation = in.readUTF();
+                currentFormation = GroupFormation.values()[in.readByte()];
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    AID tourist = new AID(in.readUTF(), AID.ISLOCALNAME);
+                    assignedTourists.add(tourist);
+                    int index = groupAggregates.indexOf(tourist);
+                    for (TouristStatus.Metric metric : TouristStatus.Metric.values()) {
+                        double value = in.readDouble();
+                        if (!Double.isNaN(value)) {
+                            groupAggregates.put(index, metric, value);
+                        }
+                    }
+                }
+                isAvailable = false;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Cliché illisible pour " + getLocalName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
     @Override
     protected void takeDown() {
+        SimulationSnapshot.unregister(this);
+        TimerWheel.release(this);
+        DirectoryCache.release(this);
+        GuideIndex.getInstance().unregister(getAID());
         try {
             DFService.deregister(this);
         } catch (FIPAException fe) {
@@ -1,7 +1,11 @@
 package agents.guide;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Random;
+import java.util.SplittableRandom;
+import utils.RandomStreams;
 
 /**
  * Profil d'un guide avec ses spécialisations et performances
@@ -17,27 +21,36 @@ public class GuideProfile {
     private double averageSatisfaction;
     private double averageFatigue;
     private Map<String, Double> tableauExpertise;  // Expertise par tableau
+    private final SplittableRandom random;
     
     public GuideProfile(String name) {
-        initializeRandomProfile(name);
+        this.random = RandomStreams.forName(name);
+        initializeRandomProfile();
     }
     
     public GuideProfile(String specialization, int experienceLevel) {
+        this(specialization, experienceLevel, RandomStreams.split());
+    }
+    
+    /**
+     * Profil dont les tirages viennent du flux fourni (celui de l'agent guide)
+     */
+    public GuideProfile(String specialization, int experienceLevel, SplittableRandom random) {
+        this.random = random;
         this.specialization = specialization;
         this.experienceLevel = Math.max(0, Math.min(10, experienceLevel));
         initializeSkills();
     }
     
     /**
-     * Initialise un profil aléatoire basé sur le nom
+     * Initialise un profil aléatoire tiré du flux du guide
      */
-    private void initializeRandomProfile(String name) {
+    private void initializeRandomProfile() {
         String[] specializations = {"Renaissance", "Moderne", "Impressionniste", 
                                   "Contemporain", "Classique", "Baroque"};
         
-        Random rand = new Random(name.hashCode());
-        this.specialization = specializations[rand.nextInt(specializations.length)];
-        this.experienceLevel = rand.nextInt(8) + 2; // 2-10
+        this.specialization = specializations[random.nextInt(specializations.length)];
+        this.experienceLevel = random.nextInt(8) + 2; // 2-10
         
         initializeSkills();
     }
@@ -46,15 +59,13 @@ public class GuideProfile {
      * Initialise les compétences basées sur l'expérience et la spécialisation
      */
     private void initializeSkills() {
-        Random rand = new Random();
-        
         // Base sur le niveau d'expérience
         double baseSkill = 0.4 + (experienceLevel / 10.0) * 0.4;
         
-        this.efficiency = baseSkill + rand.nextDouble() * 0.2;
-        this.knowledge = baseSkill + rand.nextDouble() * 0.2;
-        this.communication = baseSkill + rand.nextDouble() * 0.2;
-        this.adaptability = baseSkill + rand.nextDouble() * 0.2;
+        this.efficiency = baseSkill + random.nextDouble() * 0.2;
+        this.knowledge = baseSkill + random.nextDouble() * 0.2;
+        this.communication = baseSkill + random.nextDouble() * 0.2;
+        this.adaptability = baseSkill + random.nextDouble() * 0.2;
         
         // Ajustements selon la spécialisation
         applySpecializationBonus();
@@ -116,7 +127,7 @@ public class GuideProfile {
         
         for (String tableau : tableaux) {
             // Expertise plus élevée pour les tableaux de sa spécialisation
-            double expertise = knowledge * 0.8 + Math.random() * 0.2;
+            double expertise = knowledge * 0.8 + random.nextDouble() * 0.2;
             
             // Bonus pour les tableaux correspondant à la spécialisation
             if (isTableauInSpecialization(tableau)) {
@@ -175,8 +186,7 @@ public class GuideProfile {
         }
         
         // Amélioration aléatoire d'une compétence
-        Random rand = new Random();
-        switch (rand.nextInt(4)) {
+        switch (random.nextInt(4)) {
             case 0:
                 efficiency = Math.min(1.0, efficiency + improvement);
                 break;
@@ -240,6 +250,46 @@ public class GuideProfile {
     public double getAverageSatisfaction() { return averageSatisfaction; }
     public double getAverageFatigue() { return averageFatigue; }
     
+    /**
+     * Écrit le profil dans un cliché
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(specialization);
+        out.writeInt(experienceLevel);
+        out.writeDouble(efficiency);
+        out.writeDouble(knowledge);
+        out.writeDouble(communication);
+        out.writeDouble(adaptability);
+        out.writeInt(completedTours);
+        out.writeDouble(averageSatisfaction);
+        out.writeDouble(averageFatigue);
+        out.writeByte(tableauExpertise.size());
+        for (Map.Entry<String, Double> entry : tableauExpertise.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeDouble(entry.getValue());
+        }
+    }
+    
+    /**
+     * Relit un profil écrit par {@link #writeTo}, avec le flux aléatoire fourni
+     */
+    public static GuideProfile readFrom(DataInput in, SplittableRandom random) throws IOException {
+        GuideProfile profile = new GuideProfile(in.readUTF(), in.readInt(), random);
+        profile.efficiency = in.readDouble();
+        profile.knowledge = in.readDouble();
+        profile.communication = in.readDouble();
+        profile.adaptability = in.readDouble();
+        profile.completedTours = in.readInt();
+        profile.averageSatisfaction = in.readDouble();
+        profile.averageFatigue = in.readDouble();
+        int count = in.readByte();
+        profile.tableauExpertise.clear();
+        for (int i = 0; i < count; i++) {
+            profile.tableauExpertise.put(in.readUTF(), in.readDouble());
+        }
+        return profile;
+    }
+    
     public Map<String, Double> getTableauExpertise() { 
         return new HashMap<>(tableauExpertise); 
     }
@@ -1,6 +1,8 @@
 package agents.guide;
-import jade.core.AID;
+import agents.base.VisitorAddress;
+import agents.protocol.Explanation;
 import jade.lang.acl.ACLMessage;
+import utils.TimerWheel;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -69,12 +71,7 @@ public class TourManager {
         
         // Attendre puis commencer l'explication
         final String finalTableau = tableau;
-        guide.addBehaviour(new jade.core.behaviours.WakerBehaviour(guide, 3000) {
-            @Override
-            protected void onWake() {
-                startExplanation(finalTableau);
-            }
-        });
+        TimerWheel.forAgent(guide).schedule(guide, 3000, () -> startExplanation(finalTableau));
         
         logger.info("Groupe emmené vers " + tableau);
     }
@@ -87,9 +84,7 @@ public class TourManager {
         guide.getStatus().setCurrentLocation(location);
         
         // Informer tous les touristes du déplacement
-        for (AID tourist : guide.getAssignedTourists()) {
-            guide.sendMessage(tourist, ACLMessage.INFORM, "MOVE_TO:" + location);
-        }
+        guide.getGroupChannel().broadcast(ACLMessage.INFORM, "MOVE_TO:" + location);
     }
     
     /**
@@ -102,26 +97,27 @@ public class TourManager {
         }
         
         // Adapter l'explication selon le profil du guide et le mode adaptatif
-        String adaptedExplanation = adaptExplanation(baseExplanation, tableau);
+        Explanation adaptedExplanation = adaptExplanation(baseExplanation, tableau);
         
         // Diffuser l'explication à tous les touristes
-        for (AID tourist : guide.getAssignedTourists()) {
-            guide.sendMessage(tourist, ACLMessage.INFORM, "EXPLANATION:" + adaptedExplanation);
-        }
+        guide.getGroupChannel().broadcast(ACLMessage.INFORM, adaptedExplanation);
         
         logger.info("Explication donnée pour " + tableau);
     }
     
     /**
-     * Adapte l'explication selon les capacités du guide et le contexte
+     * Adapte l'explication selon les capacités du guide et le contexte,
+     * et l'étiquette pour les touristes
      */
-    private String adaptExplanation(String baseExplanation, String tableau) {
+    private Explanation adaptExplanation(String baseExplanation, String tableau) {
         StringBuilder adapted = new StringBuilder(baseExplanation);
+        int explanationStyle = Explanation.STYLE_STANDARD;
         
         // Adaptation selon l'expertise du guide pour ce tableau
         double expertise = profile.getTableauEfficiency(tableau);
         if (expertise > 0.8) {
             adapted.append(" [Détails approfondis basés sur l'expertise du guide]");
+            explanationStyle = Explanation.STYLE_DETAILED;
         }
         
         // Adaptation selon la spécialisation
@@ -134,16 +130,18 @@ public class TourManager {
         switch (style) {
             case "interactive":
                 adapted.append(" [Style interactif encouragé]");
+                explanationStyle = Explanation.STYLE_INTERACTIVE;
                 break;
             case "detailed":
                 adapted.append(" [Version détaillée technique]");
+                explanationStyle = Explanation.STYLE_TECHNICAL;
                 break;
             case "adaptive":
                 adapted.append(" [Adaptation au groupe en cours]");
                 break;
         }
         
-        return adapted.toString();
+        return Explanation.of(adapted.toString(), explanationStyle);
     }
     
     /**
@@ -175,7 +173,7 @@ public class TourManager {
         ACLMessage reply = questionMsg.createReply();
         reply.setPerformative(ACLMessage.INFORM);
         reply.setContent("ANSWER:" + generateAnswer(question));
-        guide.send(reply);
+        guide.send(VisitorAddress.route(reply));
         
         logger.info("Réponse à la question de " + questionMsg.getSender().getLocalName());
     }
@@ -215,9 +213,7 @@ public class TourManager {
     public void proposePause() {
         moveToLocation("SalleRepos");
         
-        for (AID tourist : guide.getAssignedTourists()) {
-            guide.sendMessage(tourist, ACLMessage.PROPOSE, "BREAK_PROPOSAL:5");
-        }
+        guide.getGroupChannel().broadcast(ACLMessage.PROPOSE, "BREAK_PROPOSAL:5");
         
         logger.info("Pause proposée au groupe");
     }
@@ -298,12 +294,7 @@ public class TourManager {
         moveToLocation("Sortie");
         
         // Programmer la fin de visite
-        guide.addBehaviour(new jade.core.behaviours.WakerBehaviour(guide, 3000) {
-            @Override
-            protected void onWake() {
-                guide.endTour();
-            }
-        });
+        TimerWheel.forAgent(guide).schedule(guide, 3000, guide::endTour);
     }
     
     /**
@@ -322,12 +313,7 @@ public class TourManager {
                 proposePause();
             } else if (groupSatisfaction > 0.6) {
                 // Le groupe apprécie, continuer
-                guide.addBehaviour(new jade.core.behaviours.WakerBehaviour(guide, 5000) {
-                    @Override
-                    protected void onWake() {
-                        moveToNextTableau();
-                    }
-                });
+                TimerWheel.forAgent(guide).schedule(guide, 5000, this::moveToNextTableau);
             }
         }
     }
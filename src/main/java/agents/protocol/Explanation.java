@@ -0,0 +1,146 @@
+package agents.protocol;
+
+import jade.lang.acl.ACLMessage;
+import java.util.Locale;
+
+/**
+ * Explication d'une œuvre diffusée par un guide à son groupe
+ * (forme texte : "EXPLANATION:texte"). Le guide y joint une fois pour toutes
+ * un jeu d'étiquettes compact que les touristes notent sans relire le texte :
+ * bits 0-5 : styles artistiques cités, bits 6-7 : classe de longueur,
+ * bits 8-10 : style de présentation.
+ */
+public final class Explanation implements ProtocolMessage {
+    /** Styles artistiques reconnus, dans l'ordre de leurs bits */
+    public static final String[] ART_STYLES = {
+        "Renaissance", "Moderne", "Impressionniste", "Contemporain", "Classique", "Baroque"
+    };
+    private static final String[] ART_STYLE_KEYS = new String[ART_STYLES.length];
+
+    public static final int ART_STYLE_MASK = (1 << ART_STYLES.length) - 1;
+
+    public static final int LENGTH_SHORT = 0;   // Jusqu'à 100 caractères
+    public static final int LENGTH_MEDIUM = 1;  // 101 à 150
+    public static final int LENGTH_LONG = 2;    // Plus de 150
+    private static final int LENGTH_SHIFT = 6;
+
+    public static final int STYLE_STANDARD = 0;
+    public static final int STYLE_DETAILED = 1;
+    public static final int STYLE_INTERACTIVE = 2;
+    public static final int STYLE_TECHNICAL = 3;
+    public static final int STYLE_HISTORICAL = 4;
+    public static final int STYLE_COUNT = 5;
+    private static final int STYLE_SHIFT = 8;
+
+    static {
+        for (int i = 0; i < ART_STYLES.length; i++) {
+            ART_STYLE_KEYS[i] = ART_STYLES[i].toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String text;
+    private final int tags;
+
+    public Explanation(String text, int tags) {
+        this.text = text;
+        this.tags = tags;
+    }
+
+    /**
+     * Explication étiquetée à partir de son texte et du style choisi par le guide
+     */
+    public static Explanation of(String text, int style) {
+        return new Explanation(text, tagsOf(text, style));
+    }
+
+    /**
+     * Étiquettes d'un texte : une seule passe en minuscules pour les styles cités
+     */
+    public static int tagsOf(String text, int style) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        int tags = 0;
+        for (int i = 0; i < ART_STYLE_KEYS.length; i++) {
+            if (lower.contains(ART_STYLE_KEYS[i])) {
+                tags |= 1 << i;
+            }
+        }
+        int length = text.length() > 150 ? LENGTH_LONG : text.length() > 100 ? LENGTH_MEDIUM : LENGTH_SHORT;
+        return tags | (length << LENGTH_SHIFT) | (style << STYLE_SHIFT);
+    }
+
+    /**
+     * Bit d'un style artistique, 0 s'il n'est pas reconnu
+     */
+    public static int artStyleBit(String style) {
+        for (int i = 0; i < ART_STYLES.length; i++) {
+            if (ART_STYLES[i].equalsIgnoreCase(style)) return 1 << i;
+        }
+        return 0;
+    }
+
+    /**
+     * Décode l'explication depuis un ACLMessage (binaire ou texte), null si invalide.
+     * En forme texte, les étiquettes sont recalculées et le style est standard.
+     * En binaire, une classe de longueur ou un style inconnus rendent la trame invalide.
+     */
+    public static Explanation from(ACLMessage msg) {
+        FrameReader in = MessageCodec.binaryPayload(msg, MessageKind.EXPLANATION);
+        if (in != null) {
+            int tags = in.readShort();
+            String text = in.readString();
+            return in.isTruncated() || !isValid(tags) ? null : new Explanation(text, tags);
+        }
+        return parse(msg.getContent());
+    }
+
+    /**
+     * Étiquettes dont chaque champ a une valeur connue
+     */
+    private static boolean isValid(int tags) {
+        return ((tags >> LENGTH_SHIFT) & 0x3) <= LENGTH_LONG
+            && ((tags >> STYLE_SHIFT) & 0x7) < STYLE_COUNT
+            && tags >> (STYLE_SHIFT + 3) == 0;
+    }
+
+    /**
+     * Analyse la forme texte historique
+     */
+    public static Explanation parse(String content) {
+        if (content == null || !MessageKind.EXPLANATION.matches(content)) return null;
+        int start = MessageKind.EXPLANATION.getToken().length() + 1;
+        String text = start <= content.length() ? content.substring(start) : "";
+        return of(text, STYLE_STANDARD);
+    }
+
+    @Override
+    public MessageKind getKind() {
+        return MessageKind.EXPLANATION;
+    }
+
+    @Override
+    public int payloadSize() {
+        return 2 + FrameWriter.sizeOf(text);
+    }
+
+    @Override
+    public void writePayload(FrameWriter out) {
+        out.putShort(tags);
+        out.putString(text);
+    }
+
+    @Override
+    public String toText() {
+        return "EXPLANATION:" + text;
+    }
+
+    public String getText() { return text; }
+    public int getTags() { return tags; }
+    public int getArtStyles() { return tags & ART_STYLE_MASK; }
+    public int getLengthClass() { return (tags >> LENGTH_SHIFT) & 0x3; }
+    public int getStyle() { return (tags >> STYLE_SHIFT) & 0x7; }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
@@ -0,0 +1,77 @@
+package agents.protocol;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lecture séquentielle d'une trame binaire produite par {@link FrameWriter}.
+ * Une lecture au-delà de la fin de la trame (trame tronquée ou longueur de
+ * chaîne incohérente) ne lève pas d'exception : elle retourne 0 ou une chaîne
+ * vide et marque la trame comme tronquée, ce que les décodeurs vérifient via
+ * {@link #isTruncated()} avant de construire le message.
+ */
+public final class FrameReader {
+    private final byte[] buffer;
+    private int position;
+    private boolean truncated;
+
+    public FrameReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    /**
+     * Vérifie que {@code count} octets restent à lire, sinon marque la trame comme tronquée
+     */
+    private boolean require(int count) {
+        if (truncated || remaining() < count) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+
+    public int readByte() {
+        if (!require(1)) return 0;
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readShort() {
+        if (!require(2)) return 0;
+        return ((buffer[position++] & 0xFF) << 8) | (buffer[position++] & 0xFF);
+    }
+
+    public int readInt() {
+        if (!require(4)) return 0;
+        return ((buffer[position++] & 0xFF) << 24)
+                | ((buffer[position++] & 0xFF) << 16)
+                | ((buffer[position++] & 0xFF) << 8)
+                | (buffer[position++] & 0xFF);
+    }
+
+    public long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public String readString() {
+        int length = readShort();
+        if (!require(length)) return "";
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public int remaining() {
+        return buffer.length - position;
+    }
+
+    /**
+     * Indique si une lecture a dépassé la fin de la trame
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,68 @@
+package agents.protocol;
+
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Signal de cohésion envoyé par un touriste à son guide
+ * (forme texte : "GROUP_COHESION:0.61")
+ */
+public final class GroupCohesion implements ProtocolMessage {
+    private final double cohesion;
+
+    public GroupCohesion(double cohesion) {
+        this.cohesion = cohesion;
+    }
+
+    /**
+     * Décode le signal depuis un ACLMessage (binaire ou texte), null si invalide
+     */
+    public static GroupCohesion from(ACLMessage msg) {
+        FrameReader in = MessageCodec.binaryPayload(msg, MessageKind.GROUP_COHESION);
+        if (in != null) {
+            double cohesion = in.readDouble();
+            return in.isTruncated() ? null : new GroupCohesion(cohesion);
+        }
+        return parse(msg.getContent());
+    }
+
+    /**
+     * Analyse la forme texte historique
+     */
+    public static GroupCohesion parse(String content) {
+        String[] fields = MessageCodec.textFields(content, MessageKind.GROUP_COHESION);
+        if (fields == null || fields.length < 1) return null;
+        try {
+            // Tolère la virgule décimale produite par String.format en locale française
+            return new GroupCohesion(Double.parseDouble(fields[0].replace(',', '.')));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public MessageKind getKind() {
+        return MessageKind.GROUP_COHESION;
+    }
+
+    @Override
+    public int payloadSize() {
+        return 8;
+    }
+
+    @Override
+    public void writePayload(FrameWriter out) {
+        out.putDouble(cohesion);
+    }
+
+    @Override
+    public String toText() {
+        return "GROUP_COHESION:" + cohesion;
+    }
+
+    public double getCohesion() { return cohesion; }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
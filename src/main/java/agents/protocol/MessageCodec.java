@@ -0,0 +1,114 @@
+package agents.protocol;
+
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Codec des messages du protocole.
+ * Les messages typés sont transportés en binaire compact via
+ * {@link ACLMessage#setByteSequenceContent(byte[])} : un octet magique,
+ * l'opcode du {@link MessageKind} puis la charge utile. La forme texte
+ * historique reste acceptée en lecture et peut être forcée en écriture
+ * (propriété système {@code museum.protocol.text=true}) pour dialoguer
+ * avec des agents qui ne connaissent pas l'encodage binaire.
+ */
+public final class MessageCodec {
+    public static final byte MAGIC = (byte) 0xA7;
+    public static final int HEADER_SIZE = 2;
+    public static final String TEXT_MODE_PROPERTY = "museum.protocol.text";
+
+    private static volatile boolean textMode = Boolean.getBoolean(TEXT_MODE_PROPERTY);
+
+    private MessageCodec() {
+    }
+
+    /**
+     * Active ou désactive l'émission en forme texte historique
+     */
+    public static void setTextMode(boolean enabled) {
+        textMode = enabled;
+    }
+
+    public static boolean isTextMode() {
+        return textMode;
+    }
+
+    /**
+     * Écrit un message typé dans le contenu d'un ACLMessage
+     */
+    public static void write(ACLMessage msg, ProtocolMessage message) {
+        if (textMode) {
+            msg.setContent(message.toText());
+        } else {
+            msg.setByteSequenceContent(encode(message));
+        }
+    }
+
+    /**
+     * Crée un ACLMessage prêt à l'envoi contenant un message typé
+     */
+    public static ACLMessage create(int performative, AID receiver, ProtocolMessage message) {
+        ACLMessage msg = new ACLMessage(performative);
+        msg.addReceiver(receiver);
+        write(msg, message);
+        return msg;
+    }
+
+    /**
+     * Encode un message typé en trame binaire
+     */
+    public static byte[] encode(ProtocolMessage message) {
+        byte[] frame = new byte[HEADER_SIZE + message.payloadSize()];
+        frame[0] = MAGIC;
+        frame[1] = message.getKind().getCode();
+        message.writePayload(new FrameWriter(frame, HEADER_SIZE));
+        return frame;
+    }
+
+    /**
+     * Vérifie si le message transporte une trame binaire du protocole
+     */
+    public static boolean isBinary(ACLMessage msg) {
+        if (!msg.hasByteSequenceContent()) return false;
+        byte[] frame = msg.getByteSequenceContent();
+        return frame != null && frame.length >= HEADER_SIZE && frame[0] == MAGIC;
+    }
+
+    /**
+     * Détermine le type d'un message, binaire ou texte
+     */
+    public static MessageKind kindOf(ACLMessage msg) {
+        if (isBinary(msg)) {
+            return MessageKind.fromCode(msg.getByteSequenceContent()[1]);
+        }
+        return MessageKind.fromText(msg.getContent());
+    }
+
+    /**
+     * Vérifie si un message est d'un type donné
+     */
+    public static boolean is(ACLMessage msg, MessageKind kind) {
+        return kindOf(msg) == kind;
+    }
+
+    /**
+     * Retourne un lecteur positionné sur la charge utile binaire si le message
+     * est une trame du type attendu, null sinon (forme texte)
+     */
+    static FrameReader binaryPayload(ACLMessage msg, MessageKind expected) {
+        if (!isBinary(msg)) return null;
+        byte[] frame = msg.getByteSequenceContent();
+        if (frame[1] != expected.getCode()) return null;
+        return new FrameReader(frame, HEADER_SIZE);
+    }
+
+    /**
+     * Découpe la forme texte "JETON:a:b:c" en champs (sans le jeton)
+     */
+    static String[] textFields(String content, MessageKind expected) {
+        if (!expected.matches(content)) return null;
+        int start = expected.getToken().length() + 1;
+        if (start > content.length()) return new String[0];
+        return content.substring(start).split(":");
+    }
+}
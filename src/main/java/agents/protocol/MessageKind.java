@@ -0,0 +1,150 @@
+package agents.protocol;
+
+/**
+ * Vocabulaire des messages échangés entre coordinateur, guides et touristes.
+ * Chaque type possède un jeton texte (forme historique "JETON:...") et un
+ * opcode stable utilisé par l'encodage binaire de {@link MessageCodec}.
+ */
+public enum MessageKind {
+    // Touriste -> Guide
+    STATUS(1, "STATUS"),
+    GROUP_COHESION(2, "GROUP_COHESION"),
+    QUESTION(3, "QUESTION"),
+    READY_NEXT(4, "READY_NEXT"),
+    TOURIST_READY(5, "TOURIST_READY"),
+    JOIN_GROUP(6, "JOIN_GROUP"),
+    BREAK_RESPONSE(7, "BREAK_RESPONSE"),
+    STATUS_REPORT(8, "STATUS_REPORT"),
+
+    // Coordinateur -> Guide
+    REGISTRATION_CONFIRMED(10, "REGISTRATION_CONFIRMED"),
+    ASSIGN_TOURISTS(11, "ASSIGN_TOURISTS"),
+    TOUR_COMPLETION_ACKNOWLEDGED(12, "TOUR_COMPLETION_ACKNOWLEDGED"),
+    CANCEL_ASSIGNMENT(13, "CANCEL_ASSIGNMENT"),
+
+    // Guide -> Coordinateur
+    ENHANCED_REPORT(20, "ENHANCED_REPORT"),
+    TOURISTS_ACCEPTED(21, "TOURISTS_ACCEPTED"),
+    GUIDE_BUSY(22, "GUIDE_BUSY"),
+    TOUR_COMPLETED(23, "TOUR_COMPLETED"),
+    GUIDE_AVAILABLE(24, "GUIDE_AVAILABLE"),
+    REGISTER_GUIDE(25, "REGISTER_GUIDE"),
+
+    // Touriste -> Coordinateur
+    REGISTER_TOURIST(30, "REGISTER_TOURIST"),
+    TOURIST_LEAVING(31, "TOURIST_LEAVING"),
+
+    // Coordinateur -> Touriste
+    WELCOME_MUSEUM(40, "WELCOME_MUSEUM"),
+    ASSIGNED_TO_GUIDE(41, "ASSIGNED_TO_GUIDE"),
+
+    // Guide -> Touriste
+    REDIRECT_TO_COORDINATOR(50, "REDIRECT_TO_COORDINATOR"),
+    WELCOME_GROUP(51, "WELCOME_GROUP"),
+    GROUP_FORMATION(52, "GROUP_FORMATION"),
+    MOVE_TO(53, "MOVE_TO"),
+    EXPLANATION(54, "EXPLANATION"),
+    ANSWER(55, "ANSWER"),
+    BREAK_PROPOSAL(56, "BREAK_PROPOSAL"),
+    TOUR_END(57, "TOUR_END"),
+    REGROUP_PLEASE(58, "REGROUP_PLEASE"),
+    SLOW_DOWN(59, "SLOW_DOWN"),
+    ENCOURAGE_PARTICIPATION(60, "ENCOURAGE_PARTICIPATION"),
+
+    // Rapports génériques (StatusReporter)
+    AGENT_STATUS(70, "AGENT_STATUS");
+
+    private static final MessageKind[] BY_CODE = new MessageKind[128];
+
+    // Table de hachage ouverte indexée par le hash du jeton texte
+    private static final int TOKEN_TABLE_SIZE = 128;
+    private static final MessageKind[] BY_TOKEN = new MessageKind[TOKEN_TABLE_SIZE];
+    private static int maxTokenLength;
+
+    static {
+        for (MessageKind kind : values()) {
+            BY_CODE[kind.code] = kind;
+
+            int slot = slotFor(kind.token.hashCode());
+            while (BY_TOKEN[slot] != null) {
+                slot = (slot + 1) & (TOKEN_TABLE_SIZE - 1);
+            }
+            BY_TOKEN[slot] = kind;
+            maxTokenLength = Math.max(maxTokenLength, kind.token.length());
+        }
+    }
+
+    private final byte code;
+    private final String token;
+
+    MessageKind(int code, String token) {
+        this.code = (byte) code;
+        this.token = token;
+    }
+
+    /**
+     * Opcode binaire (stable, indépendant de l'ordre de déclaration)
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Jeton texte de la forme historique
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Vérifie si un contenu texte correspond à ce type ("JETON" ou "JETON:...")
+     */
+    public boolean matches(String content) {
+        if (content == null || !content.startsWith(token)) {
+            return false;
+        }
+        return content.length() == token.length() || content.charAt(token.length()) == ':';
+    }
+
+    /**
+     * Retrouve le type correspondant à un opcode binaire
+     */
+    public static MessageKind fromCode(byte code) {
+        return code >= 0 ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Retrouve le type correspondant à un contenu texte historique.
+     * Le jeton (jusqu'au premier ':') est haché sans allocation puis
+     * recherché dans une table : coût indépendant du nombre de types.
+     */
+    public static MessageKind fromText(String content) {
+        if (content == null) return null;
+
+        int hash = 0;
+        int length = 0;
+        int max = Math.min(content.length(), maxTokenLength + 1);
+        while (length < max) {
+            char c = content.charAt(length);
+            if (c == ':') break;
+            hash = 31 * hash + c;
+            length++;
+        }
+        if (length > maxTokenLength) return null;
+
+        int slot = slotFor(hash);
+        MessageKind candidate;
+        while ((candidate = BY_TOKEN[slot]) != null) {
+            String token = candidate.token;
+            if (token.length() == length && content.regionMatches(0, token, 0, length)) {
+                return candidate;
+            }
+            slot = (slot + 1) & (TOKEN_TABLE_SIZE - 1);
+        }
+        return null;
+    }
+
+    private static int slotFor(int hash) {
+        return (hash ^ (hash >>> 16)) & (TOKEN_TABLE_SIZE - 1);
+    }
+}
@@ -0,0 +1,110 @@
+package agents.protocol;
+
+import jade.lang.acl.ACLMessage;
+import java.util.Locale;
+
+/**
+ * Rapport de performance périodique d'un guide vers le coordinateur
+ * (forme texte : "ENHANCED_REPORT:lieu:taille:tableau:sat:fatigue:cohésion:formation")
+ */
+public final class PerformanceReport implements ProtocolMessage {
+    private final String location;
+    private final int groupSize;
+    private final int tableau;
+    private final double averageSatisfaction;
+    private final double averageFatigue;
+    private final double averageCohesion;
+    private final String formation;
+
+    public PerformanceReport(String location, int groupSize, int tableau,
+                             double averageSatisfaction, double averageFatigue,
+                             double averageCohesion, String formation) {
+        this.location = location;
+        this.groupSize = groupSize;
+        this.tableau = tableau;
+        this.averageSatisfaction = averageSatisfaction;
+        this.averageFatigue = averageFatigue;
+        this.averageCohesion = averageCohesion;
+        this.formation = formation;
+    }
+
+    /**
+     * Décode un rapport depuis un ACLMessage (binaire ou texte), null si invalide
+     */
+    public static PerformanceReport from(ACLMessage msg) {
+        FrameReader in = MessageCodec.binaryPayload(msg, MessageKind.ENHANCED_REPORT);
+        if (in != null) {
+            String location = in.readString();
+            int groupSize = in.readInt();
+            int tableau = in.readInt();
+            double satisfaction = in.readDouble();
+            double fatigue = in.readDouble();
+            double cohesion = in.readDouble();
+            String recommendation = in.readString();
+            return in.isTruncated() ? null : new PerformanceReport(location, groupSize, tableau,
+                    satisfaction, fatigue, cohesion, recommendation);
+        }
+        return parse(msg.getContent());
+    }
+
+    /**
+     * Analyse la forme texte historique
+     */
+    public static PerformanceReport parse(String content) {
+        String[] fields = MessageCodec.textFields(content, MessageKind.ENHANCED_REPORT);
+        if (fields == null || fields.length < 7) return null;
+        try {
+            return new PerformanceReport(fields[0],
+                    Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[2]),
+                    Double.parseDouble(fields[3].replace(',', '.')),
+                    Double.parseDouble(fields[4].replace(',', '.')),
+                    Double.parseDouble(fields[5].replace(',', '.')),
+                    fields[6]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public MessageKind getKind() {
+        return MessageKind.ENHANCED_REPORT;
+    }
+
+    @Override
+    public int payloadSize() {
+        return FrameWriter.sizeOf(location) + 4 + 4 + 8 * 3 + FrameWriter.sizeOf(formation);
+    }
+
+    @Override
+    public void writePayload(FrameWriter out) {
+        out.putString(location);
+        out.putInt(groupSize);
+        out.putInt(tableau);
+        out.putDouble(averageSatisfaction);
+        out.putDouble(averageFatigue);
+        out.putDouble(averageCohesion);
+        out.putString(formation);
+    }
+
+    @Override
+    public String toText() {
+        return String.format(Locale.ROOT, "ENHANCED_REPORT:%s:%d:%d:%.2f:%.2f:%.2f:%s",
+                location, groupSize, tableau,
+                averageSatisfaction, averageFatigue, averageCohesion, formation);
+    }
+
+    // Getters
+    public String getLocation() { return location; }
+    public int getGroupSize() { return groupSize; }
+    public int getTableau() { return tableau; }
+    public double getAverageSatisfaction() { return averageSatisfaction; }
+    public double getAverageFatigue() { return averageFatigue; }
+    public double getAverageCohesion() { return averageCohesion; }
+    public String getFormation() { return formation; }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
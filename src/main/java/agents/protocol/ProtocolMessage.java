@@ -0,0 +1,28 @@
+package agents.protocol;
+
+/**
+ * Message typé du protocole guide/touriste/coordinateur.
+ * Chaque message sait s'écrire en binaire compact et en texte historique.
+ */
+public interface ProtocolMessage {
+
+    /**
+     * Type du message
+     */
+    MessageKind getKind();
+
+    /**
+     * Taille exacte de la charge utile binaire (hors en-tête)
+     */
+    int payloadSize();
+
+    /**
+     * Écrit la charge utile binaire
+     */
+    void writePayload(FrameWriter out);
+
+    /**
+     * Forme texte historique ("JETON:...")
+     */
+    String toText();
+}
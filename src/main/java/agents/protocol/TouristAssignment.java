@@ -0,0 +1,84 @@
+package agents.protocol;
+
+import jade.lang.acl.ACLMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Affectation d'un groupe de touristes à un guide par le coordinateur
+ * (forme texte : "ASSIGN_TOURISTS:a,b,c")
+ */
+public final class TouristAssignment implements ProtocolMessage {
+    private final List<String> touristNames;
+
+    public TouristAssignment(List<String> touristNames) {
+        this.touristNames = Collections.unmodifiableList(new ArrayList<>(touristNames));
+    }
+
+    /**
+     * Décode une affectation depuis un ACLMessage (binaire ou texte), null si invalide
+     */
+    public static TouristAssignment from(ACLMessage msg) {
+        FrameReader in = MessageCodec.binaryPayload(msg, MessageKind.ASSIGN_TOURISTS);
+        if (in != null) {
+            int count = in.readShort();
+            List<String> names = new ArrayList<>(Math.min(count, in.remaining() / 2));
+            for (int i = 0; i < count && !in.isTruncated(); i++) {
+                names.add(in.readString());
+            }
+            return in.isTruncated() ? null : new TouristAssignment(names);
+        }
+        return parse(msg.getContent());
+    }
+
+    /**
+     * Analyse la forme texte historique
+     */
+    public static TouristAssignment parse(String content) {
+        String[] fields = MessageCodec.textFields(content, MessageKind.ASSIGN_TOURISTS);
+        if (fields == null || fields.length < 1) return null;
+        List<String> names = new ArrayList<>();
+        for (String name : fields[0].split(",")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        return new TouristAssignment(names);
+    }
+
+    @Override
+    public MessageKind getKind() {
+        return MessageKind.ASSIGN_TOURISTS;
+    }
+
+    @Override
+    public int payloadSize() {
+        int size = 2;
+        for (String name : touristNames) {
+            size += FrameWriter.sizeOf(name);
+        }
+        return size;
+    }
+
+    @Override
+    public void writePayload(FrameWriter out) {
+        out.putShort(touristNames.size());
+        for (String name : touristNames) {
+            out.putString(name);
+        }
+    }
+
+    @Override
+    public String toText() {
+        return "ASSIGN_TOURISTS:" + String.join(",", touristNames);
+    }
+
+    public List<String> getTouristNames() { return touristNames; }
+    public int size() { return touristNames.size(); }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
@@ -0,0 +1,95 @@
+package agents.protocol;
+
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Statut individuel envoyé par un touriste à son guide
+ * (forme texte : "STATUS:SATISFACTION:0.73")
+ */
+public final class TouristStatus implements ProtocolMessage {
+
+    /**
+     * Métriques rapportées par les touristes
+     */
+    public enum Metric {
+        SATISFACTION, FATIGUE, GROUP_COHESION, INTEREST;
+
+        private static final Metric[] VALUES = values();
+
+        static Metric fromCode(int code) {
+            return code < VALUES.length ? VALUES[code] : null;
+        }
+
+        static Metric fromName(String name) {
+            for (Metric metric : VALUES) {
+                if (metric.name().equals(name)) return metric;
+            }
+            return null;
+        }
+    }
+
+    private final Metric metric;
+    private final double value;
+
+    public TouristStatus(Metric metric, double value) {
+        this.metric = metric;
+        this.value = value;
+    }
+
+    /**
+     * Décode un statut depuis un ACLMessage (binaire ou texte), null si invalide
+     */
+    public static TouristStatus from(ACLMessage msg) {
+        FrameReader in = MessageCodec.binaryPayload(msg, MessageKind.STATUS);
+        if (in != null) {
+            Metric metric = Metric.fromCode(in.readByte());
+            double value = in.readDouble();
+            return metric != null && !in.isTruncated() ? new TouristStatus(metric, value) : null;
+        }
+        return parse(msg.getContent());
+    }
+
+    /**
+     * Analyse la forme texte historique
+     */
+    public static TouristStatus parse(String content) {
+        String[] fields = MessageCodec.textFields(content, MessageKind.STATUS);
+        if (fields == null || fields.length < 2) return null;
+        Metric metric = Metric.fromName(fields[0]);
+        if (metric == null) return null;
+        try {
+            return new TouristStatus(metric, Double.parseDouble(fields[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public MessageKind getKind() {
+        return MessageKind.STATUS;
+    }
+
+    @Override
+    public int payloadSize() {
+        return 1 + 8;
+    }
+
+    @Override
+    public void writePayload(FrameWriter out) {
+        out.putByte(metric.ordinal());
+        out.putDouble(value);
+    }
+
+    @Override
+    public String toText() {
+        return "STATUS:" + metric.name() + ":" + value;
+    }
+
+    public Metric getMetric() { return metric; }
+    public double getValue() { return value; }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
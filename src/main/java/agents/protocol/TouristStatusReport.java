@@ -0,0 +1,129 @@
+package agents.protocol;
+
+import agents.protocol.TouristStatus.Metric;
+import jade.lang.acl.ACLMessage;
+
+/**
+ * Rapport de statut groupé d'un touriste : seules les métriques ayant
+ * changé depuis le dernier envoi sont présentes (masque de bits par métrique)
+ * (forme texte : "STATUS_REPORT:SATISFACTION=0.73:GROUP_COHESION=0.61")
+ */
+public final class TouristStatusReport implements ProtocolMessage {
+    private static final Metric[] METRICS = Metric.values();
+
+    private final int mask;
+    private final double[] values;
+
+    private TouristStatusReport(int mask, double[] values) {
+        this.mask = mask;
+        this.values = values;
+    }
+
+    /**
+     * Construit un rapport contenant les métriques du masque
+     * @param values valeurs indexées par {@link Metric#ordinal()}
+     */
+    public static TouristStatusReport of(int mask, double[] values) {
+        return new TouristStatusReport(mask, values.clone());
+    }
+
+    /**
+     * Décode un rapport depuis un ACLMessage (binaire ou texte), null si invalide
+     */
+    public static TouristStatusReport from(ACLMessage msg) {
+        FrameReader in = MessageCodec.binaryPayload(msg, MessageKind.STATUS_REPORT);
+        if (in != null) {
+            int mask = in.readByte();
+            double[] values = new double[METRICS.length];
+            for (Metric metric : METRICS) {
+                if ((mask & bit(metric)) != 0) {
+                    values[metric.ordinal()] = in.readDouble();
+                }
+            }
+            return in.isTruncated() ? null : new TouristStatusReport(mask, values);
+        }
+        return parse(msg.getContent());
+    }
+
+    /**
+     * Analyse la forme texte "STATUS_REPORT:METRIQUE=valeur:..."
+     */
+    public static TouristStatusReport parse(String content) {
+        String[] fields = MessageCodec.textFields(content, MessageKind.STATUS_REPORT);
+        if (fields == null) return null;
+        int mask = 0;
+        double[] values = new double[METRICS.length];
+        for (String field : fields) {
+            int eq = field.indexOf('=');
+            if (eq < 0) return null;
+            Metric metric = Metric.fromName(field.substring(0, eq));
+            if (metric == null) return null;
+            try {
+                values[metric.ordinal()] = Double.parseDouble(field.substring(eq + 1).replace(',', '.'));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            mask |= bit(metric);
+        }
+        return new TouristStatusReport(mask, values);
+    }
+
+    /**
+     * Bit d'une métrique dans le masque
+     */
+    public static int bit(Metric metric) {
+        return 1 << metric.ordinal();
+    }
+
+    public boolean has(Metric metric) {
+        return (mask & bit(metric)) != 0;
+    }
+
+    public double get(Metric metric) {
+        return values[metric.ordinal()];
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    @Override
+    public MessageKind getKind() {
+        return MessageKind.STATUS_REPORT;
+    }
+
+    @Override
+    public int payloadSize() {
+        return 1 + 8 * Integer.bitCount(mask);
+    }
+
+    @Override
+    public void writePayload(FrameWriter out) {
+        out.putByte(mask);
+        for (Metric metric : METRICS) {
+            if (has(metric)) {
+                out.putDouble(values[metric.ordinal()]);
+            }
+        }
+    }
+
+    @Override
+    public String toText() {
+        StringBuilder sb = new StringBuilder("STATUS_REPORT");
+        for (Metric metric : METRICS) {
+            if (has(metric)) {
+                sb.append(':').append(metric.name()).append('=').append(values[metric.ordinal()]);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
@@ -0,0 +1,24 @@
+package agents.tourist;
+
+/**
+ * Classe représentant une action générée par un comportement.
+ * Immuable : chaque {@link BehaviorType} prépare ses actions une fois pour toutes.
+ */
+public class BehaviorAction {
+    private final String actionType;
+    private final String actionData;
+    
+    public BehaviorAction(String actionType, String actionData) {
+        this.actionType = actionType;
+        this.actionData = actionData;
+    }
+    
+    // Getters
+    public String getActionType() { return actionType; }
+    public String getActionData() { return actionData; }
+    
+    @Override
+    public String toString() {
+        return String.format("BehaviorAction[%s: %s]", actionType, actionData);
+    }
+}
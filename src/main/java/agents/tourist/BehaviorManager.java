@@ -1,24 +1,36 @@
 package agents.tourist;
+import utils.SimulationClock;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
- * Gestionnaire des comportements adaptatifs d'un touriste
+ * Gestionnaire des comportements adaptatifs d'un touriste.
+ * Les probabilités sont rangées par ordinal de {@link BehaviorType}, les
+ * comportements actifs dans un masque de bits avec leur date d'expiration :
+ * mise à jour et exécution ne font aucune allocation.
+ * Un comportement exécuté reste actif, marqué dans un second masque, jusqu'au
+ * nettoyage suivant : il ne s'exécute plus mais empêche encore la génération
+ * d'un comportement du même type, comme dans la version à objets.
  */
 public class BehaviorManager {
-    private List<TouristBehavior> activeBehaviors;
-    private Map<String, Double> behaviorProbabilities;
-    private Random random;
+    private static final long UPDATE_INTERVAL = 5000; // Mise à jour max toutes les 5 secondes
+
+    private final TouristProfile profile;
+    private final SplittableRandom random;
+    private final double[] probabilities = new double[BehaviorType.ALL.length];
+    private final long[] expiries = new long[BehaviorType.ALL.length];
+    private int activeMask;
+    private int executedMask; // Comportements actifs déjà exécutés, retirés au prochain nettoyage
     private long lastUpdate;
     
-    public BehaviorManager() {
-        this.activeBehaviors = new ArrayList<>();
-        this.behaviorProbabilities = new HashMap<>();
-        this.random = new Random();
-        this.lastUpdate = System.currentTimeMillis();
+    public BehaviorManager(TouristProfile profile, SplittableRandom random) {
+        this.profile = profile;
+        this.random = random;
+        this.lastUpdate = SimulationClock.now();
         
         initializeBehaviorProbabilities();
     }
@@ -27,28 +39,30 @@ public class BehaviorManager {
      * Initialise les probabilités de base des comportements
      */
     private void initializeBehaviorProbabilities() {
-        behaviorProbabilities.put("ASK_QUESTION", 0.2);
-        behaviorProbabilities.put("EXPRESS_OPINION", 0.15);
-        behaviorProbabilities.put("TAKE_PHOTO", 0.1);
-        behaviorProbabilities.put("DISCUSS_WITH_OTHERS", 0.1);
-        behaviorProbabilities.put("REQUEST_BREAK", 0.05);
-        behaviorProbabilities.put("SHOW_IMPATIENCE", 0.05);
-        behaviorProbabilities.put("SHOW_ENTHUSIASM", 0.15);
-        behaviorProbabilities.put("REQUEST_DETAILS", 0.1);
+        for (BehaviorType type : BehaviorType.ALL) {
+            probabilities[type.ordinal()] = type.getBaseProbability();
+        }
     }
     
     /**
      * Met à jour les comportements basés sur le profil actuel
      */
-    public void updateBehaviors(TouristProfile profile) {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastUpdate < 5000) { // Mise à jour max toutes les 5 secondes
+    public void updateBehaviors() {
+        updateBehaviors(SimulationClock.now());
+    }
+
+    /**
+     * Met à jour les comportements à la date donnée (une lecture d'horloge
+     * par tick suffit quand de nombreux touristes sont mis à jour ensemble)
+     */
+    public void updateBehaviors(long currentTime) {
+        if (currentTime - lastUpdate < UPDATE_INTERVAL) {
             return;
         }
         
-        adjustProbabilities(profile);
-        generateNewBehaviors(profile);
-        cleanupExpiredBehaviors();
+        adjustProbabilities();
+        generateNewBehaviors(currentTime);
+        cleanupExpiredBehaviors(currentTime);
         
         lastUpdate = currentTime;
     }
@@ -56,374 +70,134 @@ public class BehaviorManager {
     /**
      * Ajuste les probabilités selon le profil et l'état actuel
      */
-    private void adjustProbabilities(TouristProfile profile) {
+    private void adjustProbabilities() {
         Personality personality = profile.getPersonality();
         
         // Ajustements basés sur la curiosité
         double curiosityFactor = personality.getCuriosity();
-        behaviorProbabilities.put("ASK_QUESTION", 0.1 + (curiosityFactor * 0.3));
-        behaviorProbabilities.put("REQUEST_DETAILS", 0.05 + (curiosityFactor * 0.2));
+        probabilities[BehaviorType.ASK_QUESTION.ordinal()] = 0.1 + (curiosityFactor * 0.3);
+        probabilities[BehaviorType.REQUEST_DETAILS.ordinal()] = 0.05 + (curiosityFactor * 0.2);
         
         // Ajustements basés sur la sociabilité
         double socialFactor = personality.getSocialness();
-        behaviorProbabilities.put("EXPRESS_OPINION", 0.1 + (socialFactor * 0.2));
-        behaviorProbabilities.put("DISCUSS_WITH_OTHERS", 0.05 + (socialFactor * 0.15));
+        probabilities[BehaviorType.EXPRESS_OPINION.ordinal()] = 0.1 + (socialFactor * 0.2);
+        probabilities[BehaviorType.DISCUSS_WITH_OTHERS.ordinal()] = 0.05 + (socialFactor * 0.15);
         
-        // Ajustements basés sur la fatigue
+        // Ajustements basés sur la fatigue et la patience
         double fatigue = profile.getFatigue();
-        behaviorProbabilities.put("REQUEST_BREAK", fatigue * 0.3);
-        behaviorProbabilities.put("SHOW_IMPATIENCE", Math.max(0, (fatigue - 0.6) * 0.5));
+        probabilities[BehaviorType.REQUEST_BREAK.ordinal()] = fatigue * 0.3;
+        probabilities[BehaviorType.SHOW_IMPATIENCE.ordinal()] =
+            Math.max(0, (fatigue - 0.6) * 0.5) + ((1.0 - personality.getPatience()) * 0.1);
         
         // Ajustements basés sur la satisfaction
         double satisfaction = profile.getSatisfaction();
-        behaviorProbabilities.put("SHOW_ENTHUSIASM", satisfaction * 0.3);
-        behaviorProbabilities.put("TAKE_PHOTO", satisfaction * 0.2);
-        
-        // Ajustements basés sur la patience
-        double patience = personality.getPatience();
-        behaviorProbabilities.put("SHOW_IMPATIENCE", 
-            behaviorProbabilities.getOrDefault("SHOW_IMPATIENCE", 0.0) + 
-            ((1.0 - patience) * 0.1));
+        probabilities[BehaviorType.SHOW_ENTHUSIASM.ordinal()] = satisfaction * 0.3;
+        probabilities[BehaviorType.TAKE_PHOTO.ordinal()] = satisfaction * 0.2;
     }
     
     /**
      * Génère de nouveaux comportements si nécessaire
      */
-    private void generateNewBehaviors(TouristProfile profile) {
-        for (Map.Entry<String, Double> entry : behaviorProbabilities.entrySet()) {
-            String behaviorType = entry.getKey();
-            double probability = entry.getValue();
-            
-            if (random.nextDouble() < probability && !hasBehaviorType(behaviorType)) {
-                TouristBehavior behavior = createBehavior(behaviorType, profile);
-                if (behavior != null) {
-                    activeBehaviors.add(behavior);
-                }
+    private void generateNewBehaviors(long currentTime) {
+        for (int i = 0; i < probabilities.length; i++) {
+            if (random.nextDouble() < probabilities[i] && (activeMask & (1 << i)) == 0) {
+                activate(BehaviorType.ALL[i], currentTime);
             }
         }
     }
-    
-    /**
-     * Vérifie si un type de comportement est déjà actif
-     */
-    private boolean hasBehaviorType(String behaviorType) {
-        return activeBehaviors.stream()
-                .anyMatch(behavior -> behavior.getType().equals(behaviorType));
+
+    private void activate(BehaviorType type, long currentTime) {
+        activeMask |= type.mask();
+        executedMask &= ~type.mask();
+        expiries[type.ordinal()] = currentTime + type.getDuration();
     }
     
     /**
-     * Crée un comportement spécifique
+     * Nettoie les comportements exécutés ou expirés
      */
-    private TouristBehavior createBehavior(String behaviorType, TouristProfile profile) {
-        switch (behaviorType) {
-            case "ASK_QUESTION":
-                return new QuestionBehavior(profile);
-            case "EXPRESS_OPINION":
-                return new OpinionBehavior(profile);
-            case "TAKE_PHOTO":
-                return new PhotoBehavior(profile);
-            case "DISCUSS_WITH_OTHERS":
-                return new DiscussionBehavior(profile);
-            case "REQUEST_BREAK":
-                return new BreakRequestBehavior(profile);
-            case "SHOW_IMPATIENCE":
-                return new ImpatienceBehavior(profile);
-            case "SHOW_ENTHUSIASM":
-                return new EnthusiasmBehavior(profile);
-            case "REQUEST_DETAILS":
-                return new DetailsRequestBehavior(profile);
-            default:
-                return null;
+    private void cleanupExpiredBehaviors(long currentTime) {
+        activeMask &= ~executedMask;
+        executedMask = 0;
+        for (int mask = activeMask; mask != 0; mask &= mask - 1) {
+            int i = Integer.numberOfTrailingZeros(mask);
+            if (currentTime >= expiries[i]) {
+                activeMask &= ~(1 << i);
+            }
         }
     }
     
     /**
-     * Nettoie les comportements expirés
+     * Exécute les comportements actifs pas encore exécutés ; ils restent actifs
+     * jusqu'au prochain nettoyage
+     *
+     * @param actions liste réutilisable recevant les actions à effectuer
+     * @return nombre d'actions ajoutées
      */
-    private void cleanupExpiredBehaviors() {
-        activeBehaviors.removeIf(behavior -> !behavior.isActive());
+    public int executeActiveBehaviors(List<BehaviorAction> actions) {
+        int count = 0;
+        for (int mask = activeMask & ~executedMask; mask != 0; mask &= mask - 1) {
+            int i = Integer.numberOfTrailingZeros(mask);
+            BehaviorType type = BehaviorType.ALL[i];
+            if (type.shouldExecute(profile)) {
+                executedMask |= 1 << i;
+                actions.add(type.action(random));
+                count++;
+            }
+        }
+        return count;
     }
-    
+
     /**
-     * Exécute tous les comportements actifs
+     * Exécute tous les comportements actifs et retourne une nouvelle liste d'actions
      */
     public List<BehaviorAction> executeActiveBehaviors() {
         List<BehaviorAction> actions = new ArrayList<>();
-        
-        for (TouristBehavior behavior : activeBehaviors) {
-            if (behavior.shouldExecute()) {
-                BehaviorAction action = behavior.execute();
-                if (action != null) {
-                    actions.add(action);
-                }
-            }
-        }
-        
+        executeActiveBehaviors(actions);
         return actions;
     }
     
     /**
      * Force l'activation d'un comportement spécifique
      */
-    public void forceBehavior(String behaviorType, TouristProfile profile) {
-        TouristBehavior behavior = createBehavior(behaviorType, profile);
-        if (behavior != null) {
-            activeBehaviors.add(behavior);
-        }
+    public void forceBehavior(BehaviorType type) {
+        activate(type, SimulationClock.now());
     }
     
     /**
-     * Supprime tous les comportements d'un type donné
+     * Supprime le comportement d'un type donné
      */
-    public void suppressBehaviorType(String behaviorType) {
-        activeBehaviors.removeIf(behavior -> behavior.getType().equals(behaviorType));
-        behaviorProbabilities.put(behaviorType, 0.0);
+    public void suppressBehaviorType(BehaviorType type) {
+        activeMask &= ~type.mask();
+        executedMask &= ~type.mask();
+        probabilities[type.ordinal()] = 0.0;
     }
     
     // Getters
-    public List<TouristBehavior> getActiveBehaviors() {
-        return new ArrayList<>(activeBehaviors);
-    }
-    
-    public Map<String, Double> getBehaviorProbabilities() {
-        return new HashMap<>(behaviorProbabilities);
-    }
-    
-    public int getActiveBehaviorCount() {
-        return activeBehaviors.size();
-    }
-}
-
-/**
- * Classe abstraite pour les comportements de touriste
- */
-abstract class TouristBehavior {
-    protected String type;
-    protected TouristProfile profile;
-    protected long creationTime;
-    protected long duration;
-    protected boolean executed;
-    
-    public TouristBehavior(String type, TouristProfile profile, long duration) {
-        this.type = type;
-        this.profile = profile;
-        this.duration = duration;
-        this.creationTime = System.currentTimeMillis();
-        this.executed = false;
-    }
-    
-    /**
-     * Détermine si le comportement doit être exécuté maintenant
-     */
-    public abstract boolean shouldExecute();
-    
-    /**
-     * Exécute le comportement et retourne l'action à effectuer
-     */
-    public abstract BehaviorAction execute();
-    
-    /**
-     * Vérifie si le comportement est toujours actif
-     */
-    public boolean isActive() {
-        return !executed && (System.currentTimeMillis() - creationTime) < duration;
-    }
-    
-    public String getType() {
-        return type;
-    }
-}
-
-/**
- * Comportement de question
- */
-class QuestionBehavior extends TouristBehavior {
-    private static final String[] QUESTIONS = {
-        "Quelle technique a été utilisée ?",
-        "Qui était l'artiste ?",
-        "Quelle est la signification ?",
-        "Quand cette œuvre a-t-elle été créée ?"
-    };
-    
-    public QuestionBehavior(TouristProfile profile) {
-        super("ASK_QUESTION", profile, 30000); // 30 secondes
-    }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getPersonality().getCuriosity() > 0.5 && 
-               profile.getInterest() > 0.4 && !executed;
-    }
-    
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        String question = QUESTIONS[new Random().nextInt(QUESTIONS.length)];
-        return new BehaviorAction("SEND_MESSAGE", "QUESTION:" + question);
-    }
-}
-
-/**
- * Comportement d'expression d'opinion
- */
-class OpinionBehavior extends TouristBehavior {
-    private static final String[] OPINIONS = {
-        "Cette œuvre me touche beaucoup",
-        "Les couleurs sont magnifiques",
-        "C'est très différent de ce que j'ai l'habitude de voir",
-        "L'artiste avait un talent exceptionnel"
-    };
-    
-    public OpinionBehavior(TouristProfile profile) {
-        super("EXPRESS_OPINION", profile, 20000); // 20 secondes
-    }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getPersonality().getSocialness() > 0.6 && 
-               profile.getSatisfaction() > 0.5 && !executed;
-    }
-    
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        String opinion = OPINIONS[new Random().nextInt(OPINIONS.length)];
-        return new BehaviorAction("EXPRESS", opinion);
-    }
-}
-
-/**
- * Comportement de prise de photo
- */
-class PhotoBehavior extends TouristBehavior {
-    public PhotoBehavior(TouristProfile profile) {
-        super("TAKE_PHOTO", profile, 10000); // 10 secondes
-    }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getSatisfaction() > 0.6 && !executed;
-    }
-    
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        return new BehaviorAction("TAKE_PHOTO", "Photo prise de l'œuvre");
-    }
-}
-
-/**
- * Autres comportements (implémentation simplifiée)
- */
-class DiscussionBehavior extends TouristBehavior {
-    public DiscussionBehavior(TouristProfile profile) {
-        super("DISCUSS_WITH_OTHERS", profile, 45000);
-    }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getPersonality().getSocialness() > 0.7 && !executed;
-    }
-    
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        return new BehaviorAction("SOCIAL_INTERACTION", "Discussion avec d'autres visiteurs");
-    }
-}
-
-class BreakRequestBehavior extends TouristBehavior {
-    public BreakRequestBehavior(TouristProfile profile) {
-        super("REQUEST_BREAK", profile, 60000);
+    public boolean isActive(BehaviorType type) {
+        return (activeMask & type.mask()) != 0;
     }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getFatigue() > 0.7 && !executed;
-    }
-    
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        return new BehaviorAction("SEND_MESSAGE", "REQUEST_BREAK:Besoin de faire une pause");
-    }
-}
 
-class ImpatienceBehavior extends TouristBehavior {
-    public ImpatienceBehavior(TouristProfile profile) {
-        super("SHOW_IMPATIENCE", profile, 30000);
-    }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getPersonality().getPatience() < 0.4 && 
-               profile.getFatigue() > 0.5 && !executed;
+    public EnumSet<BehaviorType> getActiveBehaviors() {
+        EnumSet<BehaviorType> active = EnumSet.noneOf(BehaviorType.class);
+        for (BehaviorType type : BehaviorType.ALL) {
+            if (isActive(type)) active.add(type);
+        }
+        return active;
     }
     
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        return new BehaviorAction("SHOW_EMOTION", "Impatience visible");
+    public double getProbability(BehaviorType type) {
+        return probabilities[type.ordinal()];
     }
-}
 
-class EnthusiasmBehavior extends TouristBehavior {
-    public EnthusiasmBehavior(TouristProfile profile) {
-        super("SHOW_ENTHUSIASM", profile, 25000);
-    }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getSatisfaction() > 0.8 && 
-               profile.getInterest() > 0.7 && !executed;
-    }
-    
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        return new BehaviorAction("SHOW_EMOTION", "Enthousiasme visible");
-    }
-}
-
-class DetailsRequestBehavior extends TouristBehavior {
-    public DetailsRequestBehavior(TouristProfile profile) {
-        super("REQUEST_DETAILS", profile, 40000);
-    }
-    
-    @Override
-    public boolean shouldExecute() {
-        return profile.getPersonality().getCuriosity() > 0.8 && 
-               profile.getPersonality().getExperience() > 0.5 && !executed;
+    public Map<BehaviorType, Double> getBehaviorProbabilities() {
+        Map<BehaviorType, Double> copy = new EnumMap<>(BehaviorType.class);
+        for (BehaviorType type : BehaviorType.ALL) {
+            copy.put(type, probabilities[type.ordinal()]);
+        }
+        return copy;
     }
     
-    @Override
-    public BehaviorAction execute() {
-        executed = true;
-        return new BehaviorAction("SEND_MESSAGE", "REQUEST_MORE_DETAILS:Plus d'informations techniques");
+    public int getActiveBehaviorCount() {
+        return Integer.bitCount(activeMask);
     }
 }
-
-/**
- * Classe représentant une action générée par un comportement
- */
-class BehaviorAction {
-    private String actionType;
-    private String actionData;
-    private long timestamp;
-    
-    public BehaviorAction(String actionType, String actionData) {
-        this.actionType = actionType;
-        this.actionData = actionData;
-        this.timestamp = System.currentTimeMillis();
-    }
-    
-    // Getters
-    public String getActionType() { return actionType; }
-    public String getActionData() { return actionData; }
-    public long getTimestamp() { return timestamp; }
-    
-    @Override
-    public String toString() {
-        return String.format("BehaviorAction[%s: %s]", actionType, actionData);
-    }
-}
\ No newline at end of file
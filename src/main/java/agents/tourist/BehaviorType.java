@@ -0,0 +1,114 @@
+package agents.tourist;
+
+import java.util.SplittableRandom;
+
+/**
+ * Types de comportements adaptatifs d'un touriste. Chaque type porte sa
+ * probabilité de base, sa durée de validité, sa condition de déclenchement
+ * et ses actions, préparées une fois pour toutes.
+ */
+public enum BehaviorType {
+    /** Comportement de question */
+    ASK_QUESTION(0.2, 30000,
+            new BehaviorAction("SEND_MESSAGE", "QUESTION:Quelle technique a été utilisée ?"),
+            new BehaviorAction("SEND_MESSAGE", "QUESTION:Qui était l'artiste ?"),
+            new BehaviorAction("SEND_MESSAGE", "QUESTION:Quelle est la signification ?"),
+            new BehaviorAction("SEND_MESSAGE", "QUESTION:Quand cette œuvre a-t-elle été créée ?")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getPersonality().getCuriosity() > 0.5 && profile.getInterest() > 0.4;
+        }
+    },
+    /** Comportement d'expression d'opinion */
+    EXPRESS_OPINION(0.15, 20000,
+            new BehaviorAction("EXPRESS", "Cette œuvre me touche beaucoup"),
+            new BehaviorAction("EXPRESS", "Les couleurs sont magnifiques"),
+            new BehaviorAction("EXPRESS", "C'est très différent de ce que j'ai l'habitude de voir"),
+            new BehaviorAction("EXPRESS", "L'artiste avait un talent exceptionnel")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getPersonality().getSocialness() > 0.6 && profile.getSatisfaction() > 0.5;
+        }
+    },
+    /** Comportement de prise de photo */
+    TAKE_PHOTO(0.1, 10000, new BehaviorAction("TAKE_PHOTO", "Photo prise de l'œuvre")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getSatisfaction() > 0.6;
+        }
+    },
+    DISCUSS_WITH_OTHERS(0.1, 45000,
+            new BehaviorAction("SOCIAL_INTERACTION", "Discussion avec d'autres visiteurs")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getPersonality().getSocialness() > 0.7;
+        }
+    },
+    REQUEST_BREAK(0.05, 60000,
+            new BehaviorAction("SEND_MESSAGE", "REQUEST_BREAK:Besoin de faire une pause")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getFatigue() > 0.7;
+        }
+    },
+    SHOW_IMPATIENCE(0.05, 30000, new BehaviorAction("SHOW_EMOTION", "Impatience visible")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getPersonality().getPatience() < 0.4 && profile.getFatigue() > 0.5;
+        }
+    },
+    SHOW_ENTHUSIASM(0.15, 25000, new BehaviorAction("SHOW_EMOTION", "Enthousiasme visible")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getSatisfaction() > 0.8 && profile.getInterest() > 0.7;
+        }
+    },
+    REQUEST_DETAILS(0.1, 40000,
+            new BehaviorAction("SEND_MESSAGE", "REQUEST_MORE_DETAILS:Plus d'informations techniques")) {
+        @Override
+        boolean shouldExecute(TouristProfile profile) {
+            return profile.getPersonality().getCuriosity() > 0.8
+                && profile.getPersonality().getExperience() > 0.5;
+        }
+    };
+
+    /** Tous les types, dans l'ordre des ordinaux (values() copie le tableau à chaque appel) */
+    static final BehaviorType[] ALL = values();
+
+    private final double baseProbability;
+    private final long duration;
+    private final BehaviorAction[] actions;
+
+    BehaviorType(double baseProbability, long duration, BehaviorAction... actions) {
+        this.baseProbability = baseProbability;
+        this.duration = duration;
+        this.actions = actions;
+    }
+
+    /**
+     * Détermine si le comportement doit être exécuté maintenant
+     */
+    abstract boolean shouldExecute(TouristProfile profile);
+
+    /**
+     * Action à effectuer, tirée au hasard s'il y a plusieurs variantes
+     */
+    BehaviorAction action(SplittableRandom random) {
+        return actions.length == 1 ? actions[0] : actions[random.nextInt(actions.length)];
+    }
+
+    public double getBaseProbability() {
+        return baseProbability;
+    }
+
+    /**
+     * Durée de validité en millisecondes de simulation
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    int mask() {
+        return 1 << ordinal();
+    }
+}
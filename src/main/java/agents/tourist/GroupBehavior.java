@@ -0,0 +1,256 @@
+package agents.tourist;
+
+import agents.protocol.Explanation;
+import utils.SimulationClock;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Classe pour gérer le comportement de groupe spécifique
+ */
+public class GroupBehavior {
+    private final TouristProfile profile;
+    private boolean active = false;
+    private double cohesionLevel = 0.7;
+    private double groupEnergyLevel = 0.7;
+    private double groupSatisfactionBonus = 0.0;
+    private String currentFormation = "CLUSTER";
+    private String currentDestination = "";
+    private long lastUpdate = SimulationClock.now();
+    
+    public GroupBehavior(TouristProfile profile) {
+        this.profile = profile;
+    }
+    
+    public void activate() {
+        active = true;
+        cohesionLevel = 0.7;
+        groupEnergyLevel = 0.7;
+        lastUpdate = SimulationClock.now();
+    }
+    
+    public void deactivate() {
+        active = false;
+    }
+    
+    public void reset() {
+        active = false;
+        cohesionLevel = 0.7;
+        groupEnergyLevel = 0.7;
+        groupSatisfactionBonus = 0.0;
+        currentFormation = "CLUSTER";
+    }
+    
+    public void setDestination(String destination) {
+        this.currentDestination = destination;
+    }
+    
+    public void followGuide() {
+        if (active) {
+            // Simuler le suivi du guide avec variation selon la personnalité
+            Personality p = profile.getPersonality();
+            
+            // Les personnes sociales suivent mieux
+            if (p.getSocialness() > 0.6) {
+                cohesionLevel = Math.min(1.0, cohesionLevel + 0.05);
+            }
+            
+            // Les personnes patientes maintiennent mieux la cohésion
+            if (p.getPatience() > 0.7) {
+                cohesionLevel = Math.min(1.0, cohesionLevel + 0.03);
+            } else if (p.getPatience() < 0.3) {
+                cohesionLevel = Math.max(0.2, cohesionLevel - 0.02);
+            }
+        }
+    }
+    
+    public void formGroup(String formation) {
+        this.currentFormation = formation;
+        
+        // Ajuster la cohésion selon la formation demandée
+        switch (formation) {
+            case "CIRCLE":
+                cohesionLevel = Math.min(1.0, cohesionLevel + 0.1);
+                break;
+            case "LINE":
+                cohesionLevel = Math.max(0.3, cohesionLevel - 0.05);
+                break;
+            case "CLUSTER":
+            default:
+                // Formation naturelle, pas d'ajustement
+                break;
+        }
+    }
+    
+    public boolean shouldReactToExplanation(TouristProfile profile, double groupPosition) {
+        if (!active) return true; // Comportement normal si pas en groupe
+        
+        // Dans un groupe, la réaction dépend de la personnalité et de la position
+        Personality p = profile.getPersonality();
+        
+        // Les personnes sociales réagissent plus en groupe
+        double socialBonus = p.getSocialness() * 0.3;
+        
+        // Les personnes en avant du groupe réagissent plus
+        double positionBonus = groupPosition * 0.2;
+        
+        // Les curieux réagissent plus
+        double curiosityBonus = p.getCuriosity() * 0.2;
+        
+        double reactionProbability = 0.3 + socialBonus + positionBonus + curiosityBonus;
+        
+        return profile.getRandom().nextDouble() < reactionProbability;
+    }
+    
+    public boolean shouldAcceptBreak(TouristProfile profile) {
+        boolean personalNeed = profile.getFatigue() > 0.4 || 
+                              profile.getPersonality().getPatience() < 0.5;
+        
+        // Effet de groupe : tendance à suivre le groupe
+        double groupPressure = cohesionLevel * 0.3;
+        
+        // Si très social, suit plus facilement le groupe
+        if (profile.getPersonality().getSocialness() > 0.7) {
+            return personalNeed || profile.getRandom().nextDouble() < (0.6 + groupPressure);
+        }
+        
+        return personalNeed || profile.getRandom().nextDouble() < (0.4 + groupPressure);
+    }
+    
+    public void updateDynamics(TouristProfile profile) {
+        long now = SimulationClock.now();
+        if (now - lastUpdate < 5000) return; // Mise à jour max toutes les 5 secondes
+        
+        // Mettre à jour le niveau d'énergie du groupe basé sur la satisfaction
+        double satisfaction = profile.getSatisfaction();
+        if (satisfaction > 0.7) {
+            groupEnergyLevel = Math.min(1.0, groupEnergyLevel + 0.05);
+            groupSatisfactionBonus = Math.min(0.2, groupSatisfactionBonus + 0.02);
+        } else if (satisfaction < 0.4) {
+            groupEnergyLevel = Math.max(0.2, groupEnergyLevel - 0.03);
+            groupSatisfactionBonus = Math.max(-0.1, groupSatisfactionBonus - 0.01);
+        }
+        
+        // La fatigue affecte l'énergie du groupe
+        double fatigue = profile.getFatigue();
+        if (fatigue > 0.8) {
+            groupEnergyLevel = Math.max(0.3, groupEnergyLevel - 0.08);
+        }
+        
+        // La cohésion diminue naturellement avec le temps si pas entretenue
+        cohesionLevel = Math.max(0.3, cohesionLevel - 0.01);
+        
+        lastUpdate = now;
+    }
+    
+    /**
+     * Note d'une explication entendue dans le groupe, selon la position
+     */
+    public double rateExplanation(String explanation, double groupPosition) {
+        return rateExplanation(Explanation.of(explanation, Explanation.STYLE_STANDARD), groupPosition);
+    }
+
+    /**
+     * Note d'une explication étiquetée par le guide, selon la position
+     */
+    public double rateExplanation(Explanation explanation, double groupPosition) {
+        double baseRating = profile.rateExplanation(explanation);
+        
+        // Ajustement selon la position dans le groupe
+        double positionFactor = 1.0;
+        if (groupPosition < 0.3) { // En arrière du groupe
+            positionFactor = 0.9; // Moins bien entendu
+        } else if (groupPosition > 0.7) { // Près du guide
+            positionFactor = 1.1; // Meilleure expérience
+        }
+        
+        return Math.min(1.0, (baseRating + groupSatisfactionBonus) * positionFactor);
+    }
+    
+    /**
+     * Évolution de la fatigue pendant la visite, sous l'effet du groupe et de l'âge
+     */
+    public void updatePersonalState() {
+        profile.increaseFatigue(0.02);
+        
+        // Effet de groupe sur la fatigue
+        if (active) {
+            if (groupEnergyLevel > 0.7) {
+                profile.rest(0.01); // Le groupe énergique aide
+            } else if (groupEnergyLevel < 0.3) {
+                profile.increaseFatigue(0.01); // Le groupe fatigué affecte
+            }
+        }
+        
+        // Ajustements basés sur l'âge dans le contexte de groupe
+        if (profile.getAge() > 65) {
+            profile.increaseFatigue(0.01);
+        } else if (profile.getAge() < 25 && groupEnergyLevel > 0.5) {
+            profile.rest(0.01); // Les jeunes profitent de l'énergie du groupe
+        }
+    }
+    
+    /**
+     * Décide de refaire une visite selon la dernière satisfaction et l'expérience de groupe
+     */
+    public boolean wantsAnotherTour(double lastSatisfaction, int toursCompleted) {
+        double totalSatisfaction = lastSatisfaction + groupSatisfactionBonus;
+        if (totalSatisfaction > 0.8 && toursCompleted < 3) {
+            return profile.getRandom().nextDouble() < 0.8; // Plus probable avec une bonne expérience de groupe
+        } else if (totalSatisfaction > 0.6 && toursCompleted < 2) {
+            return profile.getRandom().nextDouble() < 0.5;
+        }
+        return false;
+    }
+    
+    /**
+     * Niveaux recopiés depuis les colonnes d'un {@link PopulationStore}
+     */
+    void setLevels(double cohesion, double energy, double satisfactionBonus) {
+        cohesionLevel = cohesion;
+        groupEnergyLevel = energy;
+        groupSatisfactionBonus = satisfactionBonus;
+    }
+    
+    /**
+     * Écrit l'état de groupe d'une visite en cours dans un cliché
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(active);
+        out.writeDouble(cohesionLevel);
+        out.writeDouble(groupEnergyLevel);
+        out.writeDouble(groupSatisfactionBonus);
+        out.writeUTF(currentFormation);
+        out.writeUTF(currentDestination);
+    }
+    
+    /**
+     * Relit un état écrit par {@link #writeTo}
+     */
+    public void readFrom(DataInput in) throws IOException {
+        active = in.readBoolean();
+        cohesionLevel = in.readDouble();
+        groupEnergyLevel = in.readDouble();
+        groupSatisfactionBonus = in.readDouble();
+        currentFormation = in.readUTF();
+        currentDestination = in.readUTF();
+        lastUpdate = SimulationClock.now();
+    }
+    
+    // Getters
+    public boolean isActive() { return active; }
+    public double getCohesionLevel() { return cohesionLevel; }
+    public double getGroupEnergyLevel() { return groupEnergyLevel; }
+    public double getGroupSatisfactionBonus() { return groupSatisfactionBonus; }
+    public String getCurrentFormation() { return currentFormation; }
+    public String getCurrentDestination() { return currentDestination; }
+    
+    public double getFinalGroupRating() {
+        if (!active && cohesionLevel == 0.7) return 0.5; // Pas d'expérience de groupe
+        
+        // Note finale basée sur cohésion, énergie et satisfaction
+        return (cohesionLevel * 0.4) + (groupEnergyLevel * 0.3) + 
+               ((groupSatisfactionBonus + 0.1) * 0.3);
+    }
+}
@@ -1,8 +1,17 @@
 package agents.tourist;
-import java.util.Random;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import agents.protocol.Explanation;
 
 /**
- * Classe représentant la personnalité d'un touriste
+ * Classe représentant la personnalité d'un touriste.
+ * Les scores qui ne dépendent que des traits (compatibilité par style,
+ * réaction selon la longueur d'une explication) sont tenus dans de petites
+ * tables, recalculées quand un trait change. Chaque recalcul change aussi
+ * la version de la personnalité, que les caches dérivés des traits (voir
+ * {@link SatisfactionTracker}) comparent pour se mettre à jour.
  */
 public class Personality {
     private double curiosity;      // Tendance à poser des questions
@@ -11,21 +20,29 @@ public class Personality {
     private double openness;       // Ouverture à de nouveaux types d'art
     private double energy;         // Niveau d'énergie général
     private double experience;     // Expérience accumulée en art
+
+    private final double[] compatibility = new double[Explanation.STYLE_COUNT];
+    private final double[] explanationBias = new double[Explanation.LENGTH_LONG + 1];
+    private int version; // Incrémentée à chaque changement de trait
+    
+    private Personality() {
+    }
     
-    public Personality() {
-        Random rand = new Random();
+    public Personality(SplittableRandom rand) {
         this.curiosity = 0.3 + rand.nextDouble() * 0.7;
         this.socialness = 0.2 + rand.nextDouble() * 0.8;
         this.patience = 0.3 + rand.nextDouble() * 0.7;
         this.openness = 0.4 + rand.nextDouble() * 0.6;
         this.energy = 0.5 + rand.nextDouble() * 0.5;
         this.experience = rand.nextDouble() * 0.3;
+        refreshTables();
     }
     
-    public Personality(String nationality, int age) {
-        this();
+    public Personality(String nationality, int age, SplittableRandom rand) {
+        this(rand);
         applyNationalityAdjustments(nationality);
         applyAgeAdjustments(age);
+        refreshTables();
     }
     
     /**
@@ -103,32 +120,54 @@ public class Personality {
             patience = Math.min(1.0, patience + 0.05);
             openness = Math.min(1.0, openness + 0.03);
         }
+        refreshTables();
+    }
+
+    /**
+     * Recalcule les tables de scores à partir des traits
+     */
+    private void refreshTables() {
+        compatibility[Explanation.STYLE_STANDARD] = 0.5;
+        compatibility[Explanation.STYLE_DETAILED] = clamp(0.5 + (patience * 0.4) + (curiosity * 0.3));
+        compatibility[Explanation.STYLE_INTERACTIVE] = clamp(0.5 + (socialness * 0.5) + (energy * 0.2));
+        compatibility[Explanation.STYLE_TECHNICAL] = clamp(0.5 + (experience * 0.4) + (curiosity * 0.3));
+        compatibility[Explanation.STYLE_HISTORICAL] = clamp(0.5 + (patience * 0.3) + (experience * 0.2));
+
+        // Les explications longues lassent les impatients, les autres apprécient le détail
+        double curiosityBias = (curiosity - 0.5) * 0.3;
+        explanationBias[Explanation.LENGTH_SHORT] = curiosityBias;
+        explanationBias[Explanation.LENGTH_MEDIUM] = curiosityBias + 0.1;
+        explanationBias[Explanation.LENGTH_LONG] = curiosityBias + (patience < 0.4 ? -0.2 : 0.1);
+        version++;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
     }
     
     /**
      * Calcule un score de compatibilité avec un type d'explication
      */
     public double getCompatibilityScore(String explanationType) {
-        double score = 0.5;
-        
         switch (explanationType.toLowerCase()) {
             case "detailed":
-                score += (patience * 0.4) + (curiosity * 0.3);
-                break;
+                return compatibility[Explanation.STYLE_DETAILED];
             case "interactive":
-                score += (socialness * 0.5) + (energy * 0.2);
-                break;
+                return compatibility[Explanation.STYLE_INTERACTIVE];
             case "technical":
-                score += (experience * 0.4) + (curiosity * 0.3);
-                break;
+                return compatibility[Explanation.STYLE_TECHNICAL];
             case "historical":
-                score += (patience * 0.3) + (experience * 0.2);
-                break;
+                return compatibility[Explanation.STYLE_HISTORICAL];
             default:
-                score = 0.5;
+                return compatibility[Explanation.STYLE_STANDARD];
         }
-        
-        return Math.max(0.0, Math.min(1.0, score));
+    }
+
+    /**
+     * Contribution de la personnalité à la note d'une explication, selon sa classe de longueur
+     */
+    public double getExplanationBias(int lengthClass) {
+        return explanationBias[lengthClass];
     }
     
     /**
@@ -145,6 +184,30 @@ public class Personality {
         return (energy * 0.5) + (patience * 0.3) + (experience * 0.2);
     }
     
+    /**
+     * Écrit les traits dans un cliché
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(curiosity);
+        out.writeDouble(socialness);
+        out.writeDouble(patience);
+        out.writeDouble(openness);
+        out.writeDouble(energy);
+        out.writeDouble(experience);
+    }
+    
+    public static Personality readFrom(DataInput in) throws IOException {
+        Personality personality = new Personality();
+        personality.curiosity = in.readDouble();
+        personality.socialness = in.readDouble();
+        personality.patience = in.readDouble();
+        personality.openness = in.readDouble();
+        personality.energy = in.readDouble();
+        personality.experience = in.readDouble();
+        personality.refreshTables();
+        return personality;
+    }
+    
     // Getters
     public double getCuriosity() { return curiosity; }
     public double getSocialness() { return socialness; }
@@ -152,6 +215,7 @@ public class Personality {
     public double getOpenness() { return openness; }
     public double getEnergy() { return energy; }
     public double getExperience() { return experience; }
+    public int getVersion() { return version; }
     
     @Override
     public String toString() {
@@ -0,0 +1,268 @@
+package agents.tourist;
+
+/**
+ * État numérique d'une population de visiteurs rangé en colonnes : un
+ * tableau de primitifs par attribut plutôt qu'un objet profil, personnalité
+ * et comportement de groupe par visiteur. Les mises à jour de masse
+ * ({@link #tick()}) parcourent les colonnes dans des boucles serrées, sans
+ * indirection ni allocation, et reproduisent les règles de
+ * {@link GroupBehavior} et de {@link TouristProfile}.
+ *
+ * Les préférences artistiques et le flux aléatoire restent dans les profils ;
+ * {@link #add(TouristProfile)} copie un profil et {@link #writeBack(int, TouristProfile)}
+ * y recopie fatigue, satisfaction et intérêt. Pour un visiteur en groupe,
+ * {@link #load(int, TouristProfile, GroupBehavior)} et
+ * {@link #writeBack(int, TouristProfile, GroupBehavior)} font aussi l'aller et
+ * retour des niveaux du groupe (voir {@link TouristCohortAgent}).
+ * Hors groupe, le profil fait foi et la ligne n'est qu'une copie périmée,
+ * écrasée au prochain chargement : les mises à jour de masse et les
+ * agrégats ne portent donc que sur les visiteurs en groupe.
+ */
+public class PopulationStore {
+    private static final double INITIAL_COHESION = 0.7;
+    private static final double INITIAL_GROUP_ENERGY = 0.7;
+
+    private int size;
+
+    // État courant
+    private final double[] fatigue;
+    private final double[] satisfaction;
+    private final double[] interest;
+    // Personnalité
+    private final double[] curiosity;
+    private final double[] socialness;
+    private final double[] patience;
+    private final double[] energy;
+    private final int[] age;
+    // Comportement de groupe
+    private final boolean[] inGroup;
+    private final double[] cohesion;
+    private final double[] groupEnergy;
+    private final double[] groupBonus;
+
+    public PopulationStore(int capacity) {
+        fatigue = new double[capacity];
+        satisfaction = new double[capacity];
+        interest = new double[capacity];
+        curiosity = new double[capacity];
+        socialness = new double[capacity];
+        patience = new double[capacity];
+        energy = new double[capacity];
+        age = new int[capacity];
+        inGroup = new boolean[capacity];
+        cohesion = new double[capacity];
+        groupEnergy = new double[capacity];
+        groupBonus = new double[capacity];
+    }
+
+    /**
+     * Ajoute un visiteur à partir de son profil
+     *
+     * @return indice du visiteur dans les colonnes
+     */
+    public int add(TouristProfile profile) {
+        if (size == fatigue.length) {
+            throw new IllegalStateException("Population complète : " + size + " visiteurs");
+        }
+        int i = size++;
+        Personality personality = profile.getPersonality();
+        fatigue[i] = profile.getFatigue();
+        satisfaction[i] = profile.getSatisfaction();
+        interest[i] = profile.getInterest();
+        curiosity[i] = personality.getCuriosity();
+        socialness[i] = personality.getSocialness();
+        patience[i] = personality.getPatience();
+        energy[i] = personality.getEnergy();
+        age[i] = profile.getAge();
+        cohesion[i] = INITIAL_COHESION;
+        groupEnergy[i] = INITIAL_GROUP_ENERGY;
+        return i;
+    }
+
+    /**
+     * Recopie l'état courant du visiteur dans son profil
+     */
+    public void writeBack(int i, TouristProfile profile) {
+        profile.setFatigue(fatigue[i]);
+        profile.setSatisfaction(satisfaction[i]);
+        profile.setInterest(interest[i]);
+    }
+
+    /**
+     * Recharge un visiteur dont le groupe est actif : état du profil,
+     * personnalité et niveaux du groupe ; les colonnes font ensuite foi
+     */
+    public void load(int i, TouristProfile profile, GroupBehavior group) {
+        Personality personality = profile.getPersonality();
+        fatigue[i] = profile.getFatigue();
+        satisfaction[i] = profile.getSatisfaction();
+        interest[i] = profile.getInterest();
+        curiosity[i] = personality.getCuriosity();
+        socialness[i] = personality.getSocialness();
+        patience[i] = personality.getPatience();
+        energy[i] = personality.getEnergy();
+        inGroup[i] = true;
+        cohesion[i] = group.getCohesionLevel();
+        groupEnergy[i] = group.getGroupEnergyLevel();
+        groupBonus[i] = group.getGroupSatisfactionBonus();
+    }
+
+    /**
+     * Recopie l'état courant du visiteur dans son profil et son comportement de groupe
+     */
+    public void writeBack(int i, TouristProfile profile, GroupBehavior group) {
+        writeBack(i, profile);
+        group.setLevels(cohesion[i], groupEnergy[i], groupBonus[i]);
+    }
+
+    /**
+     * Le visiteur rejoint un groupe (voir {@link GroupBehavior#activate()})
+     */
+    public void joinGroup(int i) {
+        inGroup[i] = true;
+        cohesion[i] = INITIAL_COHESION;
+        groupEnergy[i] = INITIAL_GROUP_ENERGY;
+    }
+
+    public void leaveGroup(int i) {
+        inGroup[i] = false;
+    }
+
+    /**
+     * Tick de masse : dynamique de groupe puis état personnel de chaque visiteur en groupe
+     */
+    public void tick() {
+        updateDynamics();
+        updatePersonalState();
+    }
+
+    /**
+     * Fatigue accrue pour les visiteurs en groupe (voir {@link TouristProfile#increaseFatigue(double)})
+     */
+    public void increaseFatigue(double amount) {
+        for (int i = 0; i < size; i++) {
+            if (!inGroup[i]) continue;
+            double f = Math.min(1.0, fatigue[i] + amount);
+            fatigue[i] = f;
+            interest[i] = f > 0.7 ? Math.max(0.1, interest[i] - 0.1) : interest[i];
+        }
+    }
+
+    /**
+     * Suivi du guide par les visiteurs en groupe (voir {@link GroupBehavior#followGuide()})
+     */
+    public void followGuide() {
+        for (int i = 0; i < size; i++) {
+            if (!inGroup[i]) continue;
+            double c = cohesion[i];
+            // Les personnes sociales suivent mieux
+            if (socialness[i] > 0.6) {
+                c = Math.min(1.0, c + 0.05);
+            }
+            // Les personnes patientes maintiennent mieux la cohésion
+            double p = patience[i];
+            if (p > 0.7) {
+                c = Math.min(1.0, c + 0.03);
+            } else if (p < 0.3) {
+                c = Math.max(0.2, c - 0.02);
+            }
+            cohesion[i] = c;
+        }
+    }
+
+    /**
+     * Énergie, bonus et cohésion des visiteurs en groupe (voir {@link GroupBehavior#updateDynamics(TouristProfile)})
+     */
+    public void updateDynamics() {
+        for (int i = 0; i < size; i++) {
+            if (!inGroup[i]) continue;
+            double ge = groupEnergy[i];
+            double gb = groupBonus[i];
+            double s = satisfaction[i];
+            if (s > 0.7) {
+                ge = Math.min(1.0, ge + 0.05);
+                gb = Math.min(0.2, gb + 0.02);
+            } else if (s < 0.4) {
+                ge = Math.max(0.2, ge - 0.03);
+                gb = Math.max(-0.1, gb - 0.01);
+            }
+            // La fatigue affecte l'énergie du groupe
+            if (fatigue[i] > 0.8) {
+                ge = Math.max(0.3, ge - 0.08);
+            }
+            groupEnergy[i] = ge;
+            groupBonus[i] = gb;
+            // La cohésion diminue naturellement avec le temps si pas entretenue
+            cohesion[i] = Math.max(0.3, cohesion[i] - 0.01);
+        }
+    }
+
+    /**
+     * Évolution de la fatigue des visiteurs en groupe sous l'effet du groupe et
+     * de l'âge (voir {@link GroupBehavior#updatePersonalState()})
+     */
+    public void updatePersonalState() {
+        for (int i = 0; i < size; i++) {
+            if (!inGroup[i]) continue;
+            double f = fatigue[i];
+            double in = interest[i];
+            double ge = groupEnergy[i];
+
+            f = Math.min(1.0, f + 0.02);
+            if (f > 0.7) in = Math.max(0.1, in - 0.1);
+
+            // Effet de groupe : un groupe énergique aide, un groupe fatigué affecte
+            if (ge > 0.7) {
+                f = Math.max(0.0, f - 0.01);
+                if (f < 0.3) in = Math.min(1.0, in + 0.05);
+            } else if (ge < 0.3) {
+                f = Math.min(1.0, f + 0.01);
+                if (f > 0.7) in = Math.max(0.1, in - 0.1);
+            }
+
+            // Les aînés se fatiguent plus, les jeunes profitent de l'énergie du groupe
+            int a = age[i];
+            if (a > 65) {
+                f = Math.min(1.0, f + 0.01);
+                if (f > 0.7) in = Math.max(0.1, in - 0.1);
+            } else if (a < 25 && ge > 0.5) {
+                f = Math.max(0.0, f - 0.01);
+                if (f < 0.3) in = Math.min(1.0, in + 0.05);
+            }
+
+            fatigue[i] = f;
+            interest[i] = in;
+        }
+    }
+
+    /**
+     * Satisfaction moyenne des visiteurs en groupe, 0 si aucun
+     */
+    public double getAverageSatisfaction() {
+        double sum = 0.0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!inGroup[i]) continue;
+            sum += satisfaction[i];
+            count++;
+        }
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    public int size() { return size; }
+    public int getCapacity() { return fatigue.length; }
+
+    // Accès par visiteur
+    public double getFatigue(int i) { return fatigue[i]; }
+    public double getSatisfaction(int i) { return satisfaction[i]; }
+    public void setSatisfaction(int i, double value) { satisfaction[i] = Math.max(0.0, Math.min(1.0, value)); }
+    public double getInterest(int i) { return interest[i]; }
+    public double getCuriosity(int i) { return curiosity[i]; }
+    public double getSocialness(int i) { return socialness[i]; }
+    public double getPatience(int i) { return patience[i]; }
+    public double getEnergy(int i) { return energy[i]; }
+    public boolean isInGroup(int i) { return inGroup[i]; }
+    public double getCohesion(int i) { return cohesion[i]; }
+    public double getGroupEnergy(int i) { return groupEnergy[i]; }
+    public double getGroupBonus(int i) { return groupBonus[i]; }
+}
@@ -0,0 +1,171 @@
+package agents.tourist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import utils.SlidingRegression;
+
+/**
+ * Analyse incrémentale de la satisfaction d'un touriste : tendance sur une
+ * fenêtre glissante, catégories extrêmes et recommandations sont mises à
+ * jour à chaque expérience, si bien que la consultation ne coûte ni parcours
+ * ni allocation. Les recommandations sont codées dans un masque de bits et
+ * les listes correspondantes sont partagées.
+ */
+public class SatisfactionAnalytics {
+    public static final int DEFAULT_TREND_WINDOW = 5;
+    private static final int MIN_TREND_EXPERIENCES = 3;
+
+    private static final int REC_EXPLANATION = 1;
+    private static final int REC_INTERACTION = 1 << 1;
+    private static final int REC_FATIGUE = 1 << 2;
+    private static final int REC_GROUP = 1 << 3;
+    private static final int REC_DETAILED = 1 << 4;
+    private static final int REC_SOCIAL = 1 << 5;
+    private static final String[] RECOMMENDATIONS = {
+        "Adapter le style d'explication au profil du visiteur",
+        "Encourager davantage d'interactions avec le guide",
+        "Proposer des pauses plus fréquentes",
+        "Améliorer la cohésion du groupe",
+        "Proposer des explications plus détaillées et techniques",
+        "Augmenter les opportunités d'interaction sociale"
+    };
+    private static final List<List<String>> RECOMMENDATION_LISTS = buildRecommendationLists();
+
+    private final SlidingRegression trend;
+    private final boolean curious;          // Curiosité > 0.7 : attend des explications détaillées
+    private final boolean social;           // Sociabilité > 0.7 : attend des interactions
+    private long observed;
+    private int strongest;
+    private int weakest;
+    private int recommendationMask;
+
+    public SatisfactionAnalytics(Personality personality, int trendWindow, double[] categoryRatings) {
+        this.trend = new SlidingRegression(trendWindow);
+        this.curious = personality.getCuriosity() > 0.7;
+        this.social = personality.getSocialness() > 0.7;
+        reset(categoryRatings);
+    }
+
+    /**
+     * Repart des notes de catégorie données, sans historique
+     */
+    public void reset(double[] categoryRatings) {
+        trend.reset();
+        observed = 0;
+        strongest = 0;
+        weakest = 0;
+        recommendationMask = 0;
+        for (int category = 0; category < categoryRatings.length; category++) {
+            updateExtremes(category, categoryRatings);
+            updateRecommendations(category, categoryRatings[category]);
+        }
+    }
+
+    /**
+     * Prend en compte une expérience, la note de sa catégorie étant déjà mise à jour
+     */
+    public void onExperience(int category, double rating, double[] categoryRatings) {
+        trend.add(rating);
+        observed++;
+        updateExtremes(category, categoryRatings);
+        updateRecommendations(category, categoryRatings[category]);
+    }
+
+    /**
+     * Met à jour les extrêmes ; à égalité, la catégorie de plus petit indice l'emporte
+     */
+    private void updateExtremes(int category, double[] ratings) {
+        double rating = ratings[category];
+        if (category == strongest) {
+            strongest = 0;
+            for (int i = 1; i < ratings.length; i++) {
+                if (ratings[i] > ratings[strongest]) strongest = i;
+            }
+        } else if (rating > ratings[strongest] || (rating == ratings[strongest] && category < strongest)) {
+            strongest = category;
+        }
+        if (category == weakest) {
+            weakest = 0;
+            for (int i = 1; i < ratings.length; i++) {
+                if (ratings[i] < ratings[weakest]) weakest = i;
+            }
+        } else if (rating < ratings[weakest] || (rating == ratings[weakest] && category < weakest)) {
+            weakest = category;
+        }
+    }
+
+    private void updateRecommendations(int category, double rating) {
+        switch (category) {
+            case SatisfactionTracker.EXPLANATION:
+                setRecommendation(REC_EXPLANATION, rating < 0.4);
+                setRecommendation(REC_DETAILED, curious && rating < 0.6);
+                break;
+            case SatisfactionTracker.INTERACTION:
+                setRecommendation(REC_INTERACTION, rating < 0.4);
+                setRecommendation(REC_SOCIAL, social && rating < 0.6);
+                break;
+            case SatisfactionTracker.FATIGUE_MANAGEMENT:
+                setRecommendation(REC_FATIGUE, rating < 0.4);
+                break;
+            case SatisfactionTracker.GROUP_DYNAMICS:
+                setRecommendation(REC_GROUP, rating < 0.4);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void setRecommendation(int flag, boolean active) {
+        recommendationMask = active ? recommendationMask | flag : recommendationMask & ~flag;
+    }
+
+    /**
+     * Pente des notes sur la fenêtre, 0 avant trois expériences
+     */
+    public double getTrend() {
+        return observed < MIN_TREND_EXPERIENCES ? 0.0 : trend.getSlope();
+    }
+
+    /**
+     * Décrit la tendance en mots
+     */
+    public String getTrendDescription() {
+        double trend = getTrend();
+        if (Math.abs(trend) < 0.01) {
+            return "Stable";
+        } else if (trend > 0.05) {
+            return "En forte amélioration";
+        } else if (trend > 0.01) {
+            return "En amélioration";
+        } else if (trend < -0.05) {
+            return "En forte dégradation";
+        } else {
+            return "En légère dégradation";
+        }
+    }
+
+    public int getStrongestCategory() { return strongest; }
+    public int getWeakestCategory() { return weakest; }
+    public int getRecommendationMask() { return recommendationMask; }
+    public int getTrendWindow() { return trend.getWindow(); }
+
+    /**
+     * Recommandations actives (liste partagée, non modifiable)
+     */
+    public List<String> getRecommendations() {
+        return RECOMMENDATION_LISTS.get(recommendationMask);
+    }
+
+    private static List<List<String>> buildRecommendationLists() {
+        List<List<String>> lists = new ArrayList<>(1 << RECOMMENDATIONS.length);
+        for (int mask = 0; mask < 1 << RECOMMENDATIONS.length; mask++) {
+            List<String> list = new ArrayList<>();
+            for (int bit = 0; bit < RECOMMENDATIONS.length; bit++) {
+                if ((mask & (1 << bit)) != 0) list.add(RECOMMENDATIONS[bit]);
+            }
+            lists.add(Collections.unmodifiableList(list));
+        }
+        return lists;
+    }
+}
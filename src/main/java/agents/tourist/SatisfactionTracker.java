@@ -3,146 +3,192 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
-import java.time.LocalDateTime;
 
 /**
- * Classe pour suivre et analyser la satisfaction d'un touriste
+ * Classe pour suivre et analyser la satisfaction d'un touriste.
+ * Les expériences sont conservées dans un anneau de taille fixe (catégorie,
+ * note, date en nanosecondes) et la somme pondérée des catégories est tenue
+ * à jour au fil de l'eau : enregistrer une expérience ne coûte ni parcours
+ * ni allocation. L'analyse (tendance, extrêmes, recommandations) est tenue
+ * par {@link SatisfactionAnalytics}.
  */
 public class SatisfactionTracker {
+    public static final int GUIDE_COMPATIBILITY = 0;
+    public static final int EXPLANATION = 1;
+    public static final int ARTWORK = 2;
+    public static final int INTERACTION = 3;
+    public static final int GROUP_DYNAMICS = 4;
+    public static final int FATIGUE_MANAGEMENT = 5;
+    private static final String[] CATEGORIES = {
+        "guide_compatibility", "explanation", "artwork",
+        "interaction", "group_dynamics", "fatigue_management"
+    };
+    public static final int DEFAULT_CAPACITY = 256;
+
     private TouristProfile profile;
-    private List<ExperienceRecord> experiences;
-    private Map<String, Double> categoryRatings;
+    private final byte[] recordCategories;
+    private final double[] recordRatings;
+    private final long[] recordTimes;
+    private final int mask;
+    private long experienceCount;           // Total enregistré, l'anneau ne garde que les derniers
+    private final double[] categoryRatings = new double[CATEGORIES.length];
+    private final double[] weights = new double[CATEGORIES.length];
+    private double totalWeight;
+    private double weightedSum;
+    private boolean demanding;              // Très curieux : plus exigeant
+    private boolean sociable;               // Très social : apprécie l'interaction
+    private boolean impatient;              // Peu patient : sensible à la fatigue
+    private int personalityVersion;         // Version des traits ayant servi aux poids
+    private final SatisfactionAnalytics analytics;
     private double currentSatisfaction;
-    private LocalDateTime sessionStart;
-    
+    private long sessionStart;
+
     public SatisfactionTracker(TouristProfile profile) {
+        this(profile, DEFAULT_CAPACITY, SatisfactionAnalytics.DEFAULT_TREND_WINDOW);
+    }
+
+    /**
+     * @param capacity nombre d'expériences conservées, arrondi à la puissance de deux supérieure
+     * @param trendWindow nombre de dernières expériences pour le calcul de tendance
+     */
+    public SatisfactionTracker(TouristProfile profile, int capacity, int trendWindow) {
         this.profile = profile;
-        this.experiences = new ArrayList<>();
-        this.categoryRatings = new HashMap<>();
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.recordCategories = new byte[size];
+        this.recordRatings = new double[size];
+        this.recordTimes = new long[size];
+        this.mask = size - 1;
         this.currentSatisfaction = profile.getSatisfaction();
-        this.sessionStart = LocalDateTime.now();
-        
+        this.sessionStart = System.nanoTime();
+
+        Personality personality = profile.getPersonality();
+        applyPersonality(personality);
         initializeCategories();
+        this.analytics = new SatisfactionAnalytics(personality, trendWindow, categoryRatings);
     }
-    
+
+    /**
+     * Poids et ajustements tirés des traits. Ils sont recalculés quand la
+     * personnalité change de version, par exemple quand l'expérience accroît
+     * la patience entre deux visites.
+     */
+    private void applyPersonality(Personality personality) {
+        weights[GUIDE_COMPATIBILITY] = 1.0;
+        weights[EXPLANATION] = 0.8 + (personality.getCuriosity() * 0.4);
+        weights[ARTWORK] = 1.2; // Toujours important
+        weights[INTERACTION] = 0.6 + (personality.getSocialness() * 0.6);
+        weights[GROUP_DYNAMICS] = 0.7 + (personality.getSocialness() * 0.4);
+        weights[FATIGUE_MANAGEMENT] = 0.5 + (personality.getEnergy() * 0.5);
+        double total = 0.0;
+        double sum = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            sum += categoryRatings[i] * weights[i];
+        }
+        totalWeight = total;
+        weightedSum = sum;
+        demanding = personality.getCuriosity() > 0.8;
+        sociable = personality.getSocialness() > 0.8;
+        impatient = personality.getPatience() < 0.4;
+        personalityVersion = personality.getVersion();
+    }
+
     /**
      * Initialise les catégories d'expérience
      */
     private void initializeCategories() {
-        categoryRatings.put("guide_compatibility", 0.5);
-        categoryRatings.put("explanation", 0.5);
-        categoryRatings.put("artwork", 0.5);
-        categoryRatings.put("interaction", 0.5);
-        categoryRatings.put("group_dynamics", 0.5);
-        categoryRatings.put("fatigue_management", 0.5);
+        weightedSum = 0.0;
+        for (int i = 0; i < categoryRatings.length; i++) {
+            categoryRatings[i] = 0.5;
+            weightedSum += 0.5 * weights[i];
+        }
     }
-    
+
+    /**
+     * Indice d'une catégorie à partir de son nom
+     */
+    public static int categoryIndex(String category) {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            if (CATEGORIES[i].equals(category)) return i;
+        }
+        throw new IllegalArgumentException("Catégorie d'expérience inconnue : " + category);
+    }
+
+    public static String categoryName(int category) {
+        return CATEGORIES[category];
+    }
+
     /**
      * Enregistre une nouvelle expérience
      */
     public void recordExperience(String category, double rating) {
-        recordExperience(category, rating, null);
+        recordExperience(categoryIndex(category), rating);
     }
-    
+
     /**
-     * Enregistre une nouvelle expérience avec contexte
+     * Enregistre une nouvelle expérience (catégorie par indice, sans allocation)
      */
-    public void recordExperience(String category, double rating, String context) {
-        ExperienceRecord record = new ExperienceRecord(category, rating, context);
-        experiences.add(record);
-        
+    public void recordExperience(int category, double rating) {
+        int slot = (int) (experienceCount++ & mask);
+        recordCategories[slot] = (byte) category;
+        recordRatings[slot] = rating;
+        recordTimes[slot] = System.nanoTime();
+
         // Mise à jour de la moyenne de catégorie
         updateCategoryRating(category, rating);
-        
+        analytics.onExperience(category, rating, categoryRatings);
+
         // Recalcul de la satisfaction globale
         recalculateSatisfaction();
     }
-    
+
     /**
-     * Met à jour la note d'une catégorie
+     * Met à jour la note d'une catégorie et la somme pondérée
      */
-    private void updateCategoryRating(String category, double rating) {
-        Double currentRating = categoryRatings.get(category);
-        if (currentRating == null) {
-            categoryRatings.put(category, rating);
-        } else {
-            // Moyenne pondérée avec l'historique
-            double newRating = (currentRating * 0.7) + (rating * 0.3);
-            categoryRatings.put(category, newRating);
-        }
+    private void updateCategoryRating(int category, double rating) {
+        double currentRating = categoryRatings[category];
+        // Moyenne pondérée avec l'historique
+        double newRating = (currentRating * 0.7) + (rating * 0.3);
+        categoryRatings[category] = newRating;
+        weightedSum += (newRating - currentRating) * weights[category];
     }
-    
+
     /**
      * Recalcule la satisfaction globale
      */
     private void recalculateSatisfaction() {
-        if (experiences.isEmpty()) {
-            return;
-        }
-        
-        // Pondération des différentes catégories
-        Map<String, Double> weights = getCategoryWeights();
-        double weightedSum = 0.0;
-        double totalWeight = 0.0;
-        
-        for (Map.Entry<String, Double> entry : categoryRatings.entrySet()) {
-            String category = entry.getKey();
-            double rating = entry.getValue();
-            double weight = weights.getOrDefault(category, 1.0);
-            
-            weightedSum += rating * weight;
-            totalWeight += weight;
+        Personality personality = profile.getPersonality();
+        if (personality.getVersion() != personalityVersion) {
+            applyPersonality(personality);
         }
-        
         currentSatisfaction = weightedSum / totalWeight;
-        
+
         // Ajustements basés sur la personnalité
         applyPersonalityAdjustments();
-        
+
         // Mise à jour du profil
         profile.setSatisfaction(currentSatisfaction);
     }
-    
-    /**
-     * Retourne les poids des catégories basés sur la personnalité
-     */
-    private Map<String, Double> getCategoryWeights() {
-        Map<String, Double> weights = new HashMap<>();
-        Personality personality = profile.getPersonality();
-        
-        // Ajustement des poids selon la personnalité
-        weights.put("guide_compatibility", 1.0);
-        weights.put("explanation", 0.8 + (personality.getCuriosity() * 0.4));
-        weights.put("artwork", 1.2); // Toujours important
-        weights.put("interaction", 0.6 + (personality.getSocialness() * 0.6));
-        weights.put("group_dynamics", 0.7 + (personality.getSocialness() * 0.4));
-        weights.put("fatigue_management", 0.5 + (personality.getEnergy() * 0.5));
-        
-        return weights;
-    }
-    
+
     /**
      * Applique des ajustements basés sur la personnalité
      */
     private void applyPersonalityAdjustments() {
-        Personality personality = profile.getPersonality();
-        
         // Les personnes très curieuses sont plus exigeantes
-        if (personality.getCuriosity() > 0.8) {
+        if (demanding) {
             currentSatisfaction *= 0.95;
         }
-        
+
         // Les personnes très sociales apprécient l'interaction
-        if (personality.getSocialness() > 0.8 && 
-            categoryRatings.get("interaction") > 0.7) {
+        if (sociable && categoryRatings[INTERACTION] > 0.7) {
             currentSatisfaction *= 1.05;
         }
-        
+
         // Les personnes peu patientes sont affectées par la fatigue
-        if (personality.getPatience() < 0.4 && profile.getFatigue() > 0.6) {
+        if (impatient && profile.getFatigue() > 0.6) {
             currentSatisfaction *= 0.9;
         }
-        
+
         // Normaliser
         currentSatisfaction = Math.max(0.0, Math.min(1.0, currentSatisfaction));
     }
@@ -151,136 +197,24 @@ public class SatisfactionTracker {
      * Analyse les tendances de satisfaction
      */
     public SatisfactionAnalysis analyzeTrends() {
-        if (experiences.size() < 2) {
+        if (experienceCount < 2) {
             return new SatisfactionAnalysis("Insufficient data", currentSatisfaction);
         }
         
-        // Calcul de la tendance
-        double trend = calculateTrend();
-        String trendDescription = describeTrend(trend);
-        
-        // Identification des points forts et faibles
-        String strongestCategory = findStrongestCategory();
-        String weakestCategory = findWeakestCategory();
-        
-        // Recommandations
-        List<String> recommendations = generateRecommendations();
-        
-        return new SatisfactionAnalysis(trendDescription, currentSatisfaction, 
-                                      strongestCategory, weakestCategory, recommendations);
-    }
-    
-    /**
-     * Calcule la tendance de satisfaction
-     */
-    private double calculateTrend() {
-        if (experiences.size() < 3) {
-            return 0.0;
-        }
-        
-        // Régression linéaire simple sur les dernières expériences
-        int n = Math.min(experiences.size(), 5); // 5 dernières expériences
-        double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0;
-        
-        for (int i = experiences.size() - n; i < experiences.size(); i++) {
-            double x = i;
-            double y = experiences.get(i).getRating();
-            sumX += x;
-            sumY += y;
-            sumXY += x * y;
-            sumX2 += x * x;
-        }
-        
-        double slope = (n * sumXY - sumX * sumY) / (n * sumX2 - sumX * sumX);
-        return slope;
-    }
-    
-    /**
-     * Décrit la tendance en mots
-     */
-    private String describeTrend(double trend) {
-        if (Math.abs(trend) < 0.01) {
-            return "Stable";
-        } else if (trend > 0.05) {
-            return "En forte amélioration";
-        } else if (trend > 0.01) {
-            return "En amélioration";
-        } else if (trend < -0.05) {
-            return "En forte dégradation";
-        } else {
-            return "En légère dégradation";
-        }
-    }
-    
-    /**
-     * Trouve la catégorie la mieux notée
-     */
-    private String findStrongestCategory() {
-        return categoryRatings.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("Aucune");
-    }
-    
-    /**
-     * Trouve la catégorie la moins bien notée
-     */
-    private String findWeakestCategory() {
-        return categoryRatings.entrySet().stream()
-                .min(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("Aucune");
-    }
-    
-    /**
-     * Génère des recommandations pour améliorer l'expérience
-     */
-    private List<String> generateRecommendations() {
-        List<String> recommendations = new ArrayList<>();
-        
-        // Recommandations basées sur les faiblesses
-        for (Map.Entry<String, Double> entry : categoryRatings.entrySet()) {
-            String category = entry.getKey();
-            double rating = entry.getValue();
-            
-            if (rating < 0.4) {
-                switch (category) {
-                    case "explanation":
-                        recommendations.add("Adapter le style d'explication au profil du visiteur");
-                        break;
-                    case "interaction":
-                        recommendations.add("Encourager davantage d'interactions avec le guide");
-                        break;
-                    case "fatigue_management":
-                        recommendations.add("Proposer des pauses plus fréquentes");
-                        break;
-                    case "group_dynamics":
-                        recommendations.add("Améliorer la cohésion du groupe");
-                        break;
-                }
-            }
-        }
-        
-        // Recommandations basées sur la personnalité
-        Personality personality = profile.getPersonality();
-        if (personality.getCuriosity() > 0.7 && categoryRatings.get("explanation") < 0.6) {
-            recommendations.add("Proposer des explications plus détaillées et techniques");
-        }
-        
-        if (personality.getSocialness() > 0.7 && categoryRatings.get("interaction") < 0.6) {
-            recommendations.add("Augmenter les opportunités d'interaction sociale");
-        }
-        
-        return recommendations;
+        return new SatisfactionAnalysis(analytics.getTrendDescription(), currentSatisfaction,
+                                      CATEGORIES[analytics.getStrongestCategory()],
+                                      CATEGORIES[analytics.getWeakestCategory()],
+                                      analytics.getRecommendations());
     }
     
     /**
      * Remet à zéro le tracker pour une nouvelle visite
      */
     public void reset() {
-        experiences.clear();
+        experienceCount = 0;
         initializeCategories();
-        sessionStart = LocalDateTime.now();
+        analytics.reset(categoryRatings);
+        sessionStart = System.nanoTime();
         currentSatisfaction = 0.5;
     }
     
@@ -288,38 +222,59 @@ public class SatisfactionTracker {
      * Retourne un résumé de la session
      */
     public String getSessionSummary() {
-        long durationMinutes = java.time.Duration.between(sessionStart, LocalDateTime.now()).toMinutes();
+        long durationMinutes = java.util.concurrent.TimeUnit.NANOSECONDS.toMinutes(System.nanoTime() - sessionStart);
         
         return String.format("Session: %d expériences en %d minutes, satisfaction finale: %.2f",
-                experiences.size(), durationMinutes, currentSatisfaction);
+                experienceCount, durationMinutes, currentSatisfaction);
     }
-    
+
+    /**
+     * Expériences encore présentes dans l'anneau, de la plus ancienne à la plus récente
+     */
+    public List<ExperienceRecord> getExperiences() {
+        long first = Math.max(0, experienceCount - recordRatings.length);
+        List<ExperienceRecord> records = new ArrayList<>((int) (experienceCount - first));
+        for (long i = first; i < experienceCount; i++) {
+            int slot = (int) (i & mask);
+            records.add(new ExperienceRecord(CATEGORIES[recordCategories[slot]],
+                                             recordRatings[slot], recordTimes[slot]));
+        }
+        return records;
+    }
+
+    public Map<String, Double> getCategoryRatings() {
+        Map<String, Double> ratings = new HashMap<>();
+        for (int i = 0; i < categoryRatings.length; i++) {
+            ratings.put(CATEGORIES[i], categoryRatings[i]);
+        }
+        return ratings;
+    }
+
     // Getters
     public double getCurrentSatisfaction() { return currentSatisfaction; }
-    public List<ExperienceRecord> getExperiences() { return new ArrayList<>(experiences); }
-    public Map<String, Double> getCategoryRatings() { return new HashMap<>(categoryRatings); }
+    public double getCategoryRating(int category) { return categoryRatings[category]; }
+    public long getExperienceCount() { return experienceCount; }
+    public SatisfactionAnalytics getAnalytics() { return analytics; }
+    public int getCapacity() { return recordRatings.length; }
     
     /**
-     * Classe interne pour représenter une expérience
+     * Copie d'une expérience de l'anneau
      */
     public static class ExperienceRecord {
         private String category;
         private double rating;
-        private String context;
-        private LocalDateTime timestamp;
+        private long timestamp;
         
-        public ExperienceRecord(String category, double rating, String context) {
+        public ExperienceRecord(String category, double rating, long timestamp) {
             this.category = category;
             this.rating = rating;
-            this.context = context;
-            this.timestamp = LocalDateTime.now();
+            this.timestamp = timestamp;
         }
         
         // Getters
         public String getCategory() { return category; }
         public double getRating() { return rating; }
-        public String getContext() { return context; }
-        public LocalDateTime getTimestamp() { return timestamp; }
+        public long getTimestamp() { return timestamp; } // System.nanoTime()
     }
     
     /**
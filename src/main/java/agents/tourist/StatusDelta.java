@@ -0,0 +1,66 @@
+package agents.tourist;
+import agents.protocol.TouristStatus.Metric;
+import agents.protocol.TouristStatusReport;
+import java.util.Arrays;
+
+/**
+ * Regroupe les métriques d'un touriste entre deux envois au guide.
+ * Seules les valeurs qui s'écartent du dernier envoi de plus d'epsilon
+ * sont incluses dans le rapport suivant.
+ */
+public class StatusDelta {
+    public static final String EPSILON_PROPERTY = "museum.status.epsilon";
+    public static final double DEFAULT_EPSILON = 0.02;
+
+    private static final int METRIC_COUNT = Metric.values().length;
+
+    private final double epsilon;
+    private final double[] lastSent = new double[METRIC_COUNT];
+    private final double[] current = new double[METRIC_COUNT];
+    private int recordedMask;
+
+    public StatusDelta() {
+        this(Double.parseDouble(System.getProperty(EPSILON_PROPERTY, String.valueOf(DEFAULT_EPSILON))));
+    }
+
+    public StatusDelta(double epsilon) {
+        this.epsilon = epsilon;
+        reset();
+    }
+
+    /**
+     * Enregistre la valeur courante d'une métrique
+     */
+    public void record(Metric metric, double value) {
+        current[metric.ordinal()] = value;
+        recordedMask |= TouristStatusReport.bit(metric);
+    }
+
+    /**
+     * Produit le rapport des métriques modifiées et les marque comme envoyées
+     * @return null si rien n'a changé au-delà d'epsilon
+     */
+    public TouristStatusReport flush() {
+        int mask = 0;
+        for (int i = 0; i < METRIC_COUNT; i++) {
+            if ((recordedMask & (1 << i)) != 0
+                    && !(Math.abs(current[i] - lastSent[i]) <= epsilon)) {
+                mask |= 1 << i;
+                lastSent[i] = current[i];
+            }
+        }
+        return mask == 0 ? null : TouristStatusReport.of(mask, current);
+    }
+
+    /**
+     * Oublie les valeurs envoyées (nouveau guide : le prochain rapport est complet)
+     */
+    public void reset() {
+        Arrays.fill(lastSent, Double.NaN);
+        recordedMask = 0;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+}
@@ -2,20 +2,39 @@ package agents.tourist;
 
 import jade.core.Agent;
 import jade.core.AID;
-import jade.core.behaviours.*;
 import jade.lang.acl.ACLMessage;
-import jade.lang.acl.MessageTemplate;
 import jade.domain.DFService;
 import jade.domain.FIPAException;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
+import utils.DirectoryCache;
+import utils.EventJournal;
+import utils.RandomStreams;
 import utils.ServiceFinder;
-import java.util.Random;
+import utils.SimulationClock;
+import utils.TimerWheel;
+import agents.base.MessageHandler;
+import agents.base.MessageRouter;
+import agents.base.SimulationSnapshot;
+import agents.base.Snapshottable;
+import agents.protocol.Explanation;
+import agents.protocol.MessageCodec;
+import agents.protocol.MessageKind;
+import agents.protocol.TouristStatus;
+import agents.protocol.TouristStatusReport;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Agent Touriste avec comportement de groupe amélioré - effet "mouton"
  */
-public class TouristAgent extends Agent {
+public class TouristAgent extends Agent implements Snapshottable {
     // Propriétés de base
     private TouristProfile profile;
     private AID guideAgent;
@@ -34,65 +53,115 @@ public class TouristAgent extends Agent {
     private boolean followingGuide = false;
     private double groupPosition = 0; // Position dans le groupe (0-1)
     
+    // Métriques en attente d'envoi groupé au guide
+    private StatusDelta statusDelta;
+    
+    // Routage des messages entrants
+    private MessageRouter router;
+    private MessageHandler messageHandler;
+    
+    // Échéances sur la roue partagée du conteneur
+    private TimerWheel timers;
+    
     private static final long MAX_WAIT_TIME = 60000; // 1 minute
     
+    // Flux aléatoire du touriste (celui de son profil), reproductible par la graine
+    private SplittableRandom random;
+    
+    // Délai avant la recherche du coordinateur (arrivée échelonnée)
+    private long arrivalDelay;
+    
     @Override
     protected void setup() {
         System.out.println("Agent Touriste " + getLocalName() + " démarré avec comportement de groupe");
         
-        // Initialisation
-        profile = new TouristProfile(getLocalName());
+        // Arguments optionnels : délai d'arrivée (ms) puis soit la clé du profil, soit
+        // nationalité, âge et préférences séparées par des virgules ; ou état d'un cliché
+        Object[] args = getArguments();
         currentLocation = "PointA";
         inGroup = false;
         waitingForAssignment = false;
         questionsAsked = 0;
         toursCompleted = 0;
         
-        // Initialiser le comportement de groupe
-        groupBehavior = new GroupBehavior();
-        groupPosition = Math.random(); // Position aléatoire dans le groupe
+        // Initialisation
+        DataInputStream restored = SimulationSnapshot.restoredState(args);
+        if (restored == null || !restoreState(restored)) {
+            profile = createProfile(args);
+            random = profile.getRandom();
+            arrivalDelay = args != null && args.length > 0 && restored == null
+                ? Long.parseLong(args[0].toString())
+                : random.nextInt(3000) + 1000;
+        }
+        SimulationSnapshot.register(this);
+        
+        // Initialiser le comportement de groupe, sauf visite en cours reprise d'un cliché
+        if (groupBehavior == null) {
+            groupBehavior = new GroupBehavior(profile);
+            groupPosition = random.nextDouble(); // Position aléatoire dans le groupe
+        }
+        statusDelta = new StatusDelta();
         
         // Enregistrement du service
         registerService();
         
-        // Comportements améliorés avec cohésion de groupe
-        addBehaviour(new CoordinatorRegistrationBehavior());
-        addBehaviour(new EnhancedGuideInteractionBehavior());
-        addBehaviour(new GroupCohesionBehavior());
-        addBehaviour(new PersonalityBehavior());
-        addBehaviour(new WaitingTimeoutBehavior());
+        // Routes des messages et répartiteur unique de la boîte aux lettres
+        router = new MessageRouter();
+        new CoordinatorMessages().registerRoutes(router);
+        new GuideMessages().registerRoutes(router);
+        messageHandler = new MessageHandler(this, router);
+        
+        // Comportements améliorés avec cohésion de groupe, cadencés par la roue du conteneur
+        addBehaviour(messageHandler);
+        timers = TimerWheel.forAgent(this);
+        long cohesionPeriod = 3000 + random.nextInt(2000); // 3-5 secondes
+        long personalityPeriod = 10000 + random.nextInt(5000);
+        timers.scheduleAtFixedRate(this, cohesionPeriod, cohesionPeriod, this::onCohesionTick);
+        timers.scheduleAtFixedRate(this, personalityPeriod, personalityPeriod, this::onPersonalityTick);
+        timers.scheduleAtFixedRate(this, 15000, 15000, this::onWaitingTick);
         
         // Recherche et enregistrement auprès du coordinateur
         findAndRegisterWithCoordinator();
+        SimulationClock.setupDone(this);
     }
     
-    private void registerService() {
-        try {
-            DFAgentDescription dfd = new DFAgentDescription();
-            dfd.setName(getAID());
-            ServiceDescription sd = new ServiceDescription();
-            sd.setType("tourist-service");
-            sd.setName("museum-visitor");
-            dfd.addServices(sd);
-            DFService.register(this, dfd);
-        } catch (FIPAException fe) {
-            fe.printStackTrace();
+    /**
+     * Profil décrit par les arguments de lancement, sinon tiré de la clé (le nom par défaut)
+     */
+    private TouristProfile createProfile(Object[] args) {
+        if (args != null && args.length > 3) {
+            List<String> preferences = new ArrayList<>();
+            for (String preference : args[3].toString().split(",")) {
+                if (!preference.isEmpty()) {
+                    preferences.add(preference);
+                }
+            }
+            return new TouristProfile(args[1].toString(), Integer.parseInt(args[2].toString()),
+                                      preferences, RandomStreams.forName(getLocalName()));
         }
+        String profileKey = args != null && args.length > 1 ? args[1].toString() : getLocalName();
+        return new TouristProfile(profileKey);
+    }
+    
+    private void registerService() {
+        DFAgentDescription dfd = new DFAgentDescription();
+        dfd.setName(getAID());
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType("tourist-service");
+        sd.setName("museum-visitor");
+        dfd.addServices(sd);
+        ServiceFinder.registerAsync(this, dfd);
     }
     
     private void findAndRegisterWithCoordinator() {
-        addBehaviour(new OneShotBehaviour() {
-            @Override
-            public void action() {
-                // Attendre un peu avant de chercher (simulation arrivée échelonnée)
-                try {
-                    Thread.sleep(new Random().nextInt(3000) + 1000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        // Arrivée échelonnée : réveil planifié, l'agent traite ses messages en attendant
+        timers.schedule(this, arrivalDelay, () ->
+            // Rechercher le coordinateur sans bloquer l'agent
+            ServiceFinder.findCoordinatorAsync(this, coordinator -> {
+                coordinatorAgent = coordinator;
+                if (followingGuide) {
+                    return; // Visite reprise d'un cliché : déjà dans le groupe de son guide
                 }
-                
-                // Rechercher le coordinateur
-                coordinatorAgent = ServiceFinder.findCoordinator(TouristAgent.this);
                 if (coordinatorAgent != null) {
                     System.out.println("Touriste " + getLocalName() + " trouvé coordinateur");
                     registerWithCoordinator();
@@ -100,59 +169,52 @@ public class TouristAgent extends Agent {
                     // Fallback : chercher directement un guide
                     findGuideDirectly();
                 }
-            }
-        });
+            }));
     }
     
     private void registerWithCoordinator() {
         ACLMessage msg = new ACLMessage(ACLMessage.SUBSCRIBE);
         msg.addReceiver(coordinatorAgent);
-        msg.setContent("REGISTER_TOURIST");
+        msg.setContent("REGISTER_TOURIST:" + here().getName()); // Conteneur pour le placement du groupe
         send(msg);
         
         waitingForAssignment = true;
-        waitStartTime = System.currentTimeMillis();
+        waitStartTime = SimulationClock.now();
         
         System.out.println("Touriste " + getLocalName() + " s'enregistre auprès du coordinateur");
     }
     
     private void findGuideDirectly() {
-        guideAgent = ServiceFinder.findAgent(this, "guide-service");
-        if (guideAgent != null) {
-            ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
-            msg.addReceiver(guideAgent);
-            msg.setContent("JOIN_GROUP");
-            send(msg);
-            System.out.println("Touriste " + getLocalName() + " demande directement au guide");
-        }
+        // Guide libre le moins sollicité, de préférence dans le style favori du touriste
+        List<String> preferences = profile.getArtPreferences();
+        String preferred = preferences.isEmpty() ? null : preferences.get(0);
+        ServiceFinder.findAvailableGuideAsync(this, preferred, guide -> {
+            guideAgent = guide;
+            if (guideAgent != null) {
+                ACLMessage msg = new ACLMessage(ACLMessage.REQUEST);
+                msg.addReceiver(guideAgent);
+                msg.setContent("JOIN_GROUP");
+                send(msg);
+                System.out.println("Touriste " + getLocalName() + " demande directement au guide");
+            }
+        });
     }
     
     /**
-     * Enregistrement auprès du coordinateur
+     * Messages du coordinateur (accueil, affectation, redirection)
      */
-    private class CoordinatorRegistrationBehavior extends CyclicBehaviour {
-        @Override
-        public void action() {
-            MessageTemplate mt = MessageTemplate.or(
-                MessageTemplate.MatchPerformative(ACLMessage.CONFIRM),
-                MessageTemplate.MatchPerformative(ACLMessage.INFORM)
-            );
-            ACLMessage msg = receive(mt);
-            
-            if (msg != null) {
-                String content = msg.getContent();
-                if ("WELCOME_MUSEUM".equals(content)) {
-                    System.out.println("Touriste " + getLocalName() + " : Bienvenue au musée reçue");
-                } else if (content.startsWith("ASSIGNED_TO_GUIDE:")) {
-                    handleGuideAssignment(content);
-                } else if ("REDIRECT_TO_COORDINATOR".equals(content)) {
-                    System.out.println("Touriste " + getLocalName() + " : Redirigé vers le coordinateur");
-                    if (coordinatorAgent != null) {
-                        registerWithCoordinator();
-                    }
-                }
-            } else {
-                block();
+    private class CoordinatorMessages {
+        void registerRoutes(MessageRouter router) {
+            router.on(MessageKind.WELCOME_MUSEUM, msg ->
+                      System.out.println("Touriste " + getLocalName() + " : Bienvenue au musée reçue"))
+                  .on(MessageKind.ASSIGNED_TO_GUIDE, msg -> handleGuideAssignment(msg.getContent()))
+                  .on(MessageKind.REDIRECT_TO_COORDINATOR, msg -> handleRedirect());
+        }
+        
+        private void handleRedirect() {
+            System.out.println("Touriste " + getLocalName() + " : Redirigé vers le coordinateur");
+            if (coordinatorAgent != null) {
+                registerWithCoordinator();
             }
         }
         
@@ -161,6 +223,7 @@ public class TouristAgent extends Agent {
             guideAgent = new AID(guideName, AID.ISLOCALNAME);
             waitingForAssignment = false;
             followingGuide = true;
+            statusDelta.reset(); // Premier rapport complet pour le nouveau guide
             
             ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
             msg.addReceiver(guideAgent);
@@ -173,39 +236,38 @@ public class TouristAgent extends Agent {
     }
     
     /**
-     * Interaction améliorée avec le guide avec comportement de groupe
+     * Messages du guide, traités avec comportement de groupe
      */
-    private class EnhancedGuideInteractionBehavior extends CyclicBehaviour {
-        @Override
-        public void action() {
-            MessageTemplate mt = MessageTemplate.MatchPerformative(ACLMessage.INFORM);
-            ACLMessage msg = receive(mt);
-            
-            if (msg != null && guideAgent != null && msg.getSender().equals(guideAgent)) {
-                handleGuideMessage(msg);
-            } else {
-                block();
-            }
+    private class GuideMessages {
+        void registerRoutes(MessageRouter router) {
+            router.on(MessageKind.WELCOME_GROUP, fromGuide(this::handleWelcomeWithGroupFormation))
+                  .on(MessageKind.MOVE_TO, fromGuide(this::handleGroupMovement))
+                  .on(MessageKind.EXPLANATION, fromGuide(Explanation::from, this::handleExplanationInGroup))
+                  .on(MessageKind.BREAK_PROPOSAL, fromGuide(this::handleBreakProposalWithGroup))
+                  .on(MessageKind.TOUR_END, fromGuide(this::handleTourEnd))
+                  .on(MessageKind.ANSWER, fromGuide(this::handleAnswer))
+                  .on(MessageKind.GROUP_FORMATION, fromGuide(this::handleGroupFormation));
+        }
+        
+        /**
+         * N'accepte le contenu que s'il provient du guide courant
+         */
+        private Consumer<ACLMessage> fromGuide(Consumer<String> handler) {
+            return fromGuide(ACLMessage::getContent, handler);
         }
-        
-        private void handleGuideMessage(ACLMessage msg) {
-            String content = msg.getContent();
-            
-            if (content.startsWith("WELCOME_GROUP:")) {
-                handleWelcomeWithGroupFormation(content);
-            } else if (content.startsWith("MOVE_TO:")) {
-                handleGroupMovement(content);
-            } else if (content.startsWith("EXPLANATION:")) {
-                handleExplanationInGroup(content);
-            } else if (content.startsWith("BREAK_PROPOSAL:")) {
-                handleBreakProposalWithGroup(content);
-            } else if (content.startsWith("TOUR_END:")) {
-                handleTourEnd(content);
-            } else if (content.startsWith("ANSWER:")) {
-                handleAnswer(content);
-            } else if (content.startsWith("GROUP_FORMATION:")) {
-                handleGroupFormation(content);
-            }
+
+        /**
+         * Variante pour un message typé, décodé une fois avant traitement
+         */
+        private <T> Consumer<ACLMessage> fromGuide(Function<ACLMessage, T> decoder, Consumer<T> handler) {
+            return msg -> {
+                if (guideAgent != null && msg.getSender().equals(guideAgent)) {
+                    T content = decoder.apply(msg);
+                    if (content != null) {
+                        handler.accept(content);
+                    }
+                }
+            };
         }
         
         private void handleWelcomeWithGroupFormation(String content) {
@@ -219,6 +281,7 @@ public class TouristAgent extends Agent {
                 // Évaluer la compatibilité avec la spécialisation
                 double compatibility = profile.getAffinityFor(specialization);
                 profile.updateSatisfaction(compatibility);
+                EventJournal.satisfaction(getName(), profile.getSatisfaction());
                 
                 // Activer le comportement de groupe
                 groupBehavior.activate();
@@ -241,38 +304,30 @@ public class TouristAgent extends Agent {
             
             // Réponse avec délai variable selon la position dans le groupe
             long delay = (long) (1000 + (groupPosition * 2000)); // Entre 1-3 secondes
-            addBehaviour(new WakerBehaviour(TouristAgent.this, delay) {
-                @Override
-                protected void onWake() {
-                    ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
-                    msg.addReceiver(guideAgent);
-                    msg.setContent("READY_NEXT");
-                    send(msg);
-                }
+            timers.schedule(TouristAgent.this, delay, () -> {
+                ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+                msg.addReceiver(guideAgent);
+                msg.setContent("READY_NEXT");
+                send(msg);
             });
         }
         
-        private void handleExplanationInGroup(String content) {
-            String explanation = content.substring(12);
-            double rating = evaluateExplanationInGroupContext(explanation);
+        private void handleExplanationInGroup(Explanation explanation) {
+            double rating = groupBehavior.rateExplanation(explanation, groupPosition);
             
             profile.updateSatisfaction(rating);
+            EventJournal.satisfaction(getName(), profile.getSatisfaction());
             
             // Réaction en groupe : certains posent des questions, d'autres écoutent
-            boolean shouldReact = groupBehavior.shouldReactToExplanation(profile);
+            boolean shouldReact = groupBehavior.shouldReactToExplanation(profile, groupPosition);
             
             System.out.println("Touriste " + getLocalName() + " écoute en groupe - Note: " + 
                              String.format("%.2f", rating) + (shouldReact ? " (réaction active)" : " (écoute passive)"));
             
             // Possibilité de poser une question (influencée par la dynamique de groupe)
             if (shouldReact && profile.shouldAskQuestion() && questionsAsked < 3) {
-                long questionDelay = (long) (2000 + (Math.random() * 3000)); // Délai aléatoire
-                addBehaviour(new WakerBehaviour(TouristAgent.this, questionDelay) {
-                    @Override
-                    protected void onWake() {
-                        askQuestionInGroup();
-                    }
-                });
+                long questionDelay = 2000 + random.nextInt(3000); // Délai aléatoire
+                timers.schedule(TouristAgent.this, questionDelay, TouristAgent.this::askQuestionInGroup);
             }
         }
         
@@ -319,12 +374,7 @@ public class TouristAgent extends Agent {
             guideAgent = null;
             
             // Décision pour la suite
-            addBehaviour(new WakerBehaviour(TouristAgent.this, 5000) {
-                @Override
-                protected void onWake() {
-                    decideNextAction(finalSatisfaction);
-                }
-            });
+            timers.schedule(TouristAgent.this, 5000, () -> decideNextAction(finalSatisfaction));
         }
         
         private void handleAnswer(String content) {
@@ -335,108 +385,80 @@ public class TouristAgent extends Agent {
     }
     
     /**
-     * Nouveau comportement pour maintenir la cohésion de groupe
+     * Maintien de la cohésion de groupe (toutes les 3 à 5 secondes)
      */
-    private class GroupCohesionBehavior extends TickerBehaviour {
-        public GroupCohesionBehavior() {
-            super(TouristAgent.this, 3000 + new Random().nextInt(2000)); // 3-5 secondes
-        }
-        
-        @Override
-        protected void onTick() {
-            if (inGroup && followingGuide) {
-                maintainGroupCohesion();
-                updateGroupDynamics();
-            }
+    private void onCohesionTick() {
+        if (inGroup && followingGuide) {
+            maintainGroupCohesion();
+            updateGroupDynamics();
         }
+    }
+    
+    private void maintainGroupCohesion() {
+        // La cohésion part avec le prochain rapport de statut groupé
+        statusDelta.record(TouristStatus.Metric.GROUP_COHESION, groupBehavior.getCohesionLevel());
+    }
+    
+    private void updateGroupDynamics() {
+        // Mettre à jour la dynamique de groupe
+        groupBehavior.updateDynamics(profile);
         
-        private void maintainGroupCohesion() {
-            // Simuler la cohésion du groupe
-            if (Math.random() < 0.3) { // 30% de chance de vérifier la cohésion
-                // Envoyer un signal de cohésion au guide
-                ACLMessage cohesionMsg = new ACLMessage(ACLMessage.INFORM);
-                cohesionMsg.addReceiver(guideAgent);
-                cohesionMsg.setContent("GROUP_COHESION:" + 
-                                     String.format("%.2f", groupBehavior.getCohesionLevel()));
-                send(cohesionMsg);
-            }
+        // Ajuster la position dans le groupe selon la personnalité
+        if (profile.getPersonality().getSocialness() > 0.7) {
+            groupPosition = Math.min(0.9, groupPosition + 0.1); // Se rapprocher du guide
+        } else if (profile.getPersonality().getSocialness() < 0.3) {
+            groupPosition = Math.max(0.1, groupPosition - 0.1); // Rester en arrière
         }
-        
-        private void updateGroupDynamics() {
-            // Mettre à jour la dynamique de groupe
-            groupBehavior.updateDynamics(profile);
+    }
+    
+    /**
+     * Comportement de personnalité adapté au groupe (toutes les 10 à 15 secondes)
+     */
+    private void onPersonalityTick() {
+        if (inGroup) {
+            groupBehavior.updatePersonalState();
+            sendStatusToGuide();
             
-            // Ajuster la position dans le groupe selon la personnalité
-            if (profile.getPersonality().getSocialness() > 0.7) {
-                groupPosition = Math.min(0.9, groupPosition + 0.1); // Se rapprocher du guide
-            } else if (profile.getPersonality().getSocialness() < 0.3) {
-                groupPosition = Math.max(0.1, groupPosition - 0.1); // Rester en arrière
+            // Comportements spécifiques au groupe
+            if (groupBehavior.isActive()) {
+                executeGroupPersonalityBehaviors();
             }
         }
     }
     
-    /**
-     * Comportement de personnalité adapté au groupe
-     */
-    private class PersonalityBehavior extends TickerBehaviour {
-        public PersonalityBehavior() {
-            super(TouristAgent.this, 10000 + new Random().nextInt(5000));
+    private void executeGroupPersonalityBehaviors() {
+        Personality personality = profile.getPersonality();
+        
+        // Comportement social dans le groupe
+        if (personality.getSocialness() > 0.7 && random.nextDouble() < 0.2) {
+            expressOpinionToGroup();
         }
         
-        @Override
-        protected void onTick() {
-            if (inGroup) {
-                updatePersonalStateInGroup();
-                sendStatusToGuide();
-                
-                // Comportements spécifiques au groupe
-                if (groupBehavior.isActive()) {
-                    executeGroupPersonalityBehaviors();
-                }
-            }
+        // Comportement d'aide aux autres membres du groupe
+        if (personality.getPatience() > 0.6 && random.nextDouble() < 0.15) {
+            helpOtherTourists();
         }
         
-        private void executeGroupPersonalityBehaviors() {
-            Personality personality = profile.getPersonality();
-            
-            // Comportement social dans le groupe
-            if (personality.getSocialness() > 0.7 && Math.random() < 0.2) {
-                expressOpinionToGroup();
-            }
-            
-            // Comportement d'aide aux autres membres du groupe
-            if (personality.getPatience() > 0.6 && Math.random() < 0.15) {
-                helpOtherTourists();
-            }
-            
-            // Comportement de leadership naturel
-            if (personality.getExperience() > 0.7 && Math.random() < 0.1) {
-                suggestToGroup();
-            }
+        // Comportement de leadership naturel
+        if (personality.getExperience() > 0.7 && random.nextDouble() < 0.1) {
+            suggestToGroup();
         }
     }
     
     /**
-     * Gestionnaire de timeout d'attente amélioré
+     * Gestionnaire de timeout d'attente (toutes les 15 secondes)
      */
-    private class WaitingTimeoutBehavior extends TickerBehaviour {
-        public WaitingTimeoutBehavior() {
-            super(TouristAgent.this, 15000);
-        }
-        
-        @Override
-        protected void onTick() {
-            if (waitingForAssignment) {
-                long waitTime = System.currentTimeMillis() - waitStartTime;
-                
-                if (waitTime > MAX_WAIT_TIME) {
-                    System.out.println("Touriste " + getLocalName() + " : Timeout, recherche active d'un groupe");
-                    waitingForAssignment = false;
-                    findGuideDirectly();
-                } else if (waitTime > MAX_WAIT_TIME / 2) {
-                    System.out.println("Touriste " + getLocalName() + " attend un groupe depuis " + 
-                                     (waitTime / 1000) + " secondes...");
-                }
+    private void onWaitingTick() {
+        if (waitingForAssignment) {
+            long waitTime = SimulationClock.now() - waitStartTime;
+            
+            if (waitTime > MAX_WAIT_TIME) {
+                System.out.println("Touriste " + getLocalName() + " : Timeout, recherche active d'un groupe");
+                waitingForAssignment = false;
+                findGuideDirectly();
+            } else if (waitTime > MAX_WAIT_TIME / 2) {
+                System.out.println("Touriste " + getLocalName() + " attend un groupe depuis " + 
+                                 (waitTime / 1000) + " secondes...");
             }
         }
     }
@@ -452,7 +474,7 @@ public class TouristAgent extends Agent {
             "Cette œuvre a-t-elle influencé d'autres artistes ?"
         };
         
-        String question = groupQuestions[new Random().nextInt(groupQuestions.length)];
+        String question = groupQuestions[random.nextInt(groupQuestions.length)];
         ACLMessage msg = new ACLMessage(ACLMessage.QUERY_REF);
         msg.addReceiver(guideAgent);
         msg.setContent("QUESTION:" + question);
@@ -471,7 +493,7 @@ public class TouristAgent extends Agent {
             "C'est exactement ce que j'espérais voir"
         };
         
-        String opinion = groupOpinions[new Random().nextInt(groupOpinions.length)];
+        String opinion = groupOpinions[random.nextInt(groupOpinions.length)];
         System.out.println("Touriste " + getLocalName() + " partage avec le groupe: " + opinion);
     }
     
@@ -488,106 +510,30 @@ public class TouristAgent extends Agent {
             "Il serait intéressant de comparer avec l'œuvre précédente"
         };
         
-        String suggestion = suggestions[new Random().nextInt(suggestions.length)];
+        String suggestion = suggestions[random.nextInt(suggestions.length)];
         System.out.println("Touriste " + getLocalName() + " suggère au groupe: " + suggestion);
     }
     
-    private double evaluateExplanationInGroupContext(String explanation) {
-        double baseRating = evaluateExplanation(explanation);
-        
-        // Bonus pour l'expérience de groupe
-        double groupBonus = groupBehavior.getGroupSatisfactionBonus();
-        
-        // Ajustement selon la position dans le groupe
-        double positionFactor = 1.0;
-        if (groupPosition < 0.3) { // En arrière du groupe
-            positionFactor = 0.9; // Moins bien entendu
-        } else if (groupPosition > 0.7) { // Près du guide
-            positionFactor = 1.1; // Meilleure expérience
-        }
-        
-        return Math.min(1.0, (baseRating + groupBonus) * positionFactor);
-    }
-    
-    private double evaluateExplanation(String explanation) {
-        double rating = 0.5;
-        
-        // Évaluation basée sur les préférences
-        for (String preference : profile.getArtPreferences()) {
-            if (explanation.toLowerCase().contains(preference.toLowerCase())) {
-                rating += 0.2;
-            }
-        }
-        
-        // Évaluation basée sur la personnalité
-        Personality personality = profile.getPersonality();
-        
-        if (explanation.length() > 150 && personality.getPatience() < 0.4) {
-            rating -= 0.2;
-        } else if (explanation.length() > 100) {
-            rating += 0.1;
-        }
-        
-        rating += (personality.getCuriosity() - 0.5) * 0.3;
-        
-        return Math.max(0.0, Math.min(1.0, rating));
-    }
-    
-    private void updatePersonalStateInGroup() {
-        profile.increaseFatigue(0.02);
-        
-        // Effet de groupe sur la fatigue
-        if (groupBehavior.isActive()) {
-            double groupEnergy = groupBehavior.getGroupEnergyLevel();
-            if (groupEnergy > 0.7) {
-                profile.rest(0.01); // Le groupe énergique aide
-            } else if (groupEnergy < 0.3) {
-                profile.increaseFatigue(0.01); // Le groupe fatigué affecte
-            }
-        }
-        
-        // Ajustements basés sur l'âge dans le contexte de groupe
-        if (profile.getAge() > 65) {
-            profile.increaseFatigue(0.01);
-        } else if (profile.getAge() < 25 && groupBehavior.getGroupEnergyLevel() > 0.5) {
-            profile.rest(0.01); // Les jeunes profitent de l'énergie du groupe
-        }
-    }
-    
     private void sendStatusToGuide() {
         if (guideAgent != null) {
-            ACLMessage msg1 = new ACLMessage(ACLMessage.INFORM);
-            msg1.addReceiver(guideAgent);
-            msg1.setContent("STATUS:SATISFACTION:" + profile.getSatisfaction());
-            send(msg1);
-            
-            ACLMessage msg2 = new ACLMessage(ACLMessage.INFORM);
-            msg2.addReceiver(guideAgent);
-            msg2.setContent("STATUS:FATIGUE:" + profile.getFatigue());
-            send(msg2);
-            
-            // Nouveau: envoyer le niveau de cohésion de groupe
+            statusDelta.record(TouristStatus.Metric.SATISFACTION, profile.getSatisfaction());
+            statusDelta.record(TouristStatus.Metric.FATIGUE, profile.getFatigue());
             if (groupBehavior.isActive()) {
-                ACLMessage msg3 = new ACLMessage(ACLMessage.INFORM);
-                msg3.addReceiver(guideAgent);
-                msg3.setContent("STATUS:GROUP_COHESION:" + groupBehavior.getCohesionLevel());
-                send(msg3);
+                statusDelta.record(TouristStatus.Metric.GROUP_COHESION, groupBehavior.getCohesionLevel());
+            }
+            
+            // Un seul message par tick, limité aux métriques qui ont changé
+            TouristStatusReport report = statusDelta.flush();
+            if (report != null) {
+                send(MessageCodec.create(ACLMessage.INFORM, guideAgent, report));
             }
         }
     }
     
     private void decideNextAction(double lastSatisfaction) {
-        boolean stayForAnother = false;
-        
         // La satisfaction de groupe influence la décision
-        double groupInfluence = groupBehavior.getGroupSatisfactionBonus();
-        double totalSatisfaction = lastSatisfaction + groupInfluence;
-        
-        if (totalSatisfaction > 0.8 && toursCompleted < 3) {
-            stayForAnother = Math.random() < 0.8; // Plus probable avec une bonne expérience de groupe
-        } else if (totalSatisfaction > 0.6 && toursCompleted < 2) {
-            stayForAnother = Math.random() < 0.5;
-        }
+        double totalSatisfaction = lastSatisfaction + groupBehavior.getGroupSatisfactionBonus();
+        boolean stayForAnother = groupBehavior.wantsAnotherTour(lastSatisfaction, toursCompleted);
         
         if (stayForAnother && coordinatorAgent != null) {
             resetForNewTour();
@@ -609,7 +555,7 @@ public class TouristAgent extends Agent {
         
         // Réinitialiser le comportement de groupe
         groupBehavior.reset();
-        groupPosition = Math.random();
+        groupPosition = random.nextDouble();
         
         // La personnalité évolue avec l'expérience de groupe
         profile.getPersonality().increaseExperience(0.15); // Plus d'expérience avec les groupes
@@ -630,12 +576,7 @@ public class TouristAgent extends Agent {
         }
         
         // Programmer l'arrêt de l'agent
-        addBehaviour(new WakerBehaviour(this, 2000) {
-            @Override
-            protected void onWake() {
-                doDelete();
-            }
-        });
+        timers.schedule(this, 2000, this::doDelete);
     }
     
     // Getters pour compatibilité
@@ -650,9 +591,61 @@ public class TouristAgent extends Agent {
     public GroupBehavior getGroupBehavior() { return groupBehavior; }
     public double getGroupPosition() { return groupPosition; }
     public boolean isFollowingGuide() { return followingGuide; }
+    public MessageHandler getMessageHandler() { return messageHandler; }
+    
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        profile.writeTo(out);
+        out.writeInt(toursCompleted);
+        boolean inTour = followingGuide && guideAgent != null;
+        out.writeBoolean(inTour);
+        if (inTour) {
+            out.writeUTF(guideAgent.getLocalName());
+            out.writeBoolean(inGroup);
+            out.writeUTF(currentLocation);
+            out.writeDouble(groupPosition);
+            out.writeInt(questionsAsked);
+            groupBehavior.writeTo(out);
+        }
+    }
+    
+    @Override
+    public int getRestoreOrder() {
+        return 2;
+    }
+    
+    /**
+     * Reprise d'un cliché : profil et visites conservés ; un touriste en visite
+     * reste dans le groupe de son guide, les autres reviennent rapidement en file
+     */
+    private boolean restoreState(DataInputStream in) {
+        try {
+            profile = TouristProfile.readFrom(in, RandomStreams.forAgent(this));
+            toursCompleted = in.readInt();
+            if (in.readBoolean()) {
+                guideAgent = new AID(in.readUTF(), AID.ISLOCALNAME);
+                followingGuide = true;
+                inGroup = in.readBoolean();
+                currentLocation = in.readUTF();
+                groupPosition = in.readDouble();
+                questionsAsked = in.readInt();
+                groupBehavior = new GroupBehavior(profile);
+                groupBehavior.readFrom(in);
+            }
+        } catch (IOException e) {
+            System.err.println("Cliché illisible pour " + getLocalName() + ": " + e.getMessage());
+            return false;
+        }
+        random = profile.getRandom();
+        arrivalDelay = random.nextInt(1000);
+        return true;
+    }
     
     @Override
     protected void takeDown() {
+        SimulationSnapshot.unregister(this);
+        TimerWheel.release(this);
+        DirectoryCache.release(this);
         try {
             DFService.deregister(this);
         } catch (FIPAException fe) {
@@ -662,154 +655,4 @@ public class TouristAgent extends Agent {
                          toursCompleted + " visite(s) avec expérience de groupe: " + 
                          String.format("%.2f", groupBehavior.getFinalGroupRating()));
     }
-    
-    /**
-     * Classe pour gérer le comportement de groupe spécifique
-     */
-    public class GroupBehavior {
-        private boolean active = false;
-        private double cohesionLevel = 0.7;
-        private double groupEnergyLevel = 0.7;
-        private double groupSatisfactionBonus = 0.0;
-        private String currentFormation = "CLUSTER";
-        private String currentDestination = "";
-        private long lastUpdate = System.currentTimeMillis();
-        
-        public void activate() {
-            active = true;
-            cohesionLevel = 0.7;
-            groupEnergyLevel = 0.7;
-            lastUpdate = System.currentTimeMillis();
-        }
-        
-        public void deactivate() {
-            active = false;
-        }
-        
-        public void reset() {
-            active = false;
-            cohesionLevel = 0.7;
-            groupEnergyLevel = 0.7;
-            groupSatisfactionBonus = 0.0;
-            currentFormation = "CLUSTER";
-        }
-        
-        public void setDestination(String destination) {
-            this.currentDestination = destination;
-        }
-        
-        public void followGuide() {
-            if (active) {
-                // Simuler le suivi du guide avec variation selon la personnalité
-                Personality p = profile.getPersonality();
-                
-                // Les personnes sociales suivent mieux
-                if (p.getSocialness() > 0.6) {
-                    cohesionLevel = Math.min(1.0, cohesionLevel + 0.05);
-                }
-                
-                // Les personnes patientes maintiennent mieux la cohésion
-                if (p.getPatience() > 0.7) {
-                    cohesionLevel = Math.min(1.0, cohesionLevel + 0.03);
-                } else if (p.getPatience() < 0.3) {
-                    cohesionLevel = Math.max(0.2, cohesionLevel - 0.02);
-                }
-            }
-        }
-        
-        public void formGroup(String formation) {
-            this.currentFormation = formation;
-            
-            // Ajuster la cohésion selon la formation demandée
-            switch (formation) {
-                case "CIRCLE":
-                    cohesionLevel = Math.min(1.0, cohesionLevel + 0.1);
-                    break;
-                case "LINE":
-                    cohesionLevel = Math.max(0.3, cohesionLevel - 0.05);
-                    break;
-                case "CLUSTER":
-                default:
-                    // Formation naturelle, pas d'ajustement
-                    break;
-            }
-        }
-        
-        public boolean shouldReactToExplanation(TouristProfile profile) {
-            if (!active) return true; // Comportement normal si pas en groupe
-            
-            // Dans un groupe, la réaction dépend de la personnalité et de la position
-            Personality p = profile.getPersonality();
-            
-            // Les personnes sociales réagissent plus en groupe
-            double socialBonus = p.getSocialness() * 0.3;
-            
-            // Les personnes en avant du groupe réagissent plus
-            double positionBonus = groupPosition * 0.2;
-            
-            // Les curieux réagissent plus
-            double curiosityBonus = p.getCuriosity() * 0.2;
-            
-            double reactionProbability = 0.3 + socialBonus + positionBonus + curiosityBonus;
-            
-            return Math.random() < reactionProbability;
-        }
-        
-        public boolean shouldAcceptBreak(TouristProfile profile) {
-            boolean personalNeed = profile.getFatigue() > 0.4 || 
-                                  profile.getPersonality().getPatience() < 0.5;
-            
-            // Effet de groupe : tendance à suivre le groupe
-            double groupPressure = cohesionLevel * 0.3;
-            
-            // Si très social, suit plus facilement le groupe
-            if (profile.getPersonality().getSocialness() > 0.7) {
-                return personalNeed || Math.random() < (0.6 + groupPressure);
-            }
-            
-            return personalNeed || Math.random() < (0.4 + groupPressure);
-        }
-        
-        public void updateDynamics(TouristProfile profile) {
-            long now = System.currentTimeMillis();
-            if (now - lastUpdate < 5000) return; // Mise à jour max toutes les 5 secondes
-            
-            // Mettre à jour le niveau d'énergie du groupe basé sur la satisfaction
-            double satisfaction = profile.getSatisfaction();
-            if (satisfaction > 0.7) {
-                groupEnergyLevel = Math.min(1.0, groupEnergyLevel + 0.05);
-                groupSatisfactionBonus = Math.min(0.2, groupSatisfactionBonus + 0.02);
-            } else if (satisfaction < 0.4) {
-                groupEnergyLevel = Math.max(0.2, groupEnergyLevel - 0.03);
-                groupSatisfactionBonus = Math.max(-0.1, groupSatisfactionBonus - 0.01);
-            }
-            
-            // La fatigue affecte l'énergie du groupe
-            double fatigue = profile.getFatigue();
-            if (fatigue > 0.8) {
-                groupEnergyLevel = Math.max(0.3, groupEnergyLevel - 0.08);
-            }
-            
-            // La cohésion diminue naturellement avec le temps si pas entretenue
-            cohesionLevel = Math.max(0.3, cohesionLevel - 0.01);
-            
-            lastUpdate = now;
-        }
-        
-        // Getters
-        public boolean isActive() { return active; }
-        public double getCohesionLevel() { return cohesionLevel; }
-        public double getGroupEnergyLevel() { return groupEnergyLevel; }
-        public double getGroupSatisfactionBonus() { return groupSatisfactionBonus; }
-        public String getCurrentFormation() { return currentFormation; }
-        public String getCurrentDestination() { return currentDestination; }
-        
-        public double getFinalGroupRating() {
-            if (!active && cohesionLevel == 0.7) return 0.5; // Pas d'expérience de groupe
-            
-            // Note finale basée sur cohésion, énergie et satisfaction
-            return (cohesionLevel * 0.4) + (groupEnergyLevel * 0.3) + 
-                   ((groupSatisfactionBonus + 0.1) * 0.3);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,601 @@
+package agents.tourist;
+
+import jade.core.Agent;
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+import jade.domain.DFService;
+import jade.domain.FIPAException;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import utils.DirectoryCache;
+import utils.EventJournal;
+import utils.ServiceFinder;
+import utils.SimulationClock;
+import utils.TimerWheel;
+import agents.base.MessageHandler;
+import agents.base.MessageRouter;
+import agents.base.SimulationSnapshot;
+import agents.base.Snapshottable;
+import agents.base.VisitorAddress;
+import agents.protocol.Explanation;
+import agents.protocol.MessageCodec;
+import agents.protocol.MessageKind;
+import agents.protocol.TouristStatus;
+import agents.protocol.TouristStatusReport;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import utils.RandomStreams;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Agent hébergeant une cohorte de touristes légers.
+ * Chaque visiteur n'est qu'un état (profil, personnalité, comportement de
+ * groupe) avancé par une boucle unique ; l'agent parle le protocole des
+ * touristes au nom de ses visiteurs, qui portent l'adresse virtuelle
+ * "cohorte~id" (voir {@link VisitorAddress}). Guides et coordinateur les
+ * traitent comme des touristes ordinaires.
+ * Pendant une visite, l'état numérique d'un visiteur (fatigue, satisfaction,
+ * intérêt, niveaux du groupe) fait foi dans les colonnes d'un
+ * {@link PopulationStore} : dynamique de groupe et état personnel y sont
+ * avancés en masse, et les messages du guide sont traités sur le profil
+ * rechargé puis recopié dans les colonnes.
+ *
+ * Arguments : nombre de visiteurs, fenêtre d'arrivée (ms)
+ */
+public class TouristCohortAgent extends Agent implements Snapshottable {
+    public static final String SERVICE_TYPE = "tourist-cohort-service";
+
+    private static final long TICK_PERIOD = 250;
+    private static final long MAX_WAIT_TIME = 60000; // 1 minute
+    private static final long COHESION_PERIOD = 4000;
+    private static final long STATUS_PERIOD = 12000;
+    private static final long DYNAMICS_PERIOD = 5000; // Rythme maximal de GroupBehavior.updateDynamics
+    private static final long DECISION_DELAY = 5000;
+    private static final int MAX_QUESTIONS = 3;
+
+    private static final String[] GROUP_QUESTIONS = {
+        "Cette œuvre est-elle de la même période que les précédentes ?",
+        "Pouvez-vous nous expliquer cette technique ?",
+        "Y a-t-il une histoire particulière derrière ce tableau ?",
+        "Combien de temps l'artiste a-t-il passé sur cette œuvre ?",
+        "Cette œuvre a-t-elle influencé d'autres artistes ?"
+    };
+
+    private enum State { ARRIVING, WAITING, IN_TOUR, DECIDING, LEFT }
+
+    private Visitor[] visitors;
+    private PopulationStore population;
+    // Guide -> visiteurs de son groupe, destinataires de ses diffusions par topic
+    private final Map<AID, List<Visitor>> byGuide = new HashMap<>();
+    private AID coordinatorAgent;
+    private SplittableRandom random;
+
+    private MessageRouter router;
+    private MessageHandler messageHandler;
+
+    // Compteurs de la cohorte
+    private int present;
+    private int departures;
+    private long toursCompleted;
+    private long messagesSent;
+    private long tickNanos;
+    private long ticks;
+    private long nextDynamicsAt;
+    private long nextPersonalStateAt;
+
+    @Override
+    protected void setup() {
+        Object[] args = getArguments();
+
+        // Un flux pour toute la cohorte : l'ordre de traitement des visiteurs est déterministe
+        random = RandomStreams.forAgent(this);
+        DataInputStream restored = SimulationSnapshot.restoredState(args);
+        if (restored == null || !restoreState(restored)) {
+            int count = args != null && args.length > 0 && restored == null ? Integer.parseInt(args[0].toString()) : 1000;
+            long window = args != null && args.length > 1 ? Long.parseLong(args[1].toString()) : 10000;
+            long now = SimulationClock.now();
+            visitors = new Visitor[count];
+            for (int i = 0; i < count; i++) {
+                // Arrivées régulières sur la fenêtre
+                long arrival = now + (count > 1 ? window * i / (count - 1) : 0);
+                visitors[i] = new Visitor(i, VisitorAddress.name(getLocalName(), i), arrival,
+                                          new TouristProfile(VisitorAddress.name(getLocalName(), i), random), random);
+            }
+            present = count;
+        }
+        population = new PopulationStore(visitors.length);
+        for (Visitor visitor : visitors) {
+            population.add(visitor.profile);
+            if (visitor.group.isActive()) {
+                population.load(visitor.id, visitor.profile, visitor.group); // Visite reprise d'un cliché
+            }
+        }
+        nextDynamicsAt = SimulationClock.now() + DYNAMICS_PERIOD;
+        nextPersonalStateAt = SimulationClock.now() + STATUS_PERIOD;
+        SimulationSnapshot.register(this);
+
+        registerService();
+
+        router = new MessageRouter();
+        router.on(MessageKind.WELCOME_MUSEUM, msg -> { })
+              .on(MessageKind.ASSIGNED_TO_GUIDE, forVisitors(this::handleGuideAssignment))
+              .on(MessageKind.REDIRECT_TO_COORDINATOR, forVisitors((v, content) -> register(v)))
+              .on(MessageKind.WELCOME_GROUP, fromGuide(this::handleWelcome))
+              .on(MessageKind.GROUP_FORMATION, fromGuide(this::handleGroupFormation))
+              .on(MessageKind.MOVE_TO, fromGuide(this::handleGroupMovement))
+              .on(MessageKind.EXPLANATION, fromGuide(Explanation::from, this::handleExplanation))
+              .on(MessageKind.BREAK_PROPOSAL, fromGuide(this::handleBreakProposal))
+              .on(MessageKind.ANSWER, fromGuide((v, content) ->
+                      v.profile.setSatisfaction(v.profile.getSatisfaction() + 0.1)))
+              .on(MessageKind.TOUR_END, fromGuide(this::handleTourEnd));
+        messageHandler = new MessageHandler(this, router);
+        addBehaviour(messageHandler);
+        TimerWheel.forAgent(this).scheduleAtFixedRate(this, TICK_PERIOD, TICK_PERIOD, this::tick);
+
+        ServiceFinder.findCoordinatorAsync(this, coordinator -> coordinatorAgent = coordinator);
+
+        System.out.println("Cohorte " + getLocalName() + " démarrée avec " + visitors.length + " visiteurs");
+        SimulationClock.setupDone(this);
+    }
+
+    private void registerService() {
+        DFAgentDescription dfd = new DFAgentDescription();
+        dfd.setName(getAID());
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(SERVICE_TYPE);
+        sd.setName("museum-visitors");
+        dfd.addServices(sd);
+        ServiceFinder.registerAsync(this, dfd);
+    }
+
+    // Aiguillage vers les visiteurs
+
+    /**
+     * Applique le gestionnaire à chaque visiteur désigné par le message
+     */
+    private Consumer<ACLMessage> forVisitors(BiConsumer<Visitor, String> handler) {
+        return msg -> {
+            for (String name : VisitorAddress.visitorsOf(msg)) {
+                Visitor visitor = visitorNamed(name);
+                if (visitor != null && visitor.state != State.LEFT) {
+                    handler.accept(visitor, msg.getContent());
+                }
+            }
+        };
+    }
+
+    /**
+     * Message d'un guide : destinataires désignés, ou tout son groupe pour
+     * une diffusion par topic ; seuls les visiteurs de ce guide sont concernés
+     */
+    private Consumer<ACLMessage> fromGuide(BiConsumer<Visitor, String> handler) {
+        return fromGuide(ACLMessage::getContent, handler);
+    }
+
+    /**
+     * Variante pour un message typé : décodé une seule fois pour tout le groupe
+     */
+    private <T> Consumer<ACLMessage> fromGuide(Function<ACLMessage, T> decoder, BiConsumer<Visitor, T> handler) {
+        return msg -> {
+            T content = decoder.apply(msg);
+            if (content == null) return;
+            AID guide = msg.getSender();
+            List<String> names = VisitorAddress.visitorsOf(msg);
+            List<Visitor> recipients;
+            if (names.isEmpty()) {
+                List<Visitor> group = byGuide.get(guide);
+                if (group == null) return;
+                recipients = new ArrayList<>(group);
+            } else {
+                recipients = new ArrayList<>(names.size());
+                for (String name : names) {
+                    Visitor visitor = visitorNamed(name);
+                    if (visitor != null) {
+                        recipients.add(visitor);
+                    }
+                }
+            }
+            for (Visitor visitor : recipients) {
+                if (guide.equals(visitor.guide)) {
+                    handleInTour(visitor, content, handler);
+                }
+            }
+        };
+    }
+
+    /**
+     * Traite un message sur le profil et le groupe du visiteur, rechargés
+     * depuis les colonnes s'il est en visite, puis y recopie le résultat
+     */
+    private <T> void handleInTour(Visitor visitor, T content, BiConsumer<Visitor, T> handler) {
+        if (population.isInGroup(visitor.id)) {
+            population.writeBack(visitor.id, visitor.profile, visitor.group);
+        }
+        handler.accept(visitor, content);
+        if (visitor.group.isActive()) {
+            population.load(visitor.id, visitor.profile, visitor.group);
+        } else {
+            population.leaveGroup(visitor.id);
+        }
+    }
+
+    private Visitor visitorNamed(String name) {
+        int separator = name.indexOf(VisitorAddress.SEPARATOR);
+        if (separator != getLocalName().length() || !name.startsWith(getLocalName())) return null;
+        try {
+            int id = Integer.parseInt(name.substring(separator + 1));
+            return id >= 0 && id < visitors.length ? visitors[id] : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Envoie un message au nom d'un visiteur
+     */
+    private void sendAs(Visitor visitor, int performative, AID receiver, String content) {
+        ACLMessage msg = new ACLMessage(performative);
+        msg.setSender(visitor.aid);
+        msg.addReceiver(receiver);
+        msg.setContent(content);
+        send(msg);
+        messagesSent++;
+    }
+
+    // Protocole des touristes, au nom de chaque visiteur
+
+    private void register(Visitor visitor) {
+        if (coordinatorAgent == null) return;
+        sendAs(visitor, ACLMessage.SUBSCRIBE, coordinatorAgent, "REGISTER_TOURIST:" + here().getName());
+        visitor.state = State.WAITING;
+        visitor.waitStart = SimulationClock.now();
+    }
+
+    private void handleGuideAssignment(Visitor visitor, String content) {
+        AID guide = new AID(content.split(":")[1], AID.ISLOCALNAME);
+        leaveGroup(visitor);
+        visitor.guide = guide;
+        byGuide.computeIfAbsent(guide, g -> new ArrayList<>()).add(visitor);
+        visitor.state = State.IN_TOUR;
+        visitor.status.reset(); // Premier rapport complet pour le nouveau guide
+        sendAs(visitor, ACLMessage.INFORM, guide, "TOURIST_READY:" + visitor.aid.getLocalName());
+    }
+
+    private void handleWelcome(Visitor visitor, String content) {
+        String[] parts = content.split(":");
+        if (parts.length >= 3) {
+            visitor.profile.updateSatisfaction(visitor.profile.getAffinityFor(parts[1]));
+            EventJournal.satisfaction(visitor.aid.getName(), visitor.profile.getSatisfaction());
+            visitor.group.activate();
+            // Rapports étalés sur la période pour éviter les rafales de la cohorte
+            long now = SimulationClock.now();
+            visitor.nextCohesionAt = now + random.nextInt((int) COHESION_PERIOD);
+            visitor.nextStatusAt = now + random.nextInt((int) STATUS_PERIOD);
+        }
+    }
+
+    private void handleGroupFormation(Visitor visitor, String content) {
+        String[] parts = content.split(":");
+        if (parts.length >= 2) {
+            visitor.group.formGroup(parts[1]);
+        }
+    }
+
+    private void handleGroupMovement(Visitor visitor, String content) {
+        visitor.profile.increaseFatigue(0.05);
+        visitor.group.setDestination(content.substring(8));
+        visitor.group.followGuide();
+        // Réponse avec délai variable selon la position dans le groupe (1 à 3 s)
+        visitor.readyAt = SimulationClock.now() + (long) (1000 + visitor.groupPosition * 2000);
+    }
+
+    private void handleExplanation(Visitor visitor, Explanation explanation) {
+        double rating = visitor.group.rateExplanation(explanation, visitor.groupPosition);
+        visitor.profile.updateSatisfaction(rating);
+        EventJournal.satisfaction(visitor.aid.getName(), visitor.profile.getSatisfaction());
+
+        if (visitor.group.shouldReactToExplanation(visitor.profile, visitor.groupPosition)
+                && visitor.profile.shouldAskQuestion() && visitor.questionsAsked < MAX_QUESTIONS) {
+            visitor.questionAt = SimulationClock.now() + 2000 + random.nextInt(3000);
+        }
+    }
+
+    private void handleBreakProposal(Visitor visitor, String content) {
+        boolean acceptBreak = visitor.group.shouldAcceptBreak(visitor.profile);
+        sendAs(visitor, acceptBreak ? ACLMessage.ACCEPT_PROPOSAL : ACLMessage.REJECT_PROPOSAL,
+               visitor.guide, "BREAK_RESPONSE:" + (acceptBreak ? "ACCEPT" : "REJECT"));
+        if (acceptBreak) {
+            visitor.profile.rest(0.3);
+        }
+    }
+
+    private void handleTourEnd(Visitor visitor, String content) {
+        visitor.lastSatisfaction = visitor.profile.calculateFinalSatisfaction();
+        visitor.profile.completeTour();
+        visitor.toursCompleted++;
+        toursCompleted++;
+        visitor.group.deactivate();
+        leaveGroup(visitor);
+        visitor.state = State.DECIDING;
+        visitor.decideAt = SimulationClock.now() + DECISION_DELAY;
+    }
+
+    private void leaveGroup(Visitor visitor) {
+        if (visitor.guide == null) return;
+        List<Visitor> group = byGuide.get(visitor.guide);
+        if (group != null) {
+            group.remove(visitor);
+            if (group.isEmpty()) {
+                byGuide.remove(visitor.guide);
+            }
+        }
+        visitor.guide = null;
+        visitor.readyAt = 0;
+        visitor.questionAt = 0;
+    }
+
+    /**
+     * Boucle unique de la cohorte : arrivées, attentes, réponses différées,
+     * rapports de statut et décisions de fin de visite
+     */
+    private void tick() {
+        long start = System.nanoTime();
+        long now = SimulationClock.now();
+        // Dynamique de groupe et état personnel des visiteurs en visite, en masse
+        if (now >= nextDynamicsAt) {
+            nextDynamicsAt = now + DYNAMICS_PERIOD;
+            population.updateDynamics();
+        }
+        if (now >= nextPersonalStateAt) {
+            nextPersonalStateAt = now + STATUS_PERIOD;
+            population.updatePersonalState();
+        }
+        for (Visitor visitor : visitors) {
+            switch (visitor.state) {
+                case ARRIVING:
+                    if (now >= visitor.arrivalAt) {
+                        register(visitor);
+                    }
+                    break;
+                case WAITING:
+                    if (now - visitor.waitStart > MAX_WAIT_TIME) {
+                        register(visitor); // Le coordinateur ignore une inscription répétée
+                    }
+                    break;
+                case IN_TOUR:
+                    tickInTour(visitor, now);
+                    break;
+                case DECIDING:
+                    if (now >= visitor.decideAt) {
+                        decideNextAction(visitor);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        tickNanos += System.nanoTime() - start;
+        ticks++;
+    }
+
+    private void tickInTour(Visitor visitor, long now) {
+        if (visitor.readyAt != 0 && now >= visitor.readyAt) {
+            visitor.readyAt = 0;
+            sendAs(visitor, ACLMessage.INFORM, visitor.guide, "READY_NEXT");
+        }
+        if (visitor.questionAt != 0 && now >= visitor.questionAt) {
+            visitor.questionAt = 0;
+            visitor.questionsAsked++;
+            sendAs(visitor, ACLMessage.QUERY_REF, visitor.guide,
+                   "QUESTION:" + GROUP_QUESTIONS[random.nextInt(GROUP_QUESTIONS.length)]);
+        }
+        if (!visitor.group.isActive()) return;
+
+        if (now >= visitor.nextCohesionAt) {
+            visitor.nextCohesionAt = now + COHESION_PERIOD;
+            visitor.status.record(TouristStatus.Metric.GROUP_COHESION, population.getCohesion(visitor.id));
+            // Position dans le groupe selon la personnalité
+            double socialness = population.getSocialness(visitor.id);
+            if (socialness > 0.7) {
+                visitor.groupPosition = Math.min(0.9, visitor.groupPosition + 0.1);
+            } else if (socialness < 0.3) {
+                visitor.groupPosition = Math.max(0.1, visitor.groupPosition - 0.1);
+            }
+        }
+        if (now >= visitor.nextStatusAt) {
+            visitor.nextStatusAt = now + STATUS_PERIOD;
+            sendStatus(visitor);
+        }
+    }
+
+    private void sendStatus(Visitor visitor) {
+        visitor.status.record(TouristStatus.Metric.SATISFACTION, population.getSatisfaction(visitor.id));
+        visitor.status.record(TouristStatus.Metric.FATIGUE, population.getFatigue(visitor.id));
+        visitor.status.record(TouristStatus.Metric.GROUP_COHESION, population.getCohesion(visitor.id));
+
+        TouristStatusReport report = visitor.status.flush();
+        if (report != null) {
+            ACLMessage msg = MessageCodec.create(ACLMessage.INFORM, visitor.guide, report);
+            msg.setSender(visitor.aid);
+            send(msg);
+            messagesSent++;
+        }
+    }
+
+    private void decideNextAction(Visitor visitor) {
+        if (coordinatorAgent != null && visitor.group.wantsAnotherTour(visitor.lastSatisfaction, visitor.toursCompleted)) {
+            visitor.profile.rest(0.2);
+            visitor.questionsAsked = 0;
+            visitor.group.reset();
+            visitor.groupPosition = random.nextDouble();
+            visitor.profile.getPersonality().increaseExperience(0.15);
+            register(visitor);
+            return;
+        }
+
+        if (coordinatorAgent != null) {
+            sendAs(visitor, ACLMessage.INFORM, coordinatorAgent, "TOURIST_LEAVING:" + visitor.toursCompleted + ":" +
+                   visitor.profile.calculateFinalSatisfaction() + ":" + visitor.group.getFinalGroupRating());
+        }
+        visitor.state = State.LEFT;
+        present--;
+        departures++;
+        if (present == 0) {
+            System.out.println("Cohorte " + getLocalName() + " : tous les visiteurs ont quitté le musée après " +
+                             toursCompleted + " visite(s)");
+            doDelete();
+        }
+    }
+
+    // Métriques de la cohorte
+
+    public int getVisitorCount() { return visitors.length; }
+    public int getPresentCount() { return present; }
+    public int getDepartures() { return departures; }
+    public long getToursCompleted() { return toursCompleted; }
+    public long getMessagesSent() { return messagesSent; }
+    public MessageHandler getMessageHandler() { return messageHandler; }
+
+    public int getWaitingCount() { return count(State.WAITING); }
+    public int getInTourCount() { return count(State.IN_TOUR); }
+
+    /**
+     * Durée moyenne d'un tour de boucle (ms)
+     */
+    public double getAverageTickMillis() {
+        return ticks == 0 ? 0.0 : tickNanos / 1e6 / ticks;
+    }
+
+    private int count(State state) {
+        int n = 0;
+        for (Visitor visitor : visitors) {
+            if (visitor.state == state) n++;
+        }
+        return n;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(visitors.length);
+        out.writeInt(departures);
+        out.writeLong(toursCompleted);
+        for (Visitor visitor : visitors) {
+            if (population.isInGroup(visitor.id)) {
+                population.writeBack(visitor.id, visitor.profile, visitor.group);
+            }
+            out.writeBoolean(visitor.state == State.LEFT);
+            out.writeInt(visitor.toursCompleted);
+            visitor.profile.writeTo(out);
+            boolean inTour = visitor.state == State.IN_TOUR;
+            out.writeBoolean(inTour);
+            if (inTour) {
+                out.writeUTF(visitor.guide.getLocalName());
+                out.writeDouble(visitor.groupPosition);
+                out.writeInt(visitor.questionsAsked);
+                visitor.group.writeTo(out);
+            }
+        }
+    }
+
+    @Override
+    public int getRestoreOrder() {
+        return 2;
+    }
+
+    /**
+     * Reprise d'un cliché : les visiteurs en visite restent dans le groupe de
+     * leur guide, les autres visiteurs présents reviennent en file sur une seconde
+     */
+    private boolean restoreState(DataInputStream in) {
+        try {
+            int count = in.readInt();
+            departures = in.readInt();
+            toursCompleted = in.readLong();
+            long now = SimulationClock.now();
+            visitors = new Visitor[count];
+            present = count;
+            for (int i = 0; i < count; i++) {
+                boolean left = in.readBoolean();
+                int tours = in.readInt();
+                TouristProfile profile = TouristProfile.readFrom(in, random);
+                Visitor visitor = new Visitor(i, VisitorAddress.name(getLocalName(), i),
+                                              now + random.nextInt(1000), profile, random);
+                visitor.toursCompleted = tours;
+                if (left) {
+                    visitor.state = State.LEFT;
+                    present--;
+                }
+                if (in.readBoolean()) {
+                    visitor.guide = new AID(in.readUTF(), AID.ISLOCALNAME);
+                    visitor.groupPosition = in.readDouble();
+                    visitor.questionsAsked = in.readInt();
+                    visitor.group.readFrom(in);
+                    visitor.state = State.IN_TOUR;
+                    byGuide.computeIfAbsent(visitor.guide, g -> new ArrayList<>()).add(visitor);
+                    visitor.nextCohesionAt = now + random.nextInt((int) COHESION_PERIOD);
+                    visitor.nextStatusAt = now + random.nextInt((int) STATUS_PERIOD);
+                }
+                visitors[i] = visitor;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Cliché illisible pour " + getLocalName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    protected void takeDown() {
+        SimulationSnapshot.unregister(this);
+        TimerWheel.release(this);
+        DirectoryCache.release(this);
+        try {
+            DFService.deregister(this);
+        } catch (FIPAException fe) {
+            fe.printStackTrace();
+        }
+        System.out.println("Cohorte " + getLocalName() + " terminée : " + departures + "/" + visitors.length +
+                         " départs, " + toursCompleted + " visite(s), " + messagesSent + " messages envoyés");
+    }
+
+    /**
+     * État d'un visiteur de la cohorte
+     */
+    private static class Visitor {
+        final int id; // Indice dans les colonnes de la cohorte
+        final AID aid;
+        final TouristProfile profile;
+        final GroupBehavior group;
+        final StatusDelta status = new StatusDelta();
+        final long arrivalAt;
+        State state = State.ARRIVING;
+        AID guide;
+        double groupPosition; // Position dans le groupe (0-1)
+        double lastSatisfaction;
+        int questionsAsked;
+        int toursCompleted;
+        long waitStart;
+        long readyAt;
+        long questionAt;
+        long decideAt;
+        long nextCohesionAt;
+        long nextStatusAt;
+
+        Visitor(int id, String name, long arrivalAt, TouristProfile profile, SplittableRandom random) {
+            this.id = id;
+            this.aid = new AID(name, AID.ISLOCALNAME);
+            this.profile = profile;
+            this.groupPosition = random.nextDouble();
+            this.group = new GroupBehavior(profile);
+            this.arrivalAt = arrivalAt;
+        }
+    }
+}
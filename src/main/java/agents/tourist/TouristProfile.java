@@ -1,30 +1,54 @@
 package agents.tourist;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
+import utils.RandomStreams;
+import agents.protocol.Explanation;
 
 /**
  * Profil complet d'un touriste avec ses caractéristiques personnelles
  */
 public class TouristProfile {
+    private static final String[] NATIONALITIES = {"Français", "Italien", "Anglais", "Allemand",
+                                                   "Espagnol", "Japonais", "Américain", "Chinois"};
+    private static final String[] ART_TYPES = {"Renaissance", "Moderne", "Impressionniste",
+                                               "Contemporain", "Classique", "Baroque"};
+
     private String nationality;
     private int age;
     private List<String> artPreferences;
+    private int preferenceMask;                 // Préférences parmi les styles de Explanation.ART_STYLES
+    private List<String> otherPreferences;      // Préférences hors de ces styles, en minuscules
     private Personality personality;
     private double satisfaction;
     private double fatigue;
     private double interest;
     private int toursCompleted;
+    private final SplittableRandom random;
     
     public TouristProfile(String name) {
-        initializeRandomProfile(name);
+        this(name, RandomStreams.forName(name));
+    }
+    
+    /**
+     * Profil tiré du flux fourni (partagé par exemple par une cohorte)
+     */
+    public TouristProfile(String name, SplittableRandom random) {
+        this.random = random;
+        initializeRandomProfile();
     }
     
-    public TouristProfile(String nationality, int age, List<String> preferences) {
+    public TouristProfile(String nationality, int age, List<String> preferences, SplittableRandom random) {
+        this.random = random;
         this.nationality = nationality;
         this.age = age;
         this.artPreferences = new ArrayList<>(preferences);
-        this.personality = new Personality();
+        indexPreferences();
+        this.personality = new Personality(random);
         this.satisfaction = 0.5;
         this.fatigue = 0.0;
         this.interest = 0.7;
@@ -32,36 +56,68 @@ public class TouristProfile {
     }
     
     /**
-     * Initialise un profil aléatoire basé sur le nom
+     * Initialise un profil aléatoire tiré du flux du touriste
      */
-    private void initializeRandomProfile(String name) {
-        Random rand = new Random(name.hashCode());
-        
-        String[] nationalities = {"Français", "Italien", "Anglais", "Allemand", 
-                                "Espagnol", "Japonais", "Américain", "Chinois"};
-        this.nationality = nationalities[rand.nextInt(nationalities.length)];
+    private void initializeRandomProfile() {
+        SplittableRandom rand = random;
         
-        this.age = 18 + rand.nextInt(60);
-        
-        // Préférences artistiques
-        String[] artTypes = {"Renaissance", "Moderne", "Impressionniste", 
-                           "Contemporain", "Classique", "Baroque"};
-        this.artPreferences = new ArrayList<>();
-        int numPrefs = 2 + rand.nextInt(3);
-        for (int i = 0; i < numPrefs; i++) {
-            String pref = artTypes[rand.nextInt(artTypes.length)];
-            if (!artPreferences.contains(pref)) {
-                artPreferences.add(pref);
-            }
-        }
-        
-        this.personality = new Personality(nationality, age);
+        this.nationality = drawNationality(rand);
+        this.age = drawAge(rand);
+        this.artPreferences = drawPreferences(rand);
+        indexPreferences();
+        this.personality = new Personality(nationality, age, rand);
         this.satisfaction = 0.4 + rand.nextDouble() * 0.2;
         this.fatigue = rand.nextDouble() * 0.1;
         this.interest = 0.6 + rand.nextDouble() * 0.3;
         this.toursCompleted = 0;
     }
     
+    // Tirages des paramètres d'un profil aléatoire, aussi utilisés par les lanceurs
+
+    public static String drawNationality(SplittableRandom rand) {
+        return NATIONALITIES[rand.nextInt(NATIONALITIES.length)];
+    }
+
+    public static int drawAge(SplittableRandom rand) {
+        return 18 + rand.nextInt(60);
+    }
+
+    /**
+     * Deux à quatre tirages de styles artistiques, sans doublon
+     */
+    public static List<String> drawPreferences(SplittableRandom rand) {
+        List<String> preferences = new ArrayList<>();
+        int numPrefs = 2 + rand.nextInt(3);
+        for (int i = 0; i < numPrefs; i++) {
+            String pref = ART_TYPES[rand.nextInt(ART_TYPES.length)];
+            if (!preferences.contains(pref)) {
+                preferences.add(pref);
+            }
+        }
+        return preferences;
+    }
+    
+    /**
+     * Range les préférences connues dans un masque, les autres à part
+     */
+    private void indexPreferences() {
+        preferenceMask = 0;
+        otherPreferences = null;
+        for (String preference : artPreferences) {
+            indexPreference(preference);
+        }
+    }
+
+    private void indexPreference(String preference) {
+        int bit = Explanation.artStyleBit(preference);
+        if (bit != 0) {
+            preferenceMask |= bit;
+        } else {
+            if (otherPreferences == null) otherPreferences = new ArrayList<>();
+            otherPreferences.add(preference.toLowerCase(Locale.ROOT));
+        }
+    }
+    
     /**
      * Met à jour la satisfaction après une expérience
      */
@@ -99,9 +155,9 @@ public class TouristProfile {
      */
     public double getAffinityFor(String artType) {
         if (artPreferences.contains(artType)) {
-            return 0.8 + (Math.random() * 0.2);
+            return 0.8 + (random.nextDouble() * 0.2);
         }
-        return 0.3 + (Math.random() * 0.4);
+        return 0.3 + (random.nextDouble() * 0.4);
     }
     
     /**
@@ -110,7 +166,7 @@ public class TouristProfile {
     public boolean shouldAskQuestion() {
         return personality.getCuriosity() > 0.6 && 
                interest > 0.5 && 
-               Math.random() < 0.3;
+               random.nextDouble() < 0.3;
     }
     
     /**
@@ -135,6 +191,33 @@ public class TouristProfile {
         return Math.max(0.0, Math.min(1.0, finalScore));
     }
     
+    /**
+     * Note une explication selon les préférences et la personnalité
+     */
+    public double rateExplanation(String explanation) {
+        return rateExplanation(Explanation.of(explanation, Explanation.STYLE_STANDARD));
+    }
+
+    /**
+     * Note une explication étiquetée : styles préférés cités (masque) et
+     * réaction à sa longueur (table de la personnalité)
+     */
+    public double rateExplanation(Explanation explanation) {
+        int tags = explanation.getTags();
+        double rating = 0.5 + 0.2 * Integer.bitCount(tags & preferenceMask);
+        if (otherPreferences != null) {
+            String text = explanation.getText().toLowerCase(Locale.ROOT);
+            for (String preference : otherPreferences) {
+                if (text.contains(preference)) {
+                    rating += 0.2;
+                }
+            }
+        }
+        rating += personality.getExplanationBias(explanation.getLengthClass());
+        
+        return Math.max(0.0, Math.min(1.0, rating));
+    }
+    
     /**
      * Marque la fin d'une visite
      */
@@ -152,10 +235,18 @@ public class TouristProfile {
     public void setAge(int age) { this.age = age; }
     
     public List<String> getArtPreferences() { return new ArrayList<>(artPreferences); }
-    public void addArtPreference(String preference) { artPreferences.add(preference); }
+    public void addArtPreference(String preference) {
+        artPreferences.add(preference);
+        indexPreference(preference);
+    }
     
     public Personality getPersonality() { return personality; }
     
+    /**
+     * Flux aléatoire du touriste, partagé par ses comportements
+     */
+    public SplittableRandom getRandom() { return random; }
+    
     public double getSatisfaction() { return satisfaction; }
     public void setSatisfaction(double satisfaction) { 
         this.satisfaction = Math.max(0.0, Math.min(1.0, satisfaction)); 
@@ -173,6 +264,43 @@ public class TouristProfile {
     
     public int getToursCompleted() { return toursCompleted; }
     
+    /**
+     * Écrit le profil dans un cliché
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(nationality);
+        out.writeInt(age);
+        out.writeByte(artPreferences.size());
+        for (String preference : artPreferences) {
+            out.writeUTF(preference);
+        }
+        personality.writeTo(out);
+        out.writeDouble(satisfaction);
+        out.writeDouble(fatigue);
+        out.writeDouble(interest);
+        out.writeInt(toursCompleted);
+    }
+    
+    /**
+     * Relit un profil écrit par {@link #writeTo}, avec le flux aléatoire fourni
+     */
+    public static TouristProfile readFrom(DataInput in, SplittableRandom random) throws IOException {
+        String nationality = in.readUTF();
+        int age = in.readInt();
+        int count = in.readByte();
+        List<String> preferences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            preferences.add(in.readUTF());
+        }
+        TouristProfile profile = new TouristProfile(nationality, age, preferences, random);
+        profile.personality = Personality.readFrom(in);
+        profile.satisfaction = in.readDouble();
+        profile.fatigue = in.readDouble();
+        profile.interest = in.readDouble();
+        profile.toursCompleted = in.readInt();
+        return profile;
+    }
+    
     @Override
     public String toString() {
         return String.format("TouristProfile[%s, %d ans, satisfaction=%.2f, fatigue=%.2f]",
@@ -0,0 +1,67 @@
+package benchmark;
+
+import agents.tourist.BehaviorAction;
+import agents.tourist.BehaviorManager;
+import agents.tourist.TouristProfile;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import utils.SimulationClock;
+
+/**
+ * Coût par touriste d'un tick de {@link BehaviorManager} : mise à jour des
+ * probabilités et des comportements actifs puis exécution, avec une liste
+ * d'actions réutilisée. Le temps de simulation avance de l'intervalle de
+ * mise à jour à chaque tick ; les octets alloués par le fil de mesure sont
+ * relevés pour vérifier l'absence d'allocation.
+ *
+ * Usage : java benchmark.BehaviorManagerBenchmark [touristes] [ticks]
+ */
+public class BehaviorManagerBenchmark {
+
+    private static final int WARMUP_TICKS = 200;
+    private static final long TICK_MILLIS = 5000;
+
+    public static void main(String[] args) {
+        int tourists = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        BehaviorManager[] managers = new BehaviorManager[tourists];
+        for (int i = 0; i < tourists; i++) {
+            TouristProfile profile = new TouristProfile("Touriste" + i);
+            managers[i] = new BehaviorManager(profile, profile.getRandom());
+        }
+        List<BehaviorAction> actions = new ArrayList<>(16);
+
+        long now = SimulationClock.now();
+        long totalActions = 0;
+        long start = 0;
+        long allocatedBefore = 0;
+        for (int tick = 0; tick < WARMUP_TICKS + ticks; tick++) {
+            if (tick == WARMUP_TICKS) {
+                totalActions = 0;
+                allocatedBefore = allocatedBytes();
+                start = System.nanoTime();
+            }
+            now += TICK_MILLIS;
+            for (BehaviorManager manager : managers) {
+                manager.updateBehaviors(now);
+                totalActions += manager.executeActiveBehaviors(actions);
+                actions.clear();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        double updates = (double) ticks * tourists;
+        System.out.println("tourists,ticks,ns_per_tourist_tick,actions_per_tick,bytes_allocated");
+        System.out.printf(Locale.ROOT, "%d,%d,%.1f,%.1f,%d%n", tourists, ticks,
+                elapsed / updates, totalActions / (double) ticks, allocated);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import agents.base.GroupChannel;
+import agents.base.MessageHandler;
+import agents.tourist.TouristCohortAgent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.wrapper.AgentContainer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Montée en charge des cohortes : la population est répartie sur quelques
+ * {@link TouristCohortAgent} dans une seule JVM, avec un coordinateur et des
+ * guides ordinaires. Rapporte la mémoire occupée par visiteur, la durée d'un
+ * tour de boucle des cohortes et le débit de messages.
+ *
+ * Usage : java benchmark.CohortScaleBenchmark [visiteurs] [cohortes] [guides] [durée_s]
+ */
+public class CohortScaleBenchmark {
+
+    private static final String[] SPECIALIZATIONS = {
+        "Renaissance", "Moderne", "Impressionniste", "Contemporain", "Classique", "Baroque"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int visitors = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int cohortCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int guides = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long duration = (args.length > 3 ? Long.parseLong(args[3]) : 60) * 1000;
+
+        long heapBefore = usedHeap();
+        AgentContainer container = startContainer();
+        try {
+            container.createNewAgent("Coordinateur", "agents.coordinator.CoordinatorAgent", null).start();
+            for (int i = 0; i < guides; i++) {
+                container.createNewAgent("Guide" + i, "agents.guide.GuideAgent",
+                        new Object[] {SPECIALIZATIONS[i % SPECIALIZATIONS.length], 5}).start();
+            }
+
+            long start = System.nanoTime();
+            List<TouristCohortAgent> cohorts = new ArrayList<>();
+            for (int i = 0; i < cohortCount; i++) {
+                int size = visitors / cohortCount + (i < visitors % cohortCount ? 1 : 0);
+                TouristCohortAgent cohort = new TouristCohortAgent();
+                // Arrivées étalées sur la moitié de la durée
+                cohort.setArguments(new Object[] {size, duration / 2});
+                container.acceptNewAgent("Cohorte" + i, cohort).start();
+                cohorts.add(cohort);
+            }
+            long setup = System.nanoTime() - start;
+
+            long messagesBefore = MessageHandler.getTotalMessagesDrained();
+            Thread.sleep(duration);
+            double messageRate = (MessageHandler.getTotalMessagesDrained() - messagesBefore) * 1000.0 / duration;
+
+            long heap = usedHeap() - heapBefore;
+            double tick = 0;
+            long tours = 0;
+            long sent = 0;
+            int waiting = 0;
+            for (TouristCohortAgent cohort : cohorts) {
+                tick = Math.max(tick, cohort.getAverageTickMillis());
+                tours += cohort.getToursCompleted();
+                sent += cohort.getMessagesSent();
+                waiting += cohort.getWaitingCount();
+            }
+
+            System.out.println("visitors,cohorts,guides,setup_ms,heap_mb,bytes_per_visitor,max_tick_ms,waiting,tours,sent,msg_per_s");
+            System.out.printf(Locale.ROOT, "%d,%d,%d,%d,%.0f,%.0f,%.2f,%d,%d,%d,%.0f%n", visitors, cohortCount, guides,
+                    setup / 1_000_000, heap / 1048576.0, (double) heap / visitors, tick, waiting, tours, sent, messageRate);
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+
+    private static AgentContainer startContainer() {
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, "1221");
+        profile.setParameter(Profile.GUI, "false");
+        profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+        return jade.core.Runtime.instance().createMainContainer(profile);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        Thread.sleep(200);
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Débit de la simulation selon le nombre de conteneurs : chaque configuration
+ * est lancée dans une JVM neuve via {@link launcher.BulkSpawner} (population
+ * en rafale, guides répartis sur les conteneurs) et rapporte création,
+ * régime établi et messages traités par seconde.
+ *
+ * Usage : java benchmark.ContainerScaleBenchmark [population] [guides] [durée_s] [conteneurs...]
+ */
+public class ContainerScaleBenchmark {
+
+    private static final int[] DEFAULT_CONTAINERS = {1, 2, 4, 8};
+    private static final int BASE_PORT = 1211;
+
+    public static void main(String[] args) throws Exception {
+        String population = args.length > 0 ? args[0] : "400";
+        String guides = args.length > 1 ? args[1] : "16";
+        String duration = args.length > 2 ? args[2] : "20";
+        int[] containerCounts = DEFAULT_CONTAINERS;
+        if (args.length > 3) {
+            containerCounts = new int[args.length - 3];
+            for (int i = 3; i < args.length; i++) {
+                containerCounts[i - 3] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println("population,curve,containers,created,creation_ms,agents_per_s,steady_state_ms,msg_per_s");
+        int run = 0;
+        for (int containers : containerCounts) {
+            String row = runSpawner(BASE_PORT + run++, population, String.valueOf(containers), guides, duration);
+            System.out.println(row != null ? row : "échec pour " + containers + " conteneur(s)");
+        }
+    }
+
+    /**
+     * Lance le spawner dans une JVM séparée et renvoie sa ligne de résultat
+     */
+    private static String runSpawner(int port, String population, String containers,
+                                     String guides, String duration) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-Dmuseum.main.port=" + port);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("launcher.BulkSpawner");
+        command.add(population);
+        command.add("BURST");
+        command.add(containers);
+        command.add(guides);
+        command.add("0");
+        command.add(duration);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String result = null;
+        boolean header = false;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (header) {
+                    result = line;
+                    header = false;
+                } else if (line.startsWith("population,")) {
+                    header = true;
+                }
+            }
+        }
+        process.waitFor();
+        return result;
+    }
+}
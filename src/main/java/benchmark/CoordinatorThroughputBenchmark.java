@@ -0,0 +1,113 @@
+package benchmark;
+
+import agents.coordinator.CoordinatorAgent;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'inscription du {@link CoordinatorAgent} : une rafale de
+ * REGISTER_TOURIST (expéditeurs distincts) est envoyée d'un coup et le temps
+ * jusqu'à la dernière confirmation WELCOME_MUSEUM est mesuré.
+ *
+ * Usage : java benchmark.CoordinatorThroughputBenchmark [taille1 taille2 ...]
+ */
+public class CoordinatorThroughputBenchmark {
+
+    private static final int[] DEFAULT_BURSTS = {1000, 10000, 50000};
+    private static final long TIMEOUT_SECONDS = 300;
+
+    public static void main(String[] args) throws Exception {
+        int[] bursts = DEFAULT_BURSTS;
+        if (args.length > 0) {
+            bursts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                bursts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        AgentContainer container = startContainer();
+        try {
+            System.out.println("burst,confirmed,elapsed_ms,registrations_per_s");
+            int run = 0;
+            for (int burst : bursts) {
+                run(container, "coord" + (run++), burst);
+            }
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+
+    private static AgentContainer startContainer() {
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, "1201");
+        profile.setParameter(Profile.GUI, "false");
+        return jade.core.Runtime.instance().createMainContainer(profile);
+    }
+
+    private static void run(AgentContainer container, String name, int burst) throws Exception {
+        AgentController coordinator = container.createNewAgent(name, CoordinatorAgent.class.getName(), null);
+        coordinator.start();
+
+        CountDownLatch done = new CountDownLatch(burst);
+        AgentController client = container.createNewAgent(name + "-clients", RegistrationClient.class.getName(),
+                new Object[] {new AID(name, AID.ISLOCALNAME), burst, done});
+
+        long start = System.nanoTime();
+        client.start();
+        boolean completed = done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        long confirmed = burst - done.getCount();
+        System.out.printf(Locale.ROOT, "%d,%d,%d,%.0f%s%n", burst, confirmed,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), confirmed * 1e9 / elapsed,
+                completed ? "" : " (timeout)");
+
+        client.kill();
+        coordinator.kill();
+    }
+
+    /**
+     * Simule une foule de touristes : chaque inscription porte un expéditeur
+     * distinct et renvoie la confirmation vers ce seul agent
+     */
+    public static class RegistrationClient extends Agent {
+        @Override
+        protected void setup() {
+            AID coordinator = (AID) getArguments()[0];
+            int count = (Integer) getArguments()[1];
+            CountDownLatch done = (CountDownLatch) getArguments()[2];
+
+            addBehaviour(new CyclicBehaviour(this) {
+                @Override
+                public void action() {
+                    ACLMessage msg = receive();
+                    if (msg == null) {
+                        block();
+                    } else if ("WELCOME_MUSEUM".equals(msg.getContent())) {
+                        done.countDown();
+                    }
+                }
+            });
+
+            for (int i = 0; i < count; i++) {
+                ACLMessage msg = new ACLMessage(ACLMessage.SUBSCRIBE);
+                msg.setSender(new AID(getLocalName() + "-t" + i, AID.ISLOCALNAME));
+                msg.addReplyTo(getAID());
+                msg.addReceiver(coordinator);
+                msg.setContent("REGISTER_TOURIST");
+                send(msg);
+            }
+        }
+    }
+}
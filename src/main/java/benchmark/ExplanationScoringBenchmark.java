@@ -0,0 +1,90 @@
+package benchmark;
+
+import agents.protocol.Explanation;
+import agents.tourist.TouristProfile;
+import java.util.Locale;
+
+/**
+ * Coût de la notation d'une explication par un groupe : chaque touriste
+ * relit le texte (passage en minuscules et recherche de ses préférences)
+ * contre les étiquettes calculées une fois par le guide et notées par masque
+ * de préférences et table de personnalité.
+ *
+ * Usage : java benchmark.ExplanationScoringBenchmark [taille_groupe] [explications]
+ */
+public class ExplanationScoringBenchmark {
+
+    private static final String[] EXPLANATIONS = {
+        "La Joconde - Chef-d'œuvre de Léonard de Vinci, symbole de l'art Renaissance",
+        "La Nuit étoilée - Œuvre emblématique de Van Gogh, post-impressionnisme - Explication spécialisée en Impressionniste",
+        "Guernica - Picasso, art moderne, dénonciation de la guerre [Version interactive pour groupe cohésif]",
+        "Les Demoiselles d'Avignon - Picasso, naissance du cubisme - Explication spécialisée en Contemporain [Détails approfondis basés sur l'expertise du guide] [Version détaillée technique]",
+        "L'École d'Athènes - Raphaël, Renaissance italienne, philosophie - Explication spécialisée en Classique"
+    };
+
+    // Empêche l'élimination des notes par le compilateur
+    private static volatile double blackhole;
+
+    public static void main(String[] args) {
+        int groupSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        TouristProfile[] group = new TouristProfile[groupSize];
+        for (int i = 0; i < groupSize; i++) {
+            group[i] = new TouristProfile("Touriste" + i);
+        }
+
+        System.out.println("mode,group_size,explanations,ns_per_rating");
+        for (int pass = 0; pass < 2; pass++) {
+            boolean report = pass == 1; // Première passe : préchauffage
+            double text = measure(group, rounds, false);
+            double tagged = measure(group, rounds, true);
+            if (report) {
+                System.out.printf(Locale.ROOT, "text,%d,%d,%.1f%n", groupSize, rounds, text);
+                System.out.printf(Locale.ROOT, "tagged,%d,%d,%.1f%n", groupSize, rounds, tagged);
+            }
+        }
+    }
+
+    private static double measure(TouristProfile[] group, int rounds, boolean tagged) {
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            String text = EXPLANATIONS[round % EXPLANATIONS.length];
+            if (tagged) {
+                // Étiquetée une fois par le guide, notée par chaque touriste
+                Explanation explanation = Explanation.of(text, Explanation.STYLE_STANDARD);
+                for (TouristProfile profile : group) {
+                    sum += profile.rateExplanation(explanation);
+                }
+            } else {
+                for (TouristProfile profile : group) {
+                    sum += rateText(profile, text);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sum;
+        return (double) elapsed / ((long) rounds * group.length);
+    }
+
+    /**
+     * Notation historique : relecture du texte par chaque touriste
+     */
+    private static double rateText(TouristProfile profile, String explanation) {
+        double rating = 0.5;
+        String text = explanation.toLowerCase();
+        for (String preference : profile.getArtPreferences()) {
+            if (text.contains(preference.toLowerCase())) {
+                rating += 0.2;
+            }
+        }
+        if (explanation.length() > 150 && profile.getPersonality().getPatience() < 0.4) {
+            rating -= 0.2;
+        } else if (explanation.length() > 100) {
+            rating += 0.1;
+        }
+        rating += (profile.getPersonality().getCuriosity() - 0.5) * 0.3;
+        return Math.max(0.0, Math.min(1.0, rating));
+    }
+}
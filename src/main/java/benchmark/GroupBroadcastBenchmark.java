@@ -0,0 +1,164 @@
+package benchmark;
+
+import agents.base.GroupChannel;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit de diffusion d'un guide vers son groupe : un ACLMessage par touriste
+ * (ancienne boucle), un message multi-destinataires et un topic JADE
+ * ({@link GroupChannel} avec et sans TopicManagementService).
+ *
+ * Usage : java benchmark.GroupBroadcastBenchmark [diffusions] [taille1 taille2 ...]
+ */
+public class GroupBroadcastBenchmark {
+
+    private static final int[] DEFAULT_GROUP_SIZES = {10, 50, 200};
+    private static final int DEFAULT_BROADCASTS = 500;
+    private static final long TIMEOUT_SECONDS = 300;
+
+    private enum Mode { PER_TOURIST, MULTI_RECEIVER, TOPIC }
+
+    public static void main(String[] args) throws Exception {
+        int broadcasts = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BROADCASTS;
+        int[] groupSizes = DEFAULT_GROUP_SIZES;
+        if (args.length > 1) {
+            groupSizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                groupSizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, "1199");
+        profile.setParameter(Profile.GUI, "false");
+        profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+        AgentContainer container = jade.core.Runtime.instance().createMainContainer(profile);
+
+        try {
+            System.out.println("mode,group_size,broadcasts,send_calls,delivered,elapsed_ms,msg_per_s");
+            int run = 0;
+            for (int groupSize : groupSizes) {
+                for (Mode mode : Mode.values()) {
+                    run(container, "bcast" + (run++), groupSize, broadcasts, mode);
+                }
+            }
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+
+    private static void run(AgentContainer container, String name, int groupSize,
+                            int broadcasts, Mode mode) throws Exception {
+        CountDownLatch delivered = new CountDownLatch(groupSize * broadcasts);
+        List<AgentController> controllers = new ArrayList<>();
+        List<AID> members = new ArrayList<>();
+
+        for (int i = 0; i < groupSize; i++) {
+            String sinkName = name + "-t" + i;
+            AgentController sink = container.createNewAgent(sinkName, SinkAgent.class.getName(),
+                    new Object[] {delivered});
+            sink.start();
+            controllers.add(sink);
+            members.add(new AID(sinkName, AID.ISLOCALNAME));
+        }
+
+        long[] result = new long[2]; // appels send(), durée d'émission
+        CountDownLatch sent = new CountDownLatch(1);
+        long start = System.nanoTime();
+        AgentController guide = container.createNewAgent(name + "-guide", BroadcasterAgent.class.getName(),
+                new Object[] {members, broadcasts, mode, result, sent});
+        guide.start();
+        controllers.add(guide);
+
+        sent.await();
+        boolean completed = delivered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        long count = (long) groupSize * broadcasts - delivered.getCount();
+        System.out.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.0f%s%n",
+                mode.name().toLowerCase(Locale.ROOT), groupSize, broadcasts, result[0], count,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), count * 1e9 / elapsed,
+                completed ? "" : " (timeout)");
+
+        for (AgentController controller : controllers) {
+            controller.kill();
+        }
+    }
+
+    /**
+     * Guide simplifié : diffuse une explication à son groupe en boucle
+     */
+    public static class BroadcasterAgent extends Agent {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void setup() {
+            List<AID> members = (List<AID>) getArguments()[0];
+            int broadcasts = (Integer) getArguments()[1];
+            Mode mode = (Mode) getArguments()[2];
+            long[] result = (long[]) getArguments()[3];
+            CountDownLatch sent = (CountDownLatch) getArguments()[4];
+
+            String content = "EXPLANATION:La Joconde - Léonard de Vinci, portrait le plus célèbre";
+            long sendCalls = 0;
+            long start = System.nanoTime();
+
+            if (mode != Mode.PER_TOURIST) {
+                String topicName = mode == Mode.TOPIC ? "groupe-" + getLocalName() : null;
+                GroupChannel group = new GroupChannel(this, topicName, members);
+                for (int i = 0; i < broadcasts; i++) {
+                    group.broadcast(ACLMessage.INFORM, content);
+                }
+                sendCalls = group.getBroadcastCount();
+            } else {
+                for (int i = 0; i < broadcasts; i++) {
+                    for (AID member : members) {
+                        ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+                        msg.addReceiver(member);
+                        msg.setContent(content);
+                        send(msg);
+                        sendCalls++;
+                    }
+                }
+            }
+
+            result[0] = sendCalls;
+            result[1] = System.nanoTime() - start;
+            sent.countDown();
+        }
+    }
+
+    /**
+     * Touriste simplifié : consomme et compte les messages reçus
+     */
+    public static class SinkAgent extends Agent {
+        @Override
+        protected void setup() {
+            CountDownLatch delivered = (CountDownLatch) getArguments()[0];
+            addBehaviour(new CyclicBehaviour(this) {
+                @Override
+                public void action() {
+                    ACLMessage msg = receive();
+                    if (msg != null) {
+                        delivered.countDown();
+                    } else {
+                        block();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package benchmark;
+
+import agents.guide.GroupHandler;
+import agents.protocol.MessageCodec;
+import agents.protocol.TouristStatus;
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coût d'un status touriste côté guide : recalcul complet à chaque message
+ * (ancienne implémentation de GroupHandler, reproduite ici) contre les
+ * statistiques en ligne {@link utils.OnlineStats} de {@link GroupHandler}.
+ *
+ * Usage : java benchmark.GroupStatsBenchmark [taille1 taille2 ...]
+ */
+public class GroupStatsBenchmark {
+
+    private static final int[] DEFAULT_GROUP_SIZES = {10, 100, 1000};
+    private static final int MESSAGE_POOL = 4096;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final long ROUND_NANOS = 200_000_000L;
+
+    // Référence forte : le niveau d'un Logger non référencé peut être perdu
+    private static final Logger HANDLER_LOGGER = Logger.getLogger(GroupHandler.class.getName());
+
+    public static void main(String[] args) {
+        int[] groupSizes = DEFAULT_GROUP_SIZES;
+        if (args.length > 0) {
+            groupSizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                groupSizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        // Les signalements de touristes problématiques ne doivent pas fausser la mesure
+        HANDLER_LOGGER.setLevel(Level.OFF);
+
+        System.out.println("impl,group_size,status_per_s,ns_per_status");
+        for (int groupSize : groupSizes) {
+            ACLMessage[] messages = buildMessages(groupSize);
+            report("legacy", groupSize, measure(new LegacyStats()::process, messages));
+            GroupHandler handler = new GroupHandler(null);
+            report("online", groupSize, measure(handler::processTouristStatus, messages));
+        }
+    }
+
+    private static ACLMessage[] buildMessages(int groupSize) {
+        Random random = new Random(42);
+        TouristStatus.Metric[] metrics = {
+            TouristStatus.Metric.SATISFACTION, TouristStatus.Metric.FATIGUE, TouristStatus.Metric.INTEREST
+        };
+        AID[] tourists = new AID[groupSize];
+        for (int i = 0; i < groupSize; i++) {
+            tourists[i] = new AID("touriste" + i + "@bench", AID.ISGUID);
+        }
+
+        ACLMessage[] messages = new ACLMessage[Math.max(MESSAGE_POOL, groupSize * metrics.length)];
+        for (int i = 0; i < messages.length; i++) {
+            // Chaque touriste envoie d'abord ses trois métriques : le groupe est complet dès le premier tour
+            AID sender = tourists[(i / metrics.length) % groupSize];
+            TouristStatus status = new TouristStatus(metrics[i % metrics.length], random.nextDouble());
+            messages[i] = MessageCodec.create(ACLMessage.INFORM, sender, status);
+            messages[i].setSender(sender);
+        }
+        return messages;
+    }
+
+    private interface StatusSink {
+        void accept(ACLMessage msg);
+    }
+
+    /**
+     * Débit moyen (status par seconde) sur les tours mesurés
+     */
+    private static double measure(StatusSink sink, ACLMessage[] messages) {
+        double total = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long count = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                for (ACLMessage msg : messages) {
+                    sink.accept(msg);
+                }
+                count += messages.length;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < ROUND_NANOS);
+
+            if (round >= WARMUP_ROUNDS) {
+                total += count * 1e9 / elapsed;
+            }
+        }
+        return total / MEASURED_ROUNDS;
+    }
+
+    private static void report(String impl, int groupSize, double perSecond) {
+        System.out.printf(Locale.ROOT, "%s,%d,%.0f,%.1f%n", impl, groupSize, perSecond, 1e9 / perSecond);
+    }
+
+    /**
+     * Chemin historique : variances par passe complète avec switch sur une chaîne,
+     * moyennes par stream et recherche des touristes problématiques à chaque status
+     */
+    private static class LegacyStats {
+        private final Map<AID, double[]> touristStats = new HashMap<>();
+        private final Set<AID> problematic = new HashSet<>();
+        private double homogeneity;
+        private double engagement;
+
+        void process(ACLMessage msg) {
+            TouristStatus status = TouristStatus.from(msg);
+            double[] stats = touristStats.computeIfAbsent(msg.getSender(), k -> new double[] {0.5, 0.0, 0.7});
+            switch (status.getMetric()) {
+                case SATISFACTION: stats[0] = status.getValue(); break;
+                case FATIGUE: stats[1] = status.getValue(); break;
+                case INTEREST: stats[2] = status.getValue(); break;
+                default: break;
+            }
+
+            if (touristStats.size() < 2) return;
+            homogeneity = 1.0 - Math.max(variance("satisfaction"), variance("fatigue"));
+            engagement = average(2);
+
+            double avgSatisfaction = average(0);
+            for (Map.Entry<AID, double[]> entry : touristStats.entrySet()) {
+                if (entry.getValue()[0] < avgSatisfaction - 0.3) {
+                    problematic.add(entry.getKey());
+                }
+            }
+        }
+
+        private double variance(String metric) {
+            double sum = 0.0;
+            double sumSquares = 0.0;
+            int count = 0;
+            for (double[] stats : touristStats.values()) {
+                double value = 0.0;
+                switch (metric) {
+                    case "satisfaction": value = stats[0]; break;
+                    case "fatigue": value = stats[1]; break;
+                    case "interest": value = stats[2]; break;
+                }
+                sum += value;
+                sumSquares += value * value;
+                count++;
+            }
+            double mean = sum / count;
+            return Math.max(0.0, Math.min(1.0, sumSquares / count - mean * mean));
+        }
+
+        private double average(int index) {
+            return touristStats.values().stream().mapToDouble(s -> s[index]).average().orElse(0.5);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import utils.EventJournal;
+
+/**
+ * Coût côté agent du {@link EventJournal} : plusieurs fils producteurs
+ * déposent des événements pendant que le rédacteur les écrit dans les
+ * segments projetés, puis le journal est relu pour vérification.
+ *
+ * Usage : java benchmark.JournalBenchmark [fils] [événements_par_fil]
+ */
+public class JournalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        if (System.getProperty(EventJournal.DIRECTORY_PROPERTY) == null) {
+            Path directory = Files.createTempDirectory("journal-bench");
+            System.setProperty(EventJournal.DIRECTORY_PROPERTY, directory.toString());
+        }
+        EventJournal journal = EventJournal.get();
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong producerNanos = new AtomicLong();
+        for (int t = 0; t < threads; t++) {
+            String tourist = "Touriste" + t + "@musee";
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long begin = System.nanoTime();
+                for (int i = 0; i < perThread; i++) {
+                    EventJournal.satisfaction(tourist, (i & 1023) / 1024.0);
+                }
+                producerNanos.addAndGet(System.nanoTime() - begin);
+                done.countDown();
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long total = (long) threads * perThread;
+        while (journal.getWrittenCount() < total) {
+            Thread.sleep(1);
+        }
+        long elapsed = System.nanoTime() - begin;
+        journal.close();
+
+        long[] read = new long[1];
+        EventJournal.read(Path.of(System.getProperty(EventJournal.DIRECTORY_PROPERTY)), record -> read[0]++);
+
+        System.out.println("threads,events,ns_per_event_producer,events_per_s,mb_written,segments,read_back");
+        System.out.printf(Locale.ROOT, "%d,%d,%.0f,%.0f,%.1f,%d,%d%n", threads, total,
+                (double) producerNanos.get() / total, total * 1e9 / elapsed,
+                journal.getBytesWritten() / 1048576.0, journal.getSegmentCount(), read[0]);
+    }
+}
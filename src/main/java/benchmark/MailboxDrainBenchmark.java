@@ -0,0 +1,186 @@
+package benchmark;
+
+import agents.base.MessageHandler;
+import agents.base.MessageRouter;
+import agents.protocol.MessageKind;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le débit de vidage d'une boîte aux lettres encombrée :
+ * deux CyclicBehaviour filtrant chacun la file (ancien guide) contre le
+ * répartiteur unique {@link MessageHandler}.
+ *
+ * Usage : java benchmark.MailboxDrainBenchmark [taille1 taille2 ...]
+ */
+public class MailboxDrainBenchmark {
+
+    private static final int[] DEFAULT_BACKLOGS = {1000, 5000, 20000};
+    private static final long TIMEOUT_SECONDS = 300;
+
+    public static void main(String[] args) throws Exception {
+        int[] backlogs = DEFAULT_BACKLOGS;
+        if (args.length > 0) {
+            backlogs = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                backlogs[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        AgentContainer container = startContainer();
+        try {
+            System.out.println("mode,backlog,handled,elapsed_ms,msg_per_s");
+            int run = 0;
+            for (int backlog : backlogs) {
+                for (boolean dispatcher : new boolean[] {false, true}) {
+                    run(container, "drain" + (run++), backlog, dispatcher);
+                }
+            }
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+
+    private static AgentContainer startContainer() {
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, "1199");
+        profile.setParameter(Profile.GUI, "false");
+        return jade.core.Runtime.instance().createMainContainer(profile);
+    }
+
+    /**
+     * Remplit la file du récepteur pendant qu'il est bloqué, puis chronomètre le vidage
+     */
+    private static void run(AgentContainer container, String name, int backlog,
+                            boolean dispatcher) throws Exception {
+        // Les messages de pause ne sont consommés par aucun filtre de l'ancien guide
+        int expected = dispatcher ? backlog : backlog - backlog / 3;
+
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(expected);
+        AgentController receiver = container.createNewAgent(name, ReceiverAgent.class.getName(),
+                new Object[] {gate, done, dispatcher});
+        receiver.start();
+
+        AgentController flooder = container.createNewAgent(name + "-flood", FlooderAgent.class.getName(),
+                new Object[] {new AID(name, AID.ISLOCALNAME), backlog});
+        flooder.start();
+
+        // Laisser le remplissage se terminer avant d'ouvrir le récepteur
+        FlooderAgent.awaitSent(name + "-flood");
+
+        long start = System.nanoTime();
+        gate.countDown();
+        boolean completed = done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        long handled = expected - done.getCount();
+        System.out.printf(java.util.Locale.ROOT, "%s,%d,%d,%d,%.0f%s%n",
+                dispatcher ? "dispatcher" : "legacy", backlog, handled,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), handled * 1e9 / elapsed,
+                completed ? "" : " (timeout)");
+
+        receiver.kill();
+        flooder.kill();
+    }
+
+    /**
+     * Envoie un mélange de messages comparable au trafic d'un guide
+     */
+    public static class FlooderAgent extends Agent {
+        private static final java.util.Map<String, CountDownLatch> SENT =
+                new java.util.concurrent.ConcurrentHashMap<>();
+
+        static void awaitSent(String name) throws InterruptedException {
+            SENT.computeIfAbsent(name, n -> new CountDownLatch(1)).await();
+        }
+
+        @Override
+        protected void setup() {
+            AID target = (AID) getArguments()[0];
+            int count = (Integer) getArguments()[1];
+
+            for (int i = 0; i < count; i++) {
+                ACLMessage msg;
+                switch (i % 3) {
+                    case 0:
+                        msg = new ACLMessage(ACLMessage.INFORM);
+                        msg.setContent("STATUS:SATISFACTION:0.5");
+                        break;
+                    case 1:
+                        msg = new ACLMessage(ACLMessage.REQUEST);
+                        msg.setContent("QUESTION:Tableau1");
+                        break;
+                    default:
+                        msg = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
+                        msg.setContent("BREAK_RESPONSE:ACCEPT");
+                        break;
+                }
+                msg.addReceiver(target);
+                send(msg);
+            }
+            SENT.computeIfAbsent(getLocalName(), n -> new CountDownLatch(1)).countDown();
+        }
+    }
+
+    /**
+     * Récepteur configurable : filtres concurrents ou répartiteur unique
+     */
+    public static class ReceiverAgent extends Agent {
+        @Override
+        protected void setup() {
+            CountDownLatch gate = (CountDownLatch) getArguments()[0];
+            CountDownLatch done = (CountDownLatch) getArguments()[1];
+            boolean dispatcher = (Boolean) getArguments()[2];
+
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (dispatcher) {
+                MessageRouter router = new MessageRouter()
+                    .on(MessageKind.STATUS, msg -> done.countDown())
+                    .on(MessageKind.QUESTION, msg -> done.countDown())
+                    .on(MessageKind.BREAK_RESPONSE, msg -> done.countDown());
+                addBehaviour(new MessageHandler(this, router));
+            } else {
+                addBehaviour(new FilteringBehaviour(ACLMessage.INFORM, done));
+                addBehaviour(new FilteringBehaviour(ACLMessage.REQUEST, done));
+            }
+        }
+
+        private class FilteringBehaviour extends CyclicBehaviour {
+            private final MessageTemplate template;
+            private final CountDownLatch done;
+
+            FilteringBehaviour(int performative, CountDownLatch done) {
+                this.template = MessageTemplate.MatchPerformative(performative);
+                this.done = done;
+            }
+
+            @Override
+            public void action() {
+                ACLMessage msg = receive(template);
+                if (msg != null) {
+                    done.countDown();
+                } else {
+                    block();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import agents.tourist.GroupBehavior;
+import agents.tourist.PopulationStore;
+import agents.tourist.TouristProfile;
+import java.util.Locale;
+
+/**
+ * Débit des mises à jour d'état des visiteurs : objet par objet
+ * ({@link GroupBehavior#updatePersonalState()} sur chaque visiteur en groupe,
+ * comme le fait le touriste) contre les boucles en colonnes de
+ * {@link PopulationStore}. La moitié des visiteurs est en groupe ; le débit
+ * est rapporté à toute la population.
+ *
+ * Usage : java benchmark.PopulationStoreBenchmark [visiteurs] [ticks]
+ */
+public class PopulationStoreBenchmark {
+
+    private static final int WARMUP_TICKS = 50;
+
+    public static void main(String[] args) {
+        int visitors = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        TouristProfile[] profiles = new TouristProfile[visitors];
+        GroupBehavior[] groups = new GroupBehavior[visitors];
+        PopulationStore store = new PopulationStore(visitors);
+        for (int i = 0; i < visitors; i++) {
+            profiles[i] = new TouristProfile("Touriste" + i);
+            groups[i] = new GroupBehavior(profiles[i]);
+            int index = store.add(profiles[i]);
+            if (i % 2 == 0) {
+                groups[i].activate();
+                store.joinGroup(index);
+            }
+        }
+
+        System.out.println("impl,visitors,ticks,updates_per_s,ns_per_update");
+        report("objects", visitors, ticks, measure(ticks, visitors, () -> {
+            for (GroupBehavior group : groups) {
+                if (group.isActive()) {
+                    group.updatePersonalState();
+                }
+            }
+        }));
+        report("columns", visitors, ticks, measure(ticks, visitors, store::updatePersonalState));
+        report("columns_tick", visitors, ticks, measure(ticks, visitors, store::tick));
+    }
+
+    private static double measure(int ticks, int visitors, Runnable tick) {
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            tick.run();
+        }
+        return (double) ticks * visitors * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static void report(String impl, int visitors, int ticks, double perSecond) {
+        System.out.printf(Locale.ROOT, "%s,%d,%d,%.0f,%.2f%n", impl, visitors, ticks, perSecond, 1e9 / perSecond);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import agents.tourist.SatisfactionAnalytics;
+import agents.tourist.SatisfactionTracker;
+import agents.tourist.TouristProfile;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Coût d'une analyse de satisfaction par touriste et par tick : chaque
+ * touriste enregistre une expérience puis consulte son analyse, soit par les
+ * accesseurs de {@link SatisfactionAnalytics} (sans allocation), soit par
+ * {@link SatisfactionTracker#analyzeTrends()} qui construit un bilan.
+ *
+ * Usage : java benchmark.SatisfactionAnalysisBenchmark [touristes] [ticks]
+ */
+public class SatisfactionAnalysisBenchmark {
+
+    private static final int WARMUP_TICKS = 20;
+
+    // Empêche l'élimination des lectures par le compilateur
+    private static volatile long blackhole;
+
+    public static void main(String[] args) {
+        int tourists = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        SatisfactionTracker[] trackers = new SatisfactionTracker[tourists];
+        for (int i = 0; i < tourists; i++) {
+            trackers[i] = new SatisfactionTracker(new TouristProfile("Touriste" + i));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+
+        System.out.println("mode,tourists,ticks,ns_per_tourist_tick");
+        report("analytics", tourists, ticks, run(trackers, random, ticks, false));
+        report("analyzeTrends", tourists, ticks, run(trackers, random, ticks, true));
+    }
+
+    private static double run(SatisfactionTracker[] trackers, SplittableRandom random, int ticks, boolean full) {
+        long sink = 0;
+        long start = 0;
+        for (int tick = 0; tick < WARMUP_TICKS + ticks; tick++) {
+            if (tick == WARMUP_TICKS) start = System.nanoTime();
+            for (SatisfactionTracker tracker : trackers) {
+                tracker.recordExperience(random.nextInt(6), random.nextDouble());
+                if (full) {
+                    sink += tracker.analyzeTrends().getRecommendations().size();
+                } else {
+                    SatisfactionAnalytics analytics = tracker.getAnalytics();
+                    sink += analytics.getTrend() > 0 ? 1 : 0;
+                    sink += analytics.getStrongestCategory() + analytics.getWeakestCategory();
+                    sink += analytics.getRecommendationMask();
+                }
+            }
+        }
+        double nanos = System.nanoTime() - start;
+        blackhole = sink;
+        return nanos / ((double) ticks * trackers.length);
+    }
+
+    private static void report(String mode, int tourists, int ticks, double nanos) {
+        System.out.printf(Locale.ROOT, "%s,%d,%d,%.1f%n", mode, tourists, ticks, nanos);
+    }
+}
@@ -0,0 +1,98 @@
+package benchmark;
+
+import agents.base.GroupChannel;
+import agents.base.SimulationSnapshot;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.wrapper.AgentContainer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Durée d'un cliché ({@link SimulationSnapshot}) selon la population : les
+ * touristes sont ajoutés par paliers et, une fois la population du palier
+ * installée (arrivées passées, inscriptions traitées), plusieurs clichés
+ * sont pris en régime établi.
+ * En mode restauration, une plateforme neuve est repeuplée depuis le fichier.
+ *
+ * Usage : java benchmark.SnapshotBenchmark [touristes] [fichier]
+ *         java benchmark.SnapshotBenchmark --restore [fichier]
+ */
+public class SnapshotBenchmark {
+
+    private static final int[] STEPS = {1000, 2500, 5000, 10000};
+    private static final int GUIDES = 20;
+    private static final long ARRIVAL_DELAY = 1000;
+    private static final long SETTLE_TIME = 5000;
+    private static final int SNAPSHOTS_PER_STEP = 3;
+    private static final String[] SPECIALIZATIONS = {
+        "Renaissance", "Moderne", "Impressionniste", "Contemporain", "Classique", "Baroque"
+    };
+
+    public static void main(String[] args) throws Exception {
+        boolean restore = args.length > 0 && args[0].equals("--restore");
+        int population = !restore && args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        Path file = Paths.get(args.length > 1 ? args[1] : "museum.snapshot");
+
+        AgentContainer container = startContainer();
+        try {
+            if (restore) {
+                SimulationSnapshot.Result result = SimulationSnapshot.restore(file, container);
+                int expected = result.getAgents();
+                long start = System.nanoTime();
+                while (SimulationSnapshot.getRegisteredCount() < expected) {
+                    Thread.sleep(10);
+                }
+                System.out.println("agents,restore_ms,all_started_ms");
+                System.out.printf(Locale.ROOT, "%d,%.0f,%.0f%n", expected, result.getMillis(),
+                        result.getMillis() + (System.nanoTime() - start) / 1e6);
+                return;
+            }
+
+            container.createNewAgent("Coordinateur", "agents.coordinator.CoordinatorAgent", null).start();
+            for (int i = 0; i < GUIDES; i++) {
+                container.createNewAgent("Guide" + i, "agents.guide.GuideAgent",
+                        new Object[] {SPECIALIZATIONS[i % SPECIALIZATIONS.length], 5}).start();
+            }
+
+            System.out.println("agents,snapshot_ms,bytes,us_per_agent");
+            int created = 0;
+            for (int step : STEPS) {
+                int target = Math.min(step, population);
+                for (; created < target; created++) {
+                    String name = "Touriste" + created;
+                    container.createNewAgent(name, "agents.tourist.TouristAgent",
+                            new Object[] {ARRIVAL_DELAY, name}).start();
+                }
+                // Démarrages terminés quand le nombre d'inscrits cesse de croître
+                // (des touristes peuvent déjà être repartis après leur visite)
+                int registered = -1;
+                while (SimulationSnapshot.getRegisteredCount() > registered) {
+                    registered = SimulationSnapshot.getRegisteredCount();
+                    Thread.sleep(ARRIVAL_DELAY);
+                }
+                // Régime établi : rafale d'inscriptions absorbée
+                Thread.sleep(SETTLE_TIME);
+                for (int i = 0; i < SNAPSHOTS_PER_STEP; i++) {
+                    SimulationSnapshot.Result result = SimulationSnapshot.take(file);
+                    System.out.printf(Locale.ROOT, "%d,%.0f,%d,%.1f%n", result.getAgents(), result.getMillis(),
+                            result.getBytes(), result.getMillis() * 1000 / result.getAgents());
+                }
+                if (target == population) break;
+            }
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+
+    private static AgentContainer startContainer() {
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, "1251");
+        profile.setParameter(Profile.GUI, "false");
+        profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+        return jade.core.Runtime.instance().createMainContainer(profile);
+    }
+}
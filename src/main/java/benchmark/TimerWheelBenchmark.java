@@ -0,0 +1,109 @@
+package benchmark;
+
+import jade.core.Agent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.behaviours.WakerBehaviour;
+import jade.wrapper.AgentContainer;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import utils.TimerWheel;
+
+/**
+ * Coût d'armement et précision de la {@link TimerWheel} face aux
+ * WakerBehaviour de JADE : un agent arme N échéances aléatoires sur la
+ * fenêtre puis attend qu'elles soient toutes exécutées.
+ *
+ * Usage : java benchmark.TimerWheelBenchmark [échéances] [fenêtre_ms]
+ */
+public class TimerWheelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        long window = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, "1231");
+        profile.setParameter(Profile.GUI, "false");
+        AgentContainer container = jade.core.Runtime.instance().createMainContainer(profile);
+        try {
+            System.out.println("mode,timers,arm_ns_per_op,elapsed_ms,mean_late_ms,max_tick_lag_ms");
+            run(container, "roue", count, window, true);
+            run(container, "waker", count, window, false);
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+
+    private static void run(AgentContainer container, String mode, int count, long window, boolean wheel)
+            throws Exception {
+        Scheduler scheduler = new Scheduler();
+        scheduler.setArguments(new Object[] {count, window, wheel});
+        container.acceptNewAgent("Planif-" + mode, scheduler).start();
+        scheduler.done.await(window / 1000 + 120, TimeUnit.SECONDS);
+
+        String lag = wheel ? String.format(Locale.ROOT, "%.2f", scheduler.timers.getMaxTickLagMillis()) : "";
+        System.out.printf(Locale.ROOT, "%s,%d,%.0f,%d,%.2f,%s%n", mode, count,
+                (double) scheduler.armNanos / count, TimeUnit.NANOSECONDS.toMillis(scheduler.elapsed),
+                scheduler.lateNanos.get() / 1e6 / count, lag);
+    }
+
+    /**
+     * Agent qui arme les échéances dans son propre fil
+     */
+    public static class Scheduler extends Agent {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicLong lateNanos = new AtomicLong();
+        TimerWheel timers;
+        long armNanos;
+        long elapsed;
+        private int remaining;
+        private long start;
+
+        @Override
+        protected void setup() {
+            int count = (Integer) getArguments()[0];
+            long window = (Long) getArguments()[1];
+            boolean wheel = (Boolean) getArguments()[2];
+            Random random = new Random(42);
+            remaining = count;
+            timers = TimerWheel.forAgent(this);
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                long delay = random.nextInt((int) window);
+                long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+                if (wheel) {
+                    timers.schedule(this, delay, () -> expired(due));
+                } else {
+                    addBehaviour(new WakerBehaviour(this, delay) {
+                        @Override
+                        protected void onWake() {
+                            expired(due);
+                        }
+                    });
+                }
+            }
+            armNanos = System.nanoTime() - start;
+        }
+
+        private void expired(long due) {
+            lateNanos.addAndGet(Math.max(0, System.nanoTime() - due));
+            if (--remaining == 0) {
+                elapsed = System.nanoTime() - start;
+                done.countDown();
+                doDelete();
+            }
+        }
+
+        @Override
+        protected void takeDown() {
+            TimerWheel.release(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import agents.base.GroupChannel;
+import agents.coordinator.CoordinatorAgent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.wrapper.AgentContainer;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import utils.RandomStreams;
+import utils.SimulationClock;
+
+/**
+ * Journée de visites en temps virtuel : les touristes arrivent au hasard
+ * sur la journée, guides et coordinateur gardent leurs délais habituels,
+ * et l'horloge saute d'une échéance à la suivante. Rapporte la durée réelle
+ * de la simulation, le facteur d'accélération et l'activité du musée.
+ *
+ * La résolution virtuelle suit le tick de la roue : -Dmuseum.timer.tick=1000
+ * regroupe les échéances à la seconde et réduit le nombre de sauts.
+ *
+ * Usage : java benchmark.VirtualDayBenchmark [touristes] [guides] [heures]
+ */
+public class VirtualDayBenchmark {
+
+    private static final String[] SPECIALIZATIONS = {
+        "Renaissance", "Moderne", "Impressionniste", "Contemporain", "Classique", "Baroque"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int tourists = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int guides = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long day = TimeUnit.HOURS.toMillis(args.length > 2 ? Long.parseLong(args[2]) : 24);
+
+        SimulationClock.useVirtualTime();
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, "1241");
+        profile.setParameter(Profile.GUI, "false");
+        profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+        AgentContainer container = jade.core.Runtime.instance().createMainContainer(profile);
+        try {
+            // Horloge retenue jusqu'à la fin de tous les setups : arrivées datées du même instant
+            SimulationClock.enter();
+            CoordinatorAgent coordinator = new CoordinatorAgent();
+            SimulationClock.expectSetup("Coordinateur");
+            container.acceptNewAgent("Coordinateur", coordinator).start();
+            for (int i = 0; i < guides; i++) {
+                SimulationClock.expectSetup("Guide" + i);
+                container.createNewAgent("Guide" + i, "agents.guide.GuideAgent",
+                        new Object[] {SPECIALIZATIONS[i % SPECIALIZATIONS.length], 5}).start();
+            }
+            // Arrivées uniformes sur la journée, en temps virtuel
+            SplittableRandom random = RandomStreams.forName("VirtualDayBenchmark");
+            for (int i = 0; i < tourists; i++) {
+                String name = "Touriste" + i;
+                SimulationClock.expectSetup(name);
+                container.createNewAgent(name, "agents.tourist.TouristAgent",
+                        new Object[] {(long) (random.nextDouble() * day), name}).start();
+            }
+            SimulationClock.exit();
+
+            long start = System.nanoTime();
+            while (SimulationClock.getVirtualElapsed() < day) {
+                Thread.sleep(100);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            CoordinatorAgent.CoordinatorStats stats = coordinator.getStats();
+            System.out.println("seed,tourists,guides,virtual_h,real_ms,speedup,jumps,events,groups,tours,departures");
+            System.out.printf(Locale.ROOT, "%d,%d,%d,%d,%d,%.0f,%d,%d,%d,%d,%d%n", RandomStreams.getSeed(), tourists, guides,
+                    TimeUnit.MILLISECONDS.toHours(day), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    day / (elapsed / 1e6), SimulationClock.getJumpCount(), SimulationClock.getEventsFired(),
+                    stats.getGroupsFormed(), stats.getToursCompleted(), stats.getDepartures());
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+}
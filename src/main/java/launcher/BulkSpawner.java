@@ -0,0 +1,306 @@
+package launcher;
+
+import agents.base.GroupChannel;
+import agents.base.MessageHandler;
+import agents.tourist.TouristProfile;
+import jade.core.Agent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.behaviours.TickerBehaviour;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import utils.RandomStreams;
+import utils.ServiceFinder;
+
+/**
+ * Lancement sans interface d'une population complète de touristes.
+ * Les agents sont créés par lots en parallèle, répartis sur plusieurs
+ * conteneurs ; l'arrivée de chaque touriste suit la courbe choisie grâce au
+ * délai passé en argument, sans pause côté lanceur. Nationalité, âge et
+ * préférences sont tirés par le lanceur et passés eux aussi en arguments.
+ *
+ * Les guides sont répartis sur les conteneurs ; le coordinateur leur confie
+ * en priorité des touristes du même conteneur.
+ *
+ * Usage : java launcher.BulkSpawner [population] [courbe] [conteneurs] [guides] [fenêtre_s] [durée_s]
+ * Courbes : BURST, UNIFORM, RAMP, POISSON
+ * Le débit de messages est mesuré pendant la durée, une fois le régime établi.
+ * Port de la plateforme : propriété museum.main.port (1099 par défaut).
+ */
+public class BulkSpawner {
+
+    public enum ArrivalCurve {
+        BURST,      // Tous les touristes arrivent ensemble
+        UNIFORM,    // Arrivées régulières sur la fenêtre
+        RAMP,       // Débit d'arrivée croissant sur la fenêtre
+        POISSON     // Arrivées aléatoires de débit moyen constant
+    }
+
+    private static final int DEFAULT_POPULATION = 1000;
+    private static final int DEFAULT_CONTAINERS = 2;
+    private static final int DEFAULT_GUIDES = 10;
+    private static final long DEFAULT_WINDOW = 10000;
+    private static final String MAIN_PORT = System.getProperty("museum.main.port", "1099");
+    private static final int BATCH_SIZE = 50;
+    private static final long STEADY_STATE_TIMEOUT = 300;
+    private static final String[] SPECIALIZATIONS = {
+        "Renaissance", "Moderne", "Impressionniste", "Contemporain", "Classique", "Baroque"
+    };
+
+    private final int population;
+    private final ArrivalCurve curve;
+    private final int containerCount;
+    private final int guideCount;
+    private final long window;
+    private final SplittableRandom random = RandomStreams.forName("BulkSpawner");
+
+    private final List<AgentContainer> containers = new ArrayList<>();
+    private final List<AgentController> agentControllers = new ArrayList<>();
+
+    public BulkSpawner(int population, ArrivalCurve curve, int containerCount, int guideCount, long window) {
+        this.population = population;
+        this.curve = curve;
+        this.containerCount = Math.max(1, containerCount);
+        this.guideCount = guideCount;
+        this.window = window;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int population = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_POPULATION;
+        ArrivalCurve curve = args.length > 1 ? ArrivalCurve.valueOf(args[1].toUpperCase()) : ArrivalCurve.UNIFORM;
+        int containers = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CONTAINERS;
+        int guides = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_GUIDES;
+        long window = args.length > 4 ? Long.parseLong(args[4]) * 1000 : DEFAULT_WINDOW;
+        long duration = args.length > 5 ? Long.parseLong(args[5]) * 1000 : 0;
+
+        BulkSpawner spawner = new BulkSpawner(population, curve, containers, guides, window);
+        try {
+            spawner.run(duration);
+        } finally {
+            spawner.shutdown();
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Démarre la plateforme, crée la population, attend le régime établi
+     * puis mesure le débit de messages pendant la durée donnée (ms)
+     */
+    public void run(long duration) throws Exception {
+        System.out.println("Graine de simulation : " + RandomStreams.getSeed() + " (-D" + RandomStreams.SEED_PROPERTY + ")");
+        startContainers();
+        AgentContainer main = containers.get(0);
+
+        start(main, "Coordinateur", "agents.coordinator.CoordinatorAgent", null);
+        for (int i = 0; i < guideCount; i++) {
+            Object[] guideArgs = {SPECIALIZATIONS[i % SPECIALIZATIONS.length], 2 + random.nextInt(9)};
+            start(containers.get(i % containerCount), "Guide" + i, "agents.guide.GuideAgent", guideArgs);
+        }
+
+        // La sonde compte les touristes inscrits aux Pages Jaunes
+        CountDownLatch steady = new CountDownLatch(1);
+        start(main, "SondeLancement", SpawnProbe.class.getName(), new Object[] {population, steady});
+
+        long start = System.nanoTime();
+        int created = spawnTourists();
+        long creation = System.nanoTime() - start;
+
+        boolean reached = steady.await(STEADY_STATE_TIMEOUT, TimeUnit.SECONDS);
+        long steadyState = System.nanoTime() - start;
+
+        long messagesBefore = MessageHandler.getTotalMessagesDrained();
+        long measureStart = System.nanoTime();
+        Thread.sleep(duration);
+        long measured = System.nanoTime() - measureStart;
+        double messageRate = duration > 0
+            ? (MessageHandler.getTotalMessagesDrained() - messagesBefore) * 1e9 / measured : 0;
+
+        System.out.println("population,curve,containers,created,creation_ms,agents_per_s,steady_state_ms,msg_per_s");
+        System.out.printf(Locale.ROOT, "%d,%s,%d,%d,%d,%.0f,%s,%.0f%n", population, curve, containerCount, created,
+                TimeUnit.NANOSECONDS.toMillis(creation), created * 1e9 / creation,
+                reached ? String.valueOf(TimeUnit.NANOSECONDS.toMillis(steadyState)) : "timeout",
+                messageRate);
+    }
+
+    private void startContainers() {
+        System.setProperty("java.net.preferIPv4Stack", "true");
+        jade.core.Runtime rt = jade.core.Runtime.instance();
+
+        Profile mainProfile = new ProfileImpl();
+        mainProfile.setParameter(Profile.MAIN_HOST, "localhost");
+        mainProfile.setParameter(Profile.MAIN_PORT, MAIN_PORT);
+        mainProfile.setParameter(Profile.GUI, "false");
+        mainProfile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+        containers.add(rt.createMainContainer(mainProfile));
+
+        for (int i = 1; i < containerCount; i++) {
+            Profile profile = new ProfileImpl();
+            profile.setParameter(Profile.MAIN_HOST, "localhost");
+            profile.setParameter(Profile.MAIN_PORT, MAIN_PORT);
+            profile.setParameter(Profile.CONTAINER_NAME, "Salle-" + i);
+            profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+            containers.add(rt.createAgentContainer(profile));
+        }
+    }
+
+    /**
+     * Crée les touristes par lots, un fil par conteneur au plus
+     *
+     * @return nombre de touristes créés
+     */
+    private int spawnTourists() throws Exception {
+        long[] delays = arrivalDelays();
+        Object[][] profiles = profileArguments();
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(containerCount * 2, Runtime.getRuntime().availableProcessors()));
+        List<Future<Integer>> batches = new ArrayList<>();
+
+        for (int first = 0; first < population; first += BATCH_SIZE) {
+            int from = first;
+            int to = Math.min(population, first + BATCH_SIZE);
+            AgentContainer container = containers.get((first / BATCH_SIZE) % containerCount);
+            batches.add(pool.submit(() -> spawnBatch(container, from, to, delays, profiles)));
+        }
+
+        int created = 0;
+        for (Future<Integer> batch : batches) {
+            created += batch.get();
+        }
+        pool.shutdown();
+        return created;
+    }
+
+    private int spawnBatch(AgentContainer container, int from, int to, long[] delays, Object[][] profiles) {
+        int created = 0;
+        for (int i = from; i < to; i++) {
+            String name = "Touriste" + i;
+            // Arguments : délai d'arrivée, nationalité, âge, préférences
+            Object[] profile = profiles[i];
+            Object[] args = {delays[i], profile[0], profile[1], profile[2]};
+            if (start(container, name, "agents.tourist.TouristAgent", args)) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Paramètres de profil de chaque touriste (nationalité, âge, préférences
+     * séparées par des virgules), tirés d'avance dans l'ordre des rangs : le
+     * résultat ne dépend pas de l'ordre d'exécution des lots parallèles
+     */
+    Object[][] profileArguments() {
+        Object[][] profiles = new Object[population][];
+        for (int i = 0; i < population; i++) {
+            profiles[i] = new Object[] {
+                TouristProfile.drawNationality(random),
+                TouristProfile.drawAge(random),
+                String.join(",", TouristProfile.drawPreferences(random))
+            };
+        }
+        return profiles;
+    }
+
+    /**
+     * Délai d'arrivée de chaque touriste (ms) selon la courbe
+     */
+    long[] arrivalDelays() {
+        long[] delays = new long[population];
+        double elapsed = 0;
+        for (int i = 0; i < population; i++) {
+            double progress = population > 1 ? (double) i / (population - 1) : 0;
+            switch (curve) {
+                case BURST:
+                    delays[i] = 0;
+                    break;
+                case UNIFORM:
+                    delays[i] = (long) (progress * window);
+                    break;
+                case RAMP:
+                    // Débit linéairement croissant : instant d'arrivée en racine du rang
+                    delays[i] = (long) (Math.sqrt(progress) * window);
+                    break;
+                case POISSON:
+                    elapsed += -Math.log(1 - random.nextDouble()) * window / population;
+                    delays[i] = (long) elapsed;
+                    break;
+            }
+        }
+        return delays;
+    }
+
+    private boolean start(AgentContainer container, String name, String className, Object[] args) {
+        try {
+            AgentController agent = container.createNewAgent(name, className, args);
+            agent.start();
+            synchronized (agentControllers) {
+                agentControllers.add(agent);
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("Erreur création agent " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Arrête les agents puis les conteneurs
+     */
+    public void shutdown() {
+        synchronized (agentControllers) {
+            for (AgentController agent : agentControllers) {
+                try {
+                    agent.kill();
+                } catch (Exception e) {
+                    // Ignorer les erreurs d'arrêt
+                }
+            }
+            agentControllers.clear();
+        }
+        for (int i = containers.size() - 1; i >= 0; i--) {
+            try {
+                containers.get(i).kill();
+            } catch (Exception e) {
+                // Ignorer les erreurs d'arrêt
+            }
+        }
+        containers.clear();
+    }
+
+    /**
+     * Sonde du régime établi : tous les touristes sont inscrits aux Pages Jaunes
+     */
+    public static class SpawnProbe extends Agent {
+        @Override
+        protected void setup() {
+            int expected = (Integer) getArguments()[0];
+            CountDownLatch steady = (CountDownLatch) getArguments()[1];
+
+            addBehaviour(new TickerBehaviour(this, 100) {
+                private boolean searching;
+
+                @Override
+                protected void onTick() {
+                    if (searching) return;
+                    searching = true;
+                    ServiceFinder.findAgentsAsync(myAgent, "tourist-service", tourists -> {
+                        searching = false;
+                        if (tourists.size() >= expected) {
+                            steady.countDown();
+                            stop();
+                        }
+                    });
+                }
+            });
+        }
+    }
+}
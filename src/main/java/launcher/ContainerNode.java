@@ -0,0 +1,75 @@
+package launcher;
+
+import agents.base.GroupChannel;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conteneur périphérique lancé dans une JVM séparée, rattaché à une
+ * plateforme existante (lanceur principal ou {@link BulkSpawner}).
+ * Il héberge ses propres guides et touristes : inscrits avec le nom du
+ * conteneur, les touristes sont confiés en priorité aux guides locaux.
+ *
+ * Usage : java launcher.ContainerNode hôte port nom [guides] [touristes] [fenêtre_s]
+ */
+public class ContainerNode {
+
+    private static final String[] SPECIALIZATIONS = {
+        "Renaissance", "Moderne", "Impressionniste", "Contemporain", "Classique", "Baroque"
+    };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage : java launcher.ContainerNode hôte port nom [guides] [touristes] [fenêtre_s]");
+            System.exit(1);
+        }
+        String host = args[0];
+        String port = args[1];
+        String name = args[2];
+        int guides = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        int tourists = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+        long window = args.length > 5 ? Long.parseLong(args[5]) * 1000 : 10000;
+
+        System.setProperty("java.net.preferIPv4Stack", "true");
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, host);
+        profile.setParameter(Profile.MAIN_PORT, port);
+        profile.setParameter(Profile.CONTAINER_NAME, name);
+        profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+        AgentContainer container = jade.core.Runtime.instance().createAgentContainer(profile);
+
+        List<AgentController> agentControllers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < guides; i++) {
+            AgentController guide = container.createNewAgent(name + "-Guide" + i, "agents.guide.GuideAgent",
+                    new Object[] {SPECIALIZATIONS[i % SPECIALIZATIONS.length], 5});
+            guide.start();
+            agentControllers.add(guide);
+        }
+        for (int i = 0; i < tourists; i++) {
+            String touristName = name + "-Touriste" + i;
+            // Arrivées régulières sur la fenêtre
+            long delay = tourists > 1 ? window * i / (tourists - 1) : 0;
+            AgentController tourist = container.createNewAgent(touristName, "agents.tourist.TouristAgent",
+                    new Object[] {delay, touristName});
+            tourist.start();
+            agentControllers.add(tourist);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(java.util.Locale.ROOT, "Conteneur %s : %d agents créés en %d ms%n",
+                name, agentControllers.size(), elapsed / 1_000_000);
+
+        // Arrêt propre du conteneur avec la JVM
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                container.kill();
+            } catch (Exception e) {
+                // Ignorer les erreurs d'arrêt
+            }
+        }));
+    }
+}
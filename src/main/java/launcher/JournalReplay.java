@@ -0,0 +1,161 @@
+package launcher;
+
+import jade.lang.acl.ACLMessage;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import utils.EventJournal;
+
+/**
+ * Relecture d'un journal d'événements ({@link EventJournal}) : les
+ * enregistrements sont rejoués dans l'ordre, à la vitesse voulue, et l'état
+ * du musée est reconstruit (visites en cours, affectations, satisfaction des
+ * touristes, départs).
+ *
+ * Usage : java launcher.JournalReplay [répertoire] [vitesse]
+ * Vitesse : facteur d'accélération par rapport au temps de simulation
+ * (0 = aussi vite que possible, 1 = temps réel, 60 = une heure par minute).
+ */
+public class JournalReplay {
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Paths.get(args.length > 0 ? args[0] : System.getProperty(EventJournal.DIRECTORY_PROPERTY, "journal"));
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+
+        ReplayState state = new ReplayState();
+        long start = System.nanoTime();
+        EventJournal.read(directory, new Pacer(speed, state));
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(state);
+        System.out.printf(Locale.ROOT, "%d enregistrements relus en %d ms (%.0f/s)%n", state.getRecords(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), state.getRecords() * 1e9 / Math.max(1, elapsed));
+    }
+
+    /**
+     * Cadence la relecture sur les dates de simulation des enregistrements
+     */
+    private static final class Pacer implements Consumer<EventJournal.Record> {
+        private final double speed;
+        private final Consumer<EventJournal.Record> target;
+        private long firstTime = -1;
+        private long realStart;
+
+        Pacer(double speed, Consumer<EventJournal.Record> target) {
+            this.speed = speed;
+            this.target = target;
+        }
+
+        @Override
+        public void accept(EventJournal.Record record) {
+            if (speed > 0) {
+                if (firstTime < 0) {
+                    firstTime = record.getTime();
+                    realStart = System.nanoTime();
+                }
+                long due = realStart + (long) (TimeUnit.MILLISECONDS.toNanos(record.getTime() - firstTime) / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            target.accept(record);
+        }
+    }
+
+    /**
+     * État du musée reconstruit à partir des enregistrements
+     */
+    public static class ReplayState implements Consumer<EventJournal.Record> {
+        private final Map<EventJournal.Type, Long> counts = new EnumMap<>(EventJournal.Type.class);
+        private final Map<Integer, Long> messagesByPerformative = new HashMap<>();
+        private final Map<String, Integer> activeTours = new HashMap<>();      // Guide -> taille du groupe
+        private final Map<String, String> guideOfTourist = new HashMap<>();
+        private final Map<String, Double> satisfactionOfTourist = new HashMap<>();
+        private final Set<String> departed = new HashSet<>();
+        private long records;
+        private long toursCompleted;
+        private double totalTourSatisfaction;
+        private long firstTime = -1;
+        private long lastTime;
+
+        @Override
+        public void accept(EventJournal.Record record) {
+            records++;
+            counts.merge(record.getType(), 1L, Long::sum);
+            if (firstTime < 0) firstTime = record.getTime();
+            lastTime = Math.max(lastTime, record.getTime());
+
+            switch (record.getType()) {
+                case MESSAGE:
+                    messagesByPerformative.merge(record.getPerformative(), 1L, Long::sum);
+                    break;
+                case TOUR_START:
+                    activeTours.put(record.getAgent(), (int) record.getValue());
+                    break;
+                case TOUR_END:
+                    activeTours.remove(record.getAgent());
+                    toursCompleted++;
+                    totalTourSatisfaction += record.getValue();
+                    break;
+                case ASSIGNMENT:
+                    guideOfTourist.put(record.getAgent(), record.getPeer());
+                    break;
+                case SATISFACTION:
+                    satisfactionOfTourist.put(record.getAgent(), record.getValue());
+                    break;
+                case DEPARTURE:
+                    departed.add(record.getAgent());
+                    guideOfTourist.remove(record.getAgent());
+                    break;
+            }
+        }
+
+        public long getRecords() { return records; }
+        public long getCount(EventJournal.Type type) { return counts.getOrDefault(type, 0L); }
+        public Map<String, Integer> getActiveTours() { return activeTours; }
+        public Map<String, String> getGuideOfTourist() { return guideOfTourist; }
+        public Set<String> getDeparted() { return departed; }
+        public long getToursCompleted() { return toursCompleted; }
+
+        public double getAverageTourSatisfaction() {
+            return toursCompleted > 0 ? totalTourSatisfaction / toursCompleted : 0;
+        }
+
+        /**
+         * Satisfaction moyenne de la dernière valeur connue de chaque touriste
+         */
+        public double getAverageTouristSatisfaction() {
+            return satisfactionOfTourist.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "Journal : %d enregistrements sur %.1f min de simulation%n",
+                    records, firstTime < 0 ? 0 : (lastTime - firstTime) / 60000.0));
+            counts.forEach((type, count) -> sb.append("  ").append(type).append(" : ").append(count).append('\n'));
+            messagesByPerformative.forEach((performative, count) -> sb.append("    ")
+                    .append(ACLMessage.getPerformative(performative)).append(" : ").append(count).append('\n'));
+            sb.append(String.format(Locale.ROOT,
+                    "Visites terminées : %d (satisfaction moyenne %.2f), en cours : %d%n",
+                    toursCompleted, getAverageTourSatisfaction(), activeTours.size()));
+            sb.append(String.format(Locale.ROOT,
+                    "Touristes : %d suivis, %d affectés, %d partis, satisfaction moyenne %.2f",
+                    satisfactionOfTourist.size(), guideOfTourist.size(), departed.size(),
+                    getAverageTouristSatisfaction()));
+            return sb.toString();
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import agents.base.GroupChannel;
 import jade.core.Profile;
 import jade.core.ProfileImpl;
 import jade.wrapper.AgentContainer;
@@ -381,6 +382,8 @@ public class MuseumSystemLauncher extends JFrame {
                 profile.setParameter(Profile.MAIN_PORT, "1099");
                 profile.setParameter(Profile.MAIN, "true");
                 profile.setParameter(Profile.GUI, "false");
+                // Topics JADE pour la diffusion aux groupes de visite
+                profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
                 
                 mainContainer = rt.createMainContainer(profile);
                 publish("Container JADE créé");
@@ -421,6 +424,12 @@ public class MuseumSystemLauncher extends JFrame {
      */
     private void createInitialAgents() {
         try {
+            // Créer le coordinateur avant les guides et touristes qui s'y inscrivent
+            AgentController coordinator = mainContainer.createNewAgent(
+                "Coordinateur", "agents.coordinator.CoordinatorAgent", null);
+            coordinator.start();
+            agentControllers.add(coordinator);
+            
             // Créer les guides
             String[] guideNames = {"GuideRenaissance", "GuideModerne", "GuideImpressionniste"};
             for (String guideName : guideNames) {
@@ -1707,7 +1707,7 @@ public class MuseumVisualizationApp extends Application {
             // Initialiser les composants BDI selon le type
             if (type == AgentType.TOURIST) {
                 profile = new TouristProfile(name);
-                behaviorManager = new BehaviorManager();
+                behaviorManager = new BehaviorManager(profile, profile.getRandom());
                 satisfactionTracker = new SatisfactionTracker(profile);
             } else if (type == AgentType.GUIDE) {
                 guideProfile = new GuideProfile(name);
@@ -1903,8 +1903,7 @@ public class MuseumVisualizationApp extends Application {
         private void updateTouristBDI(double dt) {
             // Mettre à jour le comportement BDI
             if (behaviorManager != null) {
-                behaviorManager.updateBehaviors(profile);
-                // Note: executeActiveBehaviors() retourne List<BehaviorAction> qui n'est pas public
+                behaviorManager.updateBehaviors();
                 // On simule les comportements BDI directement
                 simulateBDIBehaviors();
             }
@@ -1,5 +1,6 @@
 package launcher;
 
+import agents.base.GroupChannel;
 import jade.core.Profile;
 import jade.core.ProfileImpl;
 import jade.wrapper.AgentContainer;
@@ -30,6 +31,8 @@ public class SimpleLauncher {
             profile.setParameter(Profile.MAIN_PORT, "1099");
             profile.setParameter(Profile.MAIN, "true");
             profile.setParameter(Profile.GUI, "false");
+            // Topics JADE pour la diffusion aux groupes de visite
+            profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
             
             mainContainer = rt.createMainContainer(profile);
             systemRunning = true;
@@ -49,6 +52,12 @@ public class SimpleLauncher {
      */
     private static void createInitialAgents() {
         try {
+            // Créer le coordinateur avant les guides et touristes qui s'y inscrivent
+            AgentController coordinator = mainContainer.createNewAgent(
+                "Coordinateur", "agents.coordinator.CoordinatorAgent", null);
+            coordinator.start();
+            agentControllers.add(coordinator);
+            
             // Créer les guides
             String[] guideNames = {"GuideRenaissance", "GuideModerne", "GuideImpressionniste"};
             for (String guideName : guideNames) {
@@ -126,8 +135,13 @@ public class SimpleLauncher {
     
     /**
      * Point d'entrée principal
+     * --headless [population] [courbe] [conteneurs] [guides] [fenêtre_s] [durée_s] : lancement sans interface
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--headless".equals(args[0])) {
+            BulkSpawner.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         // Lancer l'interface JavaFX
         MuseumVisualizationApp.main(args);
     }
@@ -0,0 +1,281 @@
+package launcher;
+
+import agents.base.GroupChannel;
+import agents.coordinator.CoordinatorAgent;
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.wrapper.AgentContainer;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import utils.RandomStreams;
+import utils.SimulationClock;
+import utils.TimerWheel;
+
+/**
+ * Balayage de paramètres sans interface : chaque point de la grille est une
+ * simulation indépendante en temps virtuel, lancée dans sa propre JVM (la
+ * plateforme JADE et les horloges sont uniques par JVM). Les simulations
+ * tournent en parallèle sur tous les cœurs et leurs mesures sont réunies
+ * dans une seule table CSV.
+ *
+ * Usage : java launcher.SweepRunner [clé=v1,v2,...] ... [parallel=n] [out=fichier.csv]
+ * Clés : cohesion (seuil des guides), groupSize (taille max des groupes),
+ *        guides, tourists (arrivées sur la journée), hours (durée virtuelle)
+ * Tous les points partagent la graine (propriété museum.seed) : les
+ * configurations sont comparées sur les mêmes tirages.
+ * Une simulation qui dépasse le délai réel par point (propriété
+ * museum.sweep.timeout, en secondes) est arrêtée et notée en échec.
+ */
+public class SweepRunner {
+
+    private static final String POINT_MODE = "--point";
+    private static final String RESULT_PREFIX = "RESULT,";
+    private static final int BASE_PORT = Integer.getInteger("museum.sweep.port", 1300);
+    private static final long POINT_TIMEOUT = TimeUnit.SECONDS.toMillis(Long.getLong("museum.sweep.timeout", 600));
+    private static final String DEFAULT_TICK = "1000";
+    private static final String[] SPECIALIZATIONS = {
+        "Renaissance", "Moderne", "Impressionniste", "Contemporain", "Classique", "Baroque"
+    };
+
+    private static final String HEADER = "cohesion,group_size,guides,tourists,hours,real_ms,"
+            + "tours,tours_per_h,groups,departures,avg_wait_s,avg_satisfaction,avg_cohesion";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && POINT_MODE.equals(args[0])) {
+            runPoint(args);
+            return;
+        }
+
+        // Grille par défaut, remplacée clé par clé par les arguments
+        Map<String, String[]> grid = new LinkedHashMap<>();
+        grid.put("cohesion", new String[] {"0.6"});
+        grid.put("groupSize", new String[] {"8"});
+        grid.put("guides", new String[] {"5", "10"});
+        grid.put("tourists", new String[] {"200"});
+        grid.put("hours", new String[] {"4"});
+        int parallel = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Argument attendu clé=valeurs : " + arg);
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            if (key.equals("parallel")) {
+                parallel = Integer.parseInt(value);
+            } else if (key.equals("out")) {
+                out = value;
+            } else if (grid.containsKey(key)) {
+                grid.put(key, value.split(","));
+            } else {
+                throw new IllegalArgumentException("Paramètre inconnu : " + key);
+            }
+        }
+
+        List<Point> points = expand(grid);
+        System.out.println("Balayage de " + points.size() + " point(s) sur " + parallel +
+                         " simulation(s) parallèle(s), graine " + RandomStreams.getSeed());
+        List<String> rows = run(points, parallel);
+
+        System.out.println(HEADER);
+        rows.forEach(System.out::println);
+        if (out != null) {
+            try (PrintWriter writer = new PrintWriter(new File(out), StandardCharsets.UTF_8)) {
+                writer.println(HEADER);
+                rows.forEach(writer::println);
+            }
+        }
+    }
+
+    /**
+     * Produit cartésien de la grille
+     */
+    private static List<Point> expand(Map<String, String[]> grid) {
+        List<Point> points = new ArrayList<>();
+        for (String cohesion : grid.get("cohesion")) {
+            for (String groupSize : grid.get("groupSize")) {
+                for (String guides : grid.get("guides")) {
+                    for (String tourists : grid.get("tourists")) {
+                        for (String hours : grid.get("hours")) {
+                            points.add(new Point(Double.parseDouble(cohesion), Integer.parseInt(groupSize),
+                                    Integer.parseInt(guides), Integer.parseInt(tourists), Integer.parseInt(hours)));
+                        }
+                    }
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Lance chaque point dans une JVM fille, au plus parallel à la fois ; lignes dans l'ordre de la grille
+     */
+    private static List<String> run(List<Point> points, int parallel) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallel, points.size())));
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < points.size(); i++) {
+                Point point = points.get(i);
+                int port = BASE_PORT + i;
+                results.add(executor.submit(() -> fork(point, port)));
+            }
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                String row = results.get(i).get();
+                rows.add(row != null ? row : points.get(i).toCsv() + ",échec");
+            }
+            return rows;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String fork(Point point, int port) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"),
+                "-D" + RandomStreams.SEED_PROPERTY + "=" + RandomStreams.getSeed(),
+                "-D" + SimulationClock.MODE_PROPERTY + "=virtual",
+                "-D" + TimerWheel.TICK_PROPERTY + "=" + System.getProperty(TimerWheel.TICK_PROPERTY, DEFAULT_TICK),
+                SweepRunner.class.getName(), POINT_MODE, String.valueOf(port)));
+        command.addAll(point.toArgs());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicReference<String> result = new AtomicReference<>();
+        // Lecture continue : la sortie des agents ne doit pas bloquer la JVM fille
+        Thread output = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(RESULT_PREFIX)) {
+                        result.set(line.substring(RESULT_PREFIX.length()));
+                    }
+                }
+            } catch (IOException e) {
+                // Flux fermé par l'arrêt forcé de la JVM fille
+            }
+        }, "Sweep-" + port);
+        output.setDaemon(true);
+        output.start();
+
+        // Horloge virtuelle bloquée : la JVM fille ne finirait jamais sa journée
+        if (!process.waitFor(POINT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly().waitFor();
+            output.join();
+            System.out.println("Point " + point + " interrompu après " +
+                             TimeUnit.MILLISECONDS.toSeconds(POINT_TIMEOUT) + " s");
+            return null;
+        }
+        output.join();
+        System.out.println("Point " + point + " terminé" + (result.get() == null ? " en échec" : ""));
+        return result.get();
+    }
+
+    // Simulation d'un point, dans la JVM fille
+
+    private static void runPoint(String[] args) throws Exception {
+        int port = Integer.parseInt(args[1]);
+        Point point = Point.fromArgs(args, 2);
+        long day = TimeUnit.HOURS.toMillis(point.hours);
+
+        SimulationClock.useVirtualTime();
+        Profile profile = new ProfileImpl();
+        profile.setParameter(Profile.MAIN_HOST, "localhost");
+        profile.setParameter(Profile.MAIN_PORT, String.valueOf(port));
+        profile.setParameter(Profile.GUI, "false");
+        profile.setParameter(Profile.NO_MTP, "true");
+        profile.setParameter(Profile.SERVICES, GroupChannel.CONTAINER_SERVICES);
+        AgentContainer container = jade.core.Runtime.instance().createMainContainer(profile);
+        try {
+            // Horloge retenue jusqu'à la fin de tous les setups : arrivées datées du même instant
+            SimulationClock.enter();
+            CoordinatorAgent coordinator = new CoordinatorAgent();
+            coordinator.setArguments(new Object[] {point.groupSize});
+            SimulationClock.expectSetup("Coordinateur");
+            container.acceptNewAgent("Coordinateur", coordinator).start();
+            for (int i = 0; i < point.guides; i++) {
+                SimulationClock.expectSetup("Guide" + i);
+                container.createNewAgent("Guide" + i, "agents.guide.GuideAgent",
+                        new Object[] {SPECIALIZATIONS[i % SPECIALIZATIONS.length], 5, point.cohesion}).start();
+            }
+            SplittableRandom random = RandomStreams.forName("SweepRunner");
+            for (int i = 0; i < point.tourists; i++) {
+                String name = "Touriste" + i;
+                SimulationClock.expectSetup(name);
+                container.createNewAgent(name, "agents.tourist.TouristAgent",
+                        new Object[] {(long) (random.nextDouble() * day), name}).start();
+            }
+            SimulationClock.exit();
+
+            long start = System.nanoTime();
+            while (SimulationClock.getVirtualElapsed() < day) {
+                Thread.sleep(100);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            CoordinatorAgent.CoordinatorStats stats = coordinator.getStats();
+            System.out.printf(Locale.ROOT, "%s%s,%d,%d,%.1f,%d,%d,%.1f,%.3f,%.3f%n", RESULT_PREFIX, point.toCsv(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), stats.getToursCompleted(),
+                    (double) stats.getToursCompleted() / point.hours, stats.getGroupsFormed(), stats.getDepartures(),
+                    stats.getAverageWaitTime() / 1000, stats.getAverageTourSatisfaction(), stats.getAverageCohesion());
+        } finally {
+            container.kill();
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Point de la grille
+     */
+    private static final class Point {
+        final double cohesion;
+        final int groupSize;
+        final int guides;
+        final int tourists;
+        final int hours;
+
+        Point(double cohesion, int groupSize, int guides, int tourists, int hours) {
+            this.cohesion = cohesion;
+            this.groupSize = groupSize;
+            this.guides = guides;
+            this.tourists = tourists;
+            this.hours = hours;
+        }
+
+        static Point fromArgs(String[] args, int from) {
+            return new Point(Double.parseDouble(args[from]), Integer.parseInt(args[from + 1]),
+                    Integer.parseInt(args[from + 2]), Integer.parseInt(args[from + 3]), Integer.parseInt(args[from + 4]));
+        }
+
+        List<String> toArgs() {
+            return Arrays.asList(String.valueOf(cohesion), String.valueOf(groupSize), String.valueOf(guides),
+                    String.valueOf(tourists), String.valueOf(hours));
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%.2f,%d,%d,%d,%d", cohesion, groupSize, guides, tourists, hours);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "[cohésion=%.2f, groupes=%d, guides=%d, touristes=%d, %d h]",
+                    cohesion, groupSize, guides, tourists, hours);
+        }
+    }
+}
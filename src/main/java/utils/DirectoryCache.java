@@ -0,0 +1,445 @@
+package utils;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.domain.DFService;
+import jade.domain.FIPAException;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.FIPAManagementVocabulary;
+import jade.domain.FIPAAgentManagement.SearchConstraints;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.lang.acl.ACLMessage;
+import jade.proto.AchieveREInitiator;
+import jade.proto.SubscriptionInitiator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Cache par conteneur des résultats de recherche dans les Pages Jaunes.
+ * Le premier agent qui recherche un type de service abonne le conteneur aux
+ * notifications du DF pour ce type ; inscriptions et désinscriptions sont
+ * ensuite reportées dans le cache sans nouvelle requête. Une durée de vie
+ * (propriété museum.df.ttl, en ms) borne l'obsolescence si l'abonnement
+ * disparaît avec l'agent qui le portait.
+ */
+public class DirectoryCache {
+    private static final Logger logger = Logger.getLogger(DirectoryCache.class.getName());
+
+    public static final String TTL_PROPERTY = "museum.df.ttl";
+    public static final long DEFAULT_TTL = 30000;
+    // Délai de réponse du DF pour une recherche non bloquante
+    private static final long SEARCH_TIMEOUT = 10000;
+
+    private static final Map<String, DirectoryCache> CACHES = new ConcurrentHashMap<>();
+
+    private final String containerName;
+    private final long ttl;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+    // Clé -> recherche non bloquante en cours, partagée par les demandeurs
+    private final Map<String, PendingSearch> pendingSearches = new ConcurrentHashMap<>();
+    // Type de service -> abonnement DF actif
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    DirectoryCache(String containerName, long ttl) {
+        this.containerName = containerName;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Cache du conteneur de l'agent
+     */
+    public static DirectoryCache forAgent(Agent agent) {
+        String container = agent.here() != null ? agent.here().getName() : "";
+        return CACHES.computeIfAbsent(container,
+                name -> new DirectoryCache(name, Long.getLong(TTL_PROPERTY, DEFAULT_TTL)));
+    }
+
+    /**
+     * Annule les abonnements portés par un agent qui s'arrête ; le prochain
+     * agent qui recherche ces types prendra le relais
+     */
+    public static void release(Agent agent) {
+        for (DirectoryCache cache : CACHES.values()) {
+            Iterator<Subscription> it = cache.subscriptions.values().iterator();
+            while (it.hasNext()) {
+                Subscription subscription = it.next();
+                if (subscription.owner == agent) {
+                    it.remove();
+                    subscription.initiator.cancel(agent.getDefaultDF(), true);
+                }
+            }
+            // Les recherches portées par l'agent n'aboutiront pas : leurs demandeurs reçoivent une liste vide
+            for (Map.Entry<String, PendingSearch> pending : cache.pendingSearches.entrySet()) {
+                if (pending.getValue().owner == agent) {
+                    cache.finish(pending.getKey(), pending.getValue(), Collections.<AID>emptyList());
+                }
+            }
+        }
+    }
+
+    /**
+     * Agents offrant le service, depuis le cache si possible
+     */
+    public List<AID> find(Agent requester, String serviceType, String serviceName) {
+        String key = key(serviceType, serviceName);
+        Entry entry = entries.get(key);
+        if (isFresh(entry)) {
+            hits.incrementAndGet();
+            return entry.agents;
+        }
+
+        // Une seule recherche par clé quand plusieurs agents démarrent ensemble
+        synchronized (loadLocks.computeIfAbsent(key, k -> new Object())) {
+            entry = entries.get(key);
+            if (isFresh(entry)) {
+                hits.incrementAndGet();
+                return entry.agents;
+            }
+            if (entry != null) {
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+
+            ensureSubscription(requester, serviceType);
+            List<AID> agents = search(requester, serviceType, serviceName);
+            // Pas de cache négatif : l'agent recherché peut s'inscrire juste après
+            if (agents.isEmpty()) {
+                entries.remove(key);
+            } else {
+                entries.put(key, new Entry(serviceType, serviceName, agents));
+            }
+            return agents;
+        }
+    }
+
+    /**
+     * Variante non bloquante : en cas d'échec du cache, la requête part au DF
+     * et la réponse est traitée par un comportement de l'agent, qui continue
+     * entre-temps à traiter ses messages. Comme pour la recherche bloquante,
+     * une seule requête part par clé : les demandeurs suivants attendent la
+     * même réponse. Le rappel s'exécute dans le fil de l'agent demandeur,
+     * immédiatement si le cache répond ; sans réponse du DF dans le délai,
+     * il reçoit une liste vide.
+     */
+    public void findAsync(Agent requester, String serviceType, String serviceName,
+                          Consumer<List<AID>> callback) {
+        String key = key(serviceType, serviceName);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (isFresh(entry)) {
+                hits.incrementAndGet();
+                callback.accept(entry.agents);
+                return;
+            }
+
+            PendingSearch running = pendingSearches.get(key);
+            if (running != null) {
+                TimerWheel.forAgent(requester).attach(requester); // Pour la remise du résultat
+                if (running.await(requester, callback)) {
+                    misses.incrementAndGet();
+                    coalesced.incrementAndGet();
+                    return;
+                }
+                // Recherche terminée entre-temps : relire le cache
+                pendingSearches.remove(key, running);
+                continue;
+            }
+
+            PendingSearch search = new PendingSearch(requester, callback);
+            if (pendingSearches.putIfAbsent(key, search) != null) continue;
+            if (entry != null) {
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            startSearch(requester, serviceType, serviceName, key, search);
+            return;
+        }
+    }
+
+    private void startSearch(Agent requester, String serviceType, String serviceName,
+                             String key, PendingSearch search) {
+        ensureSubscription(requester, serviceType);
+        ACLMessage request = DFService.createRequestMessage(requester, requester.getDefaultDF(),
+                FIPAManagementVocabulary.SEARCH, createTemplate(serviceType, serviceName), unlimitedSearch());
+        // Sans échéance, un DF muet laisserait les demandeurs en attente indéfiniment
+        request.setReplyByDate(new Date(System.currentTimeMillis() + SEARCH_TIMEOUT));
+        requester.addBehaviour(new AchieveREInitiator(requester, request) {
+            @Override
+            protected void handleInform(ACLMessage inform) {
+                List<AID> agents = new ArrayList<>();
+                try {
+                    for (DFAgentDescription agent : DFService.decodeResult(inform.getContent())) {
+                        agents.add(agent.getName());
+                    }
+                } catch (FIPAException fe) {
+                    logger.severe("Erreur lors de la recherche de service: " + fe.getMessage());
+                }
+                if (!agents.isEmpty()) {
+                    entries.put(key, new Entry(serviceType, serviceName, agents));
+                }
+                finish(key, search, Collections.unmodifiableList(agents));
+            }
+
+            @Override
+            @SuppressWarnings("rawtypes")
+            protected void handleAllResultNotifications(Vector results) {
+                // Refus, échec ou absence de réponse : aucun agent trouvé
+                finish(key, search, Collections.<AID>emptyList());
+            }
+        });
+    }
+
+    /**
+     * Termine une recherche et remet le résultat à chaque demandeur : directement
+     * pour l'agent qui l'a lancée, par sa roue de temporisation pour les autres
+     */
+    private void finish(String key, PendingSearch search, List<AID> agents) {
+        pendingSearches.remove(key, search);
+        List<Waiter> waiters = search.complete();
+        if (waiters == null) return; // Déjà terminée
+        for (Waiter waiter : waiters) {
+            if (waiter.agent == search.owner) {
+                waiter.callback.accept(agents);
+            } else {
+                TimerWheel.forAgent(waiter.agent).schedule(waiter.agent, 0, () -> waiter.callback.accept(agents));
+            }
+        }
+    }
+
+    /**
+     * Force une nouvelle recherche pour ce type de service
+     */
+    public void invalidate(String serviceType) {
+        entries.values().removeIf(entry -> entry.serviceType.equals(serviceType));
+    }
+
+    public void clear() {
+        entries.clear();
+        subscriptions.clear();
+    }
+
+    /**
+     * Une entrée suivie par un abonnement reste valide ; sinon elle expire après la durée de vie
+     */
+    private boolean isFresh(Entry entry) {
+        if (entry == null) return false;
+        Subscription subscription = subscriptions.get(entry.serviceType);
+        return (subscription != null && subscription.confirmed)
+            || System.currentTimeMillis() - entry.loadedAt < ttl;
+    }
+
+    private static String key(String serviceType, String serviceName) {
+        return serviceName == null ? serviceType : serviceType + "/" + serviceName;
+    }
+
+    private static List<AID> search(Agent requester, String serviceType, String serviceName) {
+        List<AID> result = new ArrayList<>();
+        try {
+            DFAgentDescription template = createTemplate(serviceType, serviceName);
+            for (DFAgentDescription agent : DFService.search(requester, template, unlimitedSearch())) {
+                result.add(agent.getName());
+            }
+            logger.fine("Trouvé " + result.size() + " agents pour le service " + serviceType);
+        } catch (FIPAException fe) {
+            logger.severe("Erreur lors de la recherche de service: " + fe.getMessage());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static DFAgentDescription createTemplate(String serviceType, String serviceName) {
+        DFAgentDescription template = new DFAgentDescription();
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(serviceType);
+        if (serviceName != null) {
+            sd.setName(serviceName);
+        }
+        template.addServices(sd);
+        return template;
+    }
+
+    // Sans limite, le DF tronque les résultats à sa taille maximale par défaut
+    private static SearchConstraints unlimitedSearch() {
+        SearchConstraints constraints = new SearchConstraints();
+        constraints.setMaxResults(-1L);
+        return constraints;
+    }
+
+    // Abonnement aux notifications du DF
+
+    private void ensureSubscription(Agent requester, String serviceType) {
+        if (subscriptions.containsKey(serviceType)) return;
+
+        ACLMessage subscribe = DFService.createSubscriptionMessage(
+                requester, requester.getDefaultDF(), createTemplate(serviceType, null), null);
+        Subscription subscription = new Subscription(requester);
+        subscription.initiator = new SubscriptionInitiator(requester, subscribe) {
+            @Override
+            protected void handleInform(ACLMessage inform) {
+                try {
+                    // La première notification décrit tous les agents inscrits
+                    applyNotification(serviceType, DFService.decodeNotification(inform.getContent()),
+                                      !subscription.confirmed);
+                    subscription.confirmed = true;
+                } catch (FIPAException fe) {
+                    logger.warning("Notification DF illisible: " + fe.getMessage());
+                }
+            }
+
+            @Override
+            protected void handleFailure(ACLMessage failure) {
+                subscriptions.remove(serviceType, subscription);
+            }
+
+            @Override
+            protected void handleRefuse(ACLMessage refuse) {
+                subscriptions.remove(serviceType, subscription);
+            }
+        };
+        if (subscriptions.putIfAbsent(serviceType, subscription) != null) return;
+        requester.addBehaviour(subscription.initiator);
+        logger.fine("Conteneur " + containerName + " abonné au service " + serviceType);
+    }
+
+    /**
+     * Reporte dans les entrées du type les inscriptions (avec services) et
+     * désinscriptions (sans service) notifiées par le DF ; un instantané
+     * remplace le contenu des entrées
+     */
+    void applyNotification(String serviceType, DFAgentDescription[] changes, boolean snapshot) {
+        notifications.incrementAndGet();
+        for (Entry entry : entries.values()) {
+            if (!entry.serviceType.equals(serviceType)) continue;
+
+            List<AID> agents = snapshot ? new ArrayList<>() : new ArrayList<>(entry.agents);
+            for (DFAgentDescription change : changes) {
+                AID aid = change.getName();
+                agents.remove(aid);
+                if (offers(change, entry.serviceType, entry.serviceName)) {
+                    agents.add(aid);
+                }
+            }
+            entry.agents = Collections.unmodifiableList(agents);
+        }
+    }
+
+    private static boolean offers(DFAgentDescription dfd, String serviceType, String serviceName) {
+        Iterator<?> services = dfd.getAllServices();
+        while (services.hasNext()) {
+            ServiceDescription sd = (ServiceDescription) services.next();
+            if (serviceType.equals(sd.getType())
+                    && (serviceName == null || serviceName.equals(sd.getName()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Métriques
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getExpirations() { return expirations.get(); }
+    public long getNotifications() { return notifications.get(); }
+    public long getCoalescedSearches() { return coalesced.get(); }
+    public int getSubscriptionCount() { return subscriptions.size(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public void resetMetrics() {
+        hits.set(0);
+        misses.set(0);
+        expirations.set(0);
+        notifications.set(0);
+        coalesced.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DirectoryCache[%s, entrées=%d, succès=%d, échecs=%d, taux=%.2f, notifications=%d]",
+                containerName, entries.size(), hits.get(), misses.get(), getHitRate(), notifications.get());
+    }
+
+    /**
+     * Recherche non bloquante en cours et demandeurs en attente de sa réponse
+     */
+    private static class PendingSearch {
+        final Agent owner;
+        private List<Waiter> waiters = new ArrayList<>();
+
+        PendingSearch(Agent owner, Consumer<List<AID>> callback) {
+            this.owner = owner;
+            waiters.add(new Waiter(owner, callback));
+        }
+
+        /**
+         * @return false si la recherche est déjà terminée
+         */
+        synchronized boolean await(Agent agent, Consumer<List<AID>> callback) {
+            if (waiters == null) return false;
+            waiters.add(new Waiter(agent, callback));
+            return true;
+        }
+
+        /**
+         * @return les demandeurs à servir, null si la recherche était déjà terminée
+         */
+        synchronized List<Waiter> complete() {
+            List<Waiter> result = waiters;
+            waiters = null;
+            return result;
+        }
+    }
+
+    private static class Waiter {
+        final Agent agent;
+        final Consumer<List<AID>> callback;
+
+        Waiter(Agent agent, Consumer<List<AID>> callback) {
+            this.agent = agent;
+            this.callback = callback;
+        }
+    }
+
+    private static class Subscription {
+        final Agent owner;
+        SubscriptionInitiator initiator;
+        // Vrai dès la première notification : le DF a accepté l'abonnement
+        volatile boolean confirmed;
+
+        Subscription(Agent owner) {
+            this.owner = owner;
+        }
+    }
+
+    private static class Entry {
+        final String serviceType;
+        final String serviceName;
+        final long loadedAt = System.currentTimeMillis();
+        volatile List<AID> agents;
+
+        Entry(String serviceType, String serviceName, List<AID> agents) {
+            this.serviceType = serviceType;
+            this.serviceName = serviceName;
+            this.agents = agents;
+        }
+    }
+}
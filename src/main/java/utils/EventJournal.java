@@ -0,0 +1,442 @@
+package utils;
+
+import jade.core.Agent;
+import jade.core.AID;
+import jade.lang.acl.ACLMessage;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Journal binaire des échanges et des changements d'état de la simulation.
+ * Activé par la propriété museum.journal (répertoire du journal de
+ * l'exécution, dont les anciens segments sont effacés à l'ouverture).
+ *
+ * Les agents déposent leurs événements dans un anneau préalloué sans verrou
+ * (réservation d'une case par compteur atomique, publication par numéro de
+ * séquence) : aucune sérialisation ni écriture dans leur fil. Un fil unique
+ * encode les cases dans l'ordre et les ajoute à des segments projetés en
+ * mémoire (museum.journal.segment Mo chacun). Anneau plein : le producteur
+ * attend le rédacteur, aucun événement n'est perdu.
+ *
+ * Format d'un enregistrement : longueur (int), date de simulation (long),
+ * type (octet), agent, correspondant (short + UTF-8), performatif (int),
+ * texte (int + UTF-8), octets (int + données), valeur (double).
+ * Une longueur nulle marque la fin des données d'un segment.
+ */
+public final class EventJournal {
+    public static final String DIRECTORY_PROPERTY = "museum.journal";
+    public static final String SEGMENT_PROPERTY = "museum.journal.segment";
+    public static final String RING_PROPERTY = "museum.journal.ring";
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+    private static final int HEADER_BYTES = 4 + 8 + 1 + 2 + 2 + 4 + 4 + 4 + 8;
+    private static final int SPINS_BEFORE_YIELD = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int NAME_CACHE_SIZE = 1 << 16;
+
+    /**
+     * Nature d'un enregistrement
+     */
+    public enum Type {
+        MESSAGE,        // Message ACL reçu : agent = destinataire, correspondant = émetteur
+        TOUR_START,     // Début de visite : agent = guide, valeur = taille du groupe
+        TOUR_END,       // Fin de visite : agent = guide, valeur = satisfaction du groupe
+        ASSIGNMENT,     // Affectation : agent = touriste, correspondant = guide
+        SATISFACTION,   // Nouvelle satisfaction d'un touriste
+        DEPARTURE       // Départ d'un touriste (TOURIST_LEAVING)
+    }
+
+    private static final Type[] TYPES = Type.values();
+    private static final String DIRECTORY = System.getProperty(DIRECTORY_PROPERTY);
+    private static volatile EventJournal instance;
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Path directory;
+    private final long segmentBytes;
+    private final Thread writer;
+    private volatile boolean closing;
+
+    // État du rédacteur
+    private MappedByteBuffer segment;
+    private int segmentIndex = -1;
+    // Noms d'agents déjà encodés : ils reviennent à chaque enregistrement
+    private final Map<String, byte[]> encodedNames = new HashMap<>();
+
+    // Métriques
+    private volatile long written;
+    private volatile long bytesWritten;
+    private volatile long dropped;
+
+    private EventJournal(Path directory, int ringSize, long segmentBytes) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot(i);
+        }
+        this.mask = capacity - 1;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+
+        Files.createDirectories(directory);
+        for (Path old : segments(directory)) {
+            Files.delete(old);
+        }
+        nextSegment();
+
+        writer = new Thread(this::drain, "EventJournal");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "EventJournal-close"));
+    }
+
+    public static boolean isEnabled() {
+        return DIRECTORY != null;
+    }
+
+    /**
+     * Journal de la JVM, ouvert au premier événement ; null si désactivé
+     */
+    public static EventJournal get() {
+        if (DIRECTORY == null) return null;
+        EventJournal journal = instance;
+        if (journal == null) {
+            synchronized (EventJournal.class) {
+                journal = instance;
+                if (journal == null) {
+                    try {
+                        journal = new EventJournal(Paths.get(DIRECTORY),
+                                Integer.getInteger(RING_PROPERTY, 1 << 16),
+                                Long.getLong(SEGMENT_PROPERTY, 64) << 20);
+                        System.out.println("Journal des événements : " + journal.directory.toAbsolutePath());
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Ouverture du journal impossible : " + DIRECTORY, e);
+                    }
+                    instance = journal;
+                }
+            }
+        }
+        return journal;
+    }
+
+    // Événements (fil de l'agent)
+
+    /**
+     * Message reçu par l'agent
+     */
+    public static void message(Agent receiver, ACLMessage msg) {
+        if (DIRECTORY == null) return;
+        AID sender = msg.getSender();
+        boolean binary = msg.hasByteSequenceContent();
+        get().record(Type.MESSAGE, receiver.getName(), sender != null ? sender.getName() : null,
+                msg.getPerformative(), binary ? null : msg.getContent(),
+                binary ? msg.getByteSequenceContent() : null, 0);
+    }
+
+    public static void tourStarted(String guide, int groupSize) {
+        if (DIRECTORY == null) return;
+        get().record(Type.TOUR_START, guide, null, 0, null, null, groupSize);
+    }
+
+    public static void tourEnded(String guide, double satisfaction) {
+        if (DIRECTORY == null) return;
+        get().record(Type.TOUR_END, guide, null, 0, null, null, satisfaction);
+    }
+
+    public static void assigned(String tourist, String guide) {
+        if (DIRECTORY == null) return;
+        get().record(Type.ASSIGNMENT, tourist, guide, 0, null, null, 0);
+    }
+
+    public static void satisfaction(String tourist, double value) {
+        if (DIRECTORY == null) return;
+        get().record(Type.SATISFACTION, tourist, null, 0, null, null, value);
+    }
+
+    public static void departed(String tourist) {
+        if (DIRECTORY == null) return;
+        get().record(Type.DEPARTURE, tourist, null, 0, null, null, 0);
+    }
+
+    /**
+     * Dépose un événement dans l'anneau : réservation, remplissage, publication
+     */
+    void record(Type type, String agent, String peer, int performative, String text, byte[] bytes, double value) {
+        if (closing) return;
+        long position = claimed.getAndIncrement();
+        Slot slot = ring[(int) (position & mask)];
+        int spins = 0;
+        while (slot.sequence != position) {
+            // Anneau plein : la case n'a pas encore été écrite par le rédacteur,
+            // qui continue de vider l'anneau jusqu'à la dernière case réservée
+            if (++spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        if (closing) {
+            // Fermeture pendant l'attente : case publiée vide pour ne pas bloquer le rédacteur
+            slot.type = null;
+            slot.sequence = position + 1;
+            return;
+        }
+        slot.time = SimulationClock.now();
+        slot.type = type;
+        slot.agent = agent;
+        slot.peer = peer;
+        slot.performative = performative;
+        slot.text = text;
+        slot.bytes = bytes;
+        slot.value = value;
+        slot.sequence = position + 1;
+    }
+
+    // Fil du rédacteur
+
+    private void drain() {
+        long position = 0;
+        while (true) {
+            Slot slot = ring[(int) (position & mask)];
+            if (slot.sequence != position + 1) {
+                if (closing && claimed.get() == position) break;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                if (slot.type != null) {
+                    write(slot);
+                } else {
+                    dropped++; // Case abandonnée à la fermeture
+                }
+            } catch (IOException e) {
+                dropped++;
+                System.err.println("Erreur d'écriture du journal : " + e.getMessage());
+            }
+            slot.clear();
+            slot.sequence = position + ring.length;
+            position++;
+        }
+    }
+
+    private void write(Slot slot) throws IOException {
+        byte[] agent = encodeName(slot.agent);
+        byte[] peer = encodeName(slot.peer);
+        byte[] text = utf8(slot.text);
+        int size = HEADER_BYTES + length(agent) + length(peer) + length(text) + length(slot.bytes);
+        if (size + 4 > segmentBytes) {
+            dropped++; // Plus grand qu'un segment
+            return;
+        }
+        if (segment.remaining() < size + 4) {
+            nextSegment();
+        }
+
+        segment.putInt(size - 4);
+        segment.putLong(slot.time);
+        segment.put((byte) slot.type.ordinal());
+        putShortBytes(agent);
+        putShortBytes(peer);
+        segment.putInt(slot.performative);
+        putIntBytes(text);
+        putIntBytes(slot.bytes);
+        segment.putDouble(slot.value);
+        written++;
+        bytesWritten += size;
+    }
+
+    private void nextSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segmentIndex++;
+        Path path = directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private void putShortBytes(byte[] data) {
+        segment.putShort((short) (data == null ? -1 : data.length));
+        if (data != null) segment.put(data);
+    }
+
+    private void putIntBytes(byte[] data) {
+        segment.putInt(data == null ? -1 : data.length);
+        if (data != null) segment.put(data);
+    }
+
+    private static int length(byte[] data) {
+        return data == null ? 0 : data.length;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Les noms complets (nom@plateforme) sont réduits au nom local
+    private byte[] encodeName(String name) {
+        if (name == null) return null;
+        byte[] encoded = encodedNames.get(name);
+        if (encoded == null) {
+            if (encodedNames.size() >= NAME_CACHE_SIZE) {
+                encodedNames.clear();
+            }
+            int at = name.indexOf('@');
+            encoded = utf8(at < 0 ? name : name.substring(0, at));
+            encodedNames.put(name, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Vide l'anneau puis force l'écriture du segment courant
+     */
+    public void close() {
+        closing = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (segment != null) {
+                segment.force();
+            }
+        }
+    }
+
+    // Métriques
+
+    public long getRecordedCount() { return claimed.get(); }
+    public long getWrittenCount() { return written; }
+    public long getBytesWritten() { return bytesWritten; }
+    public long getDroppedCount() { return dropped; }
+    public int getSegmentCount() { return segmentIndex + 1; }
+
+    // Relecture
+
+    /**
+     * Segments d'un journal, dans l'ordre d'écriture
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return segments;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * Relit tous les enregistrements d'un journal, dans l'ordre d'écriture
+     */
+    public static void read(Path directory, Consumer<Record> consumer) throws IOException {
+        for (Path path : segments(directory)) {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            while (buffer.remaining() >= 4) {
+                int size = buffer.getInt();
+                if (size <= 0) break; // Fin des données du segment
+                Record record = new Record();
+                record.time = buffer.getLong();
+                record.type = TYPES[buffer.get()];
+                record.agent = getShortString(buffer);
+                record.peer = getShortString(buffer);
+                record.performative = buffer.getInt();
+                byte[] text = getIntBytes(buffer);
+                record.text = text == null ? null : new String(text, StandardCharsets.UTF_8);
+                record.bytes = getIntBytes(buffer);
+                record.value = buffer.getDouble();
+                consumer.accept(record);
+            }
+        }
+    }
+
+    private static String getShortString(MappedByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) return null;
+        byte[] data = new byte[length];
+        buffer.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] getIntBytes(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] data = new byte[length];
+        buffer.get(data);
+        return data;
+    }
+
+    /**
+     * Enregistrement relu depuis le journal
+     */
+    public static final class Record {
+        long time;
+        Type type;
+        String agent;
+        String peer;
+        int performative;
+        String text;
+        byte[] bytes;
+        double value;
+
+        public long getTime() { return time; }
+        public Type getType() { return type; }
+        public String getAgent() { return agent; }
+        public String getPeer() { return peer; }
+        public int getPerformative() { return performative; }
+        public String getText() { return text; }
+        public byte[] getBytes() { return bytes; }
+        public double getValue() { return value; }
+    }
+
+    /**
+     * Case de l'anneau, réutilisée d'un tour à l'autre
+     */
+    private static final class Slot {
+        volatile long sequence;
+        long time;
+        Type type;
+        String agent;
+        String peer;
+        int performative;
+        String text;
+        byte[] bytes;
+        double value;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void clear() {
+            agent = null;
+            peer = null;
+            text = null;
+            bytes = null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package utils;
+
+import jade.core.AID;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Index en mémoire des guides de la JVM, par spécialisation et charge.
+ * L'instance est unique pour le processus : elle couvre les guides de tous
+ * les conteneurs lancés dans la même JVM, ce qui permet au coordinateur d'y
+ * choisir un guide quel que soit son conteneur. Les guides le tiennent à
+ * jour quand leur disponibilité change ; une recherche renvoie le guide
+ * disponible le moins sollicité, sans passer par les Pages Jaunes. Chaque
+ * réponse compte comme une sollicitation, ce qui répartit les demandes
+ * successives entre les guides libres.
+ */
+public class GuideIndex {
+    // Moins sollicité d'abord, puis le plus anciennement libéré
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int bySelections = Integer.compare(a.selections, b.selections);
+        return bySelections != 0 ? bySelections : Long.compare(a.sequence, b.sequence);
+    };
+
+    // Après ORDER : l'instance en a besoin dès sa construction
+    private static final GuideIndex INSTANCE = new GuideIndex();
+
+    private final Map<AID, Entry> entries = new HashMap<>();
+    private final Map<String, TreeSet<Entry>> availableBySpecialization = new HashMap<>();
+    private final TreeSet<Entry> available = new TreeSet<>(ORDER);
+    private long nextSequence;
+
+    public static GuideIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Ajoute un guide disponible à l'index
+     */
+    public synchronized void register(AID guide, String specialization) {
+        unregister(guide);
+        Entry entry = new Entry(guide, specialization);
+        entries.put(guide, entry);
+        makeAvailable(entry);
+    }
+
+    /**
+     * Retire un guide de l'index
+     */
+    public synchronized void unregister(AID guide) {
+        Entry entry = entries.remove(guide);
+        if (entry != null && entry.available) {
+            removeAvailable(entry);
+        }
+    }
+
+    /**
+     * Le guide prend un groupe en charge et n'est plus proposé
+     */
+    public synchronized void markBusy(AID guide, int groupSize) {
+        Entry entry = entries.get(guide);
+        if (entry == null) return;
+        if (entry.available) {
+            removeAvailable(entry);
+        }
+        entry.load = groupSize;
+    }
+
+    /**
+     * Le guide est de nouveau libre
+     */
+    public synchronized void markAvailable(AID guide) {
+        Entry entry = entries.get(guide);
+        if (entry == null) return;
+        if (entry.available) {
+            removeAvailable(entry);
+        }
+        entry.load = 0;
+        makeAvailable(entry);
+    }
+
+    /**
+     * Guide disponible de la spécialisation demandée, ou à défaut de n'importe
+     * quelle spécialisation ; null si aucun guide n'est libre
+     */
+    public synchronized AID findAvailable(String specialization) {
+        return findAvailable(specialization, guide -> true);
+    }
+
+    /**
+     * Comme {@link #findAvailable(String)}, limité aux guides acceptés par le filtre
+     */
+    public synchronized AID findAvailable(String specialization, Predicate<AID> eligible) {
+        TreeSet<Entry> preferred = specialization != null
+            ? availableBySpecialization.get(specialization) : null;
+        Entry entry = preferred != null ? first(preferred, eligible) : null;
+        if (entry == null) {
+            entry = first(available, eligible);
+        }
+        if (entry == null) return null;
+
+        removeAvailable(entry);
+        entry.selections++;
+        addAvailable(entry);
+        return entry.aid;
+    }
+
+    /**
+     * Nombre de touristes actuellement pris en charge par le guide
+     */
+    public synchronized int getLoad(AID guide) {
+        Entry entry = entries.get(guide);
+        return entry == null ? 0 : entry.load;
+    }
+
+    public synchronized boolean isAvailable(AID guide) {
+        Entry entry = entries.get(guide);
+        return entry != null && entry.available;
+    }
+
+    public synchronized int getAvailableCount() {
+        return available.size();
+    }
+
+    public synchronized int getAvailableCount(String specialization) {
+        TreeSet<Entry> candidates = availableBySpecialization.get(specialization);
+        return candidates == null ? 0 : candidates.size();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        availableBySpecialization.clear();
+        available.clear();
+    }
+
+    private static Entry first(TreeSet<Entry> candidates, Predicate<AID> eligible) {
+        for (Entry entry : candidates) {
+            if (eligible.test(entry.aid)) return entry;
+        }
+        return null;
+    }
+
+    private void makeAvailable(Entry entry) {
+        entry.selections = 0;
+        entry.sequence = nextSequence++;
+        addAvailable(entry);
+    }
+
+    private void addAvailable(Entry entry) {
+        entry.available = true;
+        available.add(entry);
+        availableBySpecialization.computeIfAbsent(entry.specialization, k -> new TreeSet<>(ORDER)).add(entry);
+    }
+
+    // À appeler avant toute modification des champs de tri
+    private void removeAvailable(Entry entry) {
+        entry.available = false;
+        available.remove(entry);
+        TreeSet<Entry> candidates = availableBySpecialization.get(entry.specialization);
+        if (candidates != null) {
+            candidates.remove(entry);
+        }
+    }
+
+    private static class Entry {
+        final AID aid;
+        final String specialization;
+        boolean available;
+        int load;
+        int selections;
+        long sequence;
+
+        Entry(AID aid, String specialization) {
+            this.aid = aid;
+            this.specialization = specialization;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package utils;
+
+/**
+ * Statistiques en ligne d'une population de valeurs (algorithme de Welford).
+ * Moyenne et variance restent numériquement stables et se mettent à jour en
+ * O(1) à l'ajout, au retrait ou au remplacement d'une valeur. Le minimum, le
+ * maximum et la moyenne mobile exponentielle (EWMA) portent sur le flux des
+ * valeurs observées depuis la dernière réinitialisation.
+ */
+public class OnlineStats {
+    public static final double DEFAULT_EWMA_ALPHA = 0.2;
+
+    private final double alpha;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double ewma = Double.NaN;
+
+    public OnlineStats() {
+        this(DEFAULT_EWMA_ALPHA);
+    }
+
+    /**
+     * @param alpha poids de la dernière valeur dans l'EWMA (0 < alpha <= 1)
+     */
+    public OnlineStats(double alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha doit être dans ]0, 1] : " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Ajoute une valeur à la population
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        observe(x);
+    }
+
+    /**
+     * Retire une valeur précédemment ajoutée
+     */
+    public void remove(double x) {
+        if (count <= 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        count--;
+        double delta = x - mean;
+        mean -= delta / count;
+        m2 = Math.max(0.0, m2 - delta * (x - mean));
+    }
+
+    /**
+     * Remplace une valeur de la population par une nouvelle (taille inchangée)
+     */
+    public void replace(double oldValue, double newValue) {
+        if (count == 0) {
+            add(newValue);
+            return;
+        }
+        double delta = newValue - oldValue;
+        double oldMean = mean;
+        mean += delta / count;
+        m2 = Math.max(0.0, m2 + delta * (newValue - mean + oldValue - oldMean));
+        observe(newValue);
+    }
+
+    private void observe(double x) {
+        if (x < min) min = x;
+        if (x > max) max = x;
+        ewma = Double.isNaN(ewma) ? x : ewma + alpha * (x - ewma);
+    }
+
+    /**
+     * Remet toutes les statistiques à zéro
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        ewma = Double.NaN;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Moyenne, ou la valeur par défaut si la population est vide
+     */
+    public double getMean(double defaultValue) {
+        return count == 0 ? defaultValue : mean;
+    }
+
+    /**
+     * Variance de la population (diviseur n)
+     */
+    public double getVariance() {
+        return count == 0 ? 0.0 : m2 / count;
+    }
+
+    /**
+     * Variance de l'échantillon (diviseur n - 1)
+     */
+    public double getSampleVariance() {
+        return count < 2 ? 0.0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min == Double.POSITIVE_INFINITY ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return max == Double.NEGATIVE_INFINITY ? Double.NaN : max;
+    }
+
+    /**
+     * Moyenne mobile exponentielle du flux, ou la valeur par défaut si vide
+     */
+    public double getEwma(double defaultValue) {
+        return Double.isNaN(ewma) ? defaultValue : ewma;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OnlineStats[n=%d, moyenne=%.3f, écart-type=%.3f, ewma=%.3f]",
+                count, mean, getStandardDeviation(), getEwma(Double.NaN));
+    }
+}
@@ -0,0 +1,68 @@
+package utils;
+
+import jade.core.Agent;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Flux aléatoires reproductibles de la simulation.
+ * Une graine racine par exécution (propriété museum.seed, tirée au hasard
+ * sinon) dont dérive un flux déterministe par agent, calculé à partir de son
+ * nom : le résultat ne dépend ni de l'ordre de création des agents ni du
+ * conteneur qui les héberge. Rejouer une exécution revient à relancer avec
+ * la même graine.
+ */
+public final class RandomStreams {
+    public static final String SEED_PROPERTY = "museum.seed";
+
+    private static volatile long seed = Long.getLong(SEED_PROPERTY, mix(System.nanoTime()));
+    private static SplittableRandom root = new SplittableRandom(seed);
+
+    private RandomStreams() {
+    }
+
+    /**
+     * Fixe la graine racine ; à appeler avant de démarrer les agents
+     */
+    public static synchronized void setSeed(long newSeed) {
+        seed = newSeed;
+        root = new SplittableRandom(newSeed);
+    }
+
+    public static long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Flux propre à l'agent, dérivé de son nom local
+     */
+    public static SplittableRandom forAgent(Agent agent) {
+        return forName(agent.getLocalName());
+    }
+
+    /**
+     * Flux associé à un nom : même graine et même nom donnent la même suite
+     */
+    public static SplittableRandom forName(String name) {
+        // FNV-1a 64 bits sur l'UTF-8 du nom, puis mélange avec la graine
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return new SplittableRandom(mix(seed ^ mix(hash)));
+    }
+
+    /**
+     * Flux suivant de la racine, pour les objets créés hors agent dans un ordre fixe
+     */
+    public static synchronized SplittableRandom split() {
+        return root.split();
+    }
+
+    // Finaliseur de SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
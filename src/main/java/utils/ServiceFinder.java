@@ -6,9 +6,12 @@ import jade.domain.DFService;
 import jade.domain.FIPAException;
 import jade.domain.FIPAAgentManagement.DFAgentDescription;
 import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAAgentManagement.FIPAManagementVocabulary;
+import jade.lang.acl.ACLMessage;
+import jade.proto.AchieveREInitiator;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
@@ -33,41 +36,78 @@ public class ServiceFinder {
     }
     
     /**
-     * Trouve les agents par type de service et nom de service
+     * Trouve les agents par type de service et nom de service.
+     * Les résultats viennent du cache du conteneur, tenu à jour par abonnement au DF.
      */
     public static List<AID> findAgents(Agent requester, String serviceType, String serviceName) {
-        List<AID> result = new ArrayList<>();
-        
-        try {
-            DFAgentDescription template = new DFAgentDescription();
-            ServiceDescription sd = new ServiceDescription();
-            sd.setType(serviceType);
-            if (serviceName != null) {
-                sd.setName(serviceName);
+        return DirectoryCache.forAgent(requester).find(requester, serviceType, serviceName);
+    }
+    
+    /**
+     * Recherche non bloquante des agents d'un type de service ; le rappel
+     * s'exécute dans un comportement de l'agent demandeur
+     */
+    public static void findAgentsAsync(Agent requester, String serviceType, Consumer<List<AID>> callback) {
+        DirectoryCache.forAgent(requester).findAsync(requester, serviceType, null, callback);
+    }
+    
+    /**
+     * Recherche non bloquante d'un agent ; le rappel reçoit null si aucun agent ne correspond
+     */
+    public static void findAgentAsync(Agent requester, String serviceType, Consumer<AID> callback) {
+        findAgentsAsync(requester, serviceType, agents -> callback.accept(agents.isEmpty() ? null : agents.get(0)));
+    }
+    
+    /**
+     * Inscription non bloquante dans les Pages Jaunes
+     */
+    public static void registerAsync(Agent agent, DFAgentDescription dfd) {
+        ACLMessage request = DFService.createRequestMessage(agent, agent.getDefaultDF(),
+                FIPAManagementVocabulary.REGISTER, dfd, null);
+        agent.addBehaviour(new AchieveREInitiator(agent, request) {
+            @Override
+            protected void handleFailure(ACLMessage failure) {
+                logger.severe("Échec de l'inscription de " + myAgent.getLocalName() + ": " + failure.getContent());
             }
-            template.addServices(sd);
             
-            DFAgentDescription[] agents = DFService.search(requester, template);
-            
-            for (DFAgentDescription agent : agents) {
-                result.add(agent.getName());
+            @Override
+            protected void handleRefuse(ACLMessage refuse) {
+                logger.severe("Inscription de " + myAgent.getLocalName() + " refusée: " + refuse.getContent());
             }
-            
-            logger.info("Trouvé " + result.size() + " agents pour le service " + serviceType);
-            
-        } catch (FIPAException fe) {
-            logger.severe("Erreur lors de la recherche de service: " + fe.getMessage());
-        }
-        
-        return result;
+        });
     }
     
     /**
-     * Trouve un guide disponible avec une spécialisation donnée
+     * Trouve un guide disponible avec une spécialisation donnée.
+     * Consulte d'abord l'index des guides, puis les Pages Jaunes.
      */
     public static AID findAvailableGuide(Agent requester, String specialization) {
-        List<AID> guides = findAgents(requester, "guide-service");
-        return guides.isEmpty() ? null : guides.get(0);
+        AID guide = GuideIndex.getInstance().findAvailable(specialization);
+        if (guide != null) {
+            return guide;
+        }
+        return spread(requester, findAgents(requester, "guide-service"));
+    }
+    
+    /**
+     * Recherche non bloquante d'un guide disponible : l'index répond sans
+     * attente, les Pages Jaunes ne sont interrogées que s'il est vide
+     */
+    public static void findAvailableGuideAsync(Agent requester, String specialization, Consumer<AID> callback) {
+        AID guide = GuideIndex.getInstance().findAvailable(specialization);
+        if (guide != null) {
+            callback.accept(guide);
+            return;
+        }
+        findAgentsAsync(requester, "guide-service", guides -> callback.accept(spread(requester, guides)));
+    }
+    
+    /**
+     * Répartit les demandeurs entre les guides trouvés plutôt que de tous les envoyer au premier
+     */
+    private static AID spread(Agent requester, List<AID> guides) {
+        if (guides.isEmpty()) return null;
+        return guides.get(Math.floorMod(requester.getLocalName().hashCode(), guides.size()));
     }
     
     /**
@@ -77,6 +117,13 @@ public class ServiceFinder {
         return findAgent(requester, "coordinator-service");
     }
     
+    /**
+     * Recherche non bloquante du coordinateur
+     */
+    public static void findCoordinatorAsync(Agent requester, Consumer<AID> callback) {
+        findAgentAsync(requester, "coordinator-service", callback);
+    }
+    
     /**
      * Trouve tous les touristes actifs
      */
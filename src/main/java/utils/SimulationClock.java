@@ -0,0 +1,253 @@
+package utils;
+
+import jade.core.Agent;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Horloge de la simulation.
+ * En mode réel (par défaut) elle suit l'horloge système. En mode virtuel
+ * (propriété museum.clock=virtual, ou {@link #useVirtualTime()} avant le
+ * démarrage des agents) les échéances de la {@link TimerWheel} sont rangées
+ * par date virtuelle : dès que les agents n'ont plus rien à traiter,
+ * l'horloge saute directement à l'échéance suivante. Une journée de visites
+ * se simule alors en quelques secondes, avec les mêmes délais côté agents.
+ *
+ * L'inactivité est constatée quand aucun agent ne traite de message ni
+ * d'échéance, qu'aucune activité n'a eu lieu pendant une courte fenêtre
+ * (propriété museum.clock.settle, en µs) et que les boîtes aux lettres
+ * suivies sont vides ou figées (message que personne n'attend).
+ * Pendant la création des agents, le lanceur retient l'horloge
+ * ({@link #enter()} / {@link #exit()}) et annonce chaque agent
+ * ({@link #expectSetup(String)}) : toutes les arrivées sont alors datées du
+ * même instant virtuel, quel que soit l'ordonnancement des fils.
+ */
+public final class SimulationClock {
+    public static final String MODE_PROPERTY = "museum.clock";
+    public static final String SETTLE_PROPERTY = "museum.clock.settle";
+    public static final long DEFAULT_SETTLE_MICROS = 50;
+
+    // Une boîte aux lettres non vide et inchangée depuis ce délai est considérée figée
+    private static final long STUCK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static volatile boolean virtual = "virtual".equalsIgnoreCase(System.getProperty(MODE_PROPERTY));
+    private static volatile long virtualNow = System.currentTimeMillis();
+    private static final long settleNanos =
+        TimeUnit.MICROSECONDS.toNanos(Long.getLong(SETTLE_PROPERTY, DEFAULT_SETTLE_MICROS));
+
+    private static final PriorityQueue<Event> events = new PriorityQueue<>();
+    private static final AtomicLong sequence = new AtomicLong();
+    private static final AtomicInteger busy = new AtomicInteger();
+    private static final LongAdder activity = new LongAdder();
+    private static final Map<Agent, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private static final Set<String> pendingSetups = ConcurrentHashMap.newKeySet();
+    private static Thread driver;
+
+    // Métriques
+    private static volatile long virtualStart = virtualNow;
+    private static final AtomicLong jumps = new AtomicLong();
+    private static final AtomicLong eventsFired = new AtomicLong();
+
+    private SimulationClock() {
+    }
+
+    /**
+     * Passe en temps virtuel ; à appeler avant de démarrer les agents
+     */
+    public static synchronized void useVirtualTime() {
+        if (virtual) return;
+        virtualNow = System.currentTimeMillis();
+        virtualStart = virtualNow;
+        virtual = true;
+    }
+
+    /**
+     * Reprend le temps virtuel à une date donnée (restauration d'un cliché), avant toute échéance
+     */
+    public static synchronized void resumeAt(long time) {
+        synchronized (events) {
+            if (!events.isEmpty()) {
+                throw new IllegalStateException("Échéances déjà armées : reprise impossible");
+            }
+            virtualNow = time;
+            virtualStart = time;
+        }
+    }
+
+    public static boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Heure courante de la simulation (ms depuis l'époque)
+     */
+    public static long now() {
+        return virtual ? virtualNow : System.currentTimeMillis();
+    }
+
+    // Suivi de l'activité des agents (mode virtuel)
+
+    /**
+     * Début d'un traitement (messages ou échéance) : l'horloge ne peut pas avancer
+     */
+    public static void enter() {
+        if (virtual) busy.incrementAndGet();
+    }
+
+    public static void exit() {
+        if (virtual) {
+            activity.increment();
+            busy.decrementAndGet();
+        }
+    }
+
+    /**
+     * Annonce un agent sur le point d'être créé : l'horloge ne peut pas
+     * avancer avant la fin de son setup ({@link #setupDone(Agent)}), qui
+     * s'exécute plus tard dans son propre fil
+     */
+    public static void expectSetup(String localName) {
+        if (virtual && pendingSetups.add(localName)) busy.incrementAndGet();
+    }
+
+    /**
+     * Fin du setup de l'agent ; sans effet s'il n'a pas été annoncé
+     */
+    public static void setupDone(Agent agent) {
+        if (pendingSetups.remove(agent.getLocalName())) exit();
+    }
+
+    /**
+     * Surveille la boîte aux lettres de l'agent : l'horloge attend qu'elle soit traitée
+     */
+    public static void track(Agent agent) {
+        if (virtual) mailboxes.putIfAbsent(agent, new Mailbox());
+    }
+
+    public static void untrack(Agent agent) {
+        mailboxes.remove(agent);
+    }
+
+    // Échéances virtuelles
+
+    /**
+     * Exécute l'action quand l'horloge virtuelle atteint la date (ms)
+     */
+    static void schedule(long due, Runnable action) {
+        synchronized (events) {
+            events.add(new Event(due, sequence.incrementAndGet(), action));
+            if (driver == null) {
+                driver = new Thread(SimulationClock::drive, "SimulationClock");
+                driver.setDaemon(true);
+                driver.start();
+            }
+        }
+    }
+
+    private static void drive() {
+        while (true) {
+            Event next;
+            synchronized (events) {
+                next = events.peek();
+            }
+            if (next == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            if (!settled()) continue;
+
+            // Saut à l'échéance suivante et déclenchement de toutes celles de cette date
+            synchronized (events) {
+                next = events.peek();
+                if (next == null) continue;
+                if (next.due > virtualNow) {
+                    virtualNow = next.due;
+                    jumps.incrementAndGet();
+                }
+                while ((next = events.peek()) != null && next.due <= virtualNow) {
+                    events.poll();
+                    eventsFired.incrementAndGet();
+                    next.action.run();
+                }
+            }
+        }
+    }
+
+    private static boolean settled() {
+        long before = activity.sum();
+        LockSupport.parkNanos(settleNanos);
+        if (busy.get() != 0 || activity.sum() != before) return false;
+
+        long now = System.nanoTime();
+        boolean idle = true;
+        Iterator<Map.Entry<Agent, Mailbox>> it = mailboxes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Agent, Mailbox> entry = it.next();
+            if (!entry.getValue().isIdle(entry.getKey().getCurQueueSize(), now)) {
+                idle = false;
+            }
+        }
+        return idle;
+    }
+
+    // Métriques
+
+    public static long getVirtualElapsed() { return now() - virtualStart; }
+    public static long getJumpCount() { return jumps.get(); }
+    public static long getEventsFired() { return eventsFired.get(); }
+
+    /**
+     * Traitements en cours qui retiennent l'horloge
+     */
+    public static int getBusyCount() { return busy.get(); }
+
+    public static int getPendingEvents() {
+        synchronized (events) {
+            return events.size();
+        }
+    }
+
+    /**
+     * Taille de la boîte aux lettres d'un agent lors du dernier constat
+     */
+    private static final class Mailbox {
+        private int size;
+        private long changedAt = System.nanoTime();
+
+        boolean isIdle(int current, long now) {
+            if (current != size) {
+                size = current;
+                changedAt = now;
+            }
+            return current == 0 || now - changedAt > STUCK_NANOS;
+        }
+    }
+
+    private static final class Event implements Comparable<Event> {
+        final long due;
+        final long sequence;
+        final Runnable action;
+
+        Event(long due, long sequence, Runnable action) {
+            this.due = due;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            // Même date : ordre d'armement
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+}
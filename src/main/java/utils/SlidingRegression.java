@@ -0,0 +1,90 @@
+package utils;
+
+/**
+ * Pente des moindres carrés sur les dernières valeurs d'un flux (fenêtre
+ * glissante). Les abscisses sont les rangs 0..n-1 dans la fenêtre : seules
+ * les sommes des ordonnées et des produits sont tenues à jour, celles des
+ * abscisses se déduisent de n. L'ajout est en O(1) ; les sommes sont
+ * recalculées exactement à chaque tour de fenêtre pour borner la dérive.
+ */
+public class SlidingRegression {
+    private final double[] values;
+    private int head;       // Position de la valeur la plus ancienne
+    private int count;
+    private double sumY;
+    private double sumXY;
+
+    /**
+     * @param window nombre de dernières valeurs prises en compte (au moins 2)
+     */
+    public SlidingRegression(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("Fenêtre trop petite : " + window);
+        }
+        this.values = new double[window];
+    }
+
+    /**
+     * Ajoute une valeur ; au-delà de la fenêtre, la plus ancienne est retirée
+     */
+    public void add(double y) {
+        if (count < values.length) {
+            values[(head + count) % values.length] = y;
+            sumXY += count * y;
+            sumY += y;
+            count++;
+            return;
+        }
+        // Retrait de l'abscisse 0 puis décalage de toutes les autres d'un rang
+        double oldest = values[head];
+        sumY -= oldest;
+        sumXY -= sumY;
+        values[head] = y;
+        head = (head + 1) % values.length;
+        sumXY += (count - 1) * y;
+        sumY += y;
+        if (head == 0) {
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        sumY = 0;
+        sumXY = 0;
+        for (int x = 0; x < count; x++) {
+            double y = values[(head + x) % values.length];
+            sumY += y;
+            sumXY += x * y;
+        }
+    }
+
+    /**
+     * Pente par valeur, 0 tant que la fenêtre contient moins de deux valeurs
+     */
+    public double getSlope() {
+        if (count < 2) return 0.0;
+        double n = count;
+        double sumX = n * (n - 1) / 2;
+        double sumX2 = (n - 1) * n * (2 * n - 1) / 6;
+        return (n * sumXY - sumX * sumY) / (n * sumX2 - sumX * sumX);
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : sumY / count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getWindow() {
+        return values.length;
+    }
+
+    public void reset() {
+        head = 0;
+        count = 0;
+        sumY = 0;
+        sumXY = 0;
+    }
+}
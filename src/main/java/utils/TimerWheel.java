@@ -0,0 +1,394 @@
+package utils;
+
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Roue de temporisation hiérarchique partagée par les agents d'un conteneur.
+ * Un seul fil avance la roue d'un cran par tick (propriété museum.timer.tick,
+ * en ms) ; armer ou annuler une échéance coûte O(1). Les échéances sont
+ * exécutées dans le fil de l'agent qui les a armées, par un unique
+ * comportement de répartition par agent : plus de WakerBehaviour ni de
+ * TickerBehaviour créés à chaque étape.
+ *
+ * Niveaux : 256 crans de un tick, puis trois niveaux de 64 crans qui
+ * redescendent vers le niveau inférieur quand leur tour arrive.
+ * En temps virtuel ({@link SimulationClock}), les échéances arrondies au tick
+ * sont confiées à l'horloge de simulation au lieu de la roue.
+ */
+public class TimerWheel {
+    public static final String TICK_PROPERTY = "museum.timer.tick";
+    public static final long DEFAULT_TICK = 50;
+
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 4;
+    private static final int ROOT_SIZE = 1 << ROOT_BITS;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+
+    private static final Map<String, TimerWheel> WHEELS = new ConcurrentHashMap<>();
+
+    private final String containerName;
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final List<Timeout>[][] levels;
+    // Échéances armées depuis les agents, rangées par le fil de la roue au tick suivant
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Map<Agent, Dispatcher> dispatchers = new ConcurrentHashMap<>();
+    private volatile long currentTick;
+
+    // Métriques
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong fired = new AtomicLong();
+    private volatile long lastTickLag;
+    private volatile long maxTickLag;
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    TimerWheel(String containerName, long tickMillis) {
+        this.containerName = containerName;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        this.levels = new List[LEVELS][];
+        for (int level = 0; level < LEVELS; level++) {
+            levels[level] = new List[level == 0 ? ROOT_SIZE : LEVEL_SIZE];
+            for (int slot = 0; slot < levels[level].length; slot++) {
+                levels[level][slot] = new ArrayList<>();
+            }
+        }
+
+        Thread thread = new Thread(this::run, "TimerWheel-" + containerName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Roue du conteneur de l'agent
+     */
+    public static TimerWheel forAgent(Agent agent) {
+        String container = agent.here() != null ? agent.here().getName() : "";
+        return WHEELS.computeIfAbsent(container,
+                name -> new TimerWheel(name, Long.getLong(TICK_PROPERTY, DEFAULT_TICK)));
+    }
+
+    /**
+     * Abandonne les échéances d'un agent qui s'arrête
+     */
+    public static void release(Agent agent) {
+        for (TimerWheel wheel : WHEELS.values()) {
+            Dispatcher dispatcher = wheel.dispatchers.remove(agent);
+            if (dispatcher != null) {
+                dispatcher.close();
+            }
+        }
+        SimulationClock.untrack(agent);
+    }
+
+    /**
+     * Exécute la tâche une fois, après le délai (ms), dans le fil de l'agent
+     */
+    public Timeout schedule(Agent agent, long delay, Runnable task) {
+        return arm(new Timeout(dispatcherFor(agent), task, 0, 0), delay);
+    }
+
+    /**
+     * Exécute la tâche toutes les période (ms), la première fois après le délai
+     */
+    public Timeout scheduleAtFixedRate(Agent agent, long initialDelay, long period, Runnable task) {
+        return arm(new Timeout(dispatcherFor(agent), task, Math.max(1, toTicks(period)),
+                               Math.max(1, toTicks(period)) * getTickMillis()), initialDelay);
+    }
+
+    /**
+     * Exécute la tâche dès que possible dans le fil de l'agent, sans attendre
+     * le prochain tick de la roue. Si l'agent est arrêté (ou n'a jamais
+     * planifié d'échéance), c'est {@code abandoned} qui est exécuté, dans le
+     * fil appelant ou celui qui arrête l'agent : exactement l'une des deux
+     * tâches s'exécute.
+     */
+    public void execute(Agent agent, Runnable task, Runnable abandoned) {
+        Dispatcher dispatcher = dispatchers.get(agent);
+        if (dispatcher == null || dispatcher.closed) {
+            abandoned.run();
+            return;
+        }
+        scheduled.incrementAndGet();
+        Timeout timeout = new Timeout(dispatcher, task, 0, 0);
+        timeout.abandoned = abandoned;
+        dispatcher.post(timeout);
+    }
+
+    /**
+     * Prépare le répartiteur de l'agent, dans son fil, pour qu'un autre fil
+     * puisse ensuite lui confier une tâche par {@link #schedule}
+     */
+    void attach(Agent agent) {
+        dispatcherFor(agent);
+    }
+
+    private Dispatcher dispatcherFor(Agent agent) {
+        // Appelé dans le fil de l'agent : l'ajout du comportement est sûr
+        return dispatchers.computeIfAbsent(agent, a -> {
+            Dispatcher dispatcher = new Dispatcher(a);
+            a.addBehaviour(dispatcher);
+            return dispatcher;
+        });
+    }
+
+    private Timeout arm(Timeout timeout, long delay) {
+        scheduled.incrementAndGet();
+        if (SimulationClock.isVirtual()) {
+            long tick = getTickMillis();
+            timeout.due = (SimulationClock.now() + Math.max(0, delay) + tick - 1) / tick * tick;
+            SimulationClock.schedule(timeout.due, timeout.expiry);
+            return timeout;
+        }
+        long elapsed = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+        timeout.deadline = (elapsed + tickNanos - 1) / tickNanos;
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private long toTicks(long millis) {
+        return (TimeUnit.MILLISECONDS.toNanos(millis) + tickNanos - 1) / tickNanos;
+    }
+
+    // Fil de la roue
+
+    private void run() {
+        long tick = 0;
+        while (true) {
+            long due = startNanos + (tick + 1) * tickNanos;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long lag = System.nanoTime() - due;
+            lastTickLag = lag;
+            if (lag > maxTickLag) {
+                maxTickLag = lag;
+            }
+            currentTick = ++tick;
+            advance(tick);
+        }
+    }
+
+    private void advance(long tick) {
+        // Les niveaux supérieurs redescendent quand le niveau inférieur boucle
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << shift(level)) - 1)) != 0) break;
+            List<Timeout> slot = levels[level][index(tick, level)];
+            if (slot.isEmpty()) continue;
+            List<Timeout> cascading = new ArrayList<>(slot);
+            slot.clear();
+            for (Timeout timeout : cascading) {
+                place(timeout, tick);
+            }
+        }
+
+        Timeout armed;
+        while ((armed = pending.poll()) != null) {
+            place(armed, tick);
+        }
+
+        List<Timeout> slot = levels[0][(int) (tick & (ROOT_SIZE - 1))];
+        if (slot.isEmpty()) return;
+        List<Timeout> expired = new ArrayList<>(slot);
+        slot.clear();
+        for (Timeout timeout : expired) {
+            if (timeout.deadline > tick) {
+                place(timeout, tick); // Échéance d'un tour ultérieur
+            } else {
+                timeout.expiry.run();
+            }
+        }
+    }
+
+    private void place(Timeout timeout, long tick) {
+        if (timeout.isCancelled()) return;
+        long delta = timeout.deadline - tick;
+        if (delta < ROOT_SIZE) {
+            long target = Math.max(timeout.deadline, tick);
+            levels[0][(int) (target & (ROOT_SIZE - 1))].add(timeout);
+            return;
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            if (delta < (1L << (shift(level) + LEVEL_BITS)) || level == LEVELS - 1) {
+                levels[level][index(timeout.deadline, level)].add(timeout);
+                return;
+            }
+        }
+    }
+
+    private static int shift(int level) {
+        return ROOT_BITS + (level - 1) * LEVEL_BITS;
+    }
+
+    private static int index(long tick, int level) {
+        return (int) ((tick >>> shift(level)) & (LEVEL_SIZE - 1));
+    }
+
+    // Métriques
+
+    /**
+     * Échéances armées et pas encore échues ni annulées
+     */
+    public long getScheduledCount() { return scheduled.get(); }
+    public long getFiredCount() { return fired.get(); }
+    public int getAgentCount() { return dispatchers.size(); }
+    public long getCurrentTick() { return currentTick; }
+
+    /**
+     * Retard du dernier tick sur son heure prévue (ms)
+     */
+    public double getLastTickLagMillis() { return lastTickLag / 1e6; }
+    public double getMaxTickLagMillis() { return maxTickLag / 1e6; }
+
+    public long getTickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TimerWheel[%s, armées=%d, échues=%d, retard=%.2f ms, max=%.2f ms]",
+                containerName, scheduled.get(), fired.get(), getLastTickLagMillis(), getMaxTickLagMillis());
+    }
+
+    /**
+     * Échéance armée sur la roue
+     */
+    public final class Timeout {
+        private final Dispatcher dispatcher;
+        private final Runnable task;
+        private final long periodTicks;
+        private final long periodMillis;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final Runnable expiry = () -> post();
+        private Runnable abandoned; // Exécutée si l'échéance est annulée avant d'avoir tourné
+        private long deadline; // Tick de la roue
+        private long due;      // Date virtuelle (ms)
+
+        Timeout(Dispatcher dispatcher, Runnable task, long periodTicks, long periodMillis) {
+            this.dispatcher = dispatcher;
+            this.task = task;
+            this.periodTicks = periodTicks;
+            this.periodMillis = periodMillis;
+        }
+
+        private void post() {
+            dispatcher.post(this);
+        }
+
+        /**
+         * Annule l'échéance ; sans effet si elle a déjà été exécutée
+         */
+        public boolean cancel() {
+            if (!done.compareAndSet(false, true)) return false;
+            scheduled.decrementAndGet();
+            if (abandoned != null) {
+                abandoned.run();
+            }
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return done.get();
+        }
+
+        public boolean isPeriodic() {
+            return periodTicks > 0;
+        }
+
+        /**
+         * Exécution dans le fil de l'agent, puis réarmement si périodique
+         */
+        void fire() {
+            if (done.get()) return;
+            if (dispatcher.closed) {
+                cancel();
+                return;
+            }
+            if (periodTicks == 0) {
+                if (!done.compareAndSet(false, true)) return;
+                scheduled.decrementAndGet();
+            }
+            fired.incrementAndGet();
+            task.run();
+            if (periodTicks > 0 && !done.get()) {
+                // Cadence fixe : la prochaine échéance part de la précédente, sans dérive
+                if (SimulationClock.isVirtual()) {
+                    due += periodMillis;
+                    SimulationClock.schedule(due, expiry);
+                } else {
+                    deadline = Math.max(deadline + periodTicks, currentTick + 1);
+                    pending.add(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Comportement unique par agent : exécute les échéances reçues de la roue
+     */
+    private static final class Dispatcher extends CyclicBehaviour {
+        private final Queue<Timeout> ready = new ConcurrentLinkedQueue<>();
+        private volatile boolean closed;
+
+        Dispatcher(Agent agent) {
+            super(agent);
+        }
+
+        void post(Timeout timeout) {
+            if (closed) {
+                timeout.cancel(); // Agent arrêté : l'échéance est abandonnée
+                return;
+            }
+            SimulationClock.enter(); // L'horloge virtuelle attend l'exécution
+            ready.add(timeout);
+            if (closed && ready.remove(timeout)) {
+                // Arrêt de l'agent pendant le dépôt
+                timeout.cancel();
+                SimulationClock.exit();
+                return;
+            }
+            restart();
+        }
+
+        /**
+         * Abandonne les échéances en attente d'un agent qui s'arrête
+         */
+        void close() {
+            closed = true;
+            Timeout timeout;
+            while ((timeout = ready.poll()) != null) {
+                timeout.cancel();
+                SimulationClock.exit();
+            }
+        }
+
+        @Override
+        public void action() {
+            Timeout timeout;
+            while ((timeout = ready.poll()) != null) {
+                try {
+                    timeout.fire();
+                } finally {
+                    SimulationClock.exit();
+                }
+            }
+            // Bloquer avant de revérifier : un post concurrent relance le comportement
+            block();
+            if (!ready.isEmpty()) {
+                restart();
+            }
+        }
+    }
+}